@@ -0,0 +1,264 @@
+-- Single-pass paging for the search functions.
+--
+-- Every search function now takes offset/limit and returns the total number
+-- of matches as total_count (count(*) OVER () is evaluated before OFFSET and
+-- LIMIT), so a page and its total come from one execution. Deep result sets
+-- can be walked with a keyset cursor instead of OFFSET: pass the
+-- (similarity_score, rank, code) of the last row seen as after_score,
+-- after_rank and after_code. The total still counts all matches.
+--
+-- Results are ordered by similarity_score DESC, rank DESC, code ASC, which is
+-- also the keyset order.
+
+-- The previous signatures are dropped rather than overloaded, so three- and
+-- four-argument calls cannot become ambiguous with the new defaults.
+DROP FUNCTION IF EXISTS reference_data.universal_search(TEXT, TEXT[], FLOAT, INT);
+DROP FUNCTION IF EXISTS reference_data.search_countries(TEXT, FLOAT, INT);
+
+-- Full-text search column and trigram indexes for ports, as V002 added for countries
+ALTER TABLE reference_data.ports_v
+ADD COLUMN IF NOT EXISTS search_vector tsvector;
+
+CREATE OR REPLACE FUNCTION reference_data.ports_search_vector_trigger()
+RETURNS trigger AS $$
+BEGIN
+    NEW.search_vector :=
+        setweight(to_tsvector('english', coalesce(NEW.port_name, '')), 'A') ||
+        setweight(to_tsvector('english', coalesce(NEW.port_code, '')), 'B') ||
+        setweight(to_tsvector('english', coalesce(NEW.un_locode, '')), 'C') ||
+        setweight(to_tsvector('english', coalesce(NEW.cbp_port_code, '')), 'C') ||
+        setweight(to_tsvector('english', coalesce(NEW.city, '')), 'C');
+    RETURN NEW;
+END
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS ports_search_vector_update ON reference_data.ports_v;
+CREATE TRIGGER ports_search_vector_update
+BEFORE INSERT OR UPDATE ON reference_data.ports_v
+FOR EACH ROW EXECUTE FUNCTION reference_data.ports_search_vector_trigger();
+
+CREATE INDEX IF NOT EXISTS idx_ports_search_vector
+ON reference_data.ports_v USING GIN(search_vector);
+
+CREATE INDEX IF NOT EXISTS idx_ports_name_trgm
+ON reference_data.ports_v USING GIN(port_name gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_ports_code_trgm
+ON reference_data.ports_v USING GIN(port_code gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_ports_locode_trgm
+ON reference_data.ports_v USING GIN(un_locode gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_ports_city_trgm
+ON reference_data.ports_v USING GIN(city gin_trgm_ops);
+
+UPDATE reference_data.ports_v
+SET search_vector =
+    setweight(to_tsvector('english', coalesce(port_name, '')), 'A') ||
+    setweight(to_tsvector('english', coalesce(port_code, '')), 'B') ||
+    setweight(to_tsvector('english', coalesce(un_locode, '')), 'C') ||
+    setweight(to_tsvector('english', coalesce(cbp_port_code, '')), 'C') ||
+    setweight(to_tsvector('english', coalesce(city, '')), 'C');
+
+-- Fuzzy search for countries, one row per country code
+CREATE OR REPLACE FUNCTION reference_data.search_countries(
+    search_term TEXT,
+    similarity_threshold FLOAT DEFAULT 0.3,
+    offset_results INT DEFAULT 0,
+    limit_results INT DEFAULT 20,
+    after_score FLOAT DEFAULT NULL,
+    after_rank FLOAT DEFAULT NULL,
+    after_code TEXT DEFAULT NULL
+)
+RETURNS TABLE (
+    id UUID,
+    country_code VARCHAR,
+    country_name VARCHAR,
+    iso2_code VARCHAR,
+    iso3_code VARCHAR,
+    numeric_code VARCHAR,
+    similarity_score FLOAT,
+    rank FLOAT,
+    total_count BIGINT
+) AS $$
+#variable_conflict use_column
+BEGIN
+    RETURN QUERY
+    WITH matches AS (
+        SELECT DISTINCT ON (c.country_code)
+            c.id,
+            c.country_code,
+            c.country_name,
+            c.iso2_code,
+            c.iso3_code,
+            c.numeric_code,
+            GREATEST(
+                similarity(c.country_name, search_term),
+                similarity(c.country_code, search_term),
+                coalesce(similarity(c.iso2_code, search_term), 0),
+                coalesce(similarity(c.iso3_code, search_term), 0)
+            )::FLOAT AS similarity_score,
+            ts_rank(c.search_vector, plainto_tsquery('english', search_term))::FLOAT AS rank
+        FROM reference_data.countries_v c
+        WHERE (c.valid_to IS NULL OR c.valid_to > CURRENT_DATE)
+          AND (
+              c.search_vector @@ plainto_tsquery('english', search_term) OR
+              similarity(c.country_name, search_term) > similarity_threshold OR
+              similarity(c.country_code, search_term) > similarity_threshold OR
+              similarity(c.iso2_code, search_term) > similarity_threshold OR
+              similarity(c.iso3_code, search_term) > similarity_threshold
+          )
+        ORDER BY c.country_code, similarity_score DESC, rank DESC
+    ),
+    counted AS (
+        SELECT m.*, count(*) OVER () AS total_count
+        FROM matches m
+    )
+    SELECT k.id, k.country_code, k.country_name, k.iso2_code, k.iso3_code, k.numeric_code,
+           k.similarity_score, k.rank, k.total_count
+    FROM counted k
+    WHERE after_score IS NULL
+       OR k.similarity_score < after_score
+       OR (k.similarity_score = after_score AND k.rank < after_rank)
+       OR (k.similarity_score = after_score AND k.rank = after_rank AND k.country_code > after_code)
+    ORDER BY k.similarity_score DESC, k.rank DESC, k.country_code
+    OFFSET offset_results
+    LIMIT limit_results;
+END;
+$$ LANGUAGE plpgsql STABLE;
+
+-- Fuzzy search for ports, one row per port code, optionally within one country
+CREATE OR REPLACE FUNCTION reference_data.search_ports(
+    search_term TEXT,
+    country_filter TEXT DEFAULT NULL,
+    similarity_threshold FLOAT DEFAULT 0.3,
+    offset_results INT DEFAULT 0,
+    limit_results INT DEFAULT 20,
+    after_score FLOAT DEFAULT NULL,
+    after_rank FLOAT DEFAULT NULL,
+    after_code TEXT DEFAULT NULL
+)
+RETURNS TABLE (
+    id UUID,
+    port_code VARCHAR,
+    port_name VARCHAR,
+    city VARCHAR,
+    country_code VARCHAR,
+    un_locode VARCHAR,
+    similarity_score FLOAT,
+    rank FLOAT,
+    total_count BIGINT
+) AS $$
+#variable_conflict use_column
+BEGIN
+    RETURN QUERY
+    WITH matches AS (
+        SELECT DISTINCT ON (p.port_code)
+            p.id,
+            p.port_code,
+            p.port_name,
+            p.city,
+            p.country_code,
+            p.un_locode,
+            GREATEST(
+                similarity(p.port_name, search_term),
+                similarity(p.port_code, search_term),
+                coalesce(similarity(p.un_locode, search_term), 0),
+                coalesce(similarity(p.city, search_term), 0)
+            )::FLOAT AS similarity_score,
+            ts_rank(p.search_vector, plainto_tsquery('english', search_term))::FLOAT AS rank
+        FROM reference_data.ports_v p
+        WHERE (p.valid_to IS NULL OR p.valid_to > CURRENT_DATE)
+          AND (country_filter IS NULL OR p.country_code = country_filter)
+          AND (
+              p.search_vector @@ plainto_tsquery('english', search_term) OR
+              similarity(p.port_name, search_term) > similarity_threshold OR
+              similarity(p.port_code, search_term) > similarity_threshold OR
+              similarity(p.un_locode, search_term) > similarity_threshold OR
+              similarity(p.city, search_term) > similarity_threshold
+          )
+        ORDER BY p.port_code, similarity_score DESC, rank DESC
+    ),
+    counted AS (
+        SELECT m.*, count(*) OVER () AS total_count
+        FROM matches m
+    )
+    SELECT k.id, k.port_code, k.port_name, k.city, k.country_code, k.un_locode,
+           k.similarity_score, k.rank, k.total_count
+    FROM counted k
+    WHERE after_score IS NULL
+       OR k.similarity_score < after_score
+       OR (k.similarity_score = after_score AND k.rank < after_rank)
+       OR (k.similarity_score = after_score AND k.rank = after_rank AND k.port_code > after_code)
+    ORDER BY k.similarity_score DESC, k.rank DESC, k.port_code
+    OFFSET offset_results
+    LIMIT limit_results;
+END;
+$$ LANGUAGE plpgsql STABLE;
+
+-- Universal search across countries and ports, paged over the merged ranking
+CREATE OR REPLACE FUNCTION reference_data.universal_search(
+    search_term TEXT,
+    data_types TEXT[] DEFAULT ARRAY['countries', 'ports'],
+    similarity_threshold FLOAT DEFAULT 0.3,
+    offset_results INT DEFAULT 0,
+    limit_results INT DEFAULT 20
+)
+RETURNS TABLE (
+    entity_type VARCHAR,
+    entity_id UUID,
+    code VARCHAR,
+    name VARCHAR,
+    additional_info JSONB,
+    similarity_score FLOAT,
+    rank FLOAT,
+    total_count BIGINT
+) AS $$
+#variable_conflict use_column
+BEGIN
+    RETURN QUERY
+    WITH matches AS (
+        SELECT
+            'country'::VARCHAR AS entity_type,
+            c.id AS entity_id,
+            c.country_code AS code,
+            c.country_name AS name,
+            jsonb_build_object(
+                'iso2_code', c.iso2_code,
+                'iso3_code', c.iso3_code,
+                'numeric_code', c.numeric_code
+            ) AS additional_info,
+            c.similarity_score,
+            c.rank
+        FROM reference_data.search_countries(search_term, similarity_threshold, 0, NULL) c
+        WHERE 'countries' = ANY(data_types)
+
+        UNION ALL
+
+        SELECT
+            'port'::VARCHAR,
+            p.id,
+            p.port_code,
+            p.port_name,
+            jsonb_build_object(
+                'city', p.city,
+                'country_code', p.country_code,
+                'un_locode', p.un_locode
+            ),
+            p.similarity_score,
+            p.rank
+        FROM reference_data.search_ports(search_term, NULL, similarity_threshold, 0, NULL) p
+        WHERE 'ports' = ANY(data_types)
+    )
+    SELECT m.entity_type, m.entity_id, m.code, m.name, m.additional_info,
+           m.similarity_score, m.rank, count(*) OVER () AS total_count
+    FROM matches m
+    ORDER BY m.similarity_score DESC, m.rank DESC, m.code
+    OFFSET offset_results
+    LIMIT limit_results;
+END;
+$$ LANGUAGE plpgsql STABLE;
+
+COMMENT ON FUNCTION reference_data.search_countries IS 'Paged fuzzy and full-text country search with total_count and keyset cursor';
+COMMENT ON FUNCTION reference_data.search_ports IS 'Paged fuzzy and full-text port search with total_count and keyset cursor';
+COMMENT ON FUNCTION reference_data.universal_search IS 'Paged search across reference data types with total_count';
@@ -0,0 +1,203 @@
+-- Dedicated airport search, mirroring the country and port search paths.
+--
+-- Airports get a weighted search_vector kept current by a trigger, trigram
+-- indexes on name, city, IATA and ICAO codes, and search_airports with the
+-- same single-pass paging as V003 (offset/limit, total_count, keyset cursor).
+-- An airport's code is its IATA code, or its ICAO code when it has no IATA code.
+
+-- Add full-text search column and indexes for airports
+ALTER TABLE reference_data.airports_v
+ADD COLUMN IF NOT EXISTS search_vector tsvector;
+
+CREATE OR REPLACE FUNCTION reference_data.airports_search_vector_trigger()
+RETURNS trigger AS $$
+BEGIN
+    NEW.search_vector :=
+        setweight(to_tsvector('english', coalesce(NEW.airport_name, '')), 'A') ||
+        setweight(to_tsvector('english', coalesce(NEW.iata_code, '')), 'B') ||
+        setweight(to_tsvector('english', coalesce(NEW.icao_code, '')), 'B') ||
+        setweight(to_tsvector('english', coalesce(NEW.city, '')), 'C');
+    RETURN NEW;
+END
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS airports_search_vector_update ON reference_data.airports_v;
+CREATE TRIGGER airports_search_vector_update
+BEFORE INSERT OR UPDATE ON reference_data.airports_v
+FOR EACH ROW EXECUTE FUNCTION reference_data.airports_search_vector_trigger();
+
+CREATE INDEX IF NOT EXISTS idx_airports_search_vector
+ON reference_data.airports_v USING GIN(search_vector);
+
+CREATE INDEX IF NOT EXISTS idx_airports_name_trgm
+ON reference_data.airports_v USING GIN(airport_name gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_airports_city_trgm
+ON reference_data.airports_v USING GIN(city gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_airports_iata_trgm
+ON reference_data.airports_v USING GIN(iata_code gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_airports_icao_trgm
+ON reference_data.airports_v USING GIN(icao_code gin_trgm_ops);
+
+UPDATE reference_data.airports_v
+SET search_vector =
+    setweight(to_tsvector('english', coalesce(airport_name, '')), 'A') ||
+    setweight(to_tsvector('english', coalesce(iata_code, '')), 'B') ||
+    setweight(to_tsvector('english', coalesce(icao_code, '')), 'B') ||
+    setweight(to_tsvector('english', coalesce(city, '')), 'C');
+
+-- Fuzzy search for airports, one row per airport code
+CREATE OR REPLACE FUNCTION reference_data.search_airports(
+    search_term TEXT,
+    similarity_threshold FLOAT DEFAULT 0.3,
+    offset_results INT DEFAULT 0,
+    limit_results INT DEFAULT 20,
+    after_score FLOAT DEFAULT NULL,
+    after_rank FLOAT DEFAULT NULL,
+    after_code TEXT DEFAULT NULL
+)
+RETURNS TABLE (
+    id UUID,
+    airport_code VARCHAR,
+    airport_name VARCHAR,
+    iata_code VARCHAR,
+    icao_code VARCHAR,
+    city VARCHAR,
+    country_code VARCHAR,
+    similarity_score FLOAT,
+    rank FLOAT,
+    total_count BIGINT
+) AS $$
+#variable_conflict use_column
+BEGIN
+    RETURN QUERY
+    WITH matches AS (
+        SELECT DISTINCT ON (coalesce(a.iata_code, a.icao_code))
+            a.id,
+            coalesce(a.iata_code, a.icao_code)::VARCHAR AS airport_code,
+            a.airport_name,
+            a.iata_code,
+            a.icao_code,
+            a.city,
+            a.country_code,
+            GREATEST(
+                similarity(a.airport_name, search_term),
+                coalesce(similarity(a.iata_code, search_term), 0),
+                coalesce(similarity(a.icao_code, search_term), 0),
+                coalesce(similarity(a.city, search_term), 0)
+            )::FLOAT AS similarity_score,
+            ts_rank(a.search_vector, plainto_tsquery('english', search_term))::FLOAT AS rank
+        FROM reference_data.airports_v a
+        WHERE (a.valid_to IS NULL OR a.valid_to > CURRENT_DATE)
+          AND coalesce(a.iata_code, a.icao_code) IS NOT NULL
+          AND (
+              a.search_vector @@ plainto_tsquery('english', search_term) OR
+              similarity(a.airport_name, search_term) > similarity_threshold OR
+              similarity(a.iata_code, search_term) > similarity_threshold OR
+              similarity(a.icao_code, search_term) > similarity_threshold OR
+              similarity(a.city, search_term) > similarity_threshold
+          )
+        ORDER BY coalesce(a.iata_code, a.icao_code), similarity_score DESC, rank DESC
+    ),
+    counted AS (
+        SELECT m.*, count(*) OVER () AS total_count
+        FROM matches m
+    )
+    SELECT k.id, k.airport_code, k.airport_name, k.iata_code, k.icao_code, k.city, k.country_code,
+           k.similarity_score, k.rank, k.total_count
+    FROM counted k
+    WHERE after_score IS NULL
+       OR k.similarity_score < after_score
+       OR (k.similarity_score = after_score AND k.rank < after_rank)
+       OR (k.similarity_score = after_score AND k.rank = after_rank AND k.airport_code > after_code)
+    ORDER BY k.similarity_score DESC, k.rank DESC, k.airport_code
+    OFFSET offset_results
+    LIMIT limit_results;
+END;
+$$ LANGUAGE plpgsql STABLE;
+
+-- Universal search now covers airports as well
+CREATE OR REPLACE FUNCTION reference_data.universal_search(
+    search_term TEXT,
+    data_types TEXT[] DEFAULT ARRAY['countries', 'ports', 'airports'],
+    similarity_threshold FLOAT DEFAULT 0.3,
+    offset_results INT DEFAULT 0,
+    limit_results INT DEFAULT 20
+)
+RETURNS TABLE (
+    entity_type VARCHAR,
+    entity_id UUID,
+    code VARCHAR,
+    name VARCHAR,
+    additional_info JSONB,
+    similarity_score FLOAT,
+    rank FLOAT,
+    total_count BIGINT
+) AS $$
+#variable_conflict use_column
+BEGIN
+    RETURN QUERY
+    WITH matches AS (
+        SELECT
+            'country'::VARCHAR AS entity_type,
+            c.id AS entity_id,
+            c.country_code AS code,
+            c.country_name AS name,
+            jsonb_build_object(
+                'iso2_code', c.iso2_code,
+                'iso3_code', c.iso3_code,
+                'numeric_code', c.numeric_code
+            ) AS additional_info,
+            c.similarity_score,
+            c.rank
+        FROM reference_data.search_countries(search_term, similarity_threshold, 0, NULL) c
+        WHERE 'countries' = ANY(data_types)
+
+        UNION ALL
+
+        SELECT
+            'port'::VARCHAR,
+            p.id,
+            p.port_code,
+            p.port_name,
+            jsonb_build_object(
+                'city', p.city,
+                'country_code', p.country_code,
+                'un_locode', p.un_locode
+            ),
+            p.similarity_score,
+            p.rank
+        FROM reference_data.search_ports(search_term, NULL, similarity_threshold, 0, NULL) p
+        WHERE 'ports' = ANY(data_types)
+
+        UNION ALL
+
+        SELECT
+            'airport'::VARCHAR,
+            a.id,
+            a.airport_code,
+            a.airport_name,
+            jsonb_build_object(
+                'iata_code', a.iata_code,
+                'icao_code', a.icao_code,
+                'city', a.city,
+                'country_code', a.country_code
+            ),
+            a.similarity_score,
+            a.rank
+        FROM reference_data.search_airports(search_term, similarity_threshold, 0, NULL) a
+        WHERE 'airports' = ANY(data_types)
+    )
+    SELECT m.entity_type, m.entity_id, m.code, m.name, m.additional_info,
+           m.similarity_score, m.rank, count(*) OVER () AS total_count
+    FROM matches m
+    ORDER BY m.similarity_score DESC, m.rank DESC, m.code
+    OFFSET offset_results
+    LIMIT limit_results;
+END;
+$$ LANGUAGE plpgsql STABLE;
+
+COMMENT ON FUNCTION reference_data.search_airports IS 'Paged fuzzy and full-text airport search with total_count and keyset cursor';
+COMMENT ON FUNCTION reference_data.universal_search IS 'Paged search across countries, ports and airports with total_count';
@@ -0,0 +1,575 @@
+-- Transliteration-, alias- and sound-aware name matching, precomputed on write.
+--
+-- Every searchable row gets three derived columns, kept current by a trigger:
+--   search_names       the row's names folded by fold_name (accents, case,
+--                      ligatures and apostrophes removed), plus GENC local
+--                      and full names for countries, plus the curated
+--                      synonyms of any of them (name_synonyms);
+--   search_names_text  search_names joined into one string, which a
+--                      gin_trgm_ops index can serve;
+--   phonetic_keys      the Double Metaphone primary and alternate keys of
+--                      every word in search_names.
+-- The search functions keep their signatures and add two ways to match: the
+-- folded query's similarity to any search name, and every query word of four
+-- or more characters sounding like a name word, which scores 0.5 when it is
+-- the only reason a row matches. Every match condition is an indexable
+-- operator (%, <%, @@, @>) so the OR becomes a bitmap OR of index scans; the
+-- thresholds are set per call with set_config, so the functions are VOLATILE.
+--
+-- name_synonyms is the only list of synonyms: the in-memory index
+-- (SearchIndex, NameSynonyms, Phonetic) reads it with every snapshot. Editing
+-- it recomputes search_names of the rows it affects (name_synonyms_changed),
+-- and the dataset_version bump that follows reloads the in-memory index.
+
+-- Lower-case, unaccent and drop apostrophes; non-alphanumerics become single
+-- spaces. The default unaccent rules also spell out ß, æ, œ, ø, đ, ł and þ.
+CREATE OR REPLACE FUNCTION reference_data.fold_name(value TEXT)
+RETURNS TEXT AS $$
+    SELECT trim(regexp_replace(
+        translate(lower(unaccent(coalesce(value, ''))), U&'\0027\2018\2019\02BC\0060\00B4', ''),
+        '[^[:alnum:]]+', ' ', 'g'))
+$$ LANGUAGE sql STABLE;
+
+CREATE TABLE IF NOT EXISTS reference_data.name_synonyms (
+    phrase TEXT NOT NULL,
+    synonym TEXT NOT NULL,
+    PRIMARY KEY (phrase, synonym)
+);
+
+-- One group of interchangeable names per row, stored folded in both directions
+WITH groups (id, names) AS (
+    VALUES
+        (1, ARRAY['Côte d''Ivoire', 'Ivory Coast']),
+        (2, ARRAY['Myanmar', 'Burma']),
+        (3, ARRAY['Netherlands', 'Holland']),
+        (4, ARRAY['Czechia', 'Czech Republic']),
+        (5, ARRAY['Eswatini', 'Swaziland']),
+        (6, ARRAY['Timor-Leste', 'East Timor']),
+        (7, ARRAY['Cabo Verde', 'Cape Verde']),
+        (8, ARRAY['Türkiye', 'Turkey']),
+        (9, ARRAY['North Macedonia', 'Macedonia']),
+        (10, ARRAY['United Kingdom', 'Great Britain', 'Britain']),
+        (11, ARRAY['Holy See', 'Vatican']),
+        (12, ARRAY['Democratic Republic of the Congo', 'Congo Kinshasa', 'Zaire']),
+        (13, ARRAY['Mumbai', 'Bombay']),
+        (14, ARRAY['Chennai', 'Madras']),
+        (15, ARRAY['Kolkata', 'Calcutta']),
+        (16, ARRAY['Beijing', 'Peking']),
+        (17, ARRAY['Ho Chi Minh City', 'Saigon']),
+        (18, ARRAY['Yangon', 'Rangoon']),
+        (19, ARRAY['Livorno', 'Leghorn']),
+        (20, ARRAY['Antwerpen', 'Antwerp']),
+        (21, ARRAY['Göteborg', 'Gothenburg']),
+        (22, ARRAY['Gdańsk', 'Danzig'])
+),
+folded AS (
+    SELECT g.id, reference_data.fold_name(n) AS name
+    FROM groups g, unnest(g.names) AS n
+)
+INSERT INTO reference_data.name_synonyms (phrase, synonym)
+SELECT a.name, b.name
+FROM folded a
+JOIN folded b ON b.id = a.id AND b.name <> a.name
+ON CONFLICT DO NOTHING;
+
+-- Folded names plus the synonyms of every phrase they contain as whole words
+CREATE OR REPLACE FUNCTION reference_data.search_names(VARIADIC names TEXT[])
+RETURNS TEXT[] AS $$
+    WITH folded AS (
+        SELECT reference_data.fold_name(n) AS name
+        FROM unnest(names) AS n
+    ),
+    expanded AS (
+        SELECT f.name FROM folded f
+        UNION
+        SELECT s.synonym
+        FROM folded f
+        JOIN reference_data.name_synonyms s
+          ON ' ' || f.name || ' ' LIKE '% ' || s.phrase || ' %'
+    )
+    SELECT coalesce(array_agg(DISTINCT e.name ORDER BY e.name), '{}')
+    FROM expanded e
+    WHERE e.name <> ''
+$$ LANGUAGE sql STABLE;
+
+-- Double Metaphone primary and alternate keys of every word
+CREATE OR REPLACE FUNCTION reference_data.phonetic_keys(names TEXT[])
+RETURNS TEXT[] AS $$
+    SELECT coalesce(array_agg(DISTINCT v.key ORDER BY v.key), '{}')
+    FROM unnest(names) AS n,
+         regexp_split_to_table(n, '\s+') AS w,
+         LATERAL (VALUES (dmetaphone(w)), (dmetaphone_alt(w))) AS v(key)
+    WHERE w <> '' AND v.key <> ''
+$$ LANGUAGE sql IMMUTABLE;
+
+-- Primary keys of the query words long enough to key reliably
+CREATE OR REPLACE FUNCTION reference_data.phonetic_query_keys(search_term TEXT)
+RETURNS TEXT[] AS $$
+    SELECT coalesce(array_agg(DISTINCT dmetaphone(w)), '{}')
+    FROM regexp_split_to_table(reference_data.fold_name(search_term), '\s+') AS w
+    WHERE length(w) >= 4 AND dmetaphone(w) <> ''
+$$ LANGUAGE sql STABLE;
+
+-- Best trigram similarity of an already-folded term to any of the names
+CREATE OR REPLACE FUNCTION reference_data.name_similarity(folded_term TEXT, names TEXT[])
+RETURNS FLOAT AS $$
+    SELECT coalesce(max(similarity(n, folded_term)), 0)::FLOAT
+    FROM unnest(names) AS n
+$$ LANGUAGE sql IMMUTABLE;
+
+-- Countries: name, GENC local short/long names and full name
+ALTER TABLE reference_data.countries_v
+ADD COLUMN IF NOT EXISTS search_names TEXT[],
+ADD COLUMN IF NOT EXISTS search_names_text TEXT,
+ADD COLUMN IF NOT EXISTS phonetic_keys TEXT[];
+
+CREATE OR REPLACE FUNCTION reference_data.countries_search_names_trigger()
+RETURNS trigger AS $$
+BEGIN
+    NEW.search_names := reference_data.search_names(
+        NEW.country_name,
+        NEW.metadata ->> 'localShortName',
+        NEW.metadata ->> 'localLongName',
+        NEW.metadata ->> 'fullName');
+    NEW.search_names_text := array_to_string(NEW.search_names, ' ');
+    NEW.phonetic_keys := reference_data.phonetic_keys(NEW.search_names);
+    RETURN NEW;
+END
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS countries_search_names_update ON reference_data.countries_v;
+CREATE TRIGGER countries_search_names_update
+BEFORE INSERT OR UPDATE ON reference_data.countries_v
+FOR EACH ROW EXECUTE FUNCTION reference_data.countries_search_names_trigger();
+
+-- Backfill with the table's triggers off. The derived columns are not part of
+-- any record, so historical rows must not be restamped with a change_version
+-- or the dataset versions bumped: delta clients would be sent every row and
+-- every cache and snapshot thrown away. Only rows whose value differs are
+-- written, so running this again touches nothing.
+ALTER TABLE reference_data.countries_v DISABLE TRIGGER USER;
+UPDATE reference_data.countries_v t
+SET search_names = n.names,
+    search_names_text = array_to_string(n.names, ' '),
+    phonetic_keys = reference_data.phonetic_keys(n.names)
+FROM (
+    SELECT id, reference_data.search_names(
+            country_name,
+            metadata ->> 'localShortName',
+            metadata ->> 'localLongName',
+            metadata ->> 'fullName') AS names
+    FROM reference_data.countries_v
+) n
+WHERE t.id = n.id
+  AND t.search_names IS DISTINCT FROM n.names;
+ALTER TABLE reference_data.countries_v ENABLE TRIGGER USER;
+
+CREATE INDEX IF NOT EXISTS idx_countries_phonetic_keys
+ON reference_data.countries_v USING GIN(phonetic_keys);
+
+CREATE INDEX IF NOT EXISTS idx_countries_search_names_trgm
+ON reference_data.countries_v USING GIN(search_names_text gin_trgm_ops);
+
+-- The ISO codes are match conditions too; without these the OR falls back to a scan
+CREATE INDEX IF NOT EXISTS idx_countries_iso2_trgm
+ON reference_data.countries_v USING GIN(iso2_code gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_countries_iso3_trgm
+ON reference_data.countries_v USING GIN(iso3_code gin_trgm_ops);
+
+-- Ports: name and city
+ALTER TABLE reference_data.ports_v
+ADD COLUMN IF NOT EXISTS search_names TEXT[],
+ADD COLUMN IF NOT EXISTS search_names_text TEXT,
+ADD COLUMN IF NOT EXISTS phonetic_keys TEXT[];
+
+CREATE OR REPLACE FUNCTION reference_data.ports_search_names_trigger()
+RETURNS trigger AS $$
+BEGIN
+    NEW.search_names := reference_data.search_names(NEW.port_name, NEW.city);
+    NEW.search_names_text := array_to_string(NEW.search_names, ' ');
+    NEW.phonetic_keys := reference_data.phonetic_keys(NEW.search_names);
+    RETURN NEW;
+END
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS ports_search_names_update ON reference_data.ports_v;
+CREATE TRIGGER ports_search_names_update
+BEFORE INSERT OR UPDATE ON reference_data.ports_v
+FOR EACH ROW EXECUTE FUNCTION reference_data.ports_search_names_trigger();
+
+ALTER TABLE reference_data.ports_v DISABLE TRIGGER USER;
+UPDATE reference_data.ports_v t
+SET search_names = n.names,
+    search_names_text = array_to_string(n.names, ' '),
+    phonetic_keys = reference_data.phonetic_keys(n.names)
+FROM (
+    SELECT id, reference_data.search_names(port_name, city) AS names
+    FROM reference_data.ports_v
+) n
+WHERE t.id = n.id
+  AND t.search_names IS DISTINCT FROM n.names;
+ALTER TABLE reference_data.ports_v ENABLE TRIGGER USER;
+
+CREATE INDEX IF NOT EXISTS idx_ports_phonetic_keys
+ON reference_data.ports_v USING GIN(phonetic_keys);
+
+CREATE INDEX IF NOT EXISTS idx_ports_search_names_trgm
+ON reference_data.ports_v USING GIN(search_names_text gin_trgm_ops);
+
+-- Airports: name and city
+ALTER TABLE reference_data.airports_v
+ADD COLUMN IF NOT EXISTS search_names TEXT[],
+ADD COLUMN IF NOT EXISTS search_names_text TEXT,
+ADD COLUMN IF NOT EXISTS phonetic_keys TEXT[];
+
+CREATE OR REPLACE FUNCTION reference_data.airports_search_names_trigger()
+RETURNS trigger AS $$
+BEGIN
+    NEW.search_names := reference_data.search_names(NEW.airport_name, NEW.city);
+    NEW.search_names_text := array_to_string(NEW.search_names, ' ');
+    NEW.phonetic_keys := reference_data.phonetic_keys(NEW.search_names);
+    RETURN NEW;
+END
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS airports_search_names_update ON reference_data.airports_v;
+CREATE TRIGGER airports_search_names_update
+BEFORE INSERT OR UPDATE ON reference_data.airports_v
+FOR EACH ROW EXECUTE FUNCTION reference_data.airports_search_names_trigger();
+
+ALTER TABLE reference_data.airports_v DISABLE TRIGGER USER;
+UPDATE reference_data.airports_v t
+SET search_names = n.names,
+    search_names_text = array_to_string(n.names, ' '),
+    phonetic_keys = reference_data.phonetic_keys(n.names)
+FROM (
+    SELECT id, reference_data.search_names(airport_name, city) AS names
+    FROM reference_data.airports_v
+) n
+WHERE t.id = n.id
+  AND t.search_names IS DISTINCT FROM n.names;
+ALTER TABLE reference_data.airports_v ENABLE TRIGGER USER;
+
+CREATE INDEX IF NOT EXISTS idx_airports_phonetic_keys
+ON reference_data.airports_v USING GIN(phonetic_keys);
+
+CREATE INDEX IF NOT EXISTS idx_airports_search_names_trgm
+ON reference_data.airports_v USING GIN(search_names_text gin_trgm_ops);
+
+-- Editing name_synonyms recomputes search_names wherever the result differs.
+-- The statement triggers on the tables then bump their dataset versions even
+-- when no row changed, which is what makes the API reload its synonyms.
+CREATE OR REPLACE FUNCTION reference_data.name_synonyms_changed()
+RETURNS trigger AS $$
+BEGIN
+    UPDATE reference_data.countries_v
+    SET search_names = reference_data.search_names(
+            country_name,
+            metadata ->> 'localShortName',
+            metadata ->> 'localLongName',
+            metadata ->> 'fullName')
+    WHERE search_names IS DISTINCT FROM reference_data.search_names(
+            country_name,
+            metadata ->> 'localShortName',
+            metadata ->> 'localLongName',
+            metadata ->> 'fullName');
+
+    UPDATE reference_data.ports_v
+    SET search_names = reference_data.search_names(port_name, city)
+    WHERE search_names IS DISTINCT FROM reference_data.search_names(port_name, city);
+
+    UPDATE reference_data.airports_v
+    SET search_names = reference_data.search_names(airport_name, city)
+    WHERE search_names IS DISTINCT FROM reference_data.search_names(airport_name, city);
+
+    RETURN NULL;
+END
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS name_synonyms_changed ON reference_data.name_synonyms;
+CREATE TRIGGER name_synonyms_changed
+AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON reference_data.name_synonyms
+FOR EACH STATEMENT EXECUTE FUNCTION reference_data.name_synonyms_changed();
+
+-- Fuzzy search for countries, one row per country code
+CREATE OR REPLACE FUNCTION reference_data.search_countries(
+    search_term TEXT,
+    similarity_threshold FLOAT DEFAULT 0.3,
+    offset_results INT DEFAULT 0,
+    limit_results INT DEFAULT 20,
+    after_score FLOAT DEFAULT NULL,
+    after_rank FLOAT DEFAULT NULL,
+    after_code TEXT DEFAULT NULL
+)
+RETURNS TABLE (
+    id UUID,
+    country_code VARCHAR,
+    country_name VARCHAR,
+    iso2_code VARCHAR,
+    iso3_code VARCHAR,
+    numeric_code VARCHAR,
+    similarity_score FLOAT,
+    rank FLOAT,
+    total_count BIGINT
+) AS $$
+#variable_conflict use_column
+DECLARE
+    folded_term TEXT := reference_data.fold_name(search_term);
+    term_keys TEXT[] := reference_data.phonetic_query_keys(search_term);
+BEGIN
+    -- Thresholds for the % and <% operators below, for the rest of the transaction
+    PERFORM set_config('pg_trgm.similarity_threshold', similarity_threshold::TEXT, true),
+            set_config('pg_trgm.word_similarity_threshold', similarity_threshold::TEXT, true);
+    RETURN QUERY
+    WITH matches AS (
+        SELECT DISTINCT ON (c.country_code)
+            c.id,
+            c.country_code,
+            c.country_name,
+            c.iso2_code,
+            c.iso3_code,
+            c.numeric_code,
+            CASE
+                -- Found by sound alone: every word sounds like itself, so rows that also match
+                -- on trigrams or words keep their own score
+                WHEN s.score <= similarity_threshold
+                     AND NOT c.search_vector @@ plainto_tsquery('english', search_term)
+                     AND cardinality(term_keys) > 0 AND c.phonetic_keys @> term_keys
+                THEN GREATEST(s.score, 0.5)
+                ELSE s.score
+            END::FLOAT AS similarity_score,
+            ts_rank(c.search_vector, plainto_tsquery('english', search_term))::FLOAT AS rank
+        FROM reference_data.countries_v c
+        CROSS JOIN LATERAL (
+            SELECT GREATEST(
+                similarity(c.country_name, search_term),
+                similarity(c.country_code, search_term),
+                coalesce(similarity(c.iso2_code, search_term), 0),
+                coalesce(similarity(c.iso3_code, search_term), 0),
+                reference_data.name_similarity(folded_term, c.search_names)
+            )::FLOAT AS score
+        ) s
+        WHERE (c.valid_to IS NULL OR c.valid_to > CURRENT_DATE)
+          AND (
+              c.search_vector @@ plainto_tsquery('english', search_term) OR
+              c.country_name % search_term OR
+              c.country_code % search_term OR
+              c.iso2_code % search_term OR
+              c.iso3_code % search_term OR
+              -- word_similarity to the joined names is at least the best name's similarity
+              (folded_term <% c.search_names_text
+                  AND reference_data.name_similarity(folded_term, c.search_names) > similarity_threshold) OR
+              (cardinality(term_keys) > 0 AND c.phonetic_keys @> term_keys)
+          )
+        ORDER BY c.country_code, similarity_score DESC, rank DESC
+    ),
+    counted AS (
+        SELECT m.*, count(*) OVER () AS total_count
+        FROM matches m
+    )
+    SELECT k.id, k.country_code, k.country_name, k.iso2_code, k.iso3_code, k.numeric_code,
+           k.similarity_score, k.rank, k.total_count
+    FROM counted k
+    WHERE after_score IS NULL
+       OR k.similarity_score < after_score
+       OR (k.similarity_score = after_score AND k.rank < after_rank)
+       OR (k.similarity_score = after_score AND k.rank = after_rank AND k.country_code > after_code)
+    ORDER BY k.similarity_score DESC, k.rank DESC, k.country_code
+    OFFSET offset_results
+    LIMIT limit_results;
+END;
+$$ LANGUAGE plpgsql VOLATILE;
+
+-- Fuzzy search for ports, one row per port code, optionally within one country
+CREATE OR REPLACE FUNCTION reference_data.search_ports(
+    search_term TEXT,
+    country_filter TEXT DEFAULT NULL,
+    similarity_threshold FLOAT DEFAULT 0.3,
+    offset_results INT DEFAULT 0,
+    limit_results INT DEFAULT 20,
+    after_score FLOAT DEFAULT NULL,
+    after_rank FLOAT DEFAULT NULL,
+    after_code TEXT DEFAULT NULL
+)
+RETURNS TABLE (
+    id UUID,
+    port_code VARCHAR,
+    port_name VARCHAR,
+    city VARCHAR,
+    country_code VARCHAR,
+    un_locode VARCHAR,
+    similarity_score FLOAT,
+    rank FLOAT,
+    total_count BIGINT
+) AS $$
+#variable_conflict use_column
+DECLARE
+    folded_term TEXT := reference_data.fold_name(search_term);
+    term_keys TEXT[] := reference_data.phonetic_query_keys(search_term);
+BEGIN
+    -- Thresholds for the % and <% operators below, for the rest of the transaction
+    PERFORM set_config('pg_trgm.similarity_threshold', similarity_threshold::TEXT, true),
+            set_config('pg_trgm.word_similarity_threshold', similarity_threshold::TEXT, true);
+    RETURN QUERY
+    WITH matches AS (
+        SELECT DISTINCT ON (p.port_code)
+            p.id,
+            p.port_code,
+            p.port_name,
+            p.city,
+            p.country_code,
+            p.un_locode,
+            CASE
+                -- Found by sound alone: every word sounds like itself, so rows that also match
+                -- on trigrams or words keep their own score
+                WHEN s.score <= similarity_threshold
+                     AND NOT p.search_vector @@ plainto_tsquery('english', search_term)
+                     AND cardinality(term_keys) > 0 AND p.phonetic_keys @> term_keys
+                THEN GREATEST(s.score, 0.5)
+                ELSE s.score
+            END::FLOAT AS similarity_score,
+            ts_rank(p.search_vector, plainto_tsquery('english', search_term))::FLOAT AS rank
+        FROM reference_data.ports_v p
+        CROSS JOIN LATERAL (
+            SELECT GREATEST(
+                similarity(p.port_name, search_term),
+                similarity(p.port_code, search_term),
+                coalesce(similarity(p.un_locode, search_term), 0),
+                coalesce(similarity(p.city, search_term), 0),
+                reference_data.name_similarity(folded_term, p.search_names)
+            )::FLOAT AS score
+        ) s
+        WHERE (p.valid_to IS NULL OR p.valid_to > CURRENT_DATE)
+          AND (country_filter IS NULL OR p.country_code = country_filter)
+          AND (
+              p.search_vector @@ plainto_tsquery('english', search_term) OR
+              p.port_name % search_term OR
+              p.port_code % search_term OR
+              p.un_locode % search_term OR
+              p.city % search_term OR
+              -- word_similarity to the joined names is at least the best name's similarity
+              (folded_term <% p.search_names_text
+                  AND reference_data.name_similarity(folded_term, p.search_names) > similarity_threshold) OR
+              (cardinality(term_keys) > 0 AND p.phonetic_keys @> term_keys)
+          )
+        ORDER BY p.port_code, similarity_score DESC, rank DESC
+    ),
+    counted AS (
+        SELECT m.*, count(*) OVER () AS total_count
+        FROM matches m
+    )
+    SELECT k.id, k.port_code, k.port_name, k.city, k.country_code, k.un_locode,
+           k.similarity_score, k.rank, k.total_count
+    FROM counted k
+    WHERE after_score IS NULL
+       OR k.similarity_score < after_score
+       OR (k.similarity_score = after_score AND k.rank < after_rank)
+       OR (k.similarity_score = after_score AND k.rank = after_rank AND k.port_code > after_code)
+    ORDER BY k.similarity_score DESC, k.rank DESC, k.port_code
+    OFFSET offset_results
+    LIMIT limit_results;
+END;
+$$ LANGUAGE plpgsql VOLATILE;
+
+-- Fuzzy search for airports, one row per airport code
+CREATE OR REPLACE FUNCTION reference_data.search_airports(
+    search_term TEXT,
+    similarity_threshold FLOAT DEFAULT 0.3,
+    offset_results INT DEFAULT 0,
+    limit_results INT DEFAULT 20,
+    after_score FLOAT DEFAULT NULL,
+    after_rank FLOAT DEFAULT NULL,
+    after_code TEXT DEFAULT NULL
+)
+RETURNS TABLE (
+    id UUID,
+    airport_code VARCHAR,
+    airport_name VARCHAR,
+    iata_code VARCHAR,
+    icao_code VARCHAR,
+    city VARCHAR,
+    country_code VARCHAR,
+    similarity_score FLOAT,
+    rank FLOAT,
+    total_count BIGINT
+) AS $$
+#variable_conflict use_column
+DECLARE
+    folded_term TEXT := reference_data.fold_name(search_term);
+    term_keys TEXT[] := reference_data.phonetic_query_keys(search_term);
+BEGIN
+    -- Thresholds for the % and <% operators below, for the rest of the transaction
+    PERFORM set_config('pg_trgm.similarity_threshold', similarity_threshold::TEXT, true),
+            set_config('pg_trgm.word_similarity_threshold', similarity_threshold::TEXT, true);
+    RETURN QUERY
+    WITH matches AS (
+        SELECT DISTINCT ON (coalesce(a.iata_code, a.icao_code))
+            a.id,
+            coalesce(a.iata_code, a.icao_code)::VARCHAR AS airport_code,
+            a.airport_name,
+            a.iata_code,
+            a.icao_code,
+            a.city,
+            a.country_code,
+            CASE
+                -- Found by sound alone: every word sounds like itself, so rows that also match
+                -- on trigrams or words keep their own score
+                WHEN s.score <= similarity_threshold
+                     AND NOT a.search_vector @@ plainto_tsquery('english', search_term)
+                     AND cardinality(term_keys) > 0 AND a.phonetic_keys @> term_keys
+                THEN GREATEST(s.score, 0.5)
+                ELSE s.score
+            END::FLOAT AS similarity_score,
+            ts_rank(a.search_vector, plainto_tsquery('english', search_term))::FLOAT AS rank
+        FROM reference_data.airports_v a
+        CROSS JOIN LATERAL (
+            SELECT GREATEST(
+                similarity(a.airport_name, search_term),
+                coalesce(similarity(a.iata_code, search_term), 0),
+                coalesce(similarity(a.icao_code, search_term), 0),
+                coalesce(similarity(a.city, search_term), 0),
+                reference_data.name_similarity(folded_term, a.search_names)
+            )::FLOAT AS score
+        ) s
+        WHERE (a.valid_to IS NULL OR a.valid_to > CURRENT_DATE)
+          AND coalesce(a.iata_code, a.icao_code) IS NOT NULL
+          AND (
+              a.search_vector @@ plainto_tsquery('english', search_term) OR
+              a.airport_name % search_term OR
+              a.iata_code % search_term OR
+              a.icao_code % search_term OR
+              a.city % search_term OR
+              -- word_similarity to the joined names is at least the best name's similarity
+              (folded_term <% a.search_names_text
+                  AND reference_data.name_similarity(folded_term, a.search_names) > similarity_threshold) OR
+              (cardinality(term_keys) > 0 AND a.phonetic_keys @> term_keys)
+          )
+        ORDER BY coalesce(a.iata_code, a.icao_code), similarity_score DESC, rank DESC
+    ),
+    counted AS (
+        SELECT m.*, count(*) OVER () AS total_count
+        FROM matches m
+    )
+    SELECT k.id, k.airport_code, k.airport_name, k.iata_code, k.icao_code, k.city, k.country_code,
+           k.similarity_score, k.rank, k.total_count
+    FROM counted k
+    WHERE after_score IS NULL
+       OR k.similarity_score < after_score
+       OR (k.similarity_score = after_score AND k.rank < after_rank)
+       OR (k.similarity_score = after_score AND k.rank = after_rank AND k.airport_code > after_code)
+    ORDER BY k.similarity_score DESC, k.rank DESC, k.airport_code
+    OFFSET offset_results
+    LIMIT limit_results;
+END;
+$$ LANGUAGE plpgsql VOLATILE;
+
+COMMENT ON FUNCTION reference_data.fold_name IS 'Accent-, case- and apostrophe-insensitive form of a name';
+COMMENT ON TABLE reference_data.name_synonyms IS 'Curated interchangeable names, folded, in both directions; the only synonym list, also read by the in-memory search';
+COMMENT ON FUNCTION reference_data.search_names IS 'Folded names plus their curated synonyms';
+COMMENT ON FUNCTION reference_data.phonetic_keys IS 'Double Metaphone keys of every word of the names';
+COMMENT ON COLUMN reference_data.countries_v.search_names_text IS 'search_names as one string, for the trigram index';
+COMMENT ON COLUMN reference_data.ports_v.search_names_text IS 'search_names as one string, for the trigram index';
+COMMENT ON COLUMN reference_data.airports_v.search_names_text IS 'search_names as one string, for the trigram index';
+COMMENT ON FUNCTION reference_data.name_synonyms_changed IS 'Recomputes search_names after name_synonyms is edited';
+COMMENT ON FUNCTION reference_data.phonetic_query_keys IS 'Double Metaphone primary keys of query words of four or more characters';
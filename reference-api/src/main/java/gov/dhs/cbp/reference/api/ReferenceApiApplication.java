@@ -4,6 +4,7 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication(scanBasePackages = {
     "gov.dhs.cbp.reference.api",
@@ -11,6 +12,7 @@ import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 })
 @EntityScan(basePackages = "gov.dhs.cbp.reference.core.entity")
 @EnableJpaRepositories(basePackages = "gov.dhs.cbp.reference.core.repository")
+@EnableScheduling
 public class ReferenceApiApplication {
     
     public static void main(String[] args) {
@@ -0,0 +1,29 @@
+package gov.dhs.cbp.reference.api.cache;
+
+import gov.dhs.cbp.reference.api.service.AirportService;
+import gov.dhs.cbp.reference.api.service.CountryService;
+import gov.dhs.cbp.reference.api.service.PortService;
+import gov.dhs.cbp.reference.core.cache.SingleFlightMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Publishes the single-flight counters of the service lookups through the
+ * shared {@link SingleFlightMetrics} binder, tagged by lookup.
+ */
+@Component
+public class LookupCoalescingMetrics {
+
+    public LookupCoalescingMetrics(MeterRegistry meterRegistry,
+                                   CountryService countryService,
+                                   PortService portService,
+                                   AirportService airportService) {
+        new SingleFlightMetrics(List.of(
+                countryService.getLookupFlight(),
+                portService.getLookupFlight(),
+                airportService.getLookupFlight(),
+                airportService.getCodeLookupFlight())).bindTo(meterRegistry);
+    }
+}
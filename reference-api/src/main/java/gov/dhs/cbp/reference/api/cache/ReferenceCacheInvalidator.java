@@ -0,0 +1,63 @@
+package gov.dhs.cbp.reference.api.cache;
+
+import gov.dhs.cbp.reference.core.cache.ReferenceCacheRegions;
+import gov.dhs.cbp.reference.core.change.ReferenceDataChangedEvent;
+import gov.dhs.cbp.reference.core.change.ReferenceDataset;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Evicts second-level cache regions when a dataset changes outside this
+ * persistence unit. Writes through this instance's own entity manager are
+ * already invalidated by Hibernate as part of the transaction.
+ */
+@Component
+public class ReferenceCacheInvalidator {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReferenceCacheInvalidator.class);
+
+    private static final Map<ReferenceDataset, String> QUERY_REGIONS = new EnumMap<>(ReferenceDataset.class);
+
+    static {
+        QUERY_REGIONS.put(ReferenceDataset.COUNTRIES, ReferenceCacheRegions.COUNTRY_QUERIES);
+        QUERY_REGIONS.put(ReferenceDataset.PORTS, ReferenceCacheRegions.PORT_QUERIES);
+        QUERY_REGIONS.put(ReferenceDataset.AIRPORTS, ReferenceCacheRegions.AIRPORT_QUERIES);
+        QUERY_REGIONS.put(ReferenceDataset.CODE_SYSTEMS, ReferenceCacheRegions.CODE_SYSTEM_QUERIES);
+    }
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    public ReferenceCacheInvalidator(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    // First, so the snapshot and other read models rebuilt for the same event do not read evicted entries
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onReferenceDataChanged(ReferenceDataChangedEvent event) {
+        if (event.getSource() == ReferenceDataChangedEvent.Source.WRITE_PATH) {
+            return;
+        }
+
+        Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        for (ReferenceDataset dataset : event.getDatasets()) {
+            String queryRegion = QUERY_REGIONS.get(dataset);
+            if (queryRegion == null) {
+                continue;
+            }
+            cache.evictEntityData(dataset.getEntityClass());
+            cache.evictQueryRegion(queryRegion);
+            logger.debug("Evicted second-level cache for {}", dataset);
+        }
+    }
+}
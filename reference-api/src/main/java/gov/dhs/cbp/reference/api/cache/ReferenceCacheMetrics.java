@@ -0,0 +1,76 @@
+package gov.dhs.cbp.reference.api.cache;
+
+import gov.dhs.cbp.reference.core.cache.ReferenceCacheRegions;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Exports a hit ratio gauge per second-level cache region. Raw hit and miss
+ * counters are published separately by Hibernate's own Micrometer binding.
+ */
+@Component
+public class ReferenceCacheMetrics implements MeterBinder {
+
+    private static final List<String> ENTITY_REGIONS = List.of(
+            ReferenceCacheRegions.COUNTRIES,
+            ReferenceCacheRegions.PORTS,
+            ReferenceCacheRegions.AIRPORTS,
+            ReferenceCacheRegions.CODE_SYSTEMS);
+
+    private static final List<String> QUERY_REGIONS = List.of(
+            ReferenceCacheRegions.COUNTRY_QUERIES,
+            ReferenceCacheRegions.PORT_QUERIES,
+            ReferenceCacheRegions.AIRPORT_QUERIES,
+            ReferenceCacheRegions.CODE_SYSTEM_QUERIES);
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    public ReferenceCacheMetrics(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        for (String region : ENTITY_REGIONS) {
+            register(registry, statistics, region, "entity", s -> s.getDomainDataRegionStatistics(region));
+        }
+        for (String region : QUERY_REGIONS) {
+            register(registry, statistics, region, "query", s -> s.getQueryRegionStatistics(region));
+        }
+    }
+
+    private void register(MeterRegistry registry, Statistics statistics, String region, String kind,
+                          Function<Statistics, CacheRegionStatistics> lookup) {
+        Gauge.builder("reference.cache.region.hit.ratio", statistics, s -> hitRatio(lookup, s))
+                .description("Second-level cache hit ratio since startup")
+                .tag("region", region)
+                .tag("kind", kind)
+                .register(registry);
+    }
+
+    private static double hitRatio(Function<Statistics, CacheRegionStatistics> lookup, Statistics statistics) {
+        CacheRegionStatistics regionStatistics;
+        try {
+            regionStatistics = lookup.apply(statistics);
+        } catch (IllegalArgumentException e) {
+            return Double.NaN;
+        }
+        if (regionStatistics == null) {
+            return Double.NaN;
+        }
+        long hits = regionStatistics.getHitCount();
+        long total = hits + regionStatistics.getMissCount();
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+}
@@ -0,0 +1,28 @@
+package gov.dhs.cbp.reference.api.config;
+
+import gov.dhs.cbp.reference.api.service.DatasetVersionService;
+import gov.dhs.cbp.reference.api.web.ConditionalGetInterceptor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Registers version-driven ETag / Last-Modified handling for reference GETs.
+ */
+@Configuration
+@ConditionalOnProperty(name = "reference.conditional-get.enabled", havingValue = "true", matchIfMissing = true)
+public class ConditionalRequestConfig {
+
+    @Bean
+    public WebMvcConfigurer conditionalGetConfigurer(DatasetVersionService datasetVersionService) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(new ConditionalGetInterceptor(datasetVersionService))
+                        .addPathPatterns("/v1/**");
+            }
+        };
+    }
+}
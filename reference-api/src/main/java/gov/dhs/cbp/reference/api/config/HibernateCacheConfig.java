@@ -0,0 +1,85 @@
+package gov.dhs.cbp.reference.api.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import gov.dhs.cbp.reference.core.cache.ReferenceCacheRegions;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Second-level cache regions for the read-mostly reference entities.
+ * Regions are created up front so every one is bounded; Hibernate only looks them up.
+ */
+@Configuration
+public class HibernateCacheConfig {
+
+    private static final String CAFFEINE_PROVIDER = "com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider";
+    private static final String UPDATE_TIMESTAMPS_REGION = "default-update-timestamps-region";
+    private static final String QUERY_RESULTS_REGION = "default-query-results-region";
+
+    @Value("${reference.cache.entity.max-entries:50000}")
+    private long entityMaxEntries;
+
+    @Value("${reference.cache.entity.ttl-seconds:3600}")
+    private long entityTtlSeconds;
+
+    @Value("${reference.cache.query.max-entries:20000}")
+    private long queryMaxEntries;
+
+    @Value("${reference.cache.query.ttl-seconds:600}")
+    private long queryTtlSeconds;
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager() {
+        CacheManager cacheManager = Caching.getCachingProvider(CAFFEINE_PROVIDER).getCacheManager();
+
+        for (String region : new String[] {
+                ReferenceCacheRegions.COUNTRIES,
+                ReferenceCacheRegions.PORTS,
+                ReferenceCacheRegions.AIRPORTS,
+                ReferenceCacheRegions.CODE_SYSTEMS}) {
+            createIfMissing(cacheManager, region, entityMaxEntries, entityTtlSeconds);
+        }
+
+        for (String region : new String[] {
+                ReferenceCacheRegions.COUNTRY_QUERIES,
+                ReferenceCacheRegions.PORT_QUERIES,
+                ReferenceCacheRegions.AIRPORT_QUERIES,
+                ReferenceCacheRegions.CODE_SYSTEM_QUERIES,
+                QUERY_RESULTS_REGION}) {
+            createIfMissing(cacheManager, region, queryMaxEntries, queryTtlSeconds);
+        }
+
+        // Update timestamps must never expire before the query results they guard
+        createIfMissing(cacheManager, UPDATE_TIMESTAMPS_REGION, 0, 0);
+
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> properties.put("hibernate.javax.cache.cache_manager", hibernateCacheManager);
+    }
+
+    private void createIfMissing(CacheManager cacheManager, String region, long maxEntries, long ttlSeconds) {
+        if (cacheManager.getCache(region) != null) {
+            return;
+        }
+
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setStatisticsEnabled(true);
+        if (maxEntries > 0) {
+            configuration.setMaximumSize(OptionalLong.of(maxEntries));
+        }
+        if (ttlSeconds > 0) {
+            configuration.setExpireAfterWrite(OptionalLong.of(TimeUnit.SECONDS.toNanos(ttlSeconds)));
+        }
+        cacheManager.createCache(region, configuration);
+    }
+}
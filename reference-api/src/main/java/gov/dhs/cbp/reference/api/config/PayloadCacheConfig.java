@@ -0,0 +1,34 @@
+package gov.dhs.cbp.reference.api.config;
+
+import gov.dhs.cbp.reference.api.service.DatasetVersionService;
+import gov.dhs.cbp.reference.api.web.PayloadCacheFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Registers the pre-serialized payload cache for reference GETs. It runs
+ * after the security filter chain, so cached bytes are only ever written to
+ * requests that were authorized.
+ */
+@Configuration
+@ConditionalOnProperty(name = "reference.payload-cache.enabled", havingValue = "true", matchIfMissing = true)
+public class PayloadCacheConfig {
+
+    @Bean
+    public FilterRegistrationBean<PayloadCacheFilter> payloadCacheFilter(
+            DatasetVersionService datasetVersionService,
+            MeterRegistry meterRegistry,
+            @Value("${reference.payload-cache.max-bytes:67108864}") long maxBytes,
+            @Value("${reference.payload-cache.max-entry-bytes:8388608}") int maxEntryBytes,
+            @Value("${reference.payload-cache.min-compress-bytes:1024}") int minCompressBytes) {
+        FilterRegistrationBean<PayloadCacheFilter> registration = new FilterRegistrationBean<>(
+                new PayloadCacheFilter(datasetVersionService, meterRegistry, maxBytes, maxEntryBytes, minCompressBytes));
+        registration.addUrlPatterns("/v1/*");
+        registration.setName("payloadCacheFilter");
+        return registration;
+    }
+}
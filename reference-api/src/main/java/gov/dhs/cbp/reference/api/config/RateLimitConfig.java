@@ -0,0 +1,62 @@
+package gov.dhs.cbp.reference.api.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import gov.dhs.cbp.reference.api.ratelimit.EndpointClass;
+import gov.dhs.cbp.reference.api.ratelimit.RateLimitClientsEndpoint;
+import gov.dhs.cbp.reference.api.ratelimit.RateLimitFilter;
+import gov.dhs.cbp.reference.api.runtime.ConnectionPoolMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Registers per-client rate limiting and load shedding for {@code /v1}. The
+ * filter sits directly behind the security chain so the JWT subject is known,
+ * and ahead of the payload cache so cached hits still count against the
+ * client's bucket. Each endpoint class has its own latency target: an export
+ * legitimately takes far longer than a lookup, and one shared target would
+ * pin the slow classes at their floor.
+ */
+@Configuration
+@ConditionalOnProperty(name = "reference.rate-limit.enabled", havingValue = "true", matchIfMissing = true)
+public class RateLimitConfig {
+
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilter(
+            ConnectionPoolMetrics connectionPoolMetrics,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${reference.rate-limit.client.capacity:200}") double capacity,
+            @Value("${reference.rate-limit.client.refill-per-second:50}") double refillPerSecond,
+            @Value("${reference.rate-limit.latency-target-ms.read:250}") long readTargetMs,
+            @Value("${reference.rate-limit.latency-target-ms.search:500}") long searchTargetMs,
+            @Value("${reference.rate-limit.latency-target-ms.write:1000}") long writeTargetMs,
+            @Value("${reference.rate-limit.latency-target-ms.export:10000}") long exportTargetMs,
+            @Value("${reference.rate-limit.pool-waiter-threshold:2}") int poolWaiterThreshold) {
+        Map<EndpointClass, Duration> latencyTargets = new EnumMap<>(EndpointClass.class);
+        latencyTargets.put(EndpointClass.READ, Duration.ofMillis(readTargetMs));
+        latencyTargets.put(EndpointClass.SEARCH, Duration.ofMillis(searchTargetMs));
+        latencyTargets.put(EndpointClass.WRITE, Duration.ofMillis(writeTargetMs));
+        latencyTargets.put(EndpointClass.EXPORT, Duration.ofMillis(exportTargetMs));
+        RateLimitFilter filter = new RateLimitFilter(capacity, refillPerSecond, latencyTargets,
+                poolWaiterThreshold, connectionPoolMetrics::threadsAwaitingConnection, objectMapper, meterRegistry);
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.addUrlPatterns("/v1/*");
+        registration.setName("rateLimitFilter");
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER + 1);
+        return registration;
+    }
+
+    @Bean
+    public RateLimitClientsEndpoint rateLimitClientsEndpoint(FilterRegistrationBean<RateLimitFilter> rateLimitFilter) {
+        return new RateLimitClientsEndpoint(rateLimitFilter.getFilter());
+    }
+}
@@ -1,15 +1,26 @@
 package gov.dhs.cbp.reference.api.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import gov.dhs.cbp.reference.api.dto.AirportCodeMatch;
 import gov.dhs.cbp.reference.api.dto.AirportDto;
+import gov.dhs.cbp.reference.api.dto.MultiGetResponse;
+import gov.dhs.cbp.reference.api.dto.NearbyResult;
 import gov.dhs.cbp.reference.api.dto.PagedResponse;
 import gov.dhs.cbp.reference.api.service.AirportService;
+import gov.dhs.cbp.reference.api.web.JsonArrayStreamer;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.Size;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.format.annotation.DateTimeFormat;
@@ -18,8 +29,10 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @RestController
@@ -29,9 +42,11 @@ import java.util.UUID;
 public class AirportsController {
     
     private final AirportService airportService;
+    private final ObjectMapper objectMapper;
     
-    public AirportsController(AirportService airportService) {
+    public AirportsController(AirportService airportService, ObjectMapper objectMapper) {
         this.airportService = airportService;
+        this.objectMapper = objectMapper;
     }
     
     @GetMapping("/{id}")
@@ -66,7 +81,7 @@ public class AirportsController {
     @GetMapping("/by-code")
     @Operation(summary = "Get airport by code",
                description = "Retrieve airport by IATA or ICAO code within a specific code system")
-    @ApiResponse(responseCode = "200", description = "Airport found",
+    @ApiResponse(responseCode = "200", description = "Airport found; X-Matched-Code-Type names the matched code column",
                  content = @Content(schema = @Schema(implementation = AirportDto.class)))
     @ApiResponse(responseCode = "404", description = "Airport not found")
     public ResponseEntity<AirportDto> getAirportByCode(
@@ -77,15 +92,51 @@ public class AirportsController {
             @Parameter(description = "Get data as of specific date (optional)")
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOf) {
 
-        if (asOf != null) {
-            return airportService.findByCodeAndSystemAsOf(code, codeSystem, asOf)
-                    .map(ResponseEntity::ok)
-                    .orElse(ResponseEntity.notFound().build());
-        } else {
-            return airportService.findByCodeAndSystem(code, codeSystem)
-                    .map(ResponseEntity::ok)
-                    .orElse(ResponseEntity.notFound().build());
-        }
+        Optional<AirportCodeMatch> match = asOf != null
+                ? airportService.resolveCodeAsOf(code, codeSystem, asOf)
+                : airportService.resolveCode(code, codeSystem);
+        return match
+                .map(m -> ResponseEntity.ok()
+                        .header("X-Matched-Code-Type", m.getCodeType().name())
+                        .body(m.getAirport()))
+                .orElse(ResponseEntity.notFound().build());
+    }
+    
+    @GetMapping("/by-codes")
+    @Operation(summary = "Get airports by several codes",
+               description = "Resolve up to 500 IATA or ICAO codes; IATA matches take precedence, in one request. " +
+                             "Results are keyed by the requested code; unmatched codes are listed in notFound.")
+    @ApiResponse(responseCode = "200", description = "Lookup completed",
+                 content = @Content(schema = @Schema(implementation = MultiGetResponse.class)))
+    @ApiResponse(responseCode = "400", description = "No codes, or more than 500 codes")
+    public ResponseEntity<MultiGetResponse<AirportDto>> getAirportsByCodes(
+            @Parameter(description = "Comma-separated codes", example = "LAX,KJFK")
+            @RequestParam List<String> codes,
+            @Parameter(description = "Code system identifier", example = "IATA")
+            @RequestParam String codeSystem,
+            @Parameter(description = "Get data as of specific date (optional)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOf) {
+        return ResponseEntity.ok(airportService.findByCodesAndSystem(codes, codeSystem, asOf));
+    }
+    
+    @GetMapping("/nearby")
+    @Operation(summary = "Find airports near a coordinate",
+               description = "Active airports ordered by great-circle distance from the coordinate. " +
+                             "Returns the k nearest, optionally limited to a radius.")
+    @ApiResponse(responseCode = "200", description = "Airports found, nearest first")
+    @ApiResponse(responseCode = "400", description = "Coordinate, radius or limit out of range")
+    public ResponseEntity<List<NearbyResult<AirportDto>>> getAirportsNearby(
+            @Parameter(description = "Latitude in decimal degrees", example = "40.6892")
+            @RequestParam @DecimalMin("-90") @DecimalMax("90") double lat,
+            @Parameter(description = "Longitude in decimal degrees", example = "-74.0445")
+            @RequestParam @DecimalMin("-180") @DecimalMax("180") double lon,
+            @Parameter(description = "Search radius in kilometres (optional)", example = "100")
+            @RequestParam(required = false) @Positive Double radiusKm,
+            @Parameter(description = "Maximum number of results", example = "10")
+            @RequestParam(defaultValue = "10") @Min(1) @Max(100) int limit,
+            @Parameter(description = "Code system identifier (optional)", example = "IATA")
+            @RequestParam(required = false) String codeSystem) {
+        return ResponseEntity.ok(airportService.findNearby(lat, lon, radiusKm, limit, codeSystem));
     }
     
     @GetMapping("/search")
@@ -145,9 +196,10 @@ public class AirportsController {
                description = "Retrieve all currently active airports")
     @ApiResponse(responseCode = "200", description = "Active airports",
                  content = @Content(schema = @Schema(implementation = List.class)))
-    public ResponseEntity<List<AirportDto>> getAllCurrentAirports() {
-        List<AirportDto> airports = airportService.findAllCurrent();
-        return ResponseEntity.ok(airports);
+    public void getAllCurrentAirports(HttpServletResponse response) throws IOException {
+        JsonArrayStreamer array = JsonArrayStreamer.start(response, objectMapper);
+        airportService.streamAllCurrent(array::write);
+        array.finish();
     }
     
     // Protected endpoints for data management (future implementation)
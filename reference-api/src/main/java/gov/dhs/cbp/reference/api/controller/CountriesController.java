@@ -1,13 +1,18 @@
 package gov.dhs.cbp.reference.api.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import gov.dhs.cbp.reference.api.dto.CountryDto;
+import gov.dhs.cbp.reference.api.dto.MultiGetResponse;
 import gov.dhs.cbp.reference.api.dto.PagedResponse;
 import gov.dhs.cbp.reference.api.service.CountryService;
+import gov.dhs.cbp.reference.api.web.JsonArrayStreamer;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.UUID;
@@ -17,9 +22,11 @@ import java.util.UUID;
 public class CountriesController {
     
     private final CountryService countryService;
+    private final ObjectMapper objectMapper;
     
-    public CountriesController(CountryService countryService) {
+    public CountriesController(CountryService countryService, ObjectMapper objectMapper) {
         this.countryService = countryService;
+        this.objectMapper = objectMapper;
     }
     
     @GetMapping("/{id}")
@@ -55,6 +62,14 @@ public class CountriesController {
         }
     }
     
+    @GetMapping("/by-codes")
+    public ResponseEntity<MultiGetResponse<CountryDto>> getCountriesByCodes(
+            @RequestParam List<String> codes,
+            @RequestParam String systemCode,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOf) {
+        return ResponseEntity.ok(countryService.findByCodesAndSystem(codes, systemCode, asOf));
+    }
+    
     @GetMapping("/search")
     public ResponseEntity<PagedResponse<CountryDto>> searchCountries(
             @RequestParam String name,
@@ -65,8 +80,9 @@ public class CountriesController {
     }
     
     @GetMapping("/current")
-    public ResponseEntity<List<CountryDto>> getAllCurrentCountries() {
-        List<CountryDto> countries = countryService.findAllCurrent();
-        return ResponseEntity.ok(countries);
+    public void getAllCurrentCountries(HttpServletResponse response) throws IOException {
+        JsonArrayStreamer array = JsonArrayStreamer.start(response, objectMapper);
+        countryService.streamAllCurrent(array::write);
+        array.finish();
     }
 }
\ No newline at end of file
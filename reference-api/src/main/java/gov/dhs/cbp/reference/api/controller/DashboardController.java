@@ -1,8 +1,8 @@
 package gov.dhs.cbp.reference.api.controller;
 
-import gov.dhs.cbp.reference.api.service.CountryService;
-import gov.dhs.cbp.reference.api.service.PortService;
-import gov.dhs.cbp.reference.api.service.AirportService;
+import gov.dhs.cbp.reference.api.statistics.DatasetStatistics;
+import gov.dhs.cbp.reference.api.statistics.DatasetStatisticsService;
+import gov.dhs.cbp.reference.core.change.ReferenceDataset;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -12,59 +12,23 @@ import java.util.*;
 @RequestMapping("/v1/dashboard")
 public class DashboardController {
 
-    private final CountryService countryService;
-    private final PortService portService;
-    private final AirportService airportService;
+    private final DatasetStatisticsService statisticsService;
 
-    public DashboardController(CountryService countryService,
-                             PortService portService,
-                             AirportService airportService) {
-        this.countryService = countryService;
-        this.portService = portService;
-        this.airportService = airportService;
+    public DashboardController(DatasetStatisticsService statisticsService) {
+        this.statisticsService = statisticsService;
     }
 
     @GetMapping("/stats")
     public ResponseEntity<Map<String, Object>> getDashboardStats() {
         Map<String, Object> stats = new HashMap<>();
 
-        // Get country stats
-        long totalCountries = countryService.getTotalCount();
-        long activeCountries = countryService.getActiveCount();
-        Map<String, Object> countriesStats = new HashMap<>();
-        countriesStats.put("total", totalCountries);
-        countriesStats.put("active", activeCountries);
-        countriesStats.put("trend", 0.0); // Calculate trend based on historical data
-        stats.put("countries", countriesStats);
-
-        // Get port stats
-        long totalPorts = portService.getTotalCount();
-        long activePorts = portService.getActiveCount();
-        Map<String, Object> portsStats = new HashMap<>();
-        portsStats.put("total", totalPorts);
-        portsStats.put("active", activePorts);
-        portsStats.put("trend", 0.0);
-        stats.put("ports", portsStats);
-
-        // Get airport stats
-        long totalAirports = airportService.getTotalCount();
-        long activeAirports = airportService.getActiveCount();
-        Map<String, Object> airportsStats = new HashMap<>();
-        airportsStats.put("total", totalAirports);
-        airportsStats.put("active", activeAirports);
-        airportsStats.put("trend", 0.0);
-        stats.put("airports", airportsStats);
-
-        // Get mappings stats (placeholder for now)
-        Map<String, Object> mappingsStats = new HashMap<>();
-        mappingsStats.put("total", 0);
-        mappingsStats.put("trend", 0.0);
-        stats.put("mappings", mappingsStats);
-
-        // Get pending change requests count
-        // For now, return 0 since we don't have change requests in database yet
-        long pendingRequests = 0;
-        stats.put("pendingRequests", pendingRequests);
+        // Dataset counters are maintained by DatasetStatisticsService; reading them costs no queries
+        stats.put("countries", datasetStats(ReferenceDataset.COUNTRIES));
+        stats.put("ports", datasetStats(ReferenceDataset.PORTS));
+        stats.put("airports", datasetStats(ReferenceDataset.AIRPORTS));
+        stats.put("mappings", datasetStats(ReferenceDataset.MAPPINGS));
+
+        stats.put("pendingRequests", statisticsService.getChangeRequestCount("PENDING"));
 
         // Add data quality metrics
         Map<String, Object> dataQuality = new HashMap<>();
@@ -111,4 +75,15 @@ public class DashboardController {
 
         return ResponseEntity.ok(stats);
     }
+
+    private Map<String, Object> datasetStats(ReferenceDataset dataset) {
+        DatasetStatistics statistics = statisticsService.get(dataset);
+        Map<String, Object> datasetStats = new HashMap<>();
+        datasetStats.put("total", statistics.getTotal());
+        datasetStats.put("active", statistics.getActive());
+        datasetStats.put("bySystem", statistics.getTotalBySystem());
+        datasetStats.put("lastUpdated", statistics.getLastUpdated());
+        datasetStats.put("trend", 0.0); // Calculate trend based on historical data
+        return datasetStats;
+    }
 }
\ No newline at end of file
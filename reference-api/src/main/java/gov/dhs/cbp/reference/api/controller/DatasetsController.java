@@ -1,6 +1,9 @@
 package gov.dhs.cbp.reference.api.controller;
 
 import gov.dhs.cbp.reference.api.service.CountryService;
+import gov.dhs.cbp.reference.api.statistics.DatasetStatistics;
+import gov.dhs.cbp.reference.api.statistics.DatasetStatisticsService;
+import gov.dhs.cbp.reference.core.change.ReferenceDataset;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -20,9 +23,11 @@ import java.util.concurrent.TimeUnit;
 public class DatasetsController {
     
     private final CountryService countryService;
+    private final DatasetStatisticsService statisticsService;
     
-    public DatasetsController(CountryService countryService) {
+    public DatasetsController(CountryService countryService, DatasetStatisticsService statisticsService) {
         this.countryService = countryService;
+        this.statisticsService = statisticsService;
     }
     
     @GetMapping("/stats")
@@ -32,19 +37,19 @@ public class DatasetsController {
     public ResponseEntity<Map<String, Object>> getDatasetStatistics() {
         Map<String, Object> stats = new HashMap<>();
         
-        // Country stats
-        Map<String, Object> countryStats = new HashMap<>();
-        countryStats.put("total", countryService.getTotalCount());
-        countryStats.put("active", countryService.getActiveCount());
-        stats.put("countries", countryStats);
+        for (ReferenceDataset dataset : new ReferenceDataset[] {
+                ReferenceDataset.COUNTRIES, ReferenceDataset.PORTS,
+                ReferenceDataset.AIRPORTS, ReferenceDataset.MAPPINGS}) {
+            DatasetStatistics statistics = statisticsService.get(dataset);
+            Map<String, Object> datasetStats = new HashMap<>();
+            datasetStats.put("total", statistics.getTotal());
+            datasetStats.put("active", statistics.getActive());
+            datasetStats.put("bySystem", statistics.getTotalBySystem());
+            datasetStats.put("lastUpdated", statistics.getLastUpdated());
+            stats.put(dataset.getId(), datasetStats);
+        }
         
-        // Mapping stats
-        Map<String, Object> mappingStats = new HashMap<>();
-        mappingStats.put("total", 0); // TODO: Implement when mapping service is ready
-        stats.put("mappings", mappingStats);
-        
-        // Change request stats - TODO: Implement when workflow integration is complete
-        stats.put("pendingRequests", 0);
+        stats.put("pendingRequests", statisticsService.getChangeRequestCount("PENDING"));
         
         return ResponseEntity.ok()
                 .cacheControl(CacheControl.maxAge(5, TimeUnit.MINUTES))
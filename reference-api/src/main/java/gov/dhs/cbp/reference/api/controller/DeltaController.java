@@ -0,0 +1,70 @@
+package gov.dhs.cbp.reference.api.controller;
+
+import gov.dhs.cbp.reference.api.dto.AirportDto;
+import gov.dhs.cbp.reference.api.dto.CountryDto;
+import gov.dhs.cbp.reference.api.dto.DeltaResponse;
+import gov.dhs.cbp.reference.api.dto.PortDto;
+import gov.dhs.cbp.reference.api.service.DeltaService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDateTime;
+
+@RestController
+@RequestMapping("/v1")
+@Tag(name = "Delta Sync", description = "Incremental changes for keeping local mirrors up to date")
+public class DeltaController {
+    
+    private final DeltaService deltaService;
+    
+    public DeltaController(DeltaService deltaService) {
+        this.deltaService = deltaService;
+    }
+    
+    @GetMapping("/countries/changes")
+    @Operation(summary = "Country changes since a version or timestamp",
+               description = "Returns countries created, updated and deleted since the given dataset version or timestamp")
+    @ApiResponse(responseCode = "200", description = "Delta computed")
+    @ApiResponse(responseCode = "410", description = "Version no longer known; resynchronise from a full snapshot")
+    public ResponseEntity<DeltaResponse<CountryDto>> getCountryChanges(
+            @Parameter(description = "Dataset version the client last applied") 
+            @RequestParam(required = false) Long sinceVersion,
+            @Parameter(description = "Timestamp the client last synchronised at (ISO-8601)") 
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since) {
+        return ResponseEntity.ok(deltaService.getCountryChanges(since, sinceVersion));
+    }
+    
+    @GetMapping("/ports/changes")
+    @Operation(summary = "Port changes since a version or timestamp",
+               description = "Returns ports created, updated and deleted since the given dataset version or timestamp")
+    @ApiResponse(responseCode = "200", description = "Delta computed")
+    @ApiResponse(responseCode = "410", description = "Version no longer known; resynchronise from a full snapshot")
+    public ResponseEntity<DeltaResponse<PortDto>> getPortChanges(
+            @Parameter(description = "Dataset version the client last applied") 
+            @RequestParam(required = false) Long sinceVersion,
+            @Parameter(description = "Timestamp the client last synchronised at (ISO-8601)") 
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since) {
+        return ResponseEntity.ok(deltaService.getPortChanges(since, sinceVersion));
+    }
+    
+    @GetMapping("/airports/changes")
+    @Operation(summary = "Airport changes since a version or timestamp",
+               description = "Returns airports created, updated and deleted since the given dataset version or timestamp")
+    @ApiResponse(responseCode = "200", description = "Delta computed")
+    @ApiResponse(responseCode = "410", description = "Version no longer known; resynchronise from a full snapshot")
+    public ResponseEntity<DeltaResponse<AirportDto>> getAirportChanges(
+            @Parameter(description = "Dataset version the client last applied") 
+            @RequestParam(required = false) Long sinceVersion,
+            @Parameter(description = "Timestamp the client last synchronised at (ISO-8601)") 
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since) {
+        return ResponseEntity.ok(deltaService.getAirportChanges(since, sinceVersion));
+    }
+}
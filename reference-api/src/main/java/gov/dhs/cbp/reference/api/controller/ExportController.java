@@ -0,0 +1,131 @@
+package gov.dhs.cbp.reference.api.controller;
+
+import gov.dhs.cbp.reference.api.exception.BusinessException;
+import gov.dhs.cbp.reference.api.exception.ResourceNotFoundException;
+import gov.dhs.cbp.reference.api.export.ExportDataset;
+import gov.dhs.cbp.reference.api.export.ExportFormat;
+import gov.dhs.cbp.reference.api.export.SnapshotExportService;
+import gov.dhs.cbp.reference.api.export.SnapshotExportService.ExportFile;
+import gov.dhs.cbp.reference.api.service.DatasetVersionService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/v1/exports")
+@Tag(name = "Exports", description = "Bulk dataset snapshots for offline consumers")
+public class ExportController {
+    
+    private final SnapshotExportService exportService;
+    private final DatasetVersionService datasetVersionService;
+    
+    public ExportController(SnapshotExportService exportService, DatasetVersionService datasetVersionService) {
+        this.exportService = exportService;
+        this.datasetVersionService = datasetVersionService;
+    }
+    
+    @GetMapping("/{dataset}")
+    @Operation(summary = "Download a dataset snapshot",
+               description = "Streams every record of the dataset valid on the given date as gzipped NDJSON, " +
+                             "gzipped CSV or an Arrow IPC stream. Today's files are cached per dataset version " +
+                             "and support byte-range requests for resumable downloads; a range is only served " +
+                             "when If-Range, if sent, still matches the ETag.")
+    @ApiResponse(responseCode = "200", description = "Snapshot file")
+    @ApiResponse(responseCode = "206", description = "Requested byte range of the snapshot file")
+    @ApiResponse(responseCode = "404", description = "Unknown dataset")
+    public ResponseEntity<Resource> export(
+            @Parameter(description = "Dataset: countries, ports or airports") 
+            @PathVariable String dataset,
+            @Parameter(description = "File format: ndjson, csv or arrow") 
+            @RequestParam(defaultValue = "ndjson") String format,
+            @Parameter(description = "Export records valid on this date (defaults to today)") 
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOf,
+            @RequestHeader(value = HttpHeaders.RANGE, required = false) String range,
+            @RequestHeader(value = HttpHeaders.IF_RANGE, required = false) String ifRange,
+            HttpServletResponse response) {
+        
+        ExportDataset exportDataset = ExportDataset.fromId(dataset)
+                .orElseThrow(() -> new ResourceNotFoundException("Export dataset", dataset));
+        ExportFormat exportFormat = ExportFormat.fromId(format)
+                .orElseThrow(() -> new BusinessException("Unsupported export format: " + format, HttpStatus.BAD_REQUEST));
+        
+        ExportFile file = exportService.export(exportDataset, exportFormat, asOf);
+        String fileName = file.fileName();
+        
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+        // Spring serves ranges of any Resource but InputStreamResource, whatever If-Range says
+        Resource body;
+        if (file.temporary()) {
+            builder.contentLength(size(file.path()));
+            body = new InputStreamResource(open(file.path(), StandardOpenOption.DELETE_ON_CLOSE));
+        } else if (range != null && ifRange != null && !rangeStillValid(ifRange, response, exportDataset, file)) {
+            builder.contentLength(size(file.path()));
+            body = new InputStreamResource(open(file.path()));
+        } else {
+            body = new FileSystemResource(file.path());
+        }
+        
+        return builder
+                .contentType(exportFormat.isGzipped()
+                        ? MediaType.parseMediaType("application/gzip")
+                        : MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(fileName).build().toString())
+                .header("X-Dataset-Version", String.valueOf(file.version()))
+                .body(body);
+    }
+    
+    /**
+     * Whether {@code ifRange} names the entity this response carries: the
+     * version ETag set by the conditional-GET interceptor, and a file of the
+     * version that tag stands for. HTTP-date validators are never taken, as
+     * a file can be regenerated within the same second.
+     */
+    private boolean rangeStillValid(String ifRange, HttpServletResponse response,
+                                    ExportDataset dataset, ExportFile file) {
+        return ifRange.equals(response.getHeader(HttpHeaders.ETAG))
+                && file.version() == datasetVersionService.getVersion(dataset.getDataset());
+    }
+    
+    private static InputStream open(Path path, OpenOption... options) {
+        try {
+            return Files.newInputStream(path, options);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open export " + path.getFileName(), e);
+        }
+    }
+    
+    private static long size(Path path) {
+        try {
+            return Files.size(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read export " + path.getFileName(), e);
+        }
+    }
+}
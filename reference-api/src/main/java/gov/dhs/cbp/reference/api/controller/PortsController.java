@@ -1,15 +1,25 @@
 package gov.dhs.cbp.reference.api.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import gov.dhs.cbp.reference.api.dto.PortDto;
+import gov.dhs.cbp.reference.api.dto.MultiGetResponse;
+import gov.dhs.cbp.reference.api.dto.NearbyResult;
 import gov.dhs.cbp.reference.api.dto.PagedResponse;
 import gov.dhs.cbp.reference.api.service.PortService;
+import gov.dhs.cbp.reference.api.web.JsonArrayStreamer;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.Size;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.format.annotation.DateTimeFormat;
@@ -18,6 +28,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.UUID;
@@ -29,9 +40,11 @@ import java.util.UUID;
 public class PortsController {
     
     private final PortService portService;
+    private final ObjectMapper objectMapper;
     
-    public PortsController(PortService portService) {
+    public PortsController(PortService portService, ObjectMapper objectMapper) {
         this.portService = portService;
+        this.objectMapper = objectMapper;
     }
     
     @GetMapping("/{id}")
@@ -88,6 +101,43 @@ public class PortsController {
         }
     }
     
+    @GetMapping("/by-codes")
+    @Operation(summary = "Get ports by several codes",
+               description = "Resolve up to 500 port codes, UN/LOCODEs or CBP port codes, matched in that order, in one request. " +
+                             "Results are keyed by the requested code; unmatched codes are listed in notFound.")
+    @ApiResponse(responseCode = "200", description = "Lookup completed",
+                 content = @Content(schema = @Schema(implementation = MultiGetResponse.class)))
+    @ApiResponse(responseCode = "400", description = "No codes, or more than 500 codes")
+    public ResponseEntity<MultiGetResponse<PortDto>> getPortsByCodes(
+            @Parameter(description = "Comma-separated codes", example = "USNYC,USLAX")
+            @RequestParam List<String> codes,
+            @Parameter(description = "Code system identifier", example = "UN-LOCODE")
+            @RequestParam String codeSystem,
+            @Parameter(description = "Get data as of specific date (optional)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOf) {
+        return ResponseEntity.ok(portService.findByCodesAndSystem(codes, codeSystem, asOf));
+    }
+    
+    @GetMapping("/nearby")
+    @Operation(summary = "Find ports near a coordinate",
+               description = "Active ports ordered by great-circle distance from the coordinate. " +
+                             "Returns the k nearest, optionally limited to a radius.")
+    @ApiResponse(responseCode = "200", description = "Ports found, nearest first")
+    @ApiResponse(responseCode = "400", description = "Coordinate, radius or limit out of range")
+    public ResponseEntity<List<NearbyResult<PortDto>>> getPortsNearby(
+            @Parameter(description = "Latitude in decimal degrees", example = "40.6892")
+            @RequestParam @DecimalMin("-90") @DecimalMax("90") double lat,
+            @Parameter(description = "Longitude in decimal degrees", example = "-74.0445")
+            @RequestParam @DecimalMin("-180") @DecimalMax("180") double lon,
+            @Parameter(description = "Search radius in kilometres (optional)", example = "100")
+            @RequestParam(required = false) @Positive Double radiusKm,
+            @Parameter(description = "Maximum number of results", example = "10")
+            @RequestParam(defaultValue = "10") @Min(1) @Max(100) int limit,
+            @Parameter(description = "Code system identifier (optional)", example = "UN-LOCODE")
+            @RequestParam(required = false) String codeSystem) {
+        return ResponseEntity.ok(portService.findNearby(lat, lon, radiusKm, limit, codeSystem));
+    }
+    
     @GetMapping("/search")
     @Operation(summary = "Search ports", 
                description = "Search ports by name, city, or country")
@@ -145,9 +195,10 @@ public class PortsController {
                description = "Retrieve all currently active ports")
     @ApiResponse(responseCode = "200", description = "Active ports",
                  content = @Content(schema = @Schema(implementation = List.class)))
-    public ResponseEntity<List<PortDto>> getAllCurrentPorts() {
-        List<PortDto> ports = portService.findAllCurrent();
-        return ResponseEntity.ok(ports);
+    public void getAllCurrentPorts(HttpServletResponse response) throws IOException {
+        JsonArrayStreamer array = JsonArrayStreamer.start(response, objectMapper);
+        portService.streamAllCurrent(array::write);
+        array.finish();
     }
     
     // Protected endpoints for data management (future implementation)
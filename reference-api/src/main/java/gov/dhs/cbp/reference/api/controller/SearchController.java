@@ -1,19 +1,27 @@
 package gov.dhs.cbp.reference.api.controller;
 
 import gov.dhs.cbp.reference.api.dto.search.AutocompleteResult;
+import gov.dhs.cbp.reference.api.dto.search.BatchSearchRequest;
+import gov.dhs.cbp.reference.api.dto.search.BatchSearchResponse;
+import gov.dhs.cbp.reference.api.dto.search.PartialSearchPage;
+import gov.dhs.cbp.reference.api.dto.search.SearchCursor;
 import gov.dhs.cbp.reference.api.dto.search.SearchResult;
+import gov.dhs.cbp.reference.api.dto.search.SearchScrollResponse;
+import gov.dhs.cbp.reference.api.service.BatchSearchService;
 import gov.dhs.cbp.reference.api.service.SearchService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.Arrays;
 import java.util.List;
 
 @RestController
@@ -21,15 +29,21 @@ import java.util.List;
 @Tag(name = "Search", description = "Full-text and fuzzy search endpoints")
 public class SearchController {
     
+    private static final List<String> SEARCH_TYPES = List.of("countries", "ports", "airports");
+    
     private final SearchService searchService;
+    private final BatchSearchService batchSearchService;
     
     @Autowired
-    public SearchController(SearchService searchService) {
+    public SearchController(SearchService searchService, BatchSearchService batchSearchService) {
         this.searchService = searchService;
+        this.batchSearchService = batchSearchService;
     }
     
     @GetMapping
     @Operation(summary = "Universal search across all reference data")
+    @ApiResponse(responseCode = "200", description = "Search results; X-Search-Partial names any data types "
+            + "left out for missing the search deadline")
     public ResponseEntity<Page<SearchResult>> universalSearch(
             @Parameter(description = "Search query", required = true)
             @RequestParam String q,
@@ -47,12 +61,25 @@ public class SearchController {
             @RequestParam(defaultValue = "20") int size) {
         
         if (types == null || types.isEmpty()) {
-            types = Arrays.asList("countries", "ports", "airports");
+            types = SEARCH_TYPES;
+        }
+        for (String type : types) {
+            if (!SEARCH_TYPES.contains(type)) {
+                throw new IllegalArgumentException("Unknown search type '" + type + "'; expected one of "
+                        + String.join(", ", SEARCH_TYPES));
+            }
         }
         
         Pageable pageable = PageRequest.of(page, size);
         Page<SearchResult> results = searchService.universalSearch(q, types, threshold, pageable);
         
+        if (results instanceof PartialSearchPage partial) {
+            // The dataset ETag promises the complete page; nobody may keep or revalidate this one
+            return ResponseEntity.ok()
+                    .header(PartialSearchPage.HEADER, String.join(",", partial.getMissingTypes()))
+                    .cacheControl(CacheControl.noStore())
+                    .body(results);
+        }
         return ResponseEntity.ok(results);
     }
     
@@ -77,6 +104,129 @@ public class SearchController {
         return ResponseEntity.ok(results);
     }
     
+    @GetMapping("/countries/scroll")
+    @Operation(summary = "Walk country search results with a keyset cursor")
+    public ResponseEntity<SearchScrollResponse> scrollCountries(
+            @Parameter(description = "Search query", required = true)
+            @RequestParam String q,
+            
+            @Parameter(description = "Similarity threshold for fuzzy matching (0.0-1.0)")
+            @RequestParam(required = false, defaultValue = "0.3") Float threshold,
+            
+            @Parameter(description = "Cursor from the previous response; omit for the first slice")
+            @RequestParam(required = false) String cursor,
+            
+            @Parameter(description = "Maximum number of results")
+            @RequestParam(defaultValue = "20") int limit) {
+        
+        SearchScrollResponse results = searchService.scrollCountries(q, threshold,
+                cursor != null ? SearchCursor.decode(cursor) : null, limit);
+        
+        return ResponseEntity.ok(results);
+    }
+    
+    @GetMapping("/ports")
+    @Operation(summary = "Search for ports with fuzzy matching")
+    public ResponseEntity<Page<SearchResult>> searchPorts(
+            @Parameter(description = "Search query", required = true)
+            @RequestParam String q,
+            
+            @Parameter(description = "Restrict to ports in this country")
+            @RequestParam(required = false) String countryCode,
+            
+            @Parameter(description = "Similarity threshold for fuzzy matching (0.0-1.0)")
+            @RequestParam(required = false, defaultValue = "0.3") Float threshold,
+            
+            @Parameter(description = "Page number")
+            @RequestParam(defaultValue = "0") int page,
+            
+            @Parameter(description = "Page size")
+            @RequestParam(defaultValue = "20") int size) {
+        
+        Pageable pageable = PageRequest.of(page, size);
+        Page<SearchResult> results = searchService.searchPorts(q, countryCode, threshold, pageable);
+        
+        return ResponseEntity.ok(results);
+    }
+    
+    @GetMapping("/ports/scroll")
+    @Operation(summary = "Walk port search results with a keyset cursor")
+    public ResponseEntity<SearchScrollResponse> scrollPorts(
+            @Parameter(description = "Search query", required = true)
+            @RequestParam String q,
+            
+            @Parameter(description = "Restrict to ports in this country")
+            @RequestParam(required = false) String countryCode,
+            
+            @Parameter(description = "Similarity threshold for fuzzy matching (0.0-1.0)")
+            @RequestParam(required = false, defaultValue = "0.3") Float threshold,
+            
+            @Parameter(description = "Cursor from the previous response; omit for the first slice")
+            @RequestParam(required = false) String cursor,
+            
+            @Parameter(description = "Maximum number of results")
+            @RequestParam(defaultValue = "20") int limit) {
+        
+        SearchScrollResponse results = searchService.scrollPorts(q, countryCode, threshold,
+                cursor != null ? SearchCursor.decode(cursor) : null, limit);
+        
+        return ResponseEntity.ok(results);
+    }
+    
+    @GetMapping("/airports")
+    @Operation(summary = "Search for airports by name, city, IATA or ICAO code")
+    public ResponseEntity<Page<SearchResult>> searchAirports(
+            @Parameter(description = "Search query", required = true)
+            @RequestParam String q,
+            
+            @Parameter(description = "Similarity threshold for fuzzy matching (0.0-1.0)")
+            @RequestParam(required = false, defaultValue = "0.3") Float threshold,
+            
+            @Parameter(description = "Page number")
+            @RequestParam(defaultValue = "0") int page,
+            
+            @Parameter(description = "Page size")
+            @RequestParam(defaultValue = "20") int size) {
+        
+        Pageable pageable = PageRequest.of(page, size);
+        Page<SearchResult> results = searchService.searchAirports(q, threshold, pageable);
+        
+        return ResponseEntity.ok(results);
+    }
+    
+    @GetMapping("/airports/scroll")
+    @Operation(summary = "Walk airport search results with a keyset cursor")
+    public ResponseEntity<SearchScrollResponse> scrollAirports(
+            @Parameter(description = "Search query", required = true)
+            @RequestParam String q,
+            
+            @Parameter(description = "Similarity threshold for fuzzy matching (0.0-1.0)")
+            @RequestParam(required = false, defaultValue = "0.3") Float threshold,
+            
+            @Parameter(description = "Cursor from the previous response; omit for the first slice")
+            @RequestParam(required = false) String cursor,
+            
+            @Parameter(description = "Maximum number of results")
+            @RequestParam(defaultValue = "20") int limit) {
+        
+        SearchScrollResponse results = searchService.scrollAirports(q, threshold,
+                cursor != null ? SearchCursor.decode(cursor) : null, limit);
+        
+        return ResponseEntity.ok(results);
+    }
+    
+    @PostMapping("/batch")
+    @Operation(summary = "Run many searches in one call",
+               description = "Each query has its own data type (all types when omitted), threshold and, for "
+                       + "ports, country. Identical queries run once. Returns the top candidates per query, "
+                       + "in request order.")
+    @ApiResponse(responseCode = "200", description = "One result per query; queries that timed out or failed "
+            + "are marked in their status")
+    @ApiResponse(responseCode = "400", description = "Empty or oversized batch, or an invalid query")
+    public ResponseEntity<BatchSearchResponse> batchSearch(@Valid @RequestBody BatchSearchRequest request) {
+        return ResponseEntity.ok(batchSearchService.search(request));
+    }
+    
     @GetMapping("/autocomplete")
     @Operation(summary = "Get autocomplete suggestions")
     public ResponseEntity<List<AutocompleteResult>> autocomplete(
@@ -91,6 +241,9 @@ public class SearchController {
         
         List<AutocompleteResult> results = searchService.autocomplete(prefix, type, limit);
         
-        return ResponseEntity.ok(results);
+        // Ordered by popularity, which changes without a dataset version, and every call feeds it
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                .body(results);
     }
 }
\ No newline at end of file
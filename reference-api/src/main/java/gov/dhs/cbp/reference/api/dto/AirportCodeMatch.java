@@ -0,0 +1,24 @@
+package gov.dhs.cbp.reference.api.dto;
+
+/**
+ * An airport resolved from a single code, together with the code column the
+ * code matched.
+ */
+public class AirportCodeMatch {
+    
+    private final AirportDto airport;
+    private final AirportCodeType codeType;
+    
+    public AirportCodeMatch(AirportDto airport, AirportCodeType codeType) {
+        this.airport = airport;
+        this.codeType = codeType;
+    }
+    
+    public AirportDto getAirport() {
+        return airport;
+    }
+    
+    public AirportCodeType getCodeType() {
+        return codeType;
+    }
+}
@@ -0,0 +1,46 @@
+package gov.dhs.cbp.reference.api.dto;
+
+import gov.dhs.cbp.reference.core.entity.Airport;
+
+import java.util.function.Function;
+
+/**
+ * Airport code columns a single code can resolve against, in precedence
+ * order: when one code matches several columns, the earlier constant wins.
+ * Further code families (e.g. FAA location identifiers) are added here once
+ * the schema stores them.
+ */
+public enum AirportCodeType {
+    
+    IATA(Airport::getIataCode, AirportDto::getIataCode),
+    ICAO(Airport::getIcaoCode, AirportDto::getIcaoCode);
+    
+    private final Function<Airport, String> entityCode;
+    private final Function<AirportDto, String> dtoCode;
+    
+    AirportCodeType(Function<Airport, String> entityCode, Function<AirportDto, String> dtoCode) {
+        this.entityCode = entityCode;
+        this.dtoCode = dtoCode;
+    }
+    
+    public String codeOf(Airport airport) {
+        return entityCode.apply(airport);
+    }
+    
+    public String codeOf(AirportDto airport) {
+        return dtoCode.apply(airport);
+    }
+    
+    /**
+     * Returns the highest-precedence type whose code on {@code airport} equals
+     * {@code code}, or {@code null} if none does.
+     */
+    public static AirportCodeType matching(Airport airport, String code) {
+        for (AirportCodeType type : values()) {
+            if (code.equals(type.codeOf(airport))) {
+                return type;
+            }
+        }
+        return null;
+    }
+}
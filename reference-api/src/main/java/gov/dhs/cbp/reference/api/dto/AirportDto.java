@@ -82,6 +82,32 @@ public class AirportDto {
     // Constructors
     public AirportDto() {}
     
+    /**
+     * Copy of {@code other}; every field is immutable, so a shallow copy is
+     * fully independent.
+     */
+    public AirportDto(AirportDto other) {
+        this.id = other.id;
+        this.iataCode = other.iataCode;
+        this.icaoCode = other.icaoCode;
+        this.airportName = other.airportName;
+        this.city = other.city;
+        this.stateProvince = other.stateProvince;
+        this.countryCode = other.countryCode;
+        this.latitude = other.latitude;
+        this.longitude = other.longitude;
+        this.elevation = other.elevation;
+        this.airportType = other.airportType;
+        this.timezone = other.timezone;
+        this.codeSystem = other.codeSystem;
+        this.isActive = other.isActive;
+        this.validFrom = other.validFrom;
+        this.validTo = other.validTo;
+        this.recordedAt = other.recordedAt;
+        this.recordedBy = other.recordedBy;
+        this.version = other.version;
+    }
+    
     // Getters and Setters
     public UUID getId() {
         return id;
@@ -1,7 +1,10 @@
 package gov.dhs.cbp.reference.api.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
 
 public class CountryDto {
@@ -12,6 +15,8 @@ public class CountryDto {
     private String iso2Code;
     private String iso3Code;
     private String numericCode;
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    private List<String> alternateNames;
     private String codeSystem;
     private Boolean isActive;
     private LocalDate validFrom;
@@ -20,6 +25,29 @@ public class CountryDto {
     private String recordedBy;
     private Long version;
     
+    public CountryDto() {
+    }
+    
+    /**
+     * Copy of {@code other} that shares no mutable state with it.
+     */
+    public CountryDto(CountryDto other) {
+        this.id = other.id;
+        this.countryCode = other.countryCode;
+        this.countryName = other.countryName;
+        this.iso2Code = other.iso2Code;
+        this.iso3Code = other.iso3Code;
+        this.numericCode = other.numericCode;
+        this.alternateNames = other.alternateNames != null ? List.copyOf(other.alternateNames) : null;
+        this.codeSystem = other.codeSystem;
+        this.isActive = other.isActive;
+        this.validFrom = other.validFrom;
+        this.validTo = other.validTo;
+        this.recordedAt = other.recordedAt;
+        this.recordedBy = other.recordedBy;
+        this.version = other.version;
+    }
+    
     public UUID getId() {
         return id;
     }
@@ -68,6 +96,18 @@ public class CountryDto {
         this.numericCode = numericCode;
     }
     
+    /**
+     * Other names of the country from its source data (GENC local short,
+     * local long and full names), when they differ from the country name.
+     */
+    public List<String> getAlternateNames() {
+        return alternateNames;
+    }
+    
+    public void setAlternateNames(List<String> alternateNames) {
+        this.alternateNames = alternateNames;
+    }
+    
     public String getCodeSystem() {
         return codeSystem;
     }
@@ -0,0 +1,162 @@
+package gov.dhs.cbp.reference.api.dto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Changes to one dataset between two watermarks. Clients apply
+ * {@code created}, {@code updated} and {@code deleted} to their local mirror
+ * and pass {@code toVersion} (or {@code until}) on the next call. When
+ * {@code hasMore} is set the response is one page of a larger delta and
+ * {@code toVersion} is where the next page starts.
+ */
+public class DeltaResponse<T> {
+    
+    private String dataset;
+    private Long fromVersion;
+    private Long toVersion;
+    private LocalDateTime since;
+    private LocalDateTime until;
+    private boolean hasMore;
+    private List<T> created;
+    private List<T> updated;
+    private List<DeletedRecord> deleted;
+    
+    public DeltaResponse() {}
+    
+    public DeltaResponse(String dataset, Long fromVersion, Long toVersion, LocalDateTime since, LocalDateTime until,
+                         boolean hasMore, List<T> created, List<T> updated, List<DeletedRecord> deleted) {
+        this.dataset = dataset;
+        this.fromVersion = fromVersion;
+        this.toVersion = toVersion;
+        this.since = since;
+        this.until = until;
+        this.hasMore = hasMore;
+        this.created = created;
+        this.updated = updated;
+        this.deleted = deleted;
+    }
+    
+    public String getDataset() {
+        return dataset;
+    }
+    
+    public void setDataset(String dataset) {
+        this.dataset = dataset;
+    }
+    
+    public Long getFromVersion() {
+        return fromVersion;
+    }
+    
+    public void setFromVersion(Long fromVersion) {
+        this.fromVersion = fromVersion;
+    }
+    
+    public Long getToVersion() {
+        return toVersion;
+    }
+    
+    public void setToVersion(Long toVersion) {
+        this.toVersion = toVersion;
+    }
+    
+    public LocalDateTime getSince() {
+        return since;
+    }
+    
+    public void setSince(LocalDateTime since) {
+        this.since = since;
+    }
+    
+    public LocalDateTime getUntil() {
+        return until;
+    }
+    
+    public void setUntil(LocalDateTime until) {
+        this.until = until;
+    }
+    
+    public boolean isHasMore() {
+        return hasMore;
+    }
+    
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+    
+    public List<T> getCreated() {
+        return created;
+    }
+    
+    public void setCreated(List<T> created) {
+        this.created = created;
+    }
+    
+    public List<T> getUpdated() {
+        return updated;
+    }
+    
+    public void setUpdated(List<T> updated) {
+        this.updated = updated;
+    }
+    
+    public List<DeletedRecord> getDeleted() {
+        return deleted;
+    }
+    
+    public void setDeleted(List<DeletedRecord> deleted) {
+        this.deleted = deleted;
+    }
+    
+    public static class DeletedRecord {
+        
+        private UUID id;
+        private String codeSystem;
+        private String code;
+        private LocalDate validTo;
+        
+        public DeletedRecord() {}
+        
+        public DeletedRecord(UUID id, String codeSystem, String code, LocalDate validTo) {
+            this.id = id;
+            this.codeSystem = codeSystem;
+            this.code = code;
+            this.validTo = validTo;
+        }
+        
+        public UUID getId() {
+            return id;
+        }
+        
+        public void setId(UUID id) {
+            this.id = id;
+        }
+        
+        public String getCodeSystem() {
+            return codeSystem;
+        }
+        
+        public void setCodeSystem(String codeSystem) {
+            this.codeSystem = codeSystem;
+        }
+        
+        public String getCode() {
+            return code;
+        }
+        
+        public void setCode(String code) {
+            this.code = code;
+        }
+        
+        public LocalDate getValidTo() {
+            return validTo;
+        }
+        
+        public void setValidTo(LocalDate validTo) {
+            this.validTo = validTo;
+        }
+    }
+}
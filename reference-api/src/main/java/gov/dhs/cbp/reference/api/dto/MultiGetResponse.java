@@ -0,0 +1,59 @@
+package gov.dhs.cbp.reference.api.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Result of a multi-key lookup. {@code results} is keyed by the code exactly as
+ * requested, in request order; codes with no match are listed in
+ * {@code notFound}.
+ */
+public class MultiGetResponse<T> {
+    
+    private String codeSystem;
+    private LocalDate asOf;
+    private Map<String, T> results;
+    private List<String> notFound;
+    
+    public MultiGetResponse() {}
+    
+    public MultiGetResponse(String codeSystem, LocalDate asOf, Map<String, T> results, List<String> notFound) {
+        this.codeSystem = codeSystem;
+        this.asOf = asOf;
+        this.results = results;
+        this.notFound = notFound;
+    }
+    
+    public String getCodeSystem() {
+        return codeSystem;
+    }
+    
+    public void setCodeSystem(String codeSystem) {
+        this.codeSystem = codeSystem;
+    }
+    
+    public LocalDate getAsOf() {
+        return asOf;
+    }
+    
+    public void setAsOf(LocalDate asOf) {
+        this.asOf = asOf;
+    }
+    
+    public Map<String, T> getResults() {
+        return results;
+    }
+    
+    public void setResults(Map<String, T> results) {
+        this.results = results;
+    }
+    
+    public List<String> getNotFound() {
+        return notFound;
+    }
+    
+    public void setNotFound(List<String> notFound) {
+        this.notFound = notFound;
+    }
+}
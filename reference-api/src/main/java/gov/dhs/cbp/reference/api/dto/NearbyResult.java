@@ -0,0 +1,38 @@
+package gov.dhs.cbp.reference.api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * One hit of a nearby query: the matching entry and its great-circle distance
+ * from the query coordinate.
+ */
+public class NearbyResult<T> {
+    
+    private T item;
+    
+    @Schema(description = "Great-circle distance from the query coordinate, in kilometres", example = "12.4")
+    private double distanceKm;
+    
+    public NearbyResult() {}
+    
+    public NearbyResult(T item, double distanceKm) {
+        this.item = item;
+        this.distanceKm = distanceKm;
+    }
+    
+    public T getItem() {
+        return item;
+    }
+    
+    public void setItem(T item) {
+        this.item = item;
+    }
+    
+    public double getDistanceKm() {
+        return distanceKm;
+    }
+    
+    public void setDistanceKm(double distanceKm) {
+        this.distanceKm = distanceKm;
+    }
+}
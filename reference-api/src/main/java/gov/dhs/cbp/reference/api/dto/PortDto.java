@@ -84,6 +84,32 @@ public class PortDto {
     // Constructors
     public PortDto() {}
     
+    /**
+     * Copy of {@code other}; every field is immutable, so a shallow copy is
+     * fully independent.
+     */
+    public PortDto(PortDto other) {
+        this.id = other.id;
+        this.portCode = other.portCode;
+        this.portName = other.portName;
+        this.city = other.city;
+        this.stateProvince = other.stateProvince;
+        this.countryCode = other.countryCode;
+        this.latitude = other.latitude;
+        this.longitude = other.longitude;
+        this.portType = other.portType;
+        this.unLocode = other.unLocode;
+        this.cbpPortCode = other.cbpPortCode;
+        this.timezone = other.timezone;
+        this.codeSystem = other.codeSystem;
+        this.isActive = other.isActive;
+        this.validFrom = other.validFrom;
+        this.validTo = other.validTo;
+        this.recordedAt = other.recordedAt;
+        this.recordedBy = other.recordedBy;
+        this.version = other.version;
+    }
+    
     // Getters and Setters
     public UUID getId() {
         return id;
@@ -54,6 +54,10 @@ public class ProblemDetail {
         return new ProblemDetail("Conflict", 409, detail);
     }
     
+    public static ProblemDetail tooManyRequests(String detail) {
+        return new ProblemDetail("Too Many Requests", 429, detail);
+    }
+    
     public static ProblemDetail internalServerError(String detail) {
         return new ProblemDetail("Internal Server Error", 500, detail);
     }
@@ -0,0 +1,38 @@
+package gov.dhs.cbp.reference.api.dto.search;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * Many searches in one call. Each query names its own data type (all types
+ * when absent), threshold and, for ports, country; {@code limit} caps the
+ * candidates returned per query.
+ */
+public record BatchSearchRequest(
+        @NotEmpty @Size(max = BatchSearchRequest.MAX_QUERIES) List<@Valid Query> queries,
+        @Min(1) @Max(BatchSearchRequest.MAX_LIMIT) Integer limit) {
+
+    public static final int MAX_QUERIES = 1000;
+    public static final int MAX_LIMIT = 50;
+
+    /**
+     * One search. {@code id} is echoed back so callers can match results to
+     * their own records.
+     */
+    public record Query(
+            @Size(max = 100) String id,
+            @NotBlank @Size(max = 200) String q,
+            @Pattern(regexp = "countries|ports|airports") String type,
+            @DecimalMin("0.0") @DecimalMax("1.0") Float threshold,
+            @Size(max = 3) String countryCode) {
+    }
+}
@@ -0,0 +1,26 @@
+package gov.dhs.cbp.reference.api.dto.search;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Results of a {@link BatchSearchRequest}, one per query in request order.
+ * {@code distinctQueries} is how many searches were actually run after
+ * identical queries were merged.
+ */
+public record BatchSearchResponse(int distinctQueries, List<Result> results) {
+
+    /**
+     * The best candidates for one query. {@code status} is {@code ok},
+     * {@code partial} (some data types missed the search deadline; see
+     * {@code missingTypes}), {@code timed_out} (the batch deadline passed
+     * before the query finished) or {@code failed} ({@code error} says only
+     * that; {@code traceId} finds the cause in the server log).
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record Result(String id, String q, String type, String status, List<SearchResult> candidates,
+                         Long totalElements, Set<String> missingTypes, String error, String traceId) {
+    }
+}
@@ -0,0 +1,32 @@
+package gov.dhs.cbp.reference.api.dto.search;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A page of a multi-type search that is missing the types which did not
+ * answer in time. Its content and total cover only the types that did.
+ * The missing types are reported in the {@code X-Search-Partial} header, not
+ * the body, and partial pages are never cached, by this service or by
+ * clients ({@code Cache-Control: no-store}).
+ */
+public class PartialSearchPage extends PageImpl<SearchResult> {
+
+    public static final String HEADER = "X-Search-Partial";
+
+    private final Set<String> missingTypes;
+
+    public PartialSearchPage(List<SearchResult> content, Pageable pageable, long total, Set<String> missingTypes) {
+        super(content, pageable, total);
+        this.missingTypes = Set.copyOf(missingTypes);
+    }
+
+    @JsonIgnore
+    public Set<String> getMissingTypes() {
+        return missingTypes;
+    }
+}
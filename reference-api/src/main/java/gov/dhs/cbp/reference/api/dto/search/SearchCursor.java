@@ -0,0 +1,49 @@
+package gov.dhs.cbp.reference.api.dto.search;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position after the last row of a search page, in the order the search
+ * functions sort by: similarity score descending, rank descending, code
+ * ascending. Scores are kept at full double precision so the next page
+ * resumes exactly where the last one stopped.
+ *
+ * <p>Clients treat the encoded form as opaque.</p>
+ */
+public record SearchCursor(double similarityScore, double rank, String code) {
+
+    public SearchCursor {
+        if (code == null) {
+            throw new IllegalArgumentException("Search cursor requires a code");
+        }
+    }
+
+    public String encode() {
+        String raw = Double.toString(similarityScore) + ':' + rank + ':' + code;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Parses a cursor produced by {@link #encode()}.
+     *
+     * @throws IllegalArgumentException if the value was not produced by {@link #encode()}
+     */
+    public static SearchCursor decode(String encoded) {
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(encoded), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid search cursor", e);
+        }
+        String[] parts = raw.split(":", 3);
+        if (parts.length != 3 || parts[2].isEmpty()) {
+            throw new IllegalArgumentException("Invalid search cursor");
+        }
+        try {
+            return new SearchCursor(Double.parseDouble(parts[0]), Double.parseDouble(parts[1]), parts[2]);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid search cursor", e);
+        }
+    }
+}
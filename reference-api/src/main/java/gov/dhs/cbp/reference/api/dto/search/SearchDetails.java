@@ -0,0 +1,28 @@
+package gov.dhs.cbp.reference.api.dto.search;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * The type-specific fields of a {@link SearchResult}, serialized as its
+ * {@code additionalInfo} object. Each entity type has a fixed set of fields
+ * read straight from the typed columns of its search function, so a result
+ * row costs one small record rather than a map.
+ */
+public sealed interface SearchDetails {
+
+    record Country(@JsonProperty("iso2_code") String iso2Code,
+                   @JsonProperty("iso3_code") String iso3Code,
+                   @JsonProperty("numeric_code") String numericCode) implements SearchDetails {
+    }
+
+    record Port(@JsonProperty("city") String city,
+                @JsonProperty("country_code") String countryCode,
+                @JsonProperty("un_locode") String unLocode) implements SearchDetails {
+    }
+
+    record Airport(@JsonProperty("iata_code") String iataCode,
+                   @JsonProperty("icao_code") String icaoCode,
+                   @JsonProperty("city") String city,
+                   @JsonProperty("country_code") String countryCode) implements SearchDetails {
+    }
+}
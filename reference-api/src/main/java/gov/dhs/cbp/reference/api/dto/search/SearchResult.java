@@ -1,7 +1,6 @@
 package gov.dhs.cbp.reference.api.dto.search;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
-import java.util.Map;
 import java.util.UUID;
 
 @JsonInclude(JsonInclude.Include.NON_NULL)
@@ -12,7 +11,7 @@ public class SearchResult {
     private String code;
     private String name;
     private String description;
-    private Map<String, Object> additionalInfo;
+    private SearchDetails additionalInfo;
     private Float similarityScore;
     private Float rank;
     private String highlightedText;
@@ -26,6 +25,21 @@ public class SearchResult {
         this.name = name;
     }
     
+    public SearchResult(String entityType, UUID entityId, String code, String name,
+                        SearchDetails additionalInfo, Float similarityScore, Float rank) {
+        this(entityType, entityId, code, name);
+        this.additionalInfo = additionalInfo;
+        this.similarityScore = similarityScore;
+        this.rank = rank;
+    }
+    
+    public SearchResult(SearchResult other) {
+        this(other.entityType, other.entityId, other.code, other.name,
+                other.additionalInfo, other.similarityScore, other.rank);
+        this.description = other.description;
+        this.highlightedText = other.highlightedText;
+    }
+    
     public String getEntityType() {
         return entityType;
     }
@@ -66,11 +80,11 @@ public class SearchResult {
         this.description = description;
     }
     
-    public Map<String, Object> getAdditionalInfo() {
+    public SearchDetails getAdditionalInfo() {
         return additionalInfo;
     }
     
-    public void setAdditionalInfo(Map<String, Object> additionalInfo) {
+    public void setAdditionalInfo(SearchDetails additionalInfo) {
         this.additionalInfo = additionalInfo;
     }
     
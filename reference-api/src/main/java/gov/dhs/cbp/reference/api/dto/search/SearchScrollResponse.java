@@ -0,0 +1,50 @@
+package gov.dhs.cbp.reference.api.dto.search;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * One slice of a keyset-paged search. Pass {@code nextCursor} back as
+ * {@code cursor} to get the following slice; it is absent on the last one.
+ * {@code totalElements} counts every match, not just those after the cursor.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SearchScrollResponse {
+
+    private List<SearchResult> content;
+    private long totalElements;
+    private String nextCursor;
+
+    public SearchScrollResponse() {}
+
+    public SearchScrollResponse(List<SearchResult> content, long totalElements, String nextCursor) {
+        this.content = content;
+        this.totalElements = totalElements;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<SearchResult> getContent() {
+        return content;
+    }
+
+    public void setContent(List<SearchResult> content) {
+        this.content = content;
+    }
+
+    public long getTotalElements() {
+        return totalElements;
+    }
+
+    public void setTotalElements(long totalElements) {
+        this.totalElements = totalElements;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
@@ -0,0 +1,125 @@
+package gov.dhs.cbp.reference.api.export;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.BitVector;
+import org.apache.arrow.vector.DateDayVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.TimeStampMilliVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.ArrowStreamWriter;
+import org.apache.arrow.vector.types.DateUnit;
+import org.apache.arrow.vector.types.FloatingPointPrecision;
+import org.apache.arrow.vector.types.TimeUnit;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.FieldType;
+import org.apache.arrow.vector.types.pojo.Schema;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * Arrow IPC stream with one record batch per {@value #BATCH_SIZE} rows.
+ * Coordinates are written as 64-bit floats, timestamps as UTC milliseconds.
+ */
+class ArrowExportWriter implements ExportWriter {
+
+    static final int BATCH_SIZE = 4096;
+
+    private final BufferAllocator allocator;
+    private final VectorSchemaRoot root;
+    private final ArrowStreamWriter writer;
+    private int rowsInBatch;
+
+    ArrowExportWriter(List<ExportColumn> columns, OutputStream out) throws IOException {
+        this.allocator = new RootAllocator();
+        this.root = VectorSchemaRoot.create(schema(columns), allocator);
+        this.writer = new ArrowStreamWriter(root, null, out);
+        this.writer.start();
+        root.allocateNew();
+    }
+
+    @Override
+    public void writeRow(Object[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            set(root.getVector(i), rowsInBatch, values[i]);
+        }
+        if (++rowsInBatch == BATCH_SIZE) {
+            flushBatch();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (rowsInBatch > 0) {
+                flushBatch();
+            }
+            writer.end();
+        } finally {
+            writer.close();
+            root.close();
+            allocator.close();
+        }
+    }
+
+    private void flushBatch() throws IOException {
+        root.setRowCount(rowsInBatch);
+        writer.writeBatch();
+        root.allocateNew();
+        rowsInBatch = 0;
+    }
+
+    private static void set(FieldVector vector, int index, Object value) {
+        if (value == null) {
+            vector.setNull(index);
+            return;
+        }
+        if (vector instanceof VarCharVector v) {
+            v.setSafe(index, value.toString().getBytes(StandardCharsets.UTF_8));
+        } else if (vector instanceof Float8Vector v) {
+            v.setSafe(index, ((BigDecimal) value).doubleValue());
+        } else if (vector instanceof IntVector v) {
+            v.setSafe(index, (Integer) value);
+        } else if (vector instanceof BigIntVector v) {
+            v.setSafe(index, (Long) value);
+        } else if (vector instanceof BitVector v) {
+            v.setSafe(index, (Boolean) value ? 1 : 0);
+        } else if (vector instanceof DateDayVector v) {
+            v.setSafe(index, (int) ((LocalDate) value).toEpochDay());
+        } else if (vector instanceof TimeStampMilliVector v) {
+            v.setSafe(index, ((LocalDateTime) value).toInstant(ZoneOffset.UTC).toEpochMilli());
+        } else {
+            throw new IllegalStateException("Unsupported vector " + vector.getClass().getSimpleName());
+        }
+    }
+
+    private static Schema schema(List<ExportColumn> columns) {
+        return new Schema(columns.stream()
+                .map(c -> new Field(c.getName(), FieldType.nullable(arrowType(c.getType())), null))
+                .toList());
+    }
+
+    private static ArrowType arrowType(ExportColumn.Type type) {
+        return switch (type) {
+            case STRING -> ArrowType.Utf8.INSTANCE;
+            case DECIMAL -> new ArrowType.FloatingPoint(FloatingPointPrecision.DOUBLE);
+            case INTEGER -> new ArrowType.Int(32, true);
+            case BIGINT -> new ArrowType.Int(64, true);
+            case BOOLEAN -> ArrowType.Bool.INSTANCE;
+            case DATE -> new ArrowType.Date(DateUnit.DAY);
+            case TIMESTAMP -> new ArrowType.Timestamp(TimeUnit.MILLISECOND, null);
+        };
+    }
+}
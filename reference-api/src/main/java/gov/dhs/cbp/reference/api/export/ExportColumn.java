@@ -0,0 +1,79 @@
+package gov.dhs.cbp.reference.api.export;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * A typed column of an export, read positionally from the export query.
+ */
+public final class ExportColumn {
+
+    public enum Type {
+        STRING,
+        DECIMAL,
+        INTEGER,
+        BIGINT,
+        BOOLEAN,
+        DATE,
+        TIMESTAMP
+    }
+
+    private final String name;
+    private final Type type;
+
+    private ExportColumn(String name, Type type) {
+        this.name = name;
+        this.type = type;
+    }
+
+    public static ExportColumn string(String name) {
+        return new ExportColumn(name, Type.STRING);
+    }
+
+    public static ExportColumn decimal(String name) {
+        return new ExportColumn(name, Type.DECIMAL);
+    }
+
+    public static ExportColumn integer(String name) {
+        return new ExportColumn(name, Type.INTEGER);
+    }
+
+    public static ExportColumn bigint(String name) {
+        return new ExportColumn(name, Type.BIGINT);
+    }
+
+    public static ExportColumn bool(String name) {
+        return new ExportColumn(name, Type.BOOLEAN);
+    }
+
+    public static ExportColumn date(String name) {
+        return new ExportColumn(name, Type.DATE);
+    }
+
+    public static ExportColumn timestamp(String name) {
+        return new ExportColumn(name, Type.TIMESTAMP);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    Object read(ResultSet rs, int index) throws SQLException {
+        Object value = switch (type) {
+            case STRING -> rs.getString(index);
+            case DECIMAL -> rs.getBigDecimal(index);
+            case INTEGER -> rs.getInt(index);
+            case BIGINT -> rs.getLong(index);
+            case BOOLEAN -> rs.getBoolean(index);
+            case DATE -> rs.getObject(index, LocalDate.class);
+            case TIMESTAMP -> rs.getObject(index, LocalDateTime.class);
+        };
+        return rs.wasNull() ? null : value;
+    }
+}
@@ -0,0 +1,89 @@
+package gov.dhs.cbp.reference.api.export;
+
+import gov.dhs.cbp.reference.core.change.ReferenceDataset;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static gov.dhs.cbp.reference.api.export.ExportColumn.bigint;
+import static gov.dhs.cbp.reference.api.export.ExportColumn.bool;
+import static gov.dhs.cbp.reference.api.export.ExportColumn.date;
+import static gov.dhs.cbp.reference.api.export.ExportColumn.decimal;
+import static gov.dhs.cbp.reference.api.export.ExportColumn.integer;
+import static gov.dhs.cbp.reference.api.export.ExportColumn.string;
+import static gov.dhs.cbp.reference.api.export.ExportColumn.timestamp;
+
+/**
+ * Exportable datasets and the query that streams their rows valid on a given
+ * date. Both query parameters are the as-of date. Column order in
+ * {@link #getColumns()} matches the select list.
+ */
+public enum ExportDataset {
+
+    COUNTRIES(ReferenceDataset.COUNTRIES,
+            "SELECT c.id, cs.code, c.country_code, c.country_name, c.iso2_code, c.iso3_code, c.numeric_code, " +
+            "c.is_active, c.valid_from, c.valid_to, c.recorded_at, c.version " +
+            "FROM reference_data.countries_v c JOIN reference_data.code_system cs ON cs.id = c.code_system_id " +
+            "WHERE c.valid_from <= ? AND (c.valid_to IS NULL OR c.valid_to > ?) " +
+            "ORDER BY cs.code, c.country_code, c.version",
+            List.of(string("id"), string("codeSystem"), string("countryCode"), string("countryName"),
+                    string("iso2Code"), string("iso3Code"), string("numericCode"), bool("isActive"),
+                    date("validFrom"), date("validTo"), timestamp("recordedAt"), bigint("version"))),
+
+    PORTS(ReferenceDataset.PORTS,
+            "SELECT p.id, cs.code, p.port_code, p.port_name, p.city, p.state_province, p.country_code, " +
+            "p.latitude, p.longitude, p.port_type, p.un_locode, p.cbp_port_code, p.timezone, " +
+            "p.is_active, p.valid_from, p.valid_to, p.recorded_at, p.version " +
+            "FROM reference_data.ports_v p JOIN reference_data.code_system cs ON cs.id = p.code_system_id " +
+            "WHERE p.valid_from <= ? AND (p.valid_to IS NULL OR p.valid_to > ?) " +
+            "ORDER BY cs.code, p.port_code, p.version",
+            List.of(string("id"), string("codeSystem"), string("portCode"), string("portName"), string("city"),
+                    string("stateProvince"), string("countryCode"), decimal("latitude"), decimal("longitude"),
+                    string("portType"), string("unLocode"), string("cbpPortCode"), string("timezone"),
+                    bool("isActive"), date("validFrom"), date("validTo"), timestamp("recordedAt"),
+                    bigint("version"))),
+
+    AIRPORTS(ReferenceDataset.AIRPORTS,
+            "SELECT a.id, cs.code, a.iata_code, a.icao_code, a.airport_name, a.city, a.state_province, " +
+            "a.country_code, a.latitude, a.longitude, a.elevation, a.airport_type, a.timezone, " +
+            "a.is_active, a.valid_from, a.valid_to, a.recorded_at, a.version " +
+            "FROM reference_data.airports_v a JOIN reference_data.code_system cs ON cs.id = a.code_system_id " +
+            "WHERE a.valid_from <= ? AND (a.valid_to IS NULL OR a.valid_to > ?) " +
+            "ORDER BY cs.code, a.iata_code, a.icao_code, a.version",
+            List.of(string("id"), string("codeSystem"), string("iataCode"), string("icaoCode"),
+                    string("airportName"), string("city"), string("stateProvince"), string("countryCode"),
+                    decimal("latitude"), decimal("longitude"), integer("elevation"), string("airportType"),
+                    string("timezone"), bool("isActive"), date("validFrom"), date("validTo"),
+                    timestamp("recordedAt"), bigint("version")));
+
+    private final ReferenceDataset dataset;
+    private final String sql;
+    private final List<ExportColumn> columns;
+
+    ExportDataset(ReferenceDataset dataset, String sql, List<ExportColumn> columns) {
+        this.dataset = dataset;
+        this.sql = sql;
+        this.columns = columns;
+    }
+
+    public ReferenceDataset getDataset() {
+        return dataset;
+    }
+
+    public String getId() {
+        return dataset.getId();
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    public List<ExportColumn> getColumns() {
+        return columns;
+    }
+
+    public static Optional<ExportDataset> fromId(String id) {
+        return Arrays.stream(values()).filter(d -> d.getId().equalsIgnoreCase(id)).findFirst();
+    }
+}
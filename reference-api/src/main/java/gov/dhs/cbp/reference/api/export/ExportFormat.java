@@ -0,0 +1,49 @@
+package gov.dhs.cbp.reference.api.export;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * File formats a dataset snapshot can be exported to.
+ */
+public enum ExportFormat {
+
+    NDJSON("ndjson", "ndjson.gz", "application/x-ndjson"),
+    CSV("csv", "csv.gz", "text/csv"),
+    ARROW("arrow", "arrows", "application/vnd.apache.arrow.stream");
+
+    private final String id;
+    private final String fileExtension;
+    private final String contentType;
+
+    ExportFormat(String id, String fileExtension, String contentType) {
+        this.id = id;
+        this.fileExtension = fileExtension;
+        this.contentType = contentType;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getFileExtension() {
+        return fileExtension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    /**
+     * Whether the file body is gzip-compressed. Compressed exports are served
+     * as {@code application/gzip} downloads so range offsets refer to the
+     * stored bytes.
+     */
+    public boolean isGzipped() {
+        return fileExtension.endsWith(".gz");
+    }
+
+    public static Optional<ExportFormat> fromId(String id) {
+        return Arrays.stream(values()).filter(f -> f.id.equalsIgnoreCase(id)).findFirst();
+    }
+}
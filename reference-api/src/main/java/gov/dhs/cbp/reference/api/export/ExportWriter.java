@@ -0,0 +1,24 @@
+package gov.dhs.cbp.reference.api.export;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * Streams export rows to an output in one {@link ExportFormat}. Rows arrive
+ * in column order; closing the writer flushes any buffered batch and
+ * finishes the underlying stream.
+ */
+public interface ExportWriter extends Closeable {
+
+    void writeRow(Object[] values) throws IOException;
+
+    static ExportWriter open(ExportFormat format, List<ExportColumn> columns, OutputStream out) throws IOException {
+        return switch (format) {
+            case NDJSON -> new NdjsonExportWriter(columns, out);
+            case CSV -> new CsvExportWriter(columns, out);
+            case ARROW -> new ArrowExportWriter(columns, out);
+        };
+    }
+}
@@ -0,0 +1,64 @@
+package gov.dhs.cbp.reference.api.export;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Gzipped newline-delimited JSON, one object per row.
+ */
+class NdjsonExportWriter implements ExportWriter {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final List<ExportColumn> columns;
+    private final SerializedString[] fieldNames;
+    private final JsonGenerator generator;
+    private boolean empty = true;
+
+    NdjsonExportWriter(List<ExportColumn> columns, OutputStream out) throws IOException {
+        this.columns = columns;
+        this.fieldNames = columns.stream()
+                .map(c -> new SerializedString(c.getName()))
+                .toArray(SerializedString[]::new);
+        this.generator = JSON_FACTORY.createGenerator(new GZIPOutputStream(out, 64 * 1024), JsonEncoding.UTF8);
+        this.generator.setRootValueSeparator(new SerializedString("\n"));
+    }
+
+    @Override
+    public void writeRow(Object[] values) throws IOException {
+        generator.writeStartObject();
+        for (int i = 0; i < values.length; i++) {
+            Object value = values[i];
+            generator.writeFieldName(fieldNames[i]);
+            if (value == null) {
+                generator.writeNull();
+                continue;
+            }
+            switch (columns.get(i).getType()) {
+                case DECIMAL -> generator.writeNumber((BigDecimal) value);
+                case INTEGER -> generator.writeNumber((Integer) value);
+                case BIGINT -> generator.writeNumber((Long) value);
+                case BOOLEAN -> generator.writeBoolean((Boolean) value);
+                default -> generator.writeString(value.toString());
+            }
+        }
+        generator.writeEndObject();
+        empty = false;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!empty) {
+            generator.writeRaw('\n');
+        }
+        generator.close();
+    }
+}
@@ -0,0 +1,237 @@
+package gov.dhs.cbp.reference.api.export;
+
+import gov.dhs.cbp.reference.api.service.DatasetVersionService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Produces bulk dataset exports as files cached per dataset version.
+ *
+ * <p>Rows are streamed from a forward-only JDBC cursor straight into the
+ * format writer, so memory use does not grow with the dataset. The version
+ * label is read inside the same repeatable-read transaction as the rows, which
+ * keeps the file consistent with the version it is named after. Files are
+ * also keyed by the date they are valid on, since rows start and end at
+ * midnight without a version bump. Only the export valid today is cached:
+ * concurrent requests for it wait on a single generation, and files from
+ * older versions or earlier days are removed once a newer one has been
+ * written. Any other date is generated into a temporary file for the
+ * request alone, which the caller deletes once it has been sent.</p>
+ */
+@Service
+public class SnapshotExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SnapshotExportService.class);
+
+    private static final String VERSION_SQL =
+            "SELECT version FROM reference_data.dataset_version WHERE dataset = ?";
+
+    private static final String ASOF_MARKER = "-asof-";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final DatasetVersionService datasetVersionService;
+    private final Path directory;
+    private final int fetchSize;
+    private final ConcurrentMap<String, CompletableFuture<ExportFile>> inFlight = new ConcurrentHashMap<>();
+
+    public SnapshotExportService(JdbcTemplate jdbcTemplate,
+                                 PlatformTransactionManager transactionManager,
+                                 DatasetVersionService datasetVersionService,
+                                 @Value("${reference.export.directory:${java.io.tmpdir}/reference-exports}") String directory,
+                                 @Value("${reference.export.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.datasetVersionService = datasetVersionService;
+        this.directory = Paths.get(directory);
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Returns the export of {@code dataset} valid on {@code asOf} (today when
+     * null), generating it if no file exists for the current version. The
+     * file is {@linkplain ExportFile#temporary() temporary} unless it is
+     * today's.
+     */
+    public ExportFile export(ExportDataset dataset, ExportFormat format, LocalDate asOf) {
+        LocalDate today = LocalDate.now();
+        LocalDate effectiveAsOf = asOf != null ? asOf : today;
+        if (!effectiveAsOf.equals(today)) {
+            // Client-chosen dates would otherwise each leave a file behind per version
+            return generate(dataset, format, effectiveAsOf, false);
+        }
+
+        long version = datasetVersionService.getVersion(dataset.getDataset());
+        if (version > 0) {
+            Path cached = directory.resolve(fileName(dataset, format, version, effectiveAsOf));
+            if (Files.isRegularFile(cached)) {
+                return new ExportFile(cached, cached.getFileName().toString(), version, format, false);
+            }
+        }
+
+        String key = dataset.getId() + "|" + format.getId() + "|" + version + "|" + effectiveAsOf;
+        CompletableFuture<ExportFile> future = new CompletableFuture<>();
+        CompletableFuture<ExportFile> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                // Surface the generating request's failure as-is, not wrapped
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+        try {
+            ExportFile file = generate(dataset, format, effectiveAsOf, true);
+            future.complete(file);
+            return file;
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    private ExportFile generate(ExportDataset dataset, ExportFormat format, LocalDate asOf, boolean cache) {
+        try {
+            Files.createDirectories(directory);
+            Path temp = Files.createTempFile(directory, dataset.getId() + "-", ".tmp");
+            boolean handedOver = false;
+            try {
+                AtomicLong rows = new AtomicLong();
+                long started = System.nanoTime();
+                long version = transactionTemplate.execute(status -> {
+                    Long v = jdbcTemplate.queryForObject(VERSION_SQL, Long.class, dataset.getId());
+                    try (OutputStream out = Files.newOutputStream(temp);
+                         ExportWriter writer = ExportWriter.open(format, dataset.getColumns(), out)) {
+                        stream(dataset, asOf, writer, rows);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    return v != null ? v : 0L;
+                });
+
+                String fileName = fileName(dataset, format, version, asOf);
+                logger.info("Exported {} {} rows of {} at version {} as of {} in {} ms", rows.get(), format.getId(),
+                        dataset.getId(), version, asOf, (System.nanoTime() - started) / 1_000_000);
+                if (!cache) {
+                    handedOver = true;
+                    return new ExportFile(temp, fileName, version, format, true);
+                }
+                Path target = directory.resolve(fileName);
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                deleteStaleExports(dataset, version, asOf);
+                return new ExportFile(target, fileName, version, format, false);
+            } finally {
+                if (!handedOver) {
+                    Files.deleteIfExists(temp);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to export " + dataset.getId(), e);
+        }
+    }
+
+    private void stream(ExportDataset dataset, LocalDate asOf, ExportWriter writer, AtomicLong rows) {
+        List<ExportColumn> columns = dataset.getColumns();
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(
+                    dataset.getSql(), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            ps.setDate(1, Date.valueOf(asOf));
+            ps.setDate(2, Date.valueOf(asOf));
+            return ps;
+        }, (ResultSet rs) -> {
+            Object[] values = new Object[columns.size()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = columns.get(i).read(rs, i + 1);
+            }
+            try {
+                writer.writeRow(values);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            rows.incrementAndGet();
+        });
+    }
+
+    private void deleteStaleExports(ExportDataset dataset, long version, LocalDate asOf) {
+        String prefix = dataset.getId() + "-v";
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, prefix + "*")) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                Long fileVersion = parseVersion(name, prefix);
+                LocalDate fileAsOf = parseAsOf(name);
+                if ((fileVersion != null && fileVersion < version) || (fileAsOf != null && fileAsOf.isBefore(asOf))) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to prune old {} exports: {}", dataset.getId(), e.getMessage());
+        }
+    }
+
+    static String fileName(ExportDataset dataset, ExportFormat format, long version, LocalDate asOf) {
+        return dataset.getId() + "-v" + version + ASOF_MARKER + asOf + "." + format.getFileExtension();
+    }
+
+    static Long parseVersion(String fileName, String prefix) {
+        int start = prefix.length();
+        int end = start;
+        while (end < fileName.length() && Character.isDigit(fileName.charAt(end))) {
+            end++;
+        }
+        return end > start ? Long.parseLong(fileName.substring(start, end)) : null;
+    }
+
+    static LocalDate parseAsOf(String fileName) {
+        int start = fileName.indexOf(ASOF_MARKER);
+        if (start < 0 || start + ASOF_MARKER.length() + 10 > fileName.length()) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(fileName.substring(start + ASOF_MARKER.length(), start + ASOF_MARKER.length() + 10));
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    /**
+     * A generated export. {@code fileName} is the name to offer the client;
+     * a {@code temporary} file is not cached and must be deleted once sent.
+     */
+    public record ExportFile(Path path, String fileName, long version, ExportFormat format, boolean temporary) {
+    }
+}
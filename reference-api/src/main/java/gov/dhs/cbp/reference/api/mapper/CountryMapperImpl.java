@@ -1,15 +1,32 @@
 package gov.dhs.cbp.reference.api.mapper;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import gov.dhs.cbp.reference.api.dto.CountryDto;
 import gov.dhs.cbp.reference.core.entity.Country;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
 @Component
 public class CountryMapperImpl implements CountryMapper {
 
+    private static final Logger logger = LoggerFactory.getLogger(CountryMapperImpl.class);
+
+    // Metadata keys the GENC loader writes for a country's other names
+    private static final List<String> ALTERNATE_NAME_KEYS = List.of("localShortName", "localLongName", "fullName");
+
+    private final ObjectMapper objectMapper;
+
+    public CountryMapperImpl(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
     @Override
     public CountryDto toDto(Country entity) {
         if (entity == null) {
@@ -23,6 +40,7 @@ public class CountryMapperImpl implements CountryMapper {
         dto.setIso2Code(entity.getIso2Code());
         dto.setIso3Code(entity.getIso3Code());
         dto.setNumericCode(entity.getNumericCode());
+        dto.setAlternateNames(alternateNames(entity));
         dto.setIsActive(entity.getIsActive());
         // dto.setCodeSystemId(entity.getCodeSystemId()); // TODO: Fix this field mapping
         dto.setValidFrom(entity.getValidFrom());
@@ -70,5 +88,28 @@ public class CountryMapperImpl implements CountryMapper {
                 .collect(Collectors.toList());
     }
 
+    private List<String> alternateNames(Country entity) {
+        String metadata = entity.getMetadata();
+        if (metadata == null || metadata.isBlank()) {
+            return null;
+        }
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(metadata);
+        } catch (JsonProcessingException e) {
+            logger.warn("Ignoring unreadable metadata of country {} ({}): {}",
+                    entity.getCountryCode(), entity.getId(), e.getOriginalMessage());
+            return null;
+        }
+        List<String> names = new ArrayList<>();
+        for (String key : ALTERNATE_NAME_KEYS) {
+            String name = node.path(key).asText("");
+            if (!name.isBlank() && !name.equalsIgnoreCase(entity.getCountryName()) && !names.contains(name)) {
+                names.add(name);
+            }
+        }
+        return names.isEmpty() ? null : names;
+    }
+
     // updateEntityFromDto removed - not part of the interface
 }
\ No newline at end of file
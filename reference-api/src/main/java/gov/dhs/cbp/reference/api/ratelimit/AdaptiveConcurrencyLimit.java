@@ -0,0 +1,75 @@
+package gov.dhs.cbp.reference.api.ratelimit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Concurrency limit that follows the system's health (additive increase,
+ * multiplicative decrease). A call that finishes within the latency target
+ * while the pool has no waiters raises the limit by {@code 1/limit}, so about
+ * one slot per round of calls; a slow call or a queued pool cuts it by a
+ * tenth, at most once per latency target so one burst of slow calls counts
+ * once.
+ */
+final class AdaptiveConcurrencyLimit {
+
+    private static final double BACKOFF = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyTargetNanos;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    // Limit as raw double bits, so it can move by fractions without a lock
+    private final AtomicLong limitBits;
+    private final AtomicLong lastDecreaseAt = new AtomicLong(Long.MIN_VALUE);
+
+    AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, long latencyTargetNanos) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyTargetNanos = latencyTargetNanos;
+        this.limitBits = new AtomicLong(Double.doubleToLongBits(initialLimit));
+    }
+
+    boolean tryAcquire() {
+        int limit = getLimit();
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Releases a slot taken by {@link #tryAcquire()} and adjusts the limit
+     * from the call's latency and whether the pool was queuing at the end.
+     */
+    void release(long latencyNanos, boolean poolSaturated, long nowNanos) {
+        int wasInFlight = inFlight.getAndDecrement();
+        if (latencyNanos > latencyTargetNanos || poolSaturated) {
+            long last = lastDecreaseAt.get();
+            if ((last == Long.MIN_VALUE || nowNanos - last >= latencyTargetNanos)
+                    && lastDecreaseAt.compareAndSet(last, nowNanos)) {
+                limitBits.getAndUpdate(bits ->
+                        Double.doubleToLongBits(Math.max(minLimit, Double.longBitsToDouble(bits) * BACKOFF)));
+            }
+        } else if (wasInFlight >= getLimit()) {
+            // Only grow when the limit was actually reached; idle periods say nothing about capacity
+            limitBits.getAndUpdate(bits -> {
+                double limit = Double.longBitsToDouble(bits);
+                return Double.doubleToLongBits(Math.min(maxLimit, limit + 1.0 / limit));
+            });
+        }
+    }
+
+    int getLimit() {
+        return (int) Double.longBitsToDouble(limitBits.get());
+    }
+
+    int getInFlight() {
+        return inFlight.get();
+    }
+}
@@ -0,0 +1,92 @@
+package gov.dhs.cbp.reference.api.ratelimit;
+
+import org.springframework.http.HttpMethod;
+
+import java.util.Locale;
+
+/**
+ * Groups endpoints by how much of the connection pool a call tends to hold.
+ * Each class has its own adaptive concurrency limit, and a call takes
+ * {@code cost} tokens from the client's bucket, so a search weighs more than
+ * a lookup served from memory.
+ *
+ * <p>A batch search is a {@code POST} but runs searches, so it is a
+ * {@link #SEARCH} and is charged by size: one search per started
+ * {@value #BATCH_BYTES_PER_SEARCH} bytes of body, the only measure of its
+ * query count known before the body is read.</p>
+ */
+public enum EndpointClass {
+
+    SEARCH(5, 4, 1, 8),
+    EXPORT(20, 2, 1, 4),
+    WRITE(2, 4, 1, 8),
+    READ(1, 16, 2, 64);
+
+    static final String BATCH_SEARCH_PATH = "/v1/search/batch";
+    // About ten queries of a manifest, as JSON
+    static final long BATCH_BYTES_PER_SEARCH = 1024;
+
+    private final int cost;
+    private final int initialLimit;
+    private final int minLimit;
+    private final int maxLimit;
+
+    EndpointClass(int cost, int initialLimit, int minLimit, int maxLimit) {
+        this.cost = cost;
+        this.initialLimit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+    }
+
+    public int getCost() {
+        return cost;
+    }
+
+    public int getInitialLimit() {
+        return initialLimit;
+    }
+
+    public int getMinLimit() {
+        return minLimit;
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    public String getId() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Tokens a call to {@code path} takes. A batch search of unknown length
+     * (a chunked body) is charged as much as the largest one, which the
+     * bucket caps at its capacity.
+     */
+    public long costOf(String path, long contentLength) {
+        if (this != SEARCH || !BATCH_SEARCH_PATH.equals(path)) {
+            return cost;
+        }
+        if (contentLength < 0) {
+            return Long.MAX_VALUE;
+        }
+        long searches = Math.max(1, (contentLength + BATCH_BYTES_PER_SEARCH - 1) / BATCH_BYTES_PER_SEARCH);
+        return searches * cost;
+    }
+
+    public static EndpointClass of(String method, String path) {
+        if (HttpMethod.POST.matches(method) && BATCH_SEARCH_PATH.equals(path)) {
+            return SEARCH;
+        }
+        if (!HttpMethod.GET.matches(method) && !HttpMethod.HEAD.matches(method)) {
+            return WRITE;
+        }
+        if (path.startsWith("/v1/search") || path.endsWith("/search")) {
+            return SEARCH;
+        }
+        if (path.startsWith("/v1/exports")) {
+            return EXPORT;
+        }
+        return READ;
+    }
+}
@@ -0,0 +1,35 @@
+package gov.dhs.cbp.reference.api.ratelimit;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+
+import java.util.List;
+
+/**
+ * {@code /actuator/ratelimitclients}: the clients consuming the most rate-limit
+ * capacity, by bucket key ({@code sub:} plus the JWT subject, or {@code ip:}
+ * plus the address), heaviest first. The metrics only tell authenticated from
+ * anonymous traffic; this names the callers without putting them in tags. Not
+ * exposed over HTTP by default: add it to
+ * {@code management.endpoints.web.exposure.include} only where the actuator
+ * is not reachable by clients.
+ */
+@Endpoint(id = "ratelimitclients")
+public class RateLimitClientsEndpoint {
+
+    static final int DEFAULT_LIMIT = 20;
+    static final int MAX_LIMIT = 500;
+
+    private final RateLimitFilter filter;
+
+    public RateLimitClientsEndpoint(RateLimitFilter filter) {
+        this.filter = filter;
+    }
+
+    @ReadOperation
+    public List<RateLimitFilter.ClientUsage> topConsumers(@Nullable Integer limit) {
+        int n = limit == null || limit < 0 ? DEFAULT_LIMIT : Math.min(limit, MAX_LIMIT);
+        return filter.topConsumers(n);
+    }
+}
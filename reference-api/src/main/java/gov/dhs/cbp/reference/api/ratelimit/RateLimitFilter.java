@@ -0,0 +1,288 @@
+package gov.dhs.cbp.reference.api.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import gov.dhs.cbp.reference.api.dto.ProblemDetail;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * Admission control for {@code /v1} so one noisy consumer cannot drain the
+ * connection pool for everyone else.
+ *
+ * <p>Two checks run before the handler:</p>
+ * <ul>
+ *   <li>a token bucket per client (the subject of a validated JWT, else the
+ *       remote address), charged by {@link EndpointClass#costOf};</li>
+ *   <li>an {@link AdaptiveConcurrencyLimit} per endpoint class, which shrinks
+ *       when calls exceed that class's latency target or threads queue for a
+ *       pooled connection, and grows back while neither happens.</li>
+ * </ul>
+ *
+ * <p>Request headers such as {@code X-API-Key} are not trusted for the bucket
+ * key: nothing validates them, so a caller could pick a fresh key per request.
+ * Behind the load balancer the remote address is the client's only because
+ * {@code server.forward-headers-strategy} is {@code native}: Tomcat takes it
+ * from {@code X-Forwarded-For} when, and only when, the request came from a
+ * trusted proxy ({@code server.tomcat.remoteip.internal-proxies}). The
+ * {@code framework} strategy would believe the header from anyone.
+ * Latency is the handler's time up to the first byte of the body; streaming
+ * to a slow client says nothing about the connection pool.</p>
+ *
+ * <p>Either rejection is a 429 problem response with {@code Retry-After}.
+ * Counters ({@code reference.ratelimit.requests}) and handler time
+ * ({@code reference.ratelimit.client.time}) are tagged only with whether the
+ * caller was {@code authenticated} or {@code anonymous}, so the tag
+ * cardinality does not grow with the number of clients; which clients are
+ * consuming the capacity is answered by {@link #topConsumers}.</p>
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitFilter.class);
+
+    static final String AUTHENTICATED = "authenticated";
+    static final String ANONYMOUS = "anonymous";
+
+    private final double bucketCapacity;
+    private final double refillPerSecond;
+    private final int poolWaiterThreshold;
+    private final IntSupplier threadsAwaitingConnection;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final LongSupplier nanoClock;
+    private final Cache<String, TokenBucket> buckets;
+    private final Map<EndpointClass, AdaptiveConcurrencyLimit> limits = new EnumMap<>(EndpointClass.class);
+
+    public RateLimitFilter(double bucketCapacity, double refillPerSecond,
+                           Map<EndpointClass, Duration> latencyTargets,
+                           int poolWaiterThreshold, IntSupplier threadsAwaitingConnection,
+                           ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this(bucketCapacity, refillPerSecond, latencyTargets, poolWaiterThreshold, threadsAwaitingConnection,
+                objectMapper, meterRegistry, System::nanoTime);
+    }
+
+    RateLimitFilter(double bucketCapacity, double refillPerSecond, Map<EndpointClass, Duration> latencyTargets,
+                    int poolWaiterThreshold, IntSupplier threadsAwaitingConnection,
+                    ObjectMapper objectMapper, MeterRegistry meterRegistry, LongSupplier nanoClock) {
+        this.bucketCapacity = bucketCapacity;
+        this.refillPerSecond = refillPerSecond;
+        this.poolWaiterThreshold = poolWaiterThreshold;
+        this.threadsAwaitingConnection = threadsAwaitingConnection;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.nanoClock = nanoClock;
+        // An idle client's bucket is full again after capacity / refill seconds, so it can be dropped
+        long idleSeconds = Math.max(60, (long) Math.ceil(bucketCapacity / refillPerSecond));
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterAccess(idleSeconds, TimeUnit.SECONDS)
+                .build();
+
+        for (EndpointClass endpoint : EndpointClass.values()) {
+            Duration latencyTarget = latencyTargets.get(endpoint);
+            if (latencyTarget == null) {
+                throw new IllegalArgumentException("No latency target for endpoint class " + endpoint.getId());
+            }
+            AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(endpoint.getInitialLimit(),
+                    endpoint.getMinLimit(), endpoint.getMaxLimit(), latencyTarget.toNanos());
+            limits.put(endpoint, limit);
+            Gauge.builder("reference.ratelimit.concurrency.limit", limit, AdaptiveConcurrencyLimit::getLimit)
+                    .description("Current adaptive concurrency limit")
+                    .tag("endpoint", endpoint.getId())
+                    .register(meterRegistry);
+            Gauge.builder("reference.ratelimit.concurrency.in-flight", limit, AdaptiveConcurrencyLimit::getInFlight)
+                    .description("Calls currently admitted")
+                    .tag("endpoint", endpoint.getId())
+                    .register(meterRegistry);
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        EndpointClass endpoint = EndpointClass.of(request.getMethod(), path);
+        Client client = identify(request);
+
+        long now = nanoClock.getAsLong();
+        TokenBucket bucket = buckets.get(client.key(), key -> new TokenBucket(bucketCapacity, refillPerSecond, now));
+        long waitNanos = bucket.tryConsume(endpoint.costOf(path, request.getContentLengthLong()), now);
+        if (waitNanos > 0) {
+            count(client, endpoint, "throttled");
+            reject(request, response, waitNanos, "Request rate for this client exceeded; retry later");
+            return;
+        }
+
+        AdaptiveConcurrencyLimit limit = limits.get(endpoint);
+        if (!limit.tryAcquire()) {
+            count(client, endpoint, "shed");
+            logger.debug("Shedding {} {} for {} at concurrency limit {}",
+                    request.getMethod(), path, client.key(), limit.getLimit());
+            reject(request, response, TimeUnit.SECONDS.toNanos(1), "Server is at capacity; retry later");
+            return;
+        }
+
+        count(client, endpoint, "admitted");
+        long start = nanoClock.getAsLong();
+        FirstByteResponse timed = new FirstByteResponse(response, nanoClock);
+        try {
+            filterChain.doFilter(request, timed);
+        } finally {
+            long finishedAt = nanoClock.getAsLong();
+            long end = timed.handledAt(finishedAt);
+            boolean poolSaturated = threadsAwaitingConnection.getAsInt() > poolWaiterThreshold;
+            limit.release(end - start, poolSaturated, finishedAt);
+            Timer.builder("reference.ratelimit.client.time")
+                    .description("Handler time up to the first byte of the body, by kind of client")
+                    .tag("client", client.tag())
+                    .tag("endpoint", endpoint.getId())
+                    .register(meterRegistry)
+                    .record(end - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response, long waitNanos, String detail)
+            throws IOException {
+        long retryAfterSeconds = Math.max(1, (long) Math.ceil(waitNanos / (double) TimeUnit.SECONDS.toNanos(1)));
+        ProblemDetail problem = ProblemDetail.tooManyRequests(detail);
+        problem.setInstance(request.getRequestURI());
+
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_PROBLEM_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        objectMapper.writeValue(response.getOutputStream(), problem);
+    }
+
+    private void count(Client client, EndpointClass endpoint, String outcome) {
+        Counter.builder("reference.ratelimit.requests")
+                .description("Requests seen by the rate limiter, by kind of client and outcome")
+                .tag("client", client.tag())
+                .tag("endpoint", endpoint.getId())
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * The clients with live buckets that have been charged the most tokens,
+     * heaviest first. Idle buckets expire, so this covers recent traffic.
+     */
+    public List<ClientUsage> topConsumers(int limit) {
+        return buckets.asMap().entrySet().stream()
+                .map(entry -> new ClientUsage(entry.getKey(), entry.getValue().charged(), entry.getValue().throttled()))
+                .sorted(Comparator.comparingDouble(ClientUsage::tokensCharged).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    /**
+     * Identifies the caller: the JWT subject once the security chain has
+     * validated the token, else the remote address.
+     */
+    static Client identify(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication instanceof JwtAuthenticationToken jwt && jwt.isAuthenticated()
+                && jwt.getToken().getSubject() != null) {
+            return new Client("sub:" + jwt.getToken().getSubject(), AUTHENTICATED);
+        }
+        return new Client("ip:" + request.getRemoteAddr(), ANONYMOUS);
+    }
+
+    /**
+     * A caller: {@code key} selects the token bucket, {@code tag} labels
+     * its metrics.
+     */
+    record Client(String key, String tag) {
+    }
+
+    /** One bucket's usage: its key, the tokens it was charged and the requests it refused. */
+    public record ClientUsage(String key, double tokensCharged, long throttled) {
+    }
+
+    /**
+     * Notes when the body starts, which is when the handler has its result
+     * and the rest is serialization and the client's read speed.
+     */
+    static final class FirstByteResponse extends HttpServletResponseWrapper {
+
+        private final LongSupplier nanoClock;
+        private long firstByteAt = Long.MIN_VALUE;
+
+        FirstByteResponse(HttpServletResponse response, LongSupplier nanoClock) {
+            super(response);
+            this.nanoClock = nanoClock;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            mark();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            mark();
+            return super.getWriter();
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            mark();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            mark();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            mark();
+            super.sendRedirect(location);
+        }
+
+        private void mark() {
+            if (firstByteAt == Long.MIN_VALUE) {
+                firstByteAt = nanoClock.getAsLong();
+            }
+        }
+
+        /** When the handler finished: the first byte if one was written, else {@code end}. */
+        long handledAt(long end) {
+            return firstByteAt == Long.MIN_VALUE ? end : firstByteAt;
+        }
+    }
+}
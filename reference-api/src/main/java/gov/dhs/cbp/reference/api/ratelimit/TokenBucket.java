@@ -0,0 +1,75 @@
+package gov.dhs.cbp.reference.api.ratelimit;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Classic token bucket: up to {@code capacity} tokens, refilled continuously
+ * at {@code refillPerSecond}. Time is passed in by the caller so the bucket
+ * holds no clock of its own. It also keeps what it has charged and refused
+ * over its lifetime, for reporting the heaviest consumers.
+ */
+final class TokenBucket {
+
+    private final double capacity;
+    private final double refillPerNano;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private double tokens;
+    private long refilledAt;
+    private double charged;
+    private long throttled;
+
+    TokenBucket(double capacity, double refillPerSecond, long nowNanos) {
+        this.capacity = capacity;
+        this.refillPerNano = refillPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.tokens = capacity;
+        this.refilledAt = nowNanos;
+    }
+
+    /**
+     * Takes {@code cost} tokens if available. Returns 0 on success, otherwise
+     * the nanoseconds until enough tokens will have accumulated; nothing is
+     * taken in that case.
+     */
+    long tryConsume(double cost, long nowNanos) {
+        // A cost above capacity could never be met; charge a full bucket instead
+        double needed = Math.min(cost, capacity);
+        lock.lock();
+        try {
+            if (nowNanos > refilledAt) {
+                tokens = Math.min(capacity, tokens + (nowNanos - refilledAt) * refillPerNano);
+                refilledAt = nowNanos;
+            }
+            if (tokens >= needed) {
+                tokens -= needed;
+                charged += needed;
+                return 0;
+            }
+            throttled++;
+            return (long) Math.ceil((needed - tokens) / refillPerNano);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Tokens taken since the bucket was created. */
+    double charged() {
+        lock.lock();
+        try {
+            return charged;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Requests refused since the bucket was created. */
+    long throttled() {
+        lock.lock();
+        try {
+            return throttled;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
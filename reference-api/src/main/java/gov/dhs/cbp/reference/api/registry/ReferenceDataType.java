@@ -0,0 +1,45 @@
+package gov.dhs.cbp.reference.api.registry;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * Describes one reference data type to the UI: how it is labelled, which code
+ * systems it carries and which fields it shows. Instances are immutable and
+ * shared by every request.
+ */
+public record ReferenceDataType(
+        String id,
+        String name,
+        String displayName,
+        String description,
+        String icon,
+        String category,
+        @JsonProperty("isEnabled") boolean isEnabled,
+        Permissions permissions,
+        List<String> systemCodes,
+        List<FieldDescriptor> fields) {
+
+    public ReferenceDataType {
+        systemCodes = systemCodes == null ? List.of() : List.copyOf(systemCodes);
+        fields = fields == null ? List.of() : List.copyOf(fields);
+        permissions = permissions == null ? Permissions.READ_ONLY : permissions;
+    }
+
+    public record Permissions(boolean read, boolean create, boolean update, boolean delete) {
+
+        public static final Permissions READ_ONLY = new Permissions(true, false, false, false);
+    }
+
+    public record FieldDescriptor(
+            String name,
+            String displayName,
+            String type,
+            boolean required,
+            Integer maxLength,
+            boolean searchable,
+            boolean sortable,
+            boolean showInList) {
+    }
+}
@@ -0,0 +1,131 @@
+package gov.dhs.cbp.reference.api.registry;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import gov.dhs.cbp.reference.core.entity.SystemConfiguration;
+import gov.dhs.cbp.reference.core.repository.SystemConfigurationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Registry of the reference data types offered to the UI.
+ *
+ * <p>Definitions ship as {@code reference-data-types.json} on the classpath
+ * and can be replaced at runtime by an active system configuration entry
+ * under {@value #CONFIG_KEY} holding the same JSON array. Definitions are
+ * compiled once into immutable {@link ReferenceDataType}s together with their
+ * serialized JSON and an ETag derived from it, so serving the catalog
+ * allocates nothing per request.</p>
+ */
+@Component
+public class ReferenceDataTypeRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReferenceDataTypeRegistry.class);
+
+    public static final String CONFIG_KEY = "reference-data.types";
+    static final String DEFAULTS_RESOURCE = "reference-data-types.json";
+
+    private static final TypeReference<List<ReferenceDataType>> TYPE_LIST = new TypeReference<>() {};
+
+    private final SystemConfigurationRepository configurationRepository;
+    private final ObjectMapper objectMapper;
+    private final JsonNode defaults;
+    private final AtomicReference<Catalog> catalog = new AtomicReference<>();
+
+    public ReferenceDataTypeRegistry(SystemConfigurationRepository configurationRepository, ObjectMapper objectMapper) {
+        this.configurationRepository = configurationRepository;
+        this.objectMapper = objectMapper;
+        try (InputStream in = new ClassPathResource(DEFAULTS_RESOURCE).getInputStream()) {
+            this.defaults = objectMapper.readTree(in);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read " + DEFAULTS_RESOURCE, e);
+        }
+        this.catalog.set(compile(defaults));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        refresh();
+    }
+
+    /**
+     * Reloads the definitions and publishes them if their content changed.
+     * A broken configuration entry is logged and the current catalog kept.
+     */
+    @Scheduled(fixedDelayString = "${reference.types.refresh-interval-ms:60000}")
+    public void refresh() {
+        try {
+            Catalog next = compile(configured().orElse(defaults));
+            Catalog current = catalog.get();
+            if (!next.etag().equals(current.etag())) {
+                catalog.set(next);
+                logger.info("Reference data type catalog updated ({} types, ETag {})", next.types().size(), next.etag());
+            }
+        } catch (Exception e) {
+            logger.warn("Failed to reload reference data types, keeping ETag {}: {}",
+                    catalog.get().etag(), e.getMessage());
+        }
+    }
+
+    public Catalog current() {
+        return catalog.get();
+    }
+
+    public List<ReferenceDataType> getTypes() {
+        return catalog.get().types();
+    }
+
+    public Optional<ReferenceDataType> find(String id) {
+        return catalog.get().types().stream()
+                .filter(type -> type.id().equals(id))
+                .findFirst();
+    }
+
+    private Optional<JsonNode> configured() {
+        return configurationRepository.findByConfigKey(CONFIG_KEY)
+                .filter(config -> Boolean.TRUE.equals(config.getIsActive()))
+                .map(SystemConfiguration::getConfigValue)
+                .filter(JsonNode::isArray);
+    }
+
+    private Catalog compile(JsonNode definitions) {
+        List<ReferenceDataType> types = List.copyOf(objectMapper.convertValue(definitions, TYPE_LIST));
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(types);
+            return new Catalog(types, json, etag(json));
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot serialize reference data types", e);
+        }
+    }
+
+    private static String etag(byte[] json) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(json);
+            return "\"types-" + HexFormat.of().formatHex(digest, 0, 8) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * A compiled catalog: the types, their serialized JSON and its strong
+     * ETag. {@code json} is shared between requests and must not be modified.
+     */
+    public record Catalog(List<ReferenceDataType> types, byte[] json, String etag) {
+    }
+}
@@ -0,0 +1,88 @@
+package gov.dhs.cbp.reference.api.runtime;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+/**
+ * Pool sizing guidance alongside Hikari's own {@code hikaricp.connections.*}
+ * meters. With virtual threads request concurrency is no longer capped by the
+ * Tomcat pool, so the connection pool becomes the real limit: callers queue in
+ * Hikari (visible as {@code hikaricp.connections.pending}) rather than in
+ * Tomcat.
+ *
+ * <ul>
+ *   <li>{@code reference.db.pool.size.recommended}: HikariCP's rule of thumb of
+ *       {@code cores * 2 + 1} for a single disk.</li>
+ *   <li>{@code reference.db.pool.utilization}: active connections as a share of
+ *       the configured maximum. Sustained values near 1 together with pending
+ *       threads mean the pool, not the database, is the bottleneck.</li>
+ * </ul>
+ */
+@Component
+public class ConnectionPoolMetrics implements MeterBinder {
+
+    private final DataSource dataSource;
+
+    public ConnectionPoolMetrics(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        HikariDataSource hikari = unwrap(dataSource);
+        if (hikari == null) {
+            return;
+        }
+        String pool = hikari.getPoolName() != null ? hikari.getPoolName() : "default";
+
+        Gauge.builder("reference.db.pool.size.recommended", () -> recommendedPoolSize(Runtime.getRuntime().availableProcessors()))
+                .description("Suggested maximum pool size for this host (cores * 2 + 1)")
+                .tag("pool", pool)
+                .register(registry);
+        Gauge.builder("reference.db.pool.utilization", hikari, ConnectionPoolMetrics::utilization)
+                .description("Active connections as a fraction of the maximum pool size")
+                .tag("pool", pool)
+                .register(registry);
+    }
+
+    /**
+     * Threads currently queued for a connection, or 0 when the pool is not
+     * Hikari or not started yet. Cheap enough to sample per request.
+     */
+    public int threadsAwaitingConnection() {
+        HikariDataSource hikari = unwrap(dataSource);
+        HikariPoolMXBean pool = hikari != null ? hikari.getHikariPoolMXBean() : null;
+        return pool != null ? pool.getThreadsAwaitingConnection() : 0;
+    }
+
+    static int recommendedPoolSize(int cores) {
+        return cores * 2 + 1;
+    }
+
+    private static double utilization(HikariDataSource hikari) {
+        HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+        int max = hikari.getMaximumPoolSize();
+        if (pool == null || max <= 0) {
+            return Double.NaN;
+        }
+        return (double) pool.getActiveConnections() / max;
+    }
+
+    private static HikariDataSource unwrap(DataSource dataSource) {
+        if (dataSource instanceof HikariDataSource hikari) {
+            return hikari;
+        }
+        try {
+            return dataSource.isWrapperFor(HikariDataSource.class) ? dataSource.unwrap(HikariDataSource.class) : null;
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package gov.dhs.cbp.reference.api.search;
+
+import gov.dhs.cbp.reference.api.dto.AirportDto;
+import gov.dhs.cbp.reference.api.dto.CountryDto;
+import gov.dhs.cbp.reference.api.dto.PortDto;
+import gov.dhs.cbp.reference.api.dto.search.AutocompleteResult;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.ToDoubleBiFunction;
+
+/**
+ * Type-ahead over codes and names of every dataset, one {@link PrefixTrie}
+ * per data type.
+ *
+ * <p>Each entity is reachable by its codes, its name, and every later word of
+ * its name ("york" finds New York). A completion's score is its popularity,
+ * {@code ln(1 + weight)}, plus a small bonus for the kind of key that
+ * matched, so with no traffic yet codes come before names and names before
+ * inner words. Each entity appears at most once per answer.</p>
+ *
+ * <p>Indexes are immutable. {@link #build} reuses the trie of any data type
+ * whose entries did not change, and {@link #reweigh} applies new popularity
+ * weights without rebuilding any trie.</p>
+ */
+public final class AutocompleteIndex {
+
+    static final float CODE_BONUS = 0.3f;
+    static final float NAME_BONUS = 0.2f;
+    static final float WORD_BONUS = 0.1f;
+
+    private static final int CODE = 0;
+    private static final int NAME = 1;
+    private static final int WORD = 2;
+    private static final int KIND_BITS = 2;
+
+    private final Map<String, Dataset> byDataType;
+
+    private AutocompleteIndex(Map<String, Dataset> byDataType) {
+        this.byDataType = byDataType;
+    }
+
+    /**
+     * Builds an index over {@code entriesByDataType}, taking the trie of an
+     * unchanged data type from {@code previous} (may be null).
+     */
+    public static AutocompleteIndex build(Map<String, List<Entry>> entriesByDataType,
+                                          ToDoubleBiFunction<String, String> popularity,
+                                          AutocompleteIndex previous) {
+        Map<String, Dataset> byDataType = new LinkedHashMap<>();
+        entriesByDataType.forEach((dataType, entries) -> {
+            Dataset old = previous == null ? null : previous.byDataType.get(dataType);
+            Dataset dataset = old != null && old.source().equals(entries) ? old : Dataset.build(entries);
+            byDataType.put(dataType, dataset.reweigh(dataType, popularity));
+        });
+        return new AutocompleteIndex(Map.copyOf(byDataType));
+    }
+
+    /**
+     * The same index with scores recomputed from {@code popularity}.
+     */
+    public AutocompleteIndex reweigh(ToDoubleBiFunction<String, String> popularity) {
+        Map<String, Dataset> byDataType = new LinkedHashMap<>();
+        this.byDataType.forEach((dataType, dataset) -> byDataType.put(dataType, dataset.reweigh(dataType, popularity)));
+        return new AutocompleteIndex(Map.copyOf(byDataType));
+    }
+
+    /**
+     * Whether this index took its {@code dataType} trie from {@code other}
+     * (or the other way round) instead of building a new one.
+     */
+    boolean sharesTrie(AutocompleteIndex other, String dataType) {
+        Dataset mine = byDataType.get(dataType);
+        Dataset theirs = other.byDataType.get(dataType);
+        return mine != null && theirs != null && mine.unscored() == theirs.unscored();
+    }
+
+    public int size(String dataType) {
+        Dataset dataset = byDataType.get(dataType);
+        return dataset == null ? 0 : dataset.entries().size();
+    }
+
+    /**
+     * Up to {@code limit} completions of {@code prefix}, best first. Unknown
+     * data types have none.
+     */
+    public List<AutocompleteResult> complete(String prefix, String dataType, int limit) {
+        Dataset dataset = byDataType.get(dataType);
+        if (dataset == null || prefix == null) {
+            return List.of();
+        }
+        String normalized = Trigrams.normalize(prefix.trim());
+        if (normalized.isEmpty()) {
+            return List.of();
+        }
+        int[] payloads = dataset.trie().complete(normalized, limit, payload -> payload >>> KIND_BITS);
+        List<AutocompleteResult> results = new ArrayList<>(payloads.length);
+        for (int payload : payloads) {
+            Entry entry = dataset.entries().get(payload >>> KIND_BITS);
+            AutocompleteResult result = new AutocompleteResult(entry.code(), entry.name(),
+                    (payload & ((1 << KIND_BITS) - 1)) == CODE ? "code" : "name");
+            result.setEntityType(dataType);
+            results.add(result);
+        }
+        return results;
+    }
+
+    /**
+     * What one entity can be completed from: its display code and name, the
+     * codes it answers to, and names (such as its city) whose words also
+     * lead to it.
+     */
+    public record Entry(String code, String name, List<String> codes, List<String> names) {
+
+        public static Entry of(CountryDto country) {
+            return new Entry(country.getCountryCode(), country.getCountryName(),
+                    present(country.getCountryCode(), country.getIso2Code(), country.getIso3Code()),
+                    present(country.getCountryName()));
+        }
+
+        public static Entry of(PortDto port) {
+            return new Entry(port.getPortCode(), port.getPortName(),
+                    present(port.getPortCode(), port.getUnLocode(), port.getCbpPortCode()),
+                    present(port.getPortName()));
+        }
+
+        public static Entry of(AirportDto airport) {
+            String code = airport.getIataCode() != null ? airport.getIataCode() : airport.getIcaoCode();
+            return new Entry(code, airport.getAirportName(),
+                    present(airport.getIataCode(), airport.getIcaoCode()),
+                    present(airport.getAirportName(), airport.getCity()));
+        }
+
+        private static List<String> present(String... values) {
+            List<String> present = new ArrayList<>(values.length);
+            for (String value : values) {
+                if (value != null && !value.isBlank()) {
+                    present.add(value);
+                }
+            }
+            return Collections.unmodifiableList(present);
+        }
+    }
+
+    /**
+     * One data type: the entries it was built from, those kept (first per
+     * code), the trie over their keys with zero scores, and the same trie
+     * scored for current popularity.
+     */
+    private record Dataset(List<Entry> source, List<Entry> entries, PrefixTrie unscored, PrefixTrie trie) {
+
+        static Dataset build(List<Entry> rows) {
+            List<Entry> entries = new ArrayList<>(rows.size());
+            Set<String> codes = new HashSet<>();
+            for (Entry row : rows) {
+                if (row.code() != null && codes.add(row.code())) {
+                    entries.add(row);
+                }
+            }
+            List<String> keys = new ArrayList<>();
+            List<Integer> payloads = new ArrayList<>();
+            for (int i = 0; i < entries.size(); i++) {
+                Entry entry = entries.get(i);
+                for (String code : entry.codes()) {
+                    addKey(keys, payloads, Trigrams.normalize(code), i, CODE);
+                }
+                boolean primary = true;
+                for (String name : entry.names()) {
+                    String normalized = Trigrams.normalize(name);
+                    addKey(keys, payloads, normalized, i, primary ? NAME : WORD);
+                    primary = false;
+                    // Every later word start, so a name is found by any of its words
+                    for (int at = 1; at < normalized.length(); at++) {
+                        if (!Character.isLetterOrDigit(normalized.charAt(at - 1))
+                                && Character.isLetterOrDigit(normalized.charAt(at))) {
+                            addKey(keys, payloads, normalized.substring(at), i, WORD);
+                        }
+                    }
+                }
+            }
+            int[] packed = new int[payloads.size()];
+            for (int i = 0; i < packed.length; i++) {
+                packed[i] = payloads.get(i);
+            }
+            PrefixTrie trie = PrefixTrie.build(keys, packed);
+            return new Dataset(List.copyOf(rows), List.copyOf(entries), trie, trie);
+        }
+
+        Dataset reweigh(String dataType, ToDoubleBiFunction<String, String> popularity) {
+            double[] boost = new double[entries.size()];
+            for (int i = 0; i < boost.length; i++) {
+                boost[i] = Math.log1p(Math.max(0, popularity.applyAsDouble(dataType, entries.get(i).code())));
+            }
+            return new Dataset(source, entries, unscored, unscored.withScores(payload ->
+                    boost[payload >>> KIND_BITS] + bonus(payload & ((1 << KIND_BITS) - 1))));
+        }
+
+        private static void addKey(List<String> keys, List<Integer> payloads, String key, int entry, int kind) {
+            if (!key.isEmpty()) {
+                keys.add(key);
+                payloads.add(entry << KIND_BITS | kind);
+            }
+        }
+
+        private static float bonus(int kind) {
+            return switch (kind) {
+                case CODE -> CODE_BONUS;
+                case NAME -> NAME_BONUS;
+                default -> WORD_BONUS;
+            };
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package gov.dhs.cbp.reference.api.search;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Curated names that the reference data does not carry itself ("Ivory
+ * Coast" for Côte d'Ivoire, "Bombay" for Mumbai). The only list is
+ * {@code reference_data.name_synonyms}, seeded by
+ * {@code V005__name_matching.sql} and read by {@link NameSynonymsLoader}, so
+ * the in-memory index expands names exactly as the database's
+ * {@code search_names} column does.
+ */
+public final class NameSynonyms {
+
+    public static final NameSynonyms NONE = new NameSynonyms(Map.of());
+
+    private final Map<String, List<String>> synonyms;
+
+    private NameSynonyms(Map<String, List<String>> synonyms) {
+        this.synonyms = synonyms;
+    }
+
+    /**
+     * Synonyms from {@code (phrase, synonym)} pairs, one direction each, as
+     * the table stores them. Both sides are folded again, so the pairs may
+     * be written as display names.
+     */
+    public static NameSynonyms of(List<Map.Entry<String, String>> pairs) {
+        Map<String, List<String>> synonyms = new HashMap<>();
+        for (Map.Entry<String, String> pair : pairs) {
+            String phrase = fold(pair.getKey());
+            String synonym = fold(pair.getValue());
+            if (phrase.isEmpty() || synonym.isEmpty() || phrase.equals(synonym)) {
+                continue;
+            }
+            List<String> others = synonyms.computeIfAbsent(phrase, p -> new ArrayList<>());
+            if (!others.contains(synonym)) {
+                others.add(synonym);
+            }
+        }
+        Map<String, List<String>> frozen = new HashMap<>();
+        synonyms.forEach((phrase, others) -> frozen.put(phrase, List.copyOf(others)));
+        return new NameSynonyms(Map.copyOf(frozen));
+    }
+
+    /**
+     * The synonyms of every phrase that occurs as whole words in
+     * {@code normalized}.
+     */
+    public List<String> expand(String normalized) {
+        if (synonyms.isEmpty()) {
+            return List.of();
+        }
+        String padded = " " + String.join(" ", Trigrams.words(normalized)) + " ";
+        List<String> expanded = new ArrayList<>();
+        for (Map.Entry<String, List<String>> entry : synonyms.entrySet()) {
+            if (padded.contains(" " + entry.getKey() + " ")) {
+                for (String synonym : entry.getValue()) {
+                    if (!expanded.contains(synonym)) {
+                        expanded.add(synonym);
+                    }
+                }
+            }
+        }
+        return expanded;
+    }
+
+    public int size() {
+        return synonyms.size();
+    }
+
+    private static String fold(String name) {
+        return name == null ? "" : String.join(" ", Trigrams.words(Trigrams.normalize(name)));
+    }
+}
@@ -0,0 +1,32 @@
+package gov.dhs.cbp.reference.api.search;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads {@link NameSynonyms} from {@code reference_data.name_synonyms}. Called
+ * for every published snapshot: editing the table bumps the dataset versions
+ * (its trigger rewrites {@code search_names}), which publishes one.
+ */
+@Component
+@ConditionalOnProperty(name = "reference.search.in-memory.enabled", havingValue = "true")
+public class NameSynonymsLoader {
+
+    static final String QUERY = "SELECT phrase, synonym FROM reference_data.name_synonyms";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public NameSynonymsLoader(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public NameSynonyms load() {
+        List<Map.Entry<String, String>> pairs = jdbcTemplate.query(QUERY,
+                (rs, rowNum) -> Map.entry(rs.getString("phrase"), rs.getString("synonym")));
+        return NameSynonyms.of(pairs);
+    }
+}
@@ -0,0 +1,40 @@
+package gov.dhs.cbp.reference.api.search;
+
+import org.apache.commons.codec.language.DoubleMetaphone;
+
+import java.util.List;
+
+/**
+ * Double Metaphone keys of normalized words, as {@code fuzzystrmatch}'s
+ * {@code dmetaphone} and {@code dmetaphone_alt} compute them for
+ * {@code reference_data.phonetic_keys}. A document carries the primary and
+ * alternate key of every name word; a query matches when each of its words'
+ * primary keys is among them.
+ */
+public final class Phonetic {
+
+    private static final DoubleMetaphone ENCODER = new DoubleMetaphone();
+
+    private Phonetic() {
+    }
+
+    /**
+     * Primary and, when it differs, alternate key of {@code word}; empty for
+     * words without letters to encode.
+     */
+    public static List<String> keys(String word) {
+        String primary = primary(word);
+        if (primary.isEmpty()) {
+            return List.of();
+        }
+        String alternate = ENCODER.doubleMetaphone(word, true);
+        return alternate == null || alternate.isEmpty() || alternate.equals(primary)
+                ? List.of(primary)
+                : List.of(primary, alternate);
+    }
+
+    public static String primary(String word) {
+        String primary = ENCODER.doubleMetaphone(word);
+        return primary != null ? primary : "";
+    }
+}
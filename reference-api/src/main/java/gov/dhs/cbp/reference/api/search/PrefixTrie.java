@@ -0,0 +1,377 @@
+package gov.dhs.cbp.reference.api.search;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntToDoubleFunction;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Compressed (radix) prefix trie with best-first top-K completion.
+ *
+ * <p>Keys are sorted and stored once, back to back in a single {@code char[]}.
+ * A node's edge label is a slice of the first key below it and its subtree is
+ * a contiguous range of keys, so the structure costs a few ints per node and
+ * nothing per character. Each node also records the best key score below it,
+ * which lets {@link #complete} stop after about {@code limit} paths no matter
+ * how many keys share the prefix.</p>
+ *
+ * <p>Every key carries an int payload chosen by the caller. Scores are kept
+ * apart from the structure: {@link #withScores} derives new subtree maxima for
+ * new weights without rebuilding the trie.</p>
+ */
+final class PrefixTrie {
+
+    private static final int NO_CHILD = -1;
+
+    private final Structure structure;
+    private final float[] keyScores;
+    private final float[] nodeMax;
+
+    private PrefixTrie(Structure structure, float[] keyScores, float[] nodeMax) {
+        this.structure = structure;
+        this.keyScores = keyScores;
+        this.nodeMax = nodeMax;
+    }
+
+    /**
+     * Builds a trie over {@code keys}; {@code payloads[i]} belongs to
+     * {@code keys.get(i)}. Empty keys are ignored. All scores start at zero.
+     */
+    static PrefixTrie build(List<String> keys, int[] payloads) {
+        Integer[] order = new Integer[keys.size()];
+        int count = 0;
+        for (int i = 0; i < keys.size(); i++) {
+            if (!keys.get(i).isEmpty()) {
+                order[count++] = i;
+            }
+        }
+        Integer[] sorted = Arrays.copyOf(order, count);
+        Arrays.sort(sorted, (a, b) -> {
+            int byKey = keys.get(a).compareTo(keys.get(b));
+            return byKey != 0 ? byKey : Integer.compare(a, b);
+        });
+
+        int[] keyStart = new int[count + 1];
+        int[] sortedPayloads = new int[count];
+        int totalChars = 0;
+        for (int i = 0; i < count; i++) {
+            totalChars += keys.get(sorted[i]).length();
+        }
+        char[] chars = new char[totalChars];
+        int offset = 0;
+        for (int i = 0; i < count; i++) {
+            String key = keys.get(sorted[i]);
+            key.getChars(0, key.length(), chars, offset);
+            keyStart[i] = offset;
+            sortedPayloads[i] = payloads[sorted[i]];
+            offset += key.length();
+        }
+        keyStart[count] = offset;
+
+        Structure structure = Structure.build(chars, keyStart, sortedPayloads);
+        return new PrefixTrie(structure, new float[count], new float[structure.nodeCount]).withScores(payload -> 0);
+    }
+
+    /**
+     * The same trie with each key scored by {@code scoreOfPayload}.
+     */
+    PrefixTrie withScores(IntToDoubleFunction scoreOfPayload) {
+        Structure s = structure;
+        float[] scores = new float[s.payloads.length];
+        for (int key = 0; key < scores.length; key++) {
+            scores[key] = (float) scoreOfPayload.applyAsDouble(s.payloads[key]);
+        }
+        float[] max = new float[s.nodeCount];
+        // Children always come after their parent, so one backward pass sees every subtree before its root
+        for (int node = s.nodeCount - 1; node >= 0; node--) {
+            float best = Float.NEGATIVE_INFINITY;
+            for (int key = s.lo[node]; key < s.lo[node] + s.terminalCount[node]; key++) {
+                best = Math.max(best, scores[key]);
+            }
+            for (int child = s.firstChild[node]; child < s.firstChild[node] + s.childCount[node]; child++) {
+                best = Math.max(best, max[child]);
+            }
+            max[node] = best;
+        }
+        return new PrefixTrie(s, scores, max);
+    }
+
+    int size() {
+        return structure.payloads.length;
+    }
+
+    /**
+     * Payloads of the best-scoring keys starting with {@code prefix}, best
+     * first, at most one per group (for instance the entity a key names).
+     * Ties go to the key that sorts first.
+     */
+    int[] complete(String prefix, int limit, IntUnaryOperator groupOf) {
+        if (limit <= 0 || structure.nodeCount == 0) {
+            return new int[0];
+        }
+        int node = find(prefix);
+        if (node == NO_CHILD) {
+            return new int[0];
+        }
+
+        Structure s = structure;
+        Frontier frontier = new Frontier();
+        frontier.push(nodeMax[node], s.lo[node], node);
+        int[] found = new int[limit];
+        int[] groups = new int[limit];
+        int count = 0;
+        while (count < limit && !frontier.isEmpty()) {
+            int item = frontier.pop();
+            if (item < 0) {
+                int key = ~item;
+                int payload = s.payloads[key];
+                int group = groupOf.applyAsInt(payload);
+                if (!contains(groups, count, group)) {
+                    groups[count] = group;
+                    found[count++] = payload;
+                }
+                continue;
+            }
+            for (int key = s.lo[item]; key < s.lo[item] + s.terminalCount[item]; key++) {
+                frontier.push(keyScores[key], key, ~key);
+            }
+            for (int child = s.firstChild[item]; child < s.firstChild[item] + s.childCount[item]; child++) {
+                frontier.push(nodeMax[child], s.lo[child], child);
+            }
+        }
+        return Arrays.copyOf(found, count);
+    }
+
+    /**
+     * The highest node whose keys all start with {@code prefix}, or
+     * {@link #NO_CHILD}.
+     */
+    private int find(String prefix) {
+        Structure s = structure;
+        int node = 0;
+        int depth = 0;
+        while (true) {
+            int end = s.end[node];
+            int first = s.keyStart[s.lo[node]];
+            int stop = Math.min(end, prefix.length());
+            for (int i = depth; i < stop; i++) {
+                if (s.chars[first + i] != prefix.charAt(i)) {
+                    return NO_CHILD;
+                }
+            }
+            if (prefix.length() <= end) {
+                return node;
+            }
+            node = s.child(node, prefix.charAt(end));
+            if (node == NO_CHILD) {
+                return NO_CHILD;
+            }
+            depth = end;
+        }
+    }
+
+    private static boolean contains(int[] values, int count, int value) {
+        for (int i = 0; i < count; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Node and key layout, shared between tries that differ only in scores.
+     * Nodes are numbered breadth first, so a node's children are consecutive.
+     */
+    private static final class Structure {
+
+        final char[] chars;
+        final int[] keyStart;
+        final int[] payloads;
+        final int nodeCount;
+        final int[] lo;
+        final int[] terminalCount;
+        final int[] end;
+        final int[] firstChild;
+        final int[] childCount;
+        final char[] label;
+
+        private Structure(char[] chars, int[] keyStart, int[] payloads, int nodeCount, int[] lo, int[] terminalCount,
+                          int[] end, int[] firstChild, int[] childCount, char[] label) {
+            this.chars = chars;
+            this.keyStart = keyStart;
+            this.payloads = payloads;
+            this.nodeCount = nodeCount;
+            this.lo = lo;
+            this.terminalCount = terminalCount;
+            this.end = end;
+            this.firstChild = firstChild;
+            this.childCount = childCount;
+            this.label = label;
+        }
+
+        static Structure build(char[] chars, int[] keyStart, int[] payloads) {
+            int keys = payloads.length;
+            if (keys == 0) {
+                return new Structure(chars, keyStart, payloads, 0, new int[0], new int[0], new int[0],
+                        new int[0], new int[0], new char[0]);
+            }
+            // A radix trie over n keys has at most 2n - 1 nodes
+            int capacity = 2 * keys;
+            int[] lo = new int[capacity];
+            int[] hi = new int[capacity];
+            int[] depth = new int[capacity];
+            int[] terminalCount = new int[capacity];
+            int[] end = new int[capacity];
+            int[] firstChild = new int[capacity];
+            int[] childCount = new int[capacity];
+            char[] label = new char[capacity];
+
+            lo[0] = 0;
+            hi[0] = keys;
+            int nodeCount = 1;
+            for (int node = 0; node < nodeCount; node++) {
+                int from = lo[node];
+                int to = hi[node];
+                int nodeEnd = depth[node] + commonPrefix(chars, keyStart, from, to - 1, depth[node]);
+                end[node] = nodeEnd;
+                int key = from;
+                while (key < to && length(keyStart, key) == nodeEnd) {
+                    key++;
+                }
+                terminalCount[node] = key - from;
+                firstChild[node] = nodeCount;
+                while (key < to) {
+                    char c = chars[keyStart[key] + nodeEnd];
+                    int groupEnd = key + 1;
+                    while (groupEnd < to && chars[keyStart[groupEnd] + nodeEnd] == c) {
+                        groupEnd++;
+                    }
+                    lo[nodeCount] = key;
+                    hi[nodeCount] = groupEnd;
+                    depth[nodeCount] = nodeEnd;
+                    label[nodeCount] = c;
+                    nodeCount++;
+                    key = groupEnd;
+                }
+                childCount[node] = nodeCount - firstChild[node];
+            }
+            return new Structure(chars, keyStart, payloads, nodeCount, Arrays.copyOf(lo, nodeCount),
+                    Arrays.copyOf(terminalCount, nodeCount), Arrays.copyOf(end, nodeCount),
+                    Arrays.copyOf(firstChild, nodeCount), Arrays.copyOf(childCount, nodeCount),
+                    Arrays.copyOf(label, nodeCount));
+        }
+
+        /**
+         * The child of {@code node} whose label starts with {@code c}.
+         */
+        int child(int node, char c) {
+            int low = firstChild[node];
+            int high = low + childCount[node] - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (label[mid] < c) {
+                    low = mid + 1;
+                } else if (label[mid] > c) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return NO_CHILD;
+        }
+
+        private static int length(int[] keyStart, int key) {
+            return keyStart[key + 1] - keyStart[key];
+        }
+
+        /**
+         * Characters shared by keys {@code a} and {@code b} from {@code from}
+         * on. In a sorted range the first and last key share exactly what the
+         * whole range shares.
+         */
+        private static int commonPrefix(char[] chars, int[] keyStart, int a, int b, int from) {
+            int limit = Math.min(length(keyStart, a), length(keyStart, b));
+            int i = from;
+            while (i < limit && chars[keyStart[a] + i] == chars[keyStart[b] + i]) {
+                i++;
+            }
+            return i - from;
+        }
+    }
+
+    /**
+     * Max-heap of nodes and keys (stored as {@code ~key}) ordered by score,
+     * then by the position of their first key.
+     */
+    private static final class Frontier {
+
+        private float[] scores = new float[32];
+        private int[] positions = new int[32];
+        private int[] items = new int[32];
+        private int size;
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void push(float score, int position, int item) {
+            if (size == items.length) {
+                scores = Arrays.copyOf(scores, size * 2);
+                positions = Arrays.copyOf(positions, size * 2);
+                items = Arrays.copyOf(items, size * 2);
+            }
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (!before(score, position, scores[parent], positions[parent])) {
+                    break;
+                }
+                move(parent, i);
+                i = parent;
+            }
+            set(i, score, position, item);
+        }
+
+        int pop() {
+            int top = items[0];
+            size--;
+            if (size > 0) {
+                float score = scores[size];
+                int position = positions[size];
+                int item = items[size];
+                int i = 0;
+                while (true) {
+                    int child = 2 * i + 1;
+                    if (child >= size) {
+                        break;
+                    }
+                    if (child + 1 < size && before(scores[child + 1], positions[child + 1], scores[child], positions[child])) {
+                        child++;
+                    }
+                    if (!before(scores[child], positions[child], score, position)) {
+                        break;
+                    }
+                    move(child, i);
+                    i = child;
+                }
+                set(i, score, position, item);
+            }
+            return top;
+        }
+
+        private static boolean before(float score, int position, float otherScore, int otherPosition) {
+            return score > otherScore || (score == otherScore && position < otherPosition);
+        }
+
+        private void move(int from, int to) {
+            set(to, scores[from], positions[from], items[from]);
+        }
+
+        private void set(int i, float score, int position, int item) {
+            scores[i] = score;
+            positions[i] = position;
+            items[i] = item;
+        }
+    }
+}
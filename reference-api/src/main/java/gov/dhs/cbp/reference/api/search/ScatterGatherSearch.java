@@ -0,0 +1,243 @@
+package gov.dhs.cbp.reference.api.search;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * Runs one search per data type concurrently, each on its own virtual
+ * thread, so a multi-type search takes as long as its slowest type rather
+ * than the sum of all of them.
+ *
+ * <p>Every type gets the same deadline ({@code reference.search.scatter.deadline-ms}),
+ * measured from when the searches start. A type that misses it is left out:
+ * {@link Gathered#timedOut()} names it and
+ * {@code reference.search.scatter.timeouts} counts it. A search that fails
+ * fails the whole call.</p>
+ *
+ * <p>At most {@code reference.search.scatter.max-concurrent} of these searches
+ * run at once across all callers, since each database search holds a pooled
+ * connection; keep it below the pool size. A search still waiting for a
+ * permit at the deadline gives up without searching. One that gets its
+ * permit but then waits out the deadline in the pool calls
+ * {@link #checkDeadline()} once it has its connection, and gives it back
+ * without querying.</p>
+ *
+ * <p>Late searches are abandoned, not interrupted. Interrupting a thread
+ * blocked in JDBC I/O closes the connection under the pool, so a search
+ * left behind runs until its own statement or transaction timeout and then
+ * returns its connection normally.</p>
+ *
+ * <p>{@link #gatherBounded} does the same for batches too large to start at
+ * once, such as the queries of a batch search, with a cap on how many run
+ * together and a deadline of the caller's choosing.</p>
+ */
+@Component
+public class ScatterGatherSearch {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScatterGatherSearch.class);
+
+    // Deadline of the search running on this thread, for checkDeadline
+    private static final ThreadLocal<Long> DEADLINE = new ThreadLocal<>();
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final MeterRegistry meterRegistry;
+    private final Duration deadline;
+    private final Semaphore permits;
+
+    public ScatterGatherSearch(MeterRegistry meterRegistry,
+                               @Value("${reference.search.scatter.deadline-ms:2000}") long deadlineMs,
+                               @Value("${reference.search.scatter.max-concurrent:6}") int maxConcurrent) {
+        this.meterRegistry = meterRegistry;
+        this.deadline = Duration.ofMillis(deadlineMs);
+        this.permits = new Semaphore(Math.max(1, maxConcurrent));
+    }
+
+    public Duration getDeadline() {
+        return deadline;
+    }
+
+    /**
+     * Applies {@code search} to every type in parallel, within the shared
+     * concurrency cap, and collects the results that arrive before the
+     * deadline, in the order of {@code types}.
+     */
+    public <T> Gathered<T> gather(Collection<String> types, Function<String, T> search) {
+        long deadlineNanos = System.nanoTime() + deadline.toNanos();
+        Map<String, Future<T>> futures = new LinkedHashMap<>();
+        for (String type : types) {
+            futures.put(type, executor.submit(() -> run(permits, deadlineNanos, type, search)));
+        }
+
+        Gathered<T> gathered = await(futures, deadlineNanos);
+        for (String type : gathered.timedOut()) {
+            Counter.builder("reference.search.scatter.timeouts")
+                    .description("Per-type searches left out of a result for missing the deadline")
+                    .tag("type", type)
+                    .register(meterRegistry)
+                    .increment();
+        }
+        if (gathered.isPartial()) {
+            logger.warn("Search of {} missed the {} ms deadline; returning partial results",
+                    gathered.timedOut(), deadline.toMillis());
+        }
+        return gathered;
+    }
+
+    /**
+     * Applies {@code search} to every key with at most {@code parallelism}
+     * searches running at once, and collects the results that arrive within
+     * {@code deadline}, in the order of {@code keys}. Keys still queued or
+     * running at the deadline are named in {@link Gathered#timedOut()}; they
+     * are not counted per key, since keys are not a bounded set of tags. A
+     * key still waiting for a permit at the deadline gives up without
+     * searching.
+     */
+    public <T> Gathered<T> gatherBounded(Collection<String> keys, int parallelism, Duration deadline,
+                                         Function<String, T> search) {
+        long deadlineNanos = System.nanoTime() + deadline.toNanos();
+        Semaphore batchPermits = new Semaphore(Math.max(1, parallelism));
+        Map<String, Future<T>> futures = new LinkedHashMap<>();
+        for (String key : keys) {
+            futures.put(key, executor.submit(() -> run(batchPermits, deadlineNanos, key, search)));
+        }
+        return await(futures, deadlineNanos);
+    }
+
+    /**
+     * Throws {@link DeadlineExceededException} if the search running on this
+     * thread was started here and its deadline has passed; does nothing
+     * elsewhere. Database searches call it once their transaction holds a
+     * connection, so a search that waited out the deadline in the pool does
+     * not then run a query whose result would be thrown away.
+     */
+    public static void checkDeadline() {
+        Long deadlineNanos = DEADLINE.get();
+        if (deadlineNanos != null && System.nanoTime() - deadlineNanos >= 0) {
+            throw new DeadlineExceededException();
+        }
+    }
+
+    private static <T> T run(Semaphore permits, long deadlineNanos, String key, Function<String, T> search)
+            throws InterruptedException, TimeoutException {
+        if (!permits.tryAcquire(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+            throw new TimeoutException("No permit before the deadline");
+        }
+        DEADLINE.set(deadlineNanos);
+        try {
+            return search.apply(key);
+        } finally {
+            DEADLINE.remove();
+            permits.release();
+        }
+    }
+
+    private static <T> Gathered<T> await(Map<String, Future<T>> futures, long deadlineNanos) {
+        Map<String, T> results = new LinkedHashMap<>();
+        Set<String> timedOut = new LinkedHashSet<>();
+        try {
+            for (Map.Entry<String, Future<T>> entry : futures.entrySet()) {
+                try {
+                    long remaining = Math.max(0, deadlineNanos - System.nanoTime());
+                    results.put(entry.getKey(), entry.getValue().get(remaining, TimeUnit.NANOSECONDS));
+                } catch (TimeoutException e) {
+                    timedOut.add(entry.getKey());
+                } catch (ExecutionException e) {
+                    if (!(e.getCause() instanceof TimeoutException
+                            || e.getCause() instanceof DeadlineExceededException)) {
+                        throw e;
+                    }
+                    timedOut.add(entry.getKey());
+                }
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException("Search failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for search results", e);
+        } finally {
+            // Keeps queued searches from starting; running ones finish under their own timeouts
+            futures.values().forEach(future -> future.cancel(false));
+        }
+        return new Gathered<>(results, timedOut);
+    }
+
+    /**
+     * The best {@code k} elements of all {@code parts} in {@code order},
+     * selected with a bounded heap.
+     */
+    public static <T> List<T> top(Collection<? extends Collection<? extends T>> parts, int k,
+                                  Comparator<? super T> order) {
+        if (k <= 0) {
+            return List.of();
+        }
+        PriorityQueue<T> heap = new PriorityQueue<>(Math.min(k, 1024) + 1, order.reversed());
+        for (Collection<? extends T> part : parts) {
+            for (T element : part) {
+                heap.add(element);
+                if (heap.size() > k) {
+                    heap.poll();
+                }
+            }
+        }
+        @SuppressWarnings("unchecked")
+        T[] top = (T[]) heap.toArray();
+        Arrays.sort(top, order);
+        return List.of(top);
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * A search found its deadline passed before querying; reported as timed
+     * out, not as a failure.
+     */
+    public static class DeadlineExceededException extends RuntimeException {
+
+        public DeadlineExceededException() {
+            super("Search deadline passed before the query started");
+        }
+    }
+
+    /**
+     * Results by type (or key), and the types that missed the deadline.
+     */
+    public record Gathered<T>(Map<String, T> results, Set<String> timedOut) {
+
+        public boolean isPartial() {
+            return !timedOut.isEmpty();
+        }
+    }
+}
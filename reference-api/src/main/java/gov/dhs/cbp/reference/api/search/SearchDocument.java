@@ -0,0 +1,149 @@
+package gov.dhs.cbp.reference.api.search;
+
+import gov.dhs.cbp.reference.api.dto.AirportDto;
+import gov.dhs.cbp.reference.api.dto.CountryDto;
+import gov.dhs.cbp.reference.api.dto.PortDto;
+import gov.dhs.cbp.reference.api.dto.search.SearchDetails;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * One searchable entity. Field weights follow the {@code setweight} labels of
+ * the database search vectors ({@code A} = 1.0 for names, {@code B} = 0.4 for
+ * the primary code, {@code C} = 0.2 for secondary codes and places), so
+ * in-memory ranks order results the way {@code ts_rank} does.
+ *
+ * <p>Alternate names (GENC local and full names) and the {@link NameSynonyms}
+ * of every name are added as {@code C} fields when the document is built,
+ * like the {@code search_names} column the database fills on write from the
+ * same synonyms.</p>
+ */
+public final class SearchDocument {
+
+    static final float WEIGHT_A = 1.0f;
+    static final float WEIGHT_B = 0.4f;
+    static final float WEIGHT_C = 0.2f;
+
+    private final String entityType;
+    private final UUID entityId;
+    private final String code;
+    private final String name;
+    private final String countryCode;
+    private final SearchDetails additionalInfo;
+    private final List<Field> fields;
+
+    private SearchDocument(String entityType, UUID entityId, String code, String name, String countryCode,
+                           SearchDetails additionalInfo, List<Field> fields) {
+        this.entityType = entityType;
+        this.entityId = entityId;
+        this.code = code;
+        this.name = name;
+        this.countryCode = countryCode;
+        this.additionalInfo = additionalInfo;
+        this.fields = List.copyOf(fields);
+    }
+
+    public static SearchDocument of(CountryDto country, NameSynonyms synonyms) {
+        SearchDetails info = new SearchDetails.Country(country.getIso2Code(), country.getIso3Code(),
+                country.getNumericCode());
+        List<Field> fields = new ArrayList<>();
+        add(fields, country.getCountryName(), WEIGHT_A, false);
+        add(fields, country.getCountryCode(), WEIGHT_B, true);
+        add(fields, country.getIso2Code(), WEIGHT_C, true);
+        add(fields, country.getIso3Code(), WEIGHT_C, true);
+        if (country.getAlternateNames() != null) {
+            for (String alternateName : country.getAlternateNames()) {
+                add(fields, alternateName, WEIGHT_C, false);
+            }
+        }
+        addSynonyms(fields, synonyms);
+        return new SearchDocument("country", country.getId(), country.getCountryCode(), country.getCountryName(),
+                country.getCountryCode(), info, fields);
+    }
+
+    public static SearchDocument of(PortDto port, NameSynonyms synonyms) {
+        SearchDetails info = new SearchDetails.Port(port.getCity(), port.getCountryCode(), port.getUnLocode());
+        List<Field> fields = new ArrayList<>();
+        add(fields, port.getPortName(), WEIGHT_A, false);
+        add(fields, port.getPortCode(), WEIGHT_B, true);
+        add(fields, port.getUnLocode(), WEIGHT_C, true);
+        add(fields, port.getCbpPortCode(), WEIGHT_C, true);
+        add(fields, port.getCity(), WEIGHT_C, false);
+        addSynonyms(fields, synonyms);
+        return new SearchDocument("port", port.getId(), port.getPortCode(), port.getPortName(),
+                port.getCountryCode(), info, fields);
+    }
+
+    public static SearchDocument of(AirportDto airport, NameSynonyms synonyms) {
+        SearchDetails info = new SearchDetails.Airport(airport.getIataCode(), airport.getIcaoCode(),
+                airport.getCity(), airport.getCountryCode());
+        List<Field> fields = new ArrayList<>();
+        add(fields, airport.getAirportName(), WEIGHT_A, false);
+        add(fields, airport.getIataCode(), WEIGHT_B, true);
+        add(fields, airport.getIcaoCode(), WEIGHT_B, true);
+        add(fields, airport.getCity(), WEIGHT_C, false);
+        addSynonyms(fields, synonyms);
+        String code = airport.getIataCode() != null ? airport.getIataCode() : airport.getIcaoCode();
+        return new SearchDocument("airport", airport.getId(), code, airport.getAirportName(),
+                airport.getCountryCode(), info, fields);
+    }
+
+    private static void add(List<Field> fields, String text, float weight, boolean code) {
+        if (text != null && !text.isBlank()) {
+            fields.add(new Field(Trigrams.normalize(text), weight, code));
+        }
+    }
+
+    private static void addSynonyms(List<Field> fields, NameSynonyms synonyms) {
+        List<String> expanded = new ArrayList<>();
+        for (Field field : fields) {
+            if (!field.code()) {
+                for (String synonym : synonyms.expand(field.text())) {
+                    if (!expanded.contains(synonym)) {
+                        expanded.add(synonym);
+                    }
+                }
+            }
+        }
+        for (String synonym : expanded) {
+            fields.add(new Field(synonym, WEIGHT_C, false));
+        }
+    }
+
+    public String getEntityType() {
+        return entityType;
+    }
+
+    public UUID getEntityId() {
+        return entityId;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getCountryCode() {
+        return countryCode;
+    }
+
+    public SearchDetails getAdditionalInfo() {
+        return additionalInfo;
+    }
+
+    List<Field> getFields() {
+        return fields;
+    }
+
+    /**
+     * A normalized field value and its rank weight. Code fields are also
+     * reachable by prefix.
+     */
+    record Field(String text, float weight, boolean code) {
+    }
+}
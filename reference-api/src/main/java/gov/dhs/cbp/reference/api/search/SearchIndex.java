@@ -0,0 +1,530 @@
+package gov.dhs.cbp.reference.api.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+/**
+ * Immutable in-memory search index over one entity type.
+ *
+ * <p>Four structures are built once per snapshot:</p>
+ * <ul>
+ *   <li>a trigram inverted index over every field, giving exact
+ *       {@code pg_trgm} similarity for each field that shares a trigram with
+ *       the query;</li>
+ *   <li>a word inverted index with field-weighted term frequencies, scored
+ *       with BM25 and standing in for the {@code tsvector} match and
+ *       {@code ts_rank};</li>
+ *   <li>a sorted array of codes, binary searched for the range that starts
+ *       with the query (a flattened prefix trie);</li>
+ *   <li>an inverted index of the {@link Phonetic} keys of name words, the
+ *       counterpart of the {@code phonetic_keys} column.</li>
+ * </ul>
+ *
+ * <p>{@link #search} visits only the postings of the query's trigrams and
+ * words, applies the same admission rule as the SQL functions (similarity
+ * above the threshold, or every query word present, or a code prefix, or
+ * every query word of {@value #MIN_PHONETIC_WORD} or more characters
+ * sounding like a name word, which scores {@value #PHONETIC_SIMILARITY} when
+ * it is the only reason a row matches),
+ * keeps the best row per code, and returns the top results together with
+ * the exact number of matches.</p>
+ */
+public final class SearchIndex {
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    private static final int MIN_CODE_PREFIX = 2;
+    static final float PHONETIC_SIMILARITY = 0.5f;
+    static final int MIN_PHONETIC_WORD = 4;
+    private static final int MAX_POOLED_SCRATCH = Runtime.getRuntime().availableProcessors() * 2;
+
+    private static final Comparator<Hit> ORDER = Comparator
+            .comparingDouble(Hit::similarity).reversed()
+            .thenComparing(Comparator.comparingDouble(Hit::rank).reversed())
+            .thenComparing(hit -> hit.document().getCode(), Comparator.nullsLast(Comparator.naturalOrder()));
+
+    private final List<SearchDocument> documents;
+    private final String[] dedupKeys;
+    private final int[] fieldDocument;
+    private final int[] documentFieldStart;
+    private final long[][] fieldTrigrams;
+    private final Map<Long, int[]> trigramPostings;
+    private final Map<String, Postings> wordPostings;
+    private final float[] documentLength;
+    private final float averageLength;
+    private final String[] codes;
+    private final int[] codeDocument;
+    private final Map<String, int[]> phoneticPostings;
+    private final Queue<Scratch> scratchPool = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pooledScratch = new AtomicInteger();
+
+    private SearchIndex(List<SearchDocument> documents, String[] dedupKeys, int[] fieldDocument,
+                        int[] documentFieldStart, long[][] fieldTrigrams, Map<Long, int[]> trigramPostings,
+                        Map<String, Postings> wordPostings, float[] documentLength, float averageLength,
+                        String[] codes, int[] codeDocument, Map<String, int[]> phoneticPostings) {
+        this.documents = documents;
+        this.dedupKeys = dedupKeys;
+        this.fieldDocument = fieldDocument;
+        this.documentFieldStart = documentFieldStart;
+        this.fieldTrigrams = fieldTrigrams;
+        this.trigramPostings = trigramPostings;
+        this.wordPostings = wordPostings;
+        this.documentLength = documentLength;
+        this.averageLength = averageLength;
+        this.codes = codes;
+        this.codeDocument = codeDocument;
+        this.phoneticPostings = phoneticPostings;
+    }
+
+    public static SearchIndex build(Collection<SearchDocument> source) {
+        List<SearchDocument> documents = List.copyOf(source);
+        int n = documents.size();
+        String[] dedupKeys = new String[n];
+        IntList fieldDocument = new IntList();
+        int[] documentFieldStart = new int[n + 1];
+        List<long[]> fieldTrigrams = new ArrayList<>();
+        Map<Long, IntList> trigrams = new HashMap<>();
+        Map<String, PostingsBuilder> words = new HashMap<>();
+        Map<String, IntList> phonetic = new HashMap<>();
+        float[] documentLength = new float[n];
+        List<CodeEntry> codeEntries = new ArrayList<>();
+        float totalLength = 0;
+
+        for (int d = 0; d < n; d++) {
+            SearchDocument document = documents.get(d);
+            String code = document.getCode();
+            dedupKeys[d] = code != null ? Trigrams.normalize(code) : "\u0000" + d;
+
+            documentFieldStart[d] = fieldDocument.size();
+            Map<String, Float> termFrequency = new HashMap<>();
+            Set<String> phoneticKeys = new HashSet<>();
+            for (SearchDocument.Field field : document.getFields()) {
+                int fieldId = fieldDocument.size();
+                long[] packed = Trigrams.of(field.text());
+                fieldDocument.add(d);
+                fieldTrigrams.add(packed);
+                for (long trigram : packed) {
+                    trigrams.computeIfAbsent(trigram, t -> new IntList()).add(fieldId);
+                }
+                for (String word : Trigrams.words(field.text())) {
+                    termFrequency.merge(word, field.weight(), Float::sum);
+                    documentLength[d] += field.weight();
+                    if (!field.code()) {
+                        phoneticKeys.addAll(Phonetic.keys(word));
+                    }
+                }
+                if (field.code()) {
+                    String compact = compact(field.text());
+                    if (!compact.isEmpty()) {
+                        codeEntries.add(new CodeEntry(compact, d));
+                    }
+                }
+            }
+            for (Map.Entry<String, Float> term : termFrequency.entrySet()) {
+                words.computeIfAbsent(term.getKey(), w -> new PostingsBuilder()).add(d, term.getValue());
+            }
+            for (String key : phoneticKeys) {
+                phonetic.computeIfAbsent(key, k -> new IntList()).add(d);
+            }
+            totalLength += documentLength[d];
+        }
+        documentFieldStart[n] = fieldDocument.size();
+
+        Map<Long, int[]> trigramPostings = new HashMap<>(trigrams.size() * 2);
+        trigrams.forEach((trigram, fields) -> trigramPostings.put(trigram, fields.toArray()));
+        Map<String, Postings> wordPostings = new HashMap<>(words.size() * 2);
+        words.forEach((word, builder) -> wordPostings.put(word, builder.build()));
+        Map<String, int[]> phoneticPostings = new HashMap<>(phonetic.size() * 2);
+        phonetic.forEach((key, documentsWithKey) -> phoneticPostings.put(key, documentsWithKey.toArray()));
+
+        codeEntries.sort(Comparator.comparing(CodeEntry::code));
+        String[] codes = new String[codeEntries.size()];
+        int[] codeDocument = new int[codeEntries.size()];
+        for (int i = 0; i < codes.length; i++) {
+            codes[i] = codeEntries.get(i).code();
+            codeDocument[i] = codeEntries.get(i).document();
+        }
+
+        return new SearchIndex(documents, dedupKeys, fieldDocument.toArray(), documentFieldStart,
+                fieldTrigrams.toArray(new long[0][]), trigramPostings, wordPostings, documentLength,
+                n == 0 ? 0 : totalLength / n, codes, codeDocument, phoneticPostings);
+    }
+
+    public int size() {
+        return documents.size();
+    }
+
+    /**
+     * Ranks the documents matching {@code query} and returns the first
+     * {@code topK} in result order with the total number of matches.
+     *
+     * @param threshold minimum trigram similarity for a fuzzy-only match
+     * @param filter    optional restriction, applied before counting
+     */
+    public Hits search(String query, float threshold, Predicate<SearchDocument> filter, int topK) {
+        String normalized = Trigrams.normalize(query);
+        long[] queryTrigrams = Trigrams.of(normalized);
+        List<String> queryWords = List.copyOf(new LinkedHashSet<>(Trigrams.words(normalized)));
+        if (queryTrigrams.length == 0 || documents.isEmpty()) {
+            return Hits.EMPTY;
+        }
+        Set<String> queryKeys = new LinkedHashSet<>();
+        for (String word : queryWords) {
+            String key = word.length() >= MIN_PHONETIC_WORD ? Phonetic.primary(word) : "";
+            if (!key.isEmpty()) {
+                queryKeys.add(key);
+            }
+        }
+
+        Scratch scratch = acquireScratch();
+        try {
+            return search(scratch, queryTrigrams, queryWords, queryKeys, normalized, threshold, filter, topK);
+        } finally {
+            releaseScratch(scratch);
+        }
+    }
+
+    private Hits search(Scratch scratch, long[] queryTrigrams, List<String> queryWords, Set<String> queryKeys,
+                        String normalized, float threshold, Predicate<SearchDocument> filter, int topK) {
+        int n = documents.size();
+        float[] similarity = scratch.similarity;
+        float[] rank = scratch.rank;
+        int[] wordMatches = scratch.wordMatches;
+        int[] keyMatches = scratch.keyMatches;
+        boolean[] codePrefix = scratch.codePrefix;
+        boolean[] seen = scratch.seen;
+        IntList candidates = scratch.candidates;
+
+        // Trigram similarity per field, keeping each document's best field. A
+        // field above the threshold shares at least minShared query trigrams,
+        // so it must contain one of the (q - minShared + 1) rarest; only those
+        // postings are walked and the common trigrams are checked per field.
+        int q = queryTrigrams.length;
+        int minShared = Math.max(1, (int) Math.floor(threshold * q) + 1);
+        if (minShared <= q) {
+            int[][] postings = new int[q][];
+            Integer[] order = new Integer[q];
+            for (int t = 0; t < q; t++) {
+                int[] fields = trigramPostings.get(queryTrigrams[t]);
+                postings[t] = fields != null ? fields : new int[0];
+                order[t] = t;
+            }
+            Arrays.sort(order, Comparator.comparingInt(t -> postings[t].length));
+            int walked = q - minShared + 1;
+
+            int[] shared = scratch.shared;
+            IntList touchedFields = scratch.touchedFields;
+            for (int i = 0; i < walked; i++) {
+                for (int fieldId : postings[order[i]]) {
+                    if (shared[fieldId]++ == 0) {
+                        touchedFields.add(fieldId);
+                    }
+                }
+            }
+            for (int i = 0; i < touchedFields.size(); i++) {
+                int fieldId = touchedFields.get(i);
+                int common = shared[fieldId];
+                for (int j = walked; j < q; j++) {
+                    if (Arrays.binarySearch(fieldTrigrams[fieldId], queryTrigrams[order[j]]) >= 0) {
+                        common++;
+                    }
+                }
+                float score = similarity(common, q, fieldId);
+                int d = fieldDocument[fieldId];
+                if (score > similarity[d]) {
+                    similarity[d] = score;
+                }
+                if (!seen[d]) {
+                    seen[d] = true;
+                    candidates.add(d);
+                }
+            }
+        }
+
+        // BM25 over field-weighted word frequencies
+        for (String word : queryWords) {
+            Postings postings = wordPostings.get(word);
+            if (postings == null) {
+                continue;
+            }
+            double idf = Math.log(1 + (n - postings.documents.length + 0.5) / (postings.documents.length + 0.5));
+            for (int i = 0; i < postings.documents.length; i++) {
+                int d = postings.documents[i];
+                float tf = postings.frequencies[i];
+                double norm = K1 * (1 - B + B * documentLength[d] / averageLength);
+                rank[d] += (float) (idf * tf * (K1 + 1) / (tf + norm));
+                wordMatches[d]++;
+                if (!seen[d]) {
+                    seen[d] = true;
+                    candidates.add(d);
+                }
+            }
+        }
+
+        // Code prefixes; an exact code is a perfect match
+        String compact = compact(normalized);
+        if (compact.length() >= MIN_CODE_PREFIX) {
+            for (int i = lowerBound(compact); i < codes.length && codes[i].startsWith(compact); i++) {
+                int d = codeDocument[i];
+                codePrefix[d] = true;
+                if (codes[i].length() == compact.length()) {
+                    similarity[d] = 1f;
+                }
+                if (!seen[d]) {
+                    seen[d] = true;
+                    candidates.add(d);
+                }
+            }
+        }
+
+        // Every query word's primary key among the document's name keys
+        for (String key : queryKeys) {
+            int[] postings = phoneticPostings.get(key);
+            if (postings == null) {
+                continue;
+            }
+            for (int d : postings) {
+                keyMatches[d]++;
+                if (!seen[d]) {
+                    seen[d] = true;
+                    candidates.add(d);
+                }
+            }
+        }
+
+        Map<String, Hit> best = new HashMap<>();
+        for (int i = 0; i < candidates.size(); i++) {
+            int d = candidates.get(i);
+            boolean allWords = !queryWords.isEmpty() && wordMatches[d] == queryWords.size();
+            boolean soundsAlike = !queryKeys.isEmpty() && keyMatches[d] == queryKeys.size();
+            boolean matched = similarity[d] > threshold || allWords || codePrefix[d];
+            if (!(matched || soundsAlike)) {
+                continue;
+            }
+            if (similarity[d] <= threshold) {
+                // Admitted on words, code or sound alone; fields skipped above may still score
+                similarity[d] = bestSimilarity(d, queryTrigrams);
+            }
+            // Every word sounds like itself, so only a row found by sound alone gets the floor
+            if (!matched && similarity[d] < PHONETIC_SIMILARITY) {
+                similarity[d] = PHONETIC_SIMILARITY;
+            }
+            SearchDocument document = documents.get(d);
+            if (filter != null && !filter.test(document)) {
+                continue;
+            }
+            Hit hit = new Hit(document, similarity[d], rank[d]);
+            best.merge(dedupKeys[d], hit, (current, next) -> ORDER.compare(next, current) < 0 ? next : current);
+        }
+
+        return Hits.top(best.values(), topK);
+    }
+
+    private float similarity(int common, int queryTrigramCount, int fieldId) {
+        return (float) common / (queryTrigramCount + fieldTrigrams[fieldId].length - common);
+    }
+
+    private float bestSimilarity(int document, long[] queryTrigrams) {
+        float best = 0f;
+        for (int fieldId = documentFieldStart[document]; fieldId < documentFieldStart[document + 1]; fieldId++) {
+            int common = 0;
+            for (long trigram : queryTrigrams) {
+                if (Arrays.binarySearch(fieldTrigrams[fieldId], trigram) >= 0) {
+                    common++;
+                }
+            }
+            best = Math.max(best, similarity(common, queryTrigrams.length, fieldId));
+        }
+        return best;
+    }
+
+    private Scratch acquireScratch() {
+        Scratch scratch = scratchPool.poll();
+        if (scratch == null) {
+            return new Scratch(documents.size(), fieldDocument.length);
+        }
+        pooledScratch.decrementAndGet();
+        return scratch;
+    }
+
+    private void releaseScratch(Scratch scratch) {
+        scratch.clear();
+        if (pooledScratch.incrementAndGet() <= MAX_POOLED_SCRATCH) {
+            scratchPool.offer(scratch);
+        } else {
+            pooledScratch.decrementAndGet();
+        }
+    }
+
+    private int lowerBound(String key) {
+        int lo = 0;
+        int hi = codes.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (codes[mid].compareTo(key) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private static String compact(String normalized) {
+        StringBuilder compact = new StringBuilder(normalized.length());
+        for (int i = 0; i < normalized.length(); i++) {
+            char c = normalized.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                compact.append(c);
+            }
+        }
+        return compact.toString();
+    }
+
+    /**
+     * A matched document with its best field similarity and its BM25 rank.
+     */
+    public record Hit(SearchDocument document, float similarity, float rank) {
+    }
+
+    /**
+     * The first results of a search, in order, and the total number of
+     * matching documents.
+     */
+    public record Hits(List<Hit> top, int total) {
+
+        static final Hits EMPTY = new Hits(List.of(), 0);
+
+        /**
+         * Selects the best {@code k} of {@code hits} with a bounded heap and
+         * returns them sorted.
+         */
+        public static Hits top(Collection<Hit> hits, int k) {
+            return new Hits(ScatterGatherSearch.top(List.of(hits), k, ORDER), hits.size());
+        }
+
+        /**
+         * Merges per-type results into one ordering, keeping the best
+         * {@code k} and summing the totals.
+         */
+        public static Hits merge(Collection<Hits> parts, int k) {
+            List<List<Hit>> tops = new ArrayList<>(parts.size());
+            int total = 0;
+            for (Hits part : parts) {
+                tops.add(part.top());
+                total += part.total();
+            }
+            return new Hits(ScatterGatherSearch.top(tops, k, ORDER), total);
+        }
+    }
+
+    /**
+     * Per-query accumulators sized to the index. Reused through a small pool
+     * so a search does not allocate and zero arrays over every document;
+     * {@link #clear()} resets only the entries the last query touched.
+     */
+    private static final class Scratch {
+
+        final float[] similarity;
+        final float[] rank;
+        final int[] wordMatches;
+        final int[] keyMatches;
+        final boolean[] codePrefix;
+        final boolean[] seen;
+        final int[] shared;
+        final IntList candidates = new IntList();
+        final IntList touchedFields = new IntList();
+
+        Scratch(int documents, int fields) {
+            similarity = new float[documents];
+            rank = new float[documents];
+            wordMatches = new int[documents];
+            keyMatches = new int[documents];
+            codePrefix = new boolean[documents];
+            seen = new boolean[documents];
+            shared = new int[fields];
+        }
+
+        void clear() {
+            for (int i = 0; i < touchedFields.size(); i++) {
+                shared[touchedFields.get(i)] = 0;
+            }
+            for (int i = 0; i < candidates.size(); i++) {
+                int d = candidates.get(i);
+                similarity[d] = 0f;
+                rank[d] = 0f;
+                wordMatches[d] = 0;
+                keyMatches[d] = 0;
+                codePrefix[d] = false;
+                seen[d] = false;
+            }
+            touchedFields.clear();
+            candidates.clear();
+        }
+    }
+
+    private record CodeEntry(String code, int document) {
+    }
+
+    private record Postings(int[] documents, float[] frequencies) {
+    }
+
+    private static final class PostingsBuilder {
+
+        private final IntList documents = new IntList();
+        private float[] frequencies = new float[4];
+
+        void add(int document, float frequency) {
+            if (documents.size() == frequencies.length) {
+                frequencies = Arrays.copyOf(frequencies, frequencies.length * 2);
+            }
+            frequencies[documents.size()] = frequency;
+            documents.add(document);
+        }
+
+        Postings build() {
+            return new Postings(documents.toArray(), Arrays.copyOf(frequencies, documents.size()));
+        }
+    }
+
+    private static final class IntList {
+
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int get(int index) {
+            return values[index];
+        }
+
+        int size() {
+            return size;
+        }
+
+        void clear() {
+            size = 0;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package gov.dhs.cbp.reference.api.search;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * How often each entity is what a search resolved to, learned from the
+ * search traffic this instance serves and used to order autocomplete
+ * suggestions.
+ *
+ * <p>{@link #record} only bumps a counter. A periodic {@link #fold} adds the
+ * counters into exponentially decayed weights (half-life
+ * {@code reference.search.popularity.half-life-hours}) and publishes them as
+ * an immutable map, moving {@link #getGeneration()} so indexes know to
+ * rescore. Weights start empty on every instance and are not persisted.</p>
+ *
+ * <p>Only the in-memory autocomplete reads the weights, so the bean and its
+ * fold exist only while {@code reference.search.in-memory.enabled} is on.</p>
+ */
+@Component
+@ConditionalOnProperty(name = "reference.search.in-memory.enabled", havingValue = "true")
+public class SearchPopularity {
+
+    /** Weights that decay below this are dropped. */
+    static final double MIN_WEIGHT = 0.01;
+
+    private final double decayPerFold;
+    private final ConcurrentHashMap<String, LongAdder> pending = new ConcurrentHashMap<>();
+    private final AtomicReference<Map<String, Double>> weights = new AtomicReference<>(Map.of());
+    private final AtomicLong generation = new AtomicLong();
+    private final ReentrantLock foldLock = new ReentrantLock();
+
+    public SearchPopularity(MeterRegistry meterRegistry,
+                            @Value("${reference.search.popularity.half-life-hours:168}") double halfLifeHours,
+                            @Value("${reference.search.popularity.fold-interval-ms:300000}") long foldIntervalMs) {
+        this.decayPerFold = Math.pow(0.5, foldIntervalMs / (halfLifeHours * 3_600_000.0));
+        Gauge.builder("reference.search.popularity.entries", weights, ref -> ref.get().size())
+                .description("Entities with a learned search popularity weight")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Counts one search of {@code dataType} that resolved to {@code code}.
+     */
+    public void record(String dataType, String code) {
+        if (dataType != null && code != null) {
+            pending.computeIfAbsent(key(dataType, code), k -> new LongAdder()).increment();
+        }
+    }
+
+    public double weight(String dataType, String code) {
+        Double weight = weights.get().get(key(dataType, code));
+        return weight == null ? 0 : weight;
+    }
+
+    /**
+     * Changes whenever {@link #fold} publishes new weights.
+     */
+    public long getGeneration() {
+        return generation.get();
+    }
+
+    @Scheduled(fixedDelayString = "${reference.search.popularity.fold-interval-ms:300000}")
+    public void fold() {
+        foldLock.lock();
+        try {
+            Map<String, Double> current = weights.get();
+            if (current.isEmpty() && pending.isEmpty()) {
+                return;
+            }
+            Map<String, Double> next = new HashMap<>(current.size() + pending.size());
+            current.forEach((key, weight) -> {
+                double decayed = weight * decayPerFold;
+                if (decayed >= MIN_WEIGHT) {
+                    next.put(key, decayed);
+                }
+            });
+            for (Map.Entry<String, LongAdder> entry : pending.entrySet()) {
+                long count = entry.getValue().sumThenReset();
+                if (count > 0) {
+                    next.merge(entry.getKey(), (double) count, Double::sum);
+                }
+            }
+            // Idle counters are dropped; an increment racing the removal is lost, which a weight can afford
+            pending.values().removeIf(adder -> adder.sum() == 0);
+            weights.set(Collections.unmodifiableMap(next));
+            generation.incrementAndGet();
+        } finally {
+            foldLock.unlock();
+        }
+    }
+
+    private static String key(String dataType, String code) {
+        return dataType + ':' + code;
+    }
+}
@@ -0,0 +1,216 @@
+package gov.dhs.cbp.reference.api.search;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Instruments every search, scroll and autocomplete call, tagged by data
+ * type ({@code universal} for multi-type searches), operation and the
+ * service that answered ({@code in-memory} or {@code postgres}):
+ *
+ * <ul>
+ *   <li>{@code reference.search.latency}: a percentile histogram of wall
+ *       time, also tagged with the outcome;</li>
+ *   <li>{@code reference.search.results}: the distribution of the number of
+ *       matches (the page total, not the page size);</li>
+ *   <li>{@code reference.search.results.zero}: searches that matched
+ *       nothing.</li>
+ * </ul>
+ *
+ * <p>Searches slower than {@code reference.search.slow-queries.threshold-ms}
+ * are kept, with their {@link SearchTrace} stages, in a ring buffer of the
+ * last {@code reference.search.slow-queries.capacity} such queries, served
+ * slowest first by the {@code slowsearches} actuator endpoint.</p>
+ *
+ * <p>A search that hands on to another instrumented service (the in-memory
+ * service falling back to the database) is recorded once: the inner call
+ * becomes a stage of the outer trace and sets its source.</p>
+ */
+@Component
+public class SearchQueryMetrics {
+
+    static final int MAX_QUERY_LENGTH = 200;
+    static final String OTHER_TYPE = "other";
+
+    private static final List<String> DATA_TYPES = List.of("countries", "ports", "airports");
+
+    private static final ThreadLocal<SearchTrace> CURRENT = new ThreadLocal<>();
+
+    private final MeterRegistry meterRegistry;
+    private final Duration slowThreshold;
+    private final SlowSearch[] slowSearches;
+    private final ReentrantLock slowLock = new ReentrantLock();
+    private int nextSlot;
+    private int kept;
+
+    public SearchQueryMetrics(MeterRegistry meterRegistry,
+                              @Value("${reference.search.slow-queries.threshold-ms:250}") long slowThresholdMs,
+                              @Value("${reference.search.slow-queries.capacity:100}") int capacity) {
+        this.meterRegistry = meterRegistry;
+        this.slowThreshold = Duration.ofMillis(slowThresholdMs);
+        this.slowSearches = new SlowSearch[Math.max(1, capacity)];
+    }
+
+    /**
+     * Runs {@code search} and records it.
+     *
+     * @param source      the service running the search
+     * @param type        data type searched, or {@code universal}
+     * @param operation   {@code search}, {@code scroll} or {@code autocomplete}
+     * @param resultCount number of matches in the result
+     */
+    public <T> T record(String source, String type, String operation, String query, Float threshold,
+                        Function<SearchTrace, T> search, ToLongFunction<? super T> resultCount) {
+        SearchTrace outer = CURRENT.get();
+        if (outer != null) {
+            outer.answeredBy(source);
+            return outer.time(source, () -> search.apply(outer));
+        }
+
+        SearchTrace trace = new SearchTrace(source);
+        CURRENT.set(trace);
+        long started = System.nanoTime();
+        T result = null;
+        Throwable failure = null;
+        try {
+            result = search.apply(trace);
+            return result;
+        } catch (RuntimeException | Error e) {
+            failure = e;
+            throw e;
+        } finally {
+            CURRENT.remove();
+            long elapsed = System.nanoTime() - started;
+            Long matches = failure == null ? (result != null ? resultCount.applyAsLong(result) : 0L) : null;
+            publish(trace.getSource(), type, operation, elapsed, matches);
+            if (elapsed >= slowThreshold.toNanos()) {
+                keep(new SlowSearch(Instant.now(), type, operation, trace.getSource(), truncate(query), threshold,
+                        SearchTrace.millis(elapsed), matches,
+                        failure != null ? failure.getClass().getSimpleName() : null, trace.getStages()));
+            }
+        }
+    }
+
+    /**
+     * The {@code type} tag for a data type taken from a request as is. Any
+     * value that is not a data type is tagged {@code other}, so callers
+     * cannot add a meter per distinct value.
+     */
+    public static String typeTag(String dataType) {
+        return DATA_TYPES.contains(dataType) ? dataType : OTHER_TYPE;
+    }
+
+    /**
+     * The kept slow searches, slowest first.
+     */
+    public List<SlowSearch> slowSearches() {
+        slowLock.lock();
+        try {
+            List<SlowSearch> copy = new ArrayList<>(kept);
+            for (int i = 0; i < kept; i++) {
+                copy.add(slowSearches[i]);
+            }
+            copy.sort(Comparator.comparingDouble(SlowSearch::millis).reversed());
+            return copy;
+        } finally {
+            slowLock.unlock();
+        }
+    }
+
+    public void clearSlowSearches() {
+        slowLock.lock();
+        try {
+            Arrays.fill(slowSearches, null);
+            nextSlot = 0;
+            kept = 0;
+        } finally {
+            slowLock.unlock();
+        }
+    }
+
+    public Duration getSlowThreshold() {
+        return slowThreshold;
+    }
+
+    public int getCapacity() {
+        return slowSearches.length;
+    }
+
+    /**
+     * Stores {@code search} in the ring, overwriting the oldest entry once
+     * it is full.
+     */
+    void keep(SlowSearch search) {
+        slowLock.lock();
+        try {
+            slowSearches[nextSlot] = search;
+            nextSlot = (nextSlot + 1) % slowSearches.length;
+            kept = Math.min(kept + 1, slowSearches.length);
+        } finally {
+            slowLock.unlock();
+        }
+    }
+
+    private void publish(String source, String type, String operation, long elapsedNanos, Long matches) {
+        Timer.builder("reference.search.latency")
+                .description("Search wall time per data type and operation")
+                .tag("type", type)
+                .tag("operation", operation)
+                .tag("source", source)
+                .tag("outcome", matches != null ? "success" : "error")
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+        if (matches == null) {
+            return;
+        }
+        DistributionSummary.builder("reference.search.results")
+                .description("Number of matches per search")
+                .tag("type", type)
+                .tag("operation", operation)
+                .tag("source", source)
+                .serviceLevelObjectives(1, 5, 10, 20, 50, 100, 500, 1000)
+                .register(meterRegistry)
+                .record(matches);
+        if (matches == 0) {
+            Counter.builder("reference.search.results.zero")
+                    .description("Searches that matched nothing")
+                    .tag("type", type)
+                    .tag("operation", operation)
+                    .tag("source", source)
+                    .register(meterRegistry)
+                    .increment();
+        }
+    }
+
+    private static String truncate(String query) {
+        if (query == null || query.length() <= MAX_QUERY_LENGTH) {
+            return query;
+        }
+        return query.substring(0, MAX_QUERY_LENGTH);
+    }
+
+    /**
+     * A search that took at least the slow threshold. {@code results} is
+     * null and {@code error} names the exception when it failed.
+     */
+    public record SlowSearch(Instant at, String type, String operation, String source, String query,
+                             Float threshold, double millis, Long results, String error,
+                             List<SearchTrace.Stage> stages) {
+    }
+}
@@ -0,0 +1,192 @@
+package gov.dhs.cbp.reference.api.search;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import gov.dhs.cbp.reference.api.dto.search.PartialSearchPage;
+import gov.dhs.cbp.reference.api.dto.search.SearchResult;
+import gov.dhs.cbp.reference.api.service.DatasetVersionService;
+import gov.dhs.cbp.reference.core.change.ReferenceDataChangedEvent;
+import gov.dhs.cbp.reference.core.change.ReferenceDataset;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * Bounded cache of search result pages, keyed by operation, normalized query,
+ * data types, threshold, filter, page and the versions of the datasets
+ * searched.
+ *
+ * <p>Caffeine's window TinyLFU policy decides admission: a new key only
+ * displaces an entry once it has been asked for more often, so the stream of
+ * one-off queries cannot flush the repetitive prefixes and country names
+ * that make up most traffic. Because the dataset versions are part of the
+ * key, a version bump makes old pages unreachable at once; a
+ * {@link ReferenceDataChangedEvent} also evicts them so they do not occupy
+ * space until TinyLFU ages them out. Without loaded dataset versions nothing
+ * is cached, and neither is a {@link PartialSearchPage}.</p>
+ *
+ * <p>{@link SearchResult} is mutable, so the cache keeps its own copies of a
+ * page's results and hands each hit fresh ones; nothing a caller does to a
+ * page can reach the cache or another request.</p>
+ *
+ * <p>{@code reference.search.cache.requests} counts hits and misses per data
+ * type ({@code mixed} for multi-type searches, {@code other} for anything
+ * that is not a searchable type) and
+ * {@code reference.search.cache.hit.ratio} reports the ratio since startup.</p>
+ */
+@Component
+public class SearchResultCache {
+
+    static final String MIXED = "mixed";
+    static final String OTHER = "other";
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final List<String> TYPE_TAGS = List.of("countries", "ports", "airports", MIXED, OTHER);
+
+    private final DatasetVersionService datasetVersionService;
+    private final boolean enabled;
+    private final Cache<Key, CachedPage> cache;
+    private final Map<String, Counter> hits = new LinkedHashMap<>();
+    private final Map<String, Counter> misses = new LinkedHashMap<>();
+
+    public SearchResultCache(DatasetVersionService datasetVersionService,
+                             MeterRegistry meterRegistry,
+                             @Value("${reference.search.cache.enabled:true}") boolean enabled,
+                             @Value("${reference.search.cache.max-entries:10000}") long maxEntries) {
+        this.datasetVersionService = datasetVersionService;
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .recordStats()
+                .build();
+
+        for (String type : TYPE_TAGS) {
+            Counter hit = Counter.builder("reference.search.cache.requests")
+                    .description("Search result cache lookups")
+                    .tag("type", type)
+                    .tag("result", "hit")
+                    .register(meterRegistry);
+            Counter miss = Counter.builder("reference.search.cache.requests")
+                    .description("Search result cache lookups")
+                    .tag("type", type)
+                    .tag("result", "miss")
+                    .register(meterRegistry);
+            hits.put(type, hit);
+            misses.put(type, miss);
+            Gauge.builder("reference.search.cache.hit.ratio", () -> {
+                        double total = hit.count() + miss.count();
+                        return total == 0 ? 0.0 : hit.count() / total;
+                    })
+                    .description("Search result cache hit ratio since startup")
+                    .tag("type", type)
+                    .register(meterRegistry);
+        }
+        FunctionCounter.builder("reference.search.cache.evictions", cache, c -> c.stats().evictionCount())
+                .description("Search result pages evicted by size")
+                .register(meterRegistry);
+        Gauge.builder("reference.search.cache.entries", cache, Cache::estimatedSize)
+                .description("Search result pages currently cached")
+                .register(meterRegistry);
+    }
+
+    /**
+     * The cached page for this search at the current dataset versions, or
+     * the page {@code loader} produces, which is then offered to the cache.
+     */
+    public Page<SearchResult> get(String operation, String query, List<String> dataTypes, Float threshold,
+                                  String filter, Pageable pageable, Supplier<Page<SearchResult>> loader) {
+        Set<ReferenceDataset> datasets = datasets(dataTypes);
+        Optional<String> version = enabled && !datasets.isEmpty()
+                ? datasetVersionService.getEntityTag(datasets) : Optional.empty();
+        if (version.isEmpty()) {
+            return loader.get();
+        }
+
+        String type = datasets.size() == 1 ? datasets.iterator().next().getId() : MIXED;
+        if (!hits.containsKey(type)) {
+            type = OTHER;
+        }
+        Key key = new Key(operation, normalize(query), datasets, threshold, filter,
+                pageable.getOffset(), pageable.getPageSize(), version.get());
+        CachedPage cached = cache.getIfPresent(key);
+        if (cached != null) {
+            hits.get(type).increment();
+            return cached.toPage(pageable);
+        }
+        misses.get(type).increment();
+        Page<SearchResult> page = loader.get();
+        if (page != null && !(page instanceof PartialSearchPage)) {
+            cache.put(key, CachedPage.of(page));
+        }
+        return page;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onReferenceDataChanged(ReferenceDataChangedEvent event) {
+        Set<ReferenceDataset> changed = event.getDatasets();
+        cache.asMap().keySet().removeIf(key -> !Collections.disjoint(key.datasets(), changed));
+    }
+
+    /**
+     * Case and spacing do not change what the search functions match
+     * ({@code pg_trgm} and {@code plainto_tsquery} both lower-case and split
+     * on white space), so they do not split cache entries either.
+     */
+    public static String normalize(String query) {
+        if (query == null) {
+            return "";
+        }
+        return WHITESPACE.matcher(query.trim()).replaceAll(" ").toLowerCase(Locale.ROOT);
+    }
+
+    private static Set<ReferenceDataset> datasets(List<String> dataTypes) {
+        Set<ReferenceDataset> datasets = EnumSet.noneOf(ReferenceDataset.class);
+        if (dataTypes != null) {
+            for (String dataType : dataTypes) {
+                ReferenceDataset.fromId(dataType).ifPresent(datasets::add);
+            }
+        }
+        return datasets;
+    }
+
+    private record Key(String operation, String query, Set<ReferenceDataset> datasets, Float threshold,
+                       String filter, long offset, int size, String version) {
+    }
+
+    /**
+     * A page's results as private copies, never handed out directly.
+     */
+    private record CachedPage(List<SearchResult> content, long total) {
+
+        static CachedPage of(Page<SearchResult> page) {
+            return new CachedPage(copy(page.getContent()), page.getTotalElements());
+        }
+
+        Page<SearchResult> toPage(Pageable pageable) {
+            return new PageImpl<>(copy(content), pageable, total);
+        }
+
+        private static List<SearchResult> copy(List<SearchResult> results) {
+            return results.stream().map(SearchResult::new).toList();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package gov.dhs.cbp.reference.api.search;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Supplier;
+
+/**
+ * Wall-clock stages of one search: the transaction and function call of a
+ * database search, each type of a scatter-gather search, a fallback from the
+ * in-memory indexes to the database. Filled in by whichever service answers
+ * and kept with the query by {@link SearchQueryMetrics} when it is slow.
+ * Stages may be timed from several threads at once.
+ */
+public final class SearchTrace {
+
+    private final long started = System.nanoTime();
+    private final Queue<Stage> stages = new ConcurrentLinkedQueue<>();
+    private volatile String source;
+
+    SearchTrace(String source) {
+        this.source = source;
+    }
+
+    /**
+     * Runs {@code work} and records how long it took as {@code stage}, also
+     * when it fails.
+     */
+    public <T> T time(String stage, Supplier<T> work) {
+        long start = System.nanoTime();
+        try {
+            return work.get();
+        } finally {
+            long end = System.nanoTime();
+            stages.add(new Stage(stage, millis(start - started), millis(end - start)));
+        }
+    }
+
+    /**
+     * The service that produced the result: the innermost one when a search
+     * was handed on.
+     */
+    public String getSource() {
+        return source;
+    }
+
+    void answeredBy(String source) {
+        this.source = source;
+    }
+
+    /**
+     * Stages in the order they started.
+     */
+    public List<Stage> getStages() {
+        return stages.stream().sorted(Comparator.comparingDouble(Stage::startMillis)).toList();
+    }
+
+    static double millis(long nanos) {
+        return Math.round(nanos / 1_000.0) / 1_000.0;
+    }
+
+    /**
+     * One timed stage, with its start relative to the start of the search.
+     */
+    public record Stage(String name, double startMillis, double millis) {
+    }
+}
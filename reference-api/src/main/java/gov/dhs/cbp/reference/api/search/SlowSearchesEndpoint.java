@@ -0,0 +1,45 @@
+package gov.dhs.cbp.reference.api.search;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * {@code /actuator/slowsearches}: the recent searches that took longer than
+ * the slow threshold, slowest first, with their stage timings. A
+ * {@code DELETE} empties the buffer, e.g. before measuring an index or
+ * threshold change. Not exposed over HTTP by default: it shows what clients
+ * searched for, so add it to {@code management.endpoints.web.exposure.include}
+ * only where the actuator is not reachable by them.
+ */
+@Component
+@Endpoint(id = "slowsearches")
+public class SlowSearchesEndpoint {
+
+    private final SearchQueryMetrics metrics;
+
+    public SlowSearchesEndpoint(SearchQueryMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @ReadOperation
+    public SlowSearches slowSearches(@Nullable Integer limit) {
+        List<SearchQueryMetrics.SlowSearch> searches = metrics.slowSearches();
+        if (limit != null && limit >= 0 && limit < searches.size()) {
+            searches = searches.subList(0, limit);
+        }
+        return new SlowSearches(metrics.getSlowThreshold().toMillis(), metrics.getCapacity(), searches);
+    }
+
+    @DeleteOperation
+    public void clear() {
+        metrics.clearSlowSearches();
+    }
+
+    public record SlowSearches(long thresholdMs, int capacity, List<SearchQueryMetrics.SlowSearch> searches) {
+    }
+}
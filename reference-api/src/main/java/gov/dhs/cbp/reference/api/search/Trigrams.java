@@ -0,0 +1,123 @@
+package gov.dhs.cbp.reference.api.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Text handling shared by the in-memory search index, following
+ * {@code pg_trgm} so scores line up with the database functions: text is
+ * lower-cased (and, unlike plain {@code pg_trgm}, folded as
+ * {@code reference_data.fold_name} does), split into words at
+ * non-alphanumeric characters, and each word is padded with two leading
+ * blanks and one trailing blank before taking trigrams.
+ */
+public final class Trigrams {
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern APOSTROPHES = Pattern.compile("['\u2018\u2019\u02bc`\u00b4]");
+    private static final Map<Character, String> LETTERS = Map.of(
+            '\u00df', "ss", '\u00e6', "ae", '\u0153', "oe", '\u00f8', "o", '\u0111', "d",
+            '\u00f0', "d", '\u0142', "l", '\u00fe', "th", '\u0131', "i");
+
+    private Trigrams() {
+    }
+
+    /**
+     * Strips accents, lower-cases, spells out the Latin letters that do not
+     * decompose ({@code ß}, {@code æ}, {@code ø}, {@code ł}, ...) and drops
+     * apostrophes, so "Côte d'Ivoire" and "Cote dIvoire" fold to the same
+     * words.
+     */
+    public static String normalize(String text) {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        String folded = COMBINING_MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+        folded = APOSTROPHES.matcher(folded).replaceAll("");
+        StringBuilder transliterated = new StringBuilder(folded.length());
+        for (int i = 0; i < folded.length(); i++) {
+            char c = folded.charAt(i);
+            String replacement = LETTERS.get(c);
+            if (replacement != null) {
+                transliterated.append(replacement);
+            } else {
+                transliterated.append(c);
+            }
+        }
+        return transliterated.toString();
+    }
+
+    /**
+     * Words of already-normalized text, in order, duplicates kept.
+     */
+    public static List<String> words(String normalized) {
+        List<String> words = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= normalized.length(); i++) {
+            boolean wordChar = i < normalized.length() && Character.isLetterOrDigit(normalized.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                words.add(normalized.substring(start, i));
+                start = -1;
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Distinct trigrams of already-normalized text, each packed into a long
+     * (21 bits per character), in ascending order.
+     */
+    public static long[] of(String normalized) {
+        List<String> words = words(normalized);
+        int capacity = 0;
+        for (String word : words) {
+            capacity += word.length() + 1;
+        }
+        long[] trigrams = new long[capacity];
+        int count = 0;
+        for (String word : words) {
+            String padded = "  " + word + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                trigrams[count++] = pack(padded.charAt(i), padded.charAt(i + 1), padded.charAt(i + 2));
+            }
+        }
+        Arrays.sort(trigrams, 0, count);
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinct == 0 || trigrams[distinct - 1] != trigrams[i]) {
+                trigrams[distinct++] = trigrams[i];
+            }
+        }
+        return Arrays.copyOf(trigrams, distinct);
+    }
+
+    /**
+     * {@code pg_trgm} similarity: shared trigrams over the trigrams of both.
+     */
+    public static float similarity(String a, String b) {
+        long[] left = of(normalize(a));
+        long[] right = of(normalize(b));
+        if (left.length == 0 || right.length == 0) {
+            return 0f;
+        }
+        int shared = 0;
+        for (long trigram : left) {
+            if (Arrays.binarySearch(right, trigram) >= 0) {
+                shared++;
+            }
+        }
+        return (float) shared / (left.length + right.length - shared);
+    }
+
+    private static long pack(char a, char b, char c) {
+        return ((long) a << 42) | ((long) b << 21) | c;
+    }
+}
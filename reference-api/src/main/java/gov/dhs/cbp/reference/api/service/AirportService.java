@@ -1,10 +1,22 @@
 package gov.dhs.cbp.reference.api.service;
 
+import gov.dhs.cbp.reference.api.dto.AirportCodeMatch;
+import gov.dhs.cbp.reference.api.dto.AirportCodeType;
 import gov.dhs.cbp.reference.api.dto.AirportDto;
+import gov.dhs.cbp.reference.api.dto.MultiGetResponse;
+import gov.dhs.cbp.reference.api.dto.NearbyResult;
 import gov.dhs.cbp.reference.api.dto.PagedResponse;
 import gov.dhs.cbp.reference.api.mapper.AirportMapper;
+import gov.dhs.cbp.reference.api.snapshot.ReferenceSnapshot;
+import gov.dhs.cbp.reference.api.snapshot.ReferenceSnapshotStore;
+import gov.dhs.cbp.reference.core.cache.SingleFlight;
+import gov.dhs.cbp.reference.core.cache.VersionedValue;
+import gov.dhs.cbp.reference.core.change.ReferenceDataset;
 import gov.dhs.cbp.reference.core.entity.Airport;
+import gov.dhs.cbp.reference.core.geo.GeoIndex;
 import gov.dhs.cbp.reference.core.repository.AirportRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
@@ -12,10 +24,15 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Transactional(readOnly = true)
@@ -23,56 +40,164 @@ public class AirportService {
     
     private final AirportRepository airportRepository;
     private final AirportMapper airportMapper;
+    private final ReferenceSnapshotStore snapshotStore;
+    private final DatasetVersionService datasetVersionService;
     
-    public AirportService(AirportRepository airportRepository, AirportMapper airportMapper) {
+    private final SingleFlight<String, Optional<AirportDto>> lookups = new SingleFlight<>("airport");
+    private final SingleFlight<String, Optional<AirportCodeMatch>> codeLookups = new SingleFlight<>("airport-code");
+    
+    private final VersionedValue<String, GeoIndex<AirportDto>> nearbyIndex = new VersionedValue<>("airport-nearby");
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    public AirportService(AirportRepository airportRepository, AirportMapper airportMapper,
+                          ReferenceSnapshotStore snapshotStore, DatasetVersionService datasetVersionService) {
         this.airportRepository = airportRepository;
         this.airportMapper = airportMapper;
+        this.snapshotStore = snapshotStore;
+        this.datasetVersionService = datasetVersionService;
     }
     
     public Optional<AirportDto> findById(UUID id) {
+        Optional<ReferenceSnapshot> snapshot = snapshotStore.current();
+        if (snapshot.isPresent()) {
+            Optional<AirportDto> cached = snapshot.get().findAirportById(id);
+            if (cached.isPresent()) {
+                return cached;
+            }
+        }
         return airportRepository.findById(id)
                 .map(airportMapper::toDto);
     }
     
     public Optional<AirportDto> findByIataCodeAndSystem(String iataCode, String systemCode) {
-        return airportRepository.findCurrentByIataCodeAndSystemCode(iataCode, systemCode)
-                .map(airportMapper::toDto);
+        Optional<ReferenceSnapshot> snapshot = snapshotStore.current();
+        if (snapshot.isPresent()) {
+            return snapshot.get().findAirportByIata(iataCode, systemCode);
+        }
+        return lookups.execute("iata:" + iataCode + "|" + systemCode,
+                () -> airportRepository.findCurrentByIataCodeAndSystemCode(iataCode, systemCode)
+                        .map(airportMapper::toDto));
     }
     
     public Optional<AirportDto> findByIcaoCodeAndSystem(String icaoCode, String systemCode) {
-        return airportRepository.findCurrentByIcaoCodeAndSystemCode(icaoCode, systemCode)
-                .map(airportMapper::toDto);
+        Optional<ReferenceSnapshot> snapshot = snapshotStore.current();
+        if (snapshot.isPresent()) {
+            return snapshot.get().findAirportByIcao(icaoCode, systemCode);
+        }
+        return lookups.execute("icao:" + icaoCode + "|" + systemCode,
+                () -> airportRepository.findCurrentByIcaoCodeAndSystemCode(icaoCode, systemCode)
+                        .map(airportMapper::toDto));
     }
     
     public Optional<AirportDto> findByCodeAndSystem(String code, String systemCode) {
-        // Try IATA first, then ICAO
-        Optional<AirportDto> iataResult = findByIataCodeAndSystem(code, systemCode);
-        if (iataResult.isPresent()) {
-            return iataResult;
+        return resolveCode(code, systemCode).map(AirportCodeMatch::getAirport);
+    }
+    
+    /**
+     * Resolves a code that may be IATA or ICAO with a single probe: one lookup
+     * in the snapshot's combined code index, or one query matching either
+     * column. IATA takes precedence when both match.
+     */
+    public Optional<AirportCodeMatch> resolveCode(String code, String systemCode) {
+        Optional<ReferenceSnapshot> snapshot = snapshotStore.current();
+        if (snapshot.isPresent()) {
+            return snapshot.get().findAirportByCode(code, systemCode);
         }
-        return findByIcaoCodeAndSystem(code, systemCode);
+        return codeLookups.execute(code + "|" + systemCode,
+                () -> firstMatch(code, airportRepository.findCurrentByAnyCodeAndSystemCode(code, systemCode)));
     }
     
     public Optional<AirportDto> findByIataCodeAndSystemAsOf(String iataCode, String systemCode, LocalDate asOf) {
+        Optional<ReferenceSnapshot> snapshot = snapshotStore.current();
+        if (snapshot.isPresent() && snapshot.get().coversAsOf(asOf)) {
+            Optional<AirportDto> cached = snapshot.get().findAirportByIata(iataCode, systemCode)
+                    .filter(dto -> ReferenceSnapshot.validOn(dto.getValidFrom(), asOf));
+            if (cached.isPresent()) {
+                return cached;
+            }
+        }
         return airportRepository.findByIataCodeAndSystemAsOf(iataCode, systemCode, asOf)
                 .map(airportMapper::toDto);
     }
     
     public Optional<AirportDto> findByIcaoCodeAndSystemAsOf(String icaoCode, String systemCode, LocalDate asOf) {
+        Optional<ReferenceSnapshot> snapshot = snapshotStore.current();
+        if (snapshot.isPresent() && snapshot.get().coversAsOf(asOf)) {
+            Optional<AirportDto> cached = snapshot.get().findAirportByIcao(icaoCode, systemCode)
+                    .filter(dto -> ReferenceSnapshot.validOn(dto.getValidFrom(), asOf));
+            if (cached.isPresent()) {
+                return cached;
+            }
+        }
         return airportRepository.findByIcaoCodeAndSystemAsOf(icaoCode, systemCode, asOf)
                 .map(airportMapper::toDto);
     }
     
     public Optional<AirportDto> findByCodeAndSystemAsOf(String code, String systemCode, LocalDate asOf) {
-        // Try IATA first, then ICAO
-        Optional<AirportDto> iataResult = findByIataCodeAndSystemAsOf(code, systemCode, asOf);
-        if (iataResult.isPresent()) {
-            return iataResult;
+        return resolveCodeAsOf(code, systemCode, asOf).map(AirportCodeMatch::getAirport);
+    }
+    
+    public Optional<AirportCodeMatch> resolveCodeAsOf(String code, String systemCode, LocalDate asOf) {
+        Optional<ReferenceSnapshot> snapshot = snapshotStore.current();
+        if (snapshot.isPresent() && snapshot.get().coversAsOf(asOf)) {
+            Optional<AirportCodeMatch> cached = snapshot.get().findAirportByCode(code, systemCode)
+                    .filter(match -> ReferenceSnapshot.validOn(match.getAirport().getValidFrom(), asOf));
+            if (cached.isPresent()) {
+                return cached;
+            }
+        }
+        return firstMatch(code, airportRepository.findByAnyCodeAndSystemAsOf(code, systemCode, asOf));
+    }
+    
+    private Optional<AirportCodeMatch> firstMatch(String code, List<Airport> rows) {
+        // Rows arrive in precedence order, highest version first; re-check in
+        // case the database compared codes under a looser collation
+        for (AirportCodeType type : AirportCodeType.values()) {
+            for (Airport row : rows) {
+                if (code.equals(type.codeOf(row))) {
+                    return Optional.of(new AirportCodeMatch(airportMapper.toDto(row), type));
+                }
+            }
         }
-        return findByIcaoCodeAndSystemAsOf(code, systemCode, asOf);
+        return Optional.empty();
+    }
+    
+    /**
+     * Resolves several codes in one code system with a single {@code IN} query,
+     * or with in-memory probes while the snapshot is loaded. Codes match
+     * IATA before ICAO, as on {@link #findByCodeAndSystem}.
+     * {@code asOf} has the same meaning as on the single-key lookups.
+     */
+    public MultiGetResponse<AirportDto> findByCodesAndSystem(Collection<String> codes, String systemCode, LocalDate asOf) {
+        Set<String> requested = MultiKeyLookup.normalize(codes);
+        Map<String, AirportDto> found;
+        if (snapshotStore.current().isPresent()) {
+            found = MultiKeyLookup.probe(requested, code -> asOf != null
+                    ? findByCodeAndSystemAsOf(code, systemCode, asOf)
+                    : findByCodeAndSystem(code, systemCode));
+        } else if (asOf != null) {
+            List<Airport> rows = airportRepository.findByCodesAndSystemAsOf(requested, systemCode, asOf);
+            found = MultiKeyLookup.mapValues(
+                    MultiKeyLookup.match(requested, rows,
+                            List.of(Airport::getIataCode, Airport::getIcaoCode), Airport::getVersion),
+                    airportMapper::toDto);
+        } else {
+            List<Airport> rows = airportRepository.findCurrentByCodesAndSystemCode(requested, systemCode);
+            found = MultiKeyLookup.mapValues(
+                    MultiKeyLookup.match(requested, rows,
+                            List.of(Airport::getIataCode, Airport::getIcaoCode), Airport::getVersion),
+                    airportMapper::toDto);
+        }
+        return MultiKeyLookup.response(systemCode, asOf, requested, found);
     }
     
     public PagedResponse<AirportDto> findBySystemCode(String systemCode, PageRequest pageRequest) {
+        Optional<ReferenceSnapshot> snapshot = snapshotStore.current();
+        if (snapshot.isPresent()) {
+            return snapshot.get().findAirportsBySystem(systemCode, pageRequest);
+        }
         Page<Airport> page = airportRepository.findCurrentBySystemCode(systemCode, pageRequest);
         List<AirportDto> dtos = page.getContent().stream()
                 .map(airportMapper::toDto)
@@ -97,29 +222,96 @@ public class AirportService {
     }
     
     public List<AirportDto> findByCountryCode(String countryCode) {
+        Optional<ReferenceSnapshot> snapshot = snapshotStore.current();
+        if (snapshot.isPresent()) {
+            return snapshot.get().findAirportsByCountry(countryCode);
+        }
         return airportRepository.findCurrentByCountryCode(countryCode).stream()
                 .map(airportMapper::toDto)
                 .collect(Collectors.toList());
     }
     
     public List<AirportDto> findByCity(String city) {
+        Optional<ReferenceSnapshot> snapshot = snapshotStore.current();
+        if (snapshot.isPresent()) {
+            return snapshot.get().findAirportsByCity(city);
+        }
         return airportRepository.findCurrentByCity(city).stream()
                 .map(airportMapper::toDto)
                 .collect(Collectors.toList());
     }
     
     public List<AirportDto> findByAirportType(String airportType) {
+        Optional<ReferenceSnapshot> snapshot = snapshotStore.current();
+        if (snapshot.isPresent()) {
+            return snapshot.get().findAirportsByType(airportType);
+        }
         return airportRepository.findCurrentByAirportType(airportType).stream()
                 .map(airportMapper::toDto)
                 .collect(Collectors.toList());
     }
     
-    public List<AirportDto> findAllCurrent() {
-        return airportRepository.findAllActive().stream()
-                .map(airportMapper::toDto)
+    /**
+     * Active airports nearest to the coordinate, nearest first. With no
+     * {@code radiusKm} this is a plain k-nearest query. The snapshot answers
+     * from its spatial index; without one an index over the active rows is
+     * built once per dataset version and business date and reused.
+     */
+    public List<NearbyResult<AirportDto>> findNearby(double latitude, double longitude, Double radiusKm,
+                                                  int limit, String systemCode) {
+        double maxDistanceKm = radiusKm != null ? radiusKm : Double.POSITIVE_INFINITY;
+        List<GeoIndex.Neighbor<AirportDto>> neighbors;
+        Optional<ReferenceSnapshot> snapshot = snapshotStore.current();
+        if (snapshot.isPresent()) {
+            neighbors = snapshot.get().findAirportsNear(latitude, longitude, limit, maxDistanceKm, systemCode);
+        } else {
+            String key = datasetVersionService.getVersion(ReferenceDataset.AIRPORTS) + "|" + LocalDate.now();
+            GeoIndex<AirportDto> index = nearbyIndex.get(key, () -> GeoIndex.build(
+                    airportRepository.findAllActive().stream().map(airportMapper::toDto).collect(Collectors.toList()),
+                    AirportDto::getLatitude, AirportDto::getLongitude));
+            // The index is shared between requests; hand out copies
+            neighbors = index.nearest(latitude, longitude, limit, maxDistanceKm,
+                    dto -> systemCode == null || systemCode.equals(dto.getCodeSystem())).stream()
+                    .map(neighbor -> new GeoIndex.Neighbor<>(new AirportDto(neighbor.item()), neighbor.distanceKm()))
+                    .collect(Collectors.toList());
+        }
+        return neighbors.stream()
+                .map(neighbor -> new NearbyResult<>(neighbor.item(), neighbor.distanceKm()))
                 .collect(Collectors.toList());
     }
     
+    /**
+     * Streams active airports to {@code sink} without materialising the result set.
+     * Rows come from a forward-only cursor and each entity is detached once
+     * mapped, so the persistence context does not grow with the dataset.
+     */
+    public void streamAllCurrent(Consumer<AirportDto> sink) {
+        Optional<ReferenceSnapshot> snapshot = snapshotStore.current();
+        if (snapshot.isPresent()) {
+            snapshot.get().getAirports().stream()
+                    .filter(dto -> Boolean.TRUE.equals(dto.getIsActive()))
+                    .forEach(sink);
+            return;
+        }
+        try (Stream<Airport> airports = airportRepository.streamAllActive()) {
+            airports.forEach(entity -> {
+                sink.accept(airportMapper.toDto(entity));
+                entityManager.detach(entity);
+            });
+        }
+    }
+    
+    /**
+     * Coalesces concurrent identical code lookups that miss the snapshot.
+     */
+    public SingleFlight<String, Optional<AirportDto>> getLookupFlight() {
+        return lookups;
+    }
+    
+    public SingleFlight<String, Optional<AirportCodeMatch>> getCodeLookupFlight() {
+        return codeLookups;
+    }
+    
     public long getTotalCount() {
         return airportRepository.count();
     }
@@ -135,7 +327,7 @@ public class AirportService {
     }
     
     public String getCurrentVersion() {
-        return "1.0.0"; // TODO: Implement versioning system
+        return String.valueOf(datasetVersionService.getVersion(ReferenceDataset.AIRPORTS));
     }
     
     // Write operations for future implementation (protected endpoints)
@@ -145,6 +337,7 @@ public class AirportService {
         Airport airport = airportMapper.toEntity(airportDto);
         // TODO: Add bitemporal logic, validation, and code system resolution
         Airport saved = airportRepository.save(airport);
+        datasetVersionService.recordWrite(ReferenceDataset.AIRPORTS);
         return airportMapper.toDto(saved);
     }
     
@@ -0,0 +1,185 @@
+package gov.dhs.cbp.reference.api.service;
+
+import gov.dhs.cbp.reference.api.dto.search.BatchSearchRequest;
+import gov.dhs.cbp.reference.api.dto.search.BatchSearchResponse;
+import gov.dhs.cbp.reference.api.dto.search.PartialSearchPage;
+import gov.dhs.cbp.reference.api.dto.search.SearchResult;
+import gov.dhs.cbp.reference.api.search.ScatterGatherSearch;
+import gov.dhs.cbp.reference.api.search.SearchResultCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Runs the queries of a batch search, as used to resolve the free-text port
+ * and country names of a manifest in one call.
+ *
+ * <p>Queries that would search the same thing (same type, country and
+ * threshold, and the same text up to case and spacing, as
+ * {@link SearchResultCache} keys them) run once and share their result.
+ * The distinct queries go through {@link SearchService}, and so through the
+ * in-memory indexes or the result cache when those are on, with at most
+ * {@code reference.search.batch.parallelism} connections' worth running at
+ * once so a large batch cannot take every pooled connection. A query without
+ * a type is a universal search, which searches every data type at once, so a
+ * batch with any such query runs a third as many queries together. Queries
+ * still unfinished at {@code reference.search.batch.deadline-ms} are
+ * reported as timed out; a query that fails is reported as failed, with the
+ * trace ID it was logged under, without failing the batch.</p>
+ */
+@Service
+public class BatchSearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchSearchService.class);
+
+    static final int DEFAULT_LIMIT = 5;
+    static final String FAILED = "search failed";
+    private static final float DEFAULT_THRESHOLD = 0.3f;
+    private static final List<String> ALL_DATA_TYPES = List.of("countries", "ports", "airports");
+
+    private final SearchService searchService;
+    private final ScatterGatherSearch scatterGather;
+    private final int parallelism;
+    private final Duration deadline;
+    private final Counter distinctQueries;
+    private final Counter duplicateQueries;
+    private final Counter timedOutQueries;
+    private final Timer batchTimer;
+
+    public BatchSearchService(SearchService searchService,
+                              ScatterGatherSearch scatterGather,
+                              MeterRegistry meterRegistry,
+                              @Value("${reference.search.batch.parallelism:8}") int parallelism,
+                              @Value("${reference.search.batch.deadline-ms:30000}") long deadlineMs) {
+        this.searchService = searchService;
+        this.scatterGather = scatterGather;
+        this.parallelism = parallelism;
+        this.deadline = Duration.ofMillis(deadlineMs);
+        this.distinctQueries = Counter.builder("reference.search.batch.queries")
+                .description("Batch search queries, by whether they ran or reused an identical query")
+                .tag("kind", "distinct")
+                .register(meterRegistry);
+        this.duplicateQueries = Counter.builder("reference.search.batch.queries")
+                .description("Batch search queries, by whether they ran or reused an identical query")
+                .tag("kind", "duplicate")
+                .register(meterRegistry);
+        this.timedOutQueries = Counter.builder("reference.search.batch.timeouts")
+                .description("Batch search queries unfinished at the batch deadline")
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder("reference.search.batch.duration")
+                .description("Time taken to answer a batch search")
+                .register(meterRegistry);
+    }
+
+    public BatchSearchResponse search(BatchSearchRequest request) {
+        return batchTimer.record(() -> run(request));
+    }
+
+    private BatchSearchResponse run(BatchSearchRequest request) {
+        int limit = request.limit() != null ? request.limit() : DEFAULT_LIMIT;
+        List<BatchSearchRequest.Query> queries = request.queries();
+
+        List<String> keys = new ArrayList<>(queries.size());
+        Map<String, BatchSearchRequest.Query> distinct = new LinkedHashMap<>();
+        for (BatchSearchRequest.Query query : queries) {
+            String key = key(query);
+            keys.add(key);
+            distinct.putIfAbsent(key, query);
+        }
+        distinctQueries.increment(distinct.size());
+        duplicateQueries.increment(queries.size() - distinct.size());
+
+        boolean universal = distinct.values().stream().anyMatch(query -> query.type() == null);
+        int running = universal ? Math.max(1, parallelism / ALL_DATA_TYPES.size()) : parallelism;
+        String traceId = MDC.get("traceId");
+        ScatterGatherSearch.Gathered<Outcome> gathered = scatterGather.gatherBounded(distinct.keySet(),
+                running, deadline, key -> execute(distinct.get(key), limit, traceId));
+        if (gathered.isPartial()) {
+            timedOutQueries.increment(gathered.timedOut().size());
+            logger.warn("Batch search left {} of {} distinct queries unfinished after {} ms",
+                    gathered.timedOut().size(), distinct.size(), deadline.toMillis());
+        }
+
+        List<BatchSearchResponse.Result> results = new ArrayList<>(queries.size());
+        for (int i = 0; i < queries.size(); i++) {
+            BatchSearchRequest.Query query = queries.get(i);
+            Outcome outcome = gathered.results().get(keys.get(i));
+            results.add(outcome != null
+                    ? outcome.toResult(query)
+                    : new BatchSearchResponse.Result(query.id(), query.q(), query.type(), "timed_out",
+                            null, null, null, null, null));
+        }
+        return new BatchSearchResponse(distinct.size(), results);
+    }
+
+    private Outcome execute(BatchSearchRequest.Query query, int limit, String requestTraceId) {
+        Pageable first = PageRequest.of(0, limit);
+        float threshold = query.threshold() != null ? query.threshold() : DEFAULT_THRESHOLD;
+        try {
+            Page<SearchResult> page = switch (query.type() != null ? query.type() : "") {
+                case "countries" -> searchService.searchCountries(query.q(), threshold, first);
+                case "ports" -> searchService.searchPorts(query.q(), countryCode(query), threshold, first);
+                case "airports" -> searchService.searchAirports(query.q(), threshold, first);
+                default -> searchService.universalSearch(query.q(), ALL_DATA_TYPES, threshold, first);
+            };
+            return new Outcome(page, null);
+        } catch (ScatterGatherSearch.DeadlineExceededException e) {
+            // Reported with the other unfinished queries
+            throw e;
+        } catch (RuntimeException e) {
+            // The cause can name tables or SQL, so the caller only gets the trace ID
+            String traceId = requestTraceId != null ? requestTraceId : UUID.randomUUID().toString();
+            logger.warn("Batch search query of type {} failed [traceId={}]",
+                    query.type() != null ? query.type() : "all", traceId, e);
+            return new Outcome(null, traceId);
+        }
+    }
+
+    /**
+     * Identical searches share a key: data type, port country, threshold and
+     * the query text up to case and spacing.
+     */
+    static String key(BatchSearchRequest.Query query) {
+        float threshold = query.threshold() != null ? query.threshold() : DEFAULT_THRESHOLD;
+        String countryCode = "ports".equals(query.type()) ? countryCode(query) : null;
+        return (query.type() != null ? query.type() : "*") + '\u0000' + (countryCode != null ? countryCode : "")
+                + '\u0000' + threshold + '\u0000' + SearchResultCache.normalize(query.q());
+    }
+
+    private static String countryCode(BatchSearchRequest.Query query) {
+        return query.countryCode() != null && !query.countryCode().isBlank()
+                ? query.countryCode().trim().toUpperCase(Locale.ROOT) : null;
+    }
+
+    private record Outcome(Page<SearchResult> page, String failureTraceId) {
+
+        BatchSearchResponse.Result toResult(BatchSearchRequest.Query query) {
+            if (page == null) {
+                return new BatchSearchResponse.Result(query.id(), query.q(), query.type(), "failed",
+                        null, null, null, FAILED, failureTraceId);
+            }
+            if (page instanceof PartialSearchPage partial) {
+                return new BatchSearchResponse.Result(query.id(), query.q(), query.type(), "partial",
+                        page.getContent(), page.getTotalElements(), partial.getMissingTypes(), null, null);
+            }
+            return new BatchSearchResponse.Result(query.id(), query.q(), query.type(), "ok",
+                    page.getContent(), page.getTotalElements(), null, null, null);
+        }
+    }
+}
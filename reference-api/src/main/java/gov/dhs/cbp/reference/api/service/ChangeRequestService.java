@@ -3,12 +3,15 @@ package gov.dhs.cbp.reference.api.service;
 import gov.dhs.cbp.reference.api.dto.ChangeRequestDto;
 import gov.dhs.cbp.reference.api.dto.PagedResponse;
 import gov.dhs.cbp.reference.api.mapper.ChangeRequestMapper;
+import gov.dhs.cbp.reference.api.statistics.ChangeRequestStatusChangedEvent;
+import gov.dhs.cbp.reference.api.statistics.DatasetStatisticsService;
 import gov.dhs.cbp.reference.core.entity.ChangeRequest;
 import gov.dhs.cbp.reference.core.repository.ChangeRequestRepository;
 import gov.dhs.cbp.reference.events.publisher.OutboxPublisher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -18,6 +21,7 @@ import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -31,13 +35,19 @@ public class ChangeRequestService {
     private final ChangeRequestRepository changeRequestRepository;
     private final ChangeRequestMapper changeRequestMapper;
     private final OutboxPublisher outboxPublisher;
+    private final ApplicationEventPublisher eventPublisher;
+    private final DatasetStatisticsService statisticsService;
     
     public ChangeRequestService(ChangeRequestRepository changeRequestRepository,
                                ChangeRequestMapper changeRequestMapper,
-                               @Autowired(required = false) OutboxPublisher outboxPublisher) {
+                               @Autowired(required = false) OutboxPublisher outboxPublisher,
+                               ApplicationEventPublisher eventPublisher,
+                               DatasetStatisticsService statisticsService) {
         this.changeRequestRepository = changeRequestRepository;
         this.changeRequestMapper = changeRequestMapper;
         this.outboxPublisher = outboxPublisher;
+        this.eventPublisher = eventPublisher;
+        this.statisticsService = statisticsService;
     }
     
     public Optional<ChangeRequestDto> findById(UUID id) {
@@ -93,6 +103,7 @@ public class ChangeRequestService {
         
         // Publish change request created event
         publishChangeRequestEvent(saved, "CHANGE_REQUEST_CREATED");
+        eventPublisher.publishEvent(new ChangeRequestStatusChangedEvent(null, saved.getStatus()));
         
         logger.info("Created change request {} for data type {}", saved.getId(), saved.getDataType());
         
@@ -104,11 +115,15 @@ public class ChangeRequestService {
         return changeRequestRepository.findById(id)
                 .filter(existing -> "PENDING".equals(existing.getStatus()))
                 .map(existing -> {
+                    String previousStatus = existing.getStatus();
                     changeRequestMapper.updateEntityFromDto(dto, existing);
                     existing.setUpdatedAt(LocalDateTime.now());
                     
                     ChangeRequest saved = changeRequestRepository.save(existing);
                     publishChangeRequestEvent(saved, "CHANGE_REQUEST_UPDATED");
+                    if (!Objects.equals(previousStatus, saved.getStatus())) {
+                        eventPublisher.publishEvent(new ChangeRequestStatusChangedEvent(previousStatus, saved.getStatus()));
+                    }
                     
                     logger.info("Updated change request {}", saved.getId());
                     
@@ -135,6 +150,7 @@ public class ChangeRequestService {
                     
                     ChangeRequest saved = changeRequestRepository.save(existing);
                     publishChangeRequestEvent(saved, "CHANGE_REQUEST_APPROVED");
+                    eventPublisher.publishEvent(new ChangeRequestStatusChangedEvent("PENDING", saved.getStatus()));
                     
                     logger.info("Approved change request {}", saved.getId());
                     
@@ -155,6 +171,7 @@ public class ChangeRequestService {
                     
                     ChangeRequest saved = changeRequestRepository.save(existing);
                     publishChangeRequestEvent(saved, "CHANGE_REQUEST_REJECTED");
+                    eventPublisher.publishEvent(new ChangeRequestStatusChangedEvent("PENDING", saved.getStatus()));
                     
                     logger.info("Rejected change request {}: {}", saved.getId(), reason);
                     
@@ -167,11 +184,13 @@ public class ChangeRequestService {
         return changeRequestRepository.findById(id)
                 .filter(existing -> "PENDING".equals(existing.getStatus()) || "APPROVED".equals(existing.getStatus()))
                 .map(existing -> {
+                    String previousStatus = existing.getStatus();
                     existing.setStatus("CANCELLED");
                     existing.setUpdatedAt(LocalDateTime.now());
                     
                     ChangeRequest saved = changeRequestRepository.save(existing);
                     publishChangeRequestEvent(saved, "CHANGE_REQUEST_CANCELLED");
+                    eventPublisher.publishEvent(new ChangeRequestStatusChangedEvent(previousStatus, saved.getStatus()));
                     
                     logger.info("Cancelled change request {}", saved.getId());
                     
@@ -182,16 +201,16 @@ public class ChangeRequestService {
     public Map<String, Object> getStatistics() {
         Map<String, Object> stats = new HashMap<>();
         
-        stats.put("totalRequests", changeRequestRepository.count());
-        stats.put("pendingRequests", changeRequestRepository.countPending());
+        Map<String, Long> counts = statisticsService.getChangeRequestCounts();
         
-        // TODO: Add more detailed statistics
+        stats.put("totalRequests", counts.values().stream().mapToLong(Long::longValue).sum());
+        stats.put("pendingRequests", counts.getOrDefault("PENDING", 0L));
         stats.put("requestsByStatus", Map.of(
-                "pending", changeRequestRepository.countPending(),
-                "approved", 0L, // TODO: Implement these counts
-                "rejected", 0L,
-                "applied", 0L,
-                "cancelled", 0L
+                "pending", counts.getOrDefault("PENDING", 0L),
+                "approved", counts.getOrDefault("APPROVED", 0L),
+                "rejected", counts.getOrDefault("REJECTED", 0L),
+                "applied", counts.getOrDefault("APPLIED", 0L),
+                "cancelled", counts.getOrDefault("CANCELLED", 0L)
         ));
         
         return stats;
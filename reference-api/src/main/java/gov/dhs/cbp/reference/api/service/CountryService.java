@@ -1,10 +1,17 @@
 package gov.dhs.cbp.reference.api.service;
 
 import gov.dhs.cbp.reference.api.dto.CountryDto;
+import gov.dhs.cbp.reference.api.dto.MultiGetResponse;
 import gov.dhs.cbp.reference.api.dto.PagedResponse;
 import gov.dhs.cbp.reference.api.mapper.CountryMapper;
+import gov.dhs.cbp.reference.api.snapshot.ReferenceSnapshot;
+import gov.dhs.cbp.reference.api.snapshot.ReferenceSnapshotStore;
+import gov.dhs.cbp.reference.core.cache.SingleFlight;
+import gov.dhs.cbp.reference.core.change.ReferenceDataset;
 import gov.dhs.cbp.reference.core.entity.Country;
 import gov.dhs.cbp.reference.core.repository.CountryRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
@@ -12,10 +19,15 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Transactional(readOnly = true)
@@ -23,28 +35,88 @@ public class CountryService {
     
     private final CountryRepository countryRepository;
     private final CountryMapper countryMapper;
+    private final ReferenceSnapshotStore snapshotStore;
+    private final DatasetVersionService datasetVersionService;
     
-    public CountryService(CountryRepository countryRepository, CountryMapper countryMapper) {
+    private final SingleFlight<String, Optional<CountryDto>> lookups = new SingleFlight<>("country");
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    public CountryService(CountryRepository countryRepository, CountryMapper countryMapper,
+                          ReferenceSnapshotStore snapshotStore, DatasetVersionService datasetVersionService) {
         this.countryRepository = countryRepository;
         this.countryMapper = countryMapper;
+        this.snapshotStore = snapshotStore;
+        this.datasetVersionService = datasetVersionService;
     }
     
     public Optional<CountryDto> findById(UUID id) {
+        Optional<ReferenceSnapshot> snapshot = snapshotStore.current();
+        if (snapshot.isPresent()) {
+            Optional<CountryDto> cached = snapshot.get().findCountryById(id);
+            if (cached.isPresent()) {
+                return cached;
+            }
+        }
         return countryRepository.findById(id)
                 .map(countryMapper::toDto);
     }
     
     public Optional<CountryDto> findByCodeAndSystem(String code, String systemCode) {
-        return countryRepository.findCurrentByCodeAndSystemCode(code, systemCode)
-                .map(countryMapper::toDto);
+        Optional<ReferenceSnapshot> snapshot = snapshotStore.current();
+        if (snapshot.isPresent()) {
+            return snapshot.get().findCountry(code, systemCode);
+        }
+        return lookups.execute("code:" + code + "|" + systemCode,
+                () -> countryRepository.findCurrentByCodeAndSystemCode(code, systemCode)
+                        .map(countryMapper::toDto));
     }
     
     public Optional<CountryDto> findByCodeAndSystemAsOf(String code, String systemCode, LocalDate asOf) {
+        Optional<ReferenceSnapshot> snapshot = snapshotStore.current();
+        if (snapshot.isPresent() && snapshot.get().coversAsOf(asOf)) {
+            Optional<CountryDto> cached = snapshot.get().findCountry(code, systemCode)
+                    .filter(dto -> ReferenceSnapshot.validOn(dto.getValidFrom(), asOf));
+            if (cached.isPresent()) {
+                return cached;
+            }
+        }
         return countryRepository.findByCodeAndSystemAsOf(code, systemCode, asOf)
                 .map(countryMapper::toDto);
     }
     
+    /**
+     * Resolves several codes in one code system with a single {@code IN} query,
+     * or with in-memory probes while the snapshot is loaded.
+     * {@code asOf} has the same meaning as on the single-key lookups.
+     */
+    public MultiGetResponse<CountryDto> findByCodesAndSystem(Collection<String> codes, String systemCode, LocalDate asOf) {
+        Set<String> requested = MultiKeyLookup.normalize(codes);
+        Map<String, CountryDto> found;
+        if (snapshotStore.current().isPresent()) {
+            found = MultiKeyLookup.probe(requested, code -> asOf != null
+                    ? findByCodeAndSystemAsOf(code, systemCode, asOf)
+                    : findByCodeAndSystem(code, systemCode));
+        } else if (asOf != null) {
+            List<Country> rows = countryRepository.findByCodesAndSystemAsOf(requested, systemCode, asOf);
+            found = MultiKeyLookup.mapValues(
+                    MultiKeyLookup.match(requested, rows, List.of(Country::getCountryCode), Country::getVersion),
+                    countryMapper::toDto);
+        } else {
+            List<Country> rows = countryRepository.findCurrentByCodesAndSystemCode(requested, systemCode);
+            found = MultiKeyLookup.mapValues(
+                    MultiKeyLookup.match(requested, rows, List.of(Country::getCountryCode), Country::getVersion),
+                    countryMapper::toDto);
+        }
+        return MultiKeyLookup.response(systemCode, asOf, requested, found);
+    }
+    
     public PagedResponse<CountryDto> findBySystemCode(String systemCode, PageRequest pageRequest) {
+        Optional<ReferenceSnapshot> snapshot = snapshotStore.current();
+        if (snapshot.isPresent()) {
+            return snapshot.get().findCountriesBySystem(systemCode, pageRequest);
+        }
         Page<Country> page = countryRepository.findCurrentBySystemCode(systemCode, pageRequest);
         List<CountryDto> dtos = page.getContent().stream()
                 .map(countryMapper::toDto)
@@ -60,10 +132,30 @@ public class CountryService {
         return new PagedResponse<>(dtos, page.getNumber(), page.getSize(), page.getTotalElements());
     }
     
-    public List<CountryDto> findAllCurrent() {
-        return countryRepository.findAllCurrent().stream()
-                .map(countryMapper::toDto)
-                .collect(Collectors.toList());
+    /**
+     * Streams current countries to {@code sink} without materialising the result set.
+     * Rows come from a forward-only cursor and each entity is detached once
+     * mapped, so the persistence context does not grow with the dataset.
+     */
+    public void streamAllCurrent(Consumer<CountryDto> sink) {
+        Optional<ReferenceSnapshot> snapshot = snapshotStore.current();
+        if (snapshot.isPresent()) {
+            snapshot.get().getCountries().forEach(sink);
+            return;
+        }
+        try (Stream<Country> countries = countryRepository.streamAllCurrent()) {
+            countries.forEach(entity -> {
+                sink.accept(countryMapper.toDto(entity));
+                entityManager.detach(entity);
+            });
+        }
+    }
+    
+    /**
+     * Coalesces concurrent identical code lookups that miss the snapshot.
+     */
+    public SingleFlight<String, Optional<CountryDto>> getLookupFlight() {
+        return lookups;
     }
     
     public long getTotalCount() {
@@ -81,6 +173,6 @@ public class CountryService {
     }
     
     public String getCurrentVersion() {
-        return "1.0.0"; // TODO: Implement versioning system
+        return String.valueOf(datasetVersionService.getVersion(ReferenceDataset.COUNTRIES));
     }
 }
\ No newline at end of file
@@ -0,0 +1,246 @@
+package gov.dhs.cbp.reference.api.service;
+
+import gov.dhs.cbp.reference.core.change.ReferenceDataChangedEvent;
+import gov.dhs.cbp.reference.core.change.ReferenceDataset;
+import gov.dhs.cbp.reference.core.entity.DatasetVersion;
+import gov.dhs.cbp.reference.core.repository.DatasetVersionRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory view of {@code dataset_version}. Versions are polled on a short
+ * interval so request handling (ETag checks in particular) never touches the
+ * database; a version bump observed by the poll is republished as a
+ * {@link ReferenceDataChangedEvent} for caches and read models.
+ *
+ * <p>Listeners of that event run on the polling thread, never on a request
+ * or committing thread: an in-process write only queues an early poll, and
+ * writes landing before it runs are folded into one event per version. The
+ * new versions (and so the new ETags) are served only once the listeners
+ * have evicted caches and rebuilt read models, so a response carrying a new
+ * ETag is never built from data older than it.</p>
+ */
+@Service
+public class DatasetVersionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DatasetVersionService.class);
+
+    private final DatasetVersionRepository datasetVersionRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean bumpOnWrite;
+    private final Clock clock;
+
+    // A lock rather than synchronized: refresh() blocks on JDBC and must not pin a virtual thread's carrier
+    private final ReentrantLock refreshLock = new ReentrantLock();
+    private final ExecutorService earlyPolls = Executors.newSingleThreadExecutor(
+            Thread.ofVirtual().name("dataset-version-poll").factory());
+    private final AtomicBoolean earlyPollQueued = new AtomicBoolean();
+    private volatile Map<ReferenceDataset, DatasetVersion> versions = Collections.emptyMap();
+
+    @Autowired
+    public DatasetVersionService(DatasetVersionRepository datasetVersionRepository,
+                                 ApplicationEventPublisher eventPublisher,
+                                 @Value("${reference.dataset-version.bump-on-write:false}") boolean bumpOnWrite) {
+        this(datasetVersionRepository, eventPublisher, bumpOnWrite, Clock.systemDefaultZone());
+    }
+
+    DatasetVersionService(DatasetVersionRepository datasetVersionRepository,
+                          ApplicationEventPublisher eventPublisher,
+                          boolean bumpOnWrite,
+                          Clock clock) {
+        this.datasetVersionRepository = datasetVersionRepository;
+        this.eventPublisher = eventPublisher;
+        this.bumpOnWrite = bumpOnWrite;
+        this.clock = clock;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        refresh();
+    }
+
+    @Scheduled(fixedDelayString = "${reference.dataset-version.poll-interval-ms:1000}")
+    public void poll() {
+        // Held across the publish so listeners see version changes one at a time, in order
+        refreshLock.lock();
+        try {
+            Map<ReferenceDataset, DatasetVersion> next = load();
+            if (next == null) {
+                return;
+            }
+            Set<ReferenceDataset> changed = changedDatasets(next);
+            if (!changed.isEmpty()) {
+                logger.debug("Dataset versions advanced for {}", changed);
+                try {
+                    eventPublisher.publishEvent(
+                            new ReferenceDataChangedEvent(changed, ReferenceDataChangedEvent.Source.DATASET_VERSION));
+                } catch (RuntimeException e) {
+                    // Advance anyway: frozen ETags would keep answering 304 for data that has moved on
+                    logger.error("Dataset version listeners failed for {}", changed, e);
+                }
+            }
+            versions = Collections.unmodifiableMap(next);
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onReferenceDataChanged(ReferenceDataChangedEvent event) {
+        // Pick up our own bump without waiting for the next scheduled poll, but off the committing thread
+        if (event.getSource() == ReferenceDataChangedEvent.Source.WRITE_PATH
+                && earlyPollQueued.compareAndSet(false, true)) {
+            earlyPolls.execute(() -> {
+                earlyPollQueued.set(false);
+                poll();
+            });
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        earlyPolls.shutdownNow();
+    }
+
+    /**
+     * Reloads all versions without notifying listeners and returns the
+     * datasets whose version moved since the previous load. The first
+     * successful load reports no changes.
+     */
+    public Set<ReferenceDataset> refresh() {
+        refreshLock.lock();
+        try {
+            Map<ReferenceDataset, DatasetVersion> next = load();
+            if (next == null) {
+                return Collections.emptySet();
+            }
+            Set<ReferenceDataset> changed = changedDatasets(next);
+            versions = Collections.unmodifiableMap(next);
+            return changed;
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    private Map<ReferenceDataset, DatasetVersion> load() {
+        List<DatasetVersion> rows;
+        try {
+            rows = datasetVersionRepository.findAll();
+        } catch (Exception e) {
+            logger.warn("Failed to load dataset versions: {}", e.getMessage());
+            return null;
+        }
+
+        Map<ReferenceDataset, DatasetVersion> next = new EnumMap<>(ReferenceDataset.class);
+        for (DatasetVersion row : rows) {
+            ReferenceDataset.fromId(row.getDataset()).ifPresent(dataset -> next.put(dataset, row));
+        }
+        return next;
+    }
+
+    private Set<ReferenceDataset> changedDatasets(Map<ReferenceDataset, DatasetVersion> next) {
+        Map<ReferenceDataset, DatasetVersion> previous = versions;
+        Set<ReferenceDataset> changed = EnumSet.noneOf(ReferenceDataset.class);
+        if (!previous.isEmpty()) {
+            next.forEach((dataset, row) -> {
+                DatasetVersion before = previous.get(dataset);
+                if (before == null || !before.getVersion().equals(row.getVersion())) {
+                    changed.add(dataset);
+                }
+            });
+        }
+        return changed;
+    }
+
+    /**
+     * Records an in-process write to {@code dataset}. Must be called inside the
+     * writing transaction. The database trigger normally bumps the version;
+     * {@code reference.dataset-version.bump-on-write} does it here instead for
+     * databases without the trigger.
+     */
+    @Transactional
+    public void recordWrite(ReferenceDataset dataset) {
+        if (bumpOnWrite) {
+            datasetVersionRepository.bump(dataset.getId());
+            datasetVersionRepository.recordHistory(dataset.getId());
+        }
+        eventPublisher.publishEvent(
+                new ReferenceDataChangedEvent(EnumSet.of(dataset), ReferenceDataChangedEvent.Source.WRITE_PATH));
+    }
+
+    public long getVersion(ReferenceDataset dataset) {
+        DatasetVersion row = versions.get(dataset);
+        return row == null ? 0L : row.getVersion();
+    }
+
+    public Optional<LocalDateTime> getLastModified(ReferenceDataset dataset) {
+        return Optional.ofNullable(versions.get(dataset)).map(DatasetVersion::getUpdatedAt);
+    }
+
+    /**
+     * Strong entity tag covering every dataset a representation is built from,
+     * or empty while versions have not been loaded yet. The business date is
+     * part of the tag: rows whose validity starts or ends at midnight change
+     * what "current" means without any version bump.
+     */
+    public Optional<String> getEntityTag(Collection<ReferenceDataset> datasets) {
+        Map<ReferenceDataset, DatasetVersion> current = versions;
+        StringJoiner tag = new StringJoiner(";", "\"", "\"");
+        for (ReferenceDataset dataset : datasets) {
+            DatasetVersion row = current.get(dataset);
+            if (row == null) {
+                return Optional.empty();
+            }
+            tag.add(dataset.getId() + ":" + row.getVersion());
+        }
+        tag.add(LocalDate.now(clock).toString());
+        return Optional.of(tag.toString());
+    }
+
+    /**
+     * The latest update to any of {@code datasets}, or the start of the
+     * business day if that is later, for the same reason as the entity tag.
+     */
+    public Optional<LocalDateTime> getLastModified(Collection<ReferenceDataset> datasets) {
+        Map<ReferenceDataset, DatasetVersion> current = versions;
+        LocalDateTime latest = LocalDate.now(clock).atStartOfDay();
+        for (ReferenceDataset dataset : datasets) {
+            DatasetVersion row = current.get(dataset);
+            if (row == null) {
+                return Optional.empty();
+            }
+            if (row.getUpdatedAt() != null && row.getUpdatedAt().isAfter(latest)) {
+                latest = row.getUpdatedAt();
+            }
+        }
+        return Optional.of(latest);
+    }
+}
@@ -0,0 +1,354 @@
+package gov.dhs.cbp.reference.api.service;
+
+import gov.dhs.cbp.reference.api.dto.AirportDto;
+import gov.dhs.cbp.reference.api.dto.CountryDto;
+import gov.dhs.cbp.reference.api.dto.DeltaResponse;
+import gov.dhs.cbp.reference.api.dto.DeltaResponse.DeletedRecord;
+import gov.dhs.cbp.reference.api.dto.PortDto;
+import gov.dhs.cbp.reference.api.exception.BusinessException;
+import gov.dhs.cbp.reference.api.mapper.AirportMapper;
+import gov.dhs.cbp.reference.api.mapper.CountryMapper;
+import gov.dhs.cbp.reference.api.mapper.PortMapper;
+import gov.dhs.cbp.reference.core.change.ReferenceDataset;
+import gov.dhs.cbp.reference.core.entity.Airport;
+import gov.dhs.cbp.reference.core.entity.Bitemporal;
+import gov.dhs.cbp.reference.core.entity.Country;
+import gov.dhs.cbp.reference.core.entity.Port;
+import gov.dhs.cbp.reference.core.repository.DatasetVersionRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Computes created / updated / deleted records for a dataset since a client
+ * watermark, using the indexed {@code change_version} column. Database
+ * triggers stamp every written row, in-place deletes included, with the
+ * dataset version its transaction publishes, and writers to a dataset are
+ * serialised on its {@code dataset_version} row, so once version N is visible
+ * every row stamped N or lower is committed. A timestamp watermark is
+ * translated to a version through {@code dataset_version_history}.
+ *
+ * <p>A response covers whole versions and holds at most
+ * {@code reference.delta.max-rows} changed rows (more only when a single
+ * version wrote more); {@code hasMore} tells the client to call again from
+ * the returned {@code toVersion}. History older than
+ * {@code reference.delta.history-retention-days} is pruned, the current
+ * version excepted, and watermarks behind it are answered with 410.</p>
+ */
+@Service
+@Transactional(readOnly = true)
+public class DeltaService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeltaService.class);
+
+    private static final String KEY_SEPARATOR = "|";
+
+    // Well under PostgreSQL's 65535 bind parameters per statement
+    private static final int MAX_CODES_PER_QUERY = 1000;
+
+    private static final DeltaSpec<Country> COUNTRIES = new DeltaSpec<>(
+            ReferenceDataset.COUNTRIES, "Country", "countries_v", "e.countryCode",
+            c -> c.getCodeSystem().getCode(), Country::getCountryCode, c -> !Boolean.FALSE.equals(c.getIsActive()));
+
+    private static final DeltaSpec<Port> PORTS = new DeltaSpec<>(
+            ReferenceDataset.PORTS, "Port", "ports_v", "e.portCode",
+            p -> p.getCodeSystem().getCode(), Port::getPortCode, p -> !Boolean.FALSE.equals(p.getIsActive()));
+
+    private static final DeltaSpec<Airport> AIRPORTS = new DeltaSpec<>(
+            ReferenceDataset.AIRPORTS, "Airport", "airports_v", "COALESCE(e.iataCode, e.icaoCode)",
+            a -> a.getCodeSystem().getCode(),
+            a -> a.getIataCode() != null ? a.getIataCode() : a.getIcaoCode(),
+            a -> !Boolean.FALSE.equals(a.getIsActive()));
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final DatasetVersionRepository datasetVersionRepository;
+    private final CountryMapper countryMapper;
+    private final PortMapper portMapper;
+    private final AirportMapper airportMapper;
+    private final int maxRows;
+    private final int historyRetentionDays;
+
+    public DeltaService(DatasetVersionRepository datasetVersionRepository,
+                        CountryMapper countryMapper,
+                        PortMapper portMapper,
+                        AirportMapper airportMapper,
+                        @Value("${reference.delta.max-rows:5000}") int maxRows,
+                        @Value("${reference.delta.history-retention-days:90}") int historyRetentionDays) {
+        this.datasetVersionRepository = datasetVersionRepository;
+        this.countryMapper = countryMapper;
+        this.portMapper = portMapper;
+        this.airportMapper = airportMapper;
+        this.maxRows = maxRows;
+        this.historyRetentionDays = historyRetentionDays;
+    }
+
+    public DeltaResponse<CountryDto> getCountryChanges(LocalDateTime since, Long sinceVersion) {
+        return changes(COUNTRIES, since, sinceVersion, countryMapper::toDto);
+    }
+
+    public DeltaResponse<PortDto> getPortChanges(LocalDateTime since, Long sinceVersion) {
+        return changes(PORTS, since, sinceVersion, portMapper::toDto);
+    }
+
+    public DeltaResponse<AirportDto> getAirportChanges(LocalDateTime since, Long sinceVersion) {
+        return changes(AIRPORTS, since, sinceVersion, airportMapper::toDto);
+    }
+
+    /**
+     * Drops version history past the retention window. The current version of
+     * each dataset is always kept so an up-to-date client can still resume.
+     */
+    @Scheduled(fixedDelayString = "${reference.delta.history-prune-interval-ms:3600000}")
+    @Transactional
+    public void pruneHistory() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(historyRetentionDays);
+        int pruned = datasetVersionRepository.deleteHistoryBefore(cutoff);
+        if (pruned > 0) {
+            logger.info("Pruned {} dataset versions recorded before {}", pruned, cutoff);
+        }
+    }
+
+    private <E extends Bitemporal, D> DeltaResponse<D> changes(DeltaSpec<E> spec, LocalDateTime since,
+                                                              Long sinceVersion, Function<E, D> mapper) {
+        String dataset = spec.dataset.getId();
+        LocalDate today = LocalDate.now();
+        // Read the version first: rows stamped at or below it are all committed
+        long toVersion = datasetVersionRepository.findCurrentVersion(dataset).orElse(0L);
+        LocalDateTime from;
+        long fromVersion;
+        if (sinceVersion != null) {
+            from = datasetVersionRepository.findChangedAt(dataset, sinceVersion)
+                    .orElseThrow(() -> unknownVersion(dataset, sinceVersion));
+            fromVersion = sinceVersion;
+        } else if (since != null) {
+            from = since;
+            // Nothing recorded at or before it: older than the retained history
+            fromVersion = datasetVersionRepository.findLatestVersionAt(dataset, since)
+                    .orElseThrow(() -> unknownWatermark(dataset, since));
+        } else {
+            throw new IllegalArgumentException("Either 'since' or 'sinceVersion' must be provided");
+        }
+        if (fromVersion > toVersion) {
+            throw unknownVersion(dataset, fromVersion);
+        }
+        long pageTo = pageEnd(spec, fromVersion, toVersion);
+        boolean hasMore = pageTo < toVersion;
+        LocalDateTime until = datasetVersionRepository.findChangedAt(dataset, pageTo).orElse(from);
+
+        List<E> recorded = changedRows(spec, fromVersion, pageTo);
+        // Inclusive lower bound: a row ending on the day of the last sync may
+        // have been live when that sync ran. A partial page stops at its own
+        // watermark, which the next call resumes from.
+        List<E> expired = entityManager.createQuery(
+                        "SELECT e FROM " + spec.entityName + " e " +
+                        "WHERE e.validTo >= :fromDate AND e.validTo <= :upTo", spec.entityType())
+                .setParameter("fromDate", from.toLocalDate())
+                .setParameter("upTo", hasMore ? until.toLocalDate() : today)
+                .getResultList();
+
+        Set<String> codes = new HashSet<>();
+        recorded.forEach(e -> codes.add(spec.code.apply(e)));
+        expired.forEach(e -> codes.add(spec.code.apply(e)));
+        codes.remove(null);
+
+        Set<String> priorKeys = keys(spec, "e.recordedAt <= :from", "from", from, codes);
+        Set<String> currentKeys = keys(spec, "(e.validTo IS NULL OR e.validTo > :today) AND e.isActive = true",
+                "today", today, codes);
+
+        Classified<E> classified = classify(recorded, expired, priorKeys, currentKeys,
+                spec::key, spec.active, today);
+
+        List<DeletedRecord> deleted = classified.deleted.stream()
+                .map(e -> new DeletedRecord(e.getId(), spec.system.apply(e), spec.code.apply(e), e.getValidTo()))
+                .collect(Collectors.toList());
+
+        return new DeltaResponse<>(dataset, fromVersion, pageTo, from, until, hasMore,
+                classified.created.stream().map(mapper).collect(Collectors.toList()),
+                classified.updated.stream().map(mapper).collect(Collectors.toList()),
+                deleted);
+    }
+
+    /**
+     * Last version of the page starting after {@code fromVersion}: the
+     * highest one whose rows, together with those of the versions before it,
+     * fit in {@code maxRows}. A version is never split, so one that alone
+     * wrote more rows is returned whole.
+     */
+    private long pageEnd(DeltaSpec<?> spec, long fromVersion, long toVersion) {
+        if (toVersion <= fromVersion) {
+            return toVersion;
+        }
+        @SuppressWarnings("unchecked")
+        List<Long> overflow = entityManager.createNativeQuery(
+                        "SELECT change_version FROM reference_data." + spec.table + " " +
+                        "WHERE change_version > :from AND change_version <= :to " +
+                        "ORDER BY change_version LIMIT 1 OFFSET :limit", Long.class)
+                .setParameter("from", fromVersion)
+                .setParameter("to", toVersion)
+                .setParameter("limit", maxRows)
+                .getResultList();
+        if (overflow.isEmpty()) {
+            return toVersion;
+        }
+        long first = overflow.get(0);
+        return first - 1 > fromVersion ? first - 1 : first;
+    }
+
+    /**
+     * Rows written by versions {@code (fromVersion, toVersion]}. The stamp is
+     * maintained by triggers and not mapped on the entities, so the rows are
+     * selected natively on it.
+     */
+    private <E extends Bitemporal> List<E> changedRows(DeltaSpec<E> spec, long fromVersion, long toVersion) {
+        if (toVersion <= fromVersion) {
+            return List.of();
+        }
+        @SuppressWarnings("unchecked")
+        List<E> rows = entityManager.createNativeQuery(
+                        "SELECT e.* FROM reference_data." + spec.table + " e " +
+                        "WHERE e.change_version > :from AND e.change_version <= :to " +
+                        "ORDER BY e.recorded_at", spec.entityType())
+                .setParameter("from", fromVersion)
+                .setParameter("to", toVersion)
+                .getResultList();
+        return rows;
+    }
+
+    private static BusinessException unknownVersion(String dataset, long version) {
+        return new BusinessException(
+                "https://api.cbp.gov/errors/unknown-version",
+                "Unknown Dataset Version",
+                "Version " + version + " of " + dataset + " is not known; resynchronise from a full snapshot",
+                HttpStatus.GONE);
+    }
+
+    private static BusinessException unknownWatermark(String dataset, LocalDateTime since) {
+        return new BusinessException(
+                "https://api.cbp.gov/errors/unknown-version",
+                "Unknown Dataset Version",
+                "Changes to " + dataset + " since " + since + " are no longer retained; resynchronise from a full snapshot",
+                HttpStatus.GONE);
+    }
+
+    private <E extends Bitemporal> Set<String> keys(DeltaSpec<E> spec, String condition, String paramName,
+                                                    Object paramValue, Set<String> codes) {
+        if (codes.isEmpty()) {
+            return Set.of();
+        }
+        Set<String> keys = new HashSet<>();
+        List<String> remaining = new ArrayList<>(codes);
+        for (int start = 0; start < remaining.size(); start += MAX_CODES_PER_QUERY) {
+            var query = entityManager.createQuery(
+                            "SELECT DISTINCT e.codeSystem.code, " + spec.codeExpression + " FROM " + spec.entityName + " e " +
+                            "WHERE " + condition + " AND " + spec.codeExpression + " IN :codes", Object[].class)
+                    .setParameter("codes", remaining.subList(start, Math.min(start + MAX_CODES_PER_QUERY, remaining.size())));
+            if (paramName != null) {
+                query.setParameter(paramName, paramValue);
+            }
+            query.getResultList().forEach(row -> keys.add(row[0] + KEY_SEPARATOR + row[1]));
+        }
+        return keys;
+    }
+
+    /**
+     * Splits the rows touched in a window into created, updated and deleted
+     * records, one entry per business key.
+     *
+     * @param recorded    rows written by a version inside the window
+     * @param expired     rows whose validity ended inside the window
+     * @param priorKeys   keys that already existed when the window opened
+     * @param currentKeys keys that have a currently valid, active row
+     */
+    static <E extends Bitemporal> Classified<E> classify(List<E> recorded, List<E> expired,
+                                                        Set<String> priorKeys, Set<String> currentKeys,
+                                                        Function<E, String> keyFn, Predicate<E> active,
+                                                        LocalDate today) {
+        Predicate<E> live = e -> (e.getValidTo() == null || e.getValidTo().isAfter(today)) && active.test(e);
+        Comparator<E> newest = Comparator
+                .comparing((E e) -> live.test(e))
+                .thenComparing(e -> e.getVersion() == null ? Long.MIN_VALUE : e.getVersion())
+                .thenComparing(e -> e.getRecordedAt(), Comparator.nullsFirst(Comparator.naturalOrder()));
+
+        Map<String, E> latestByKey = new LinkedHashMap<>();
+        for (E row : recorded) {
+            latestByKey.merge(keyFn.apply(row), row, (a, b) -> newest.compare(b, a) > 0 ? b : a);
+        }
+
+        Classified<E> result = new Classified<>();
+        latestByKey.forEach((key, row) -> {
+            boolean existedBefore = priorKeys.contains(key);
+            if (live.test(row)) {
+                (existedBefore ? result.updated : result.created).add(row);
+            } else if (existedBefore && !currentKeys.contains(key)) {
+                // A historical row rewritten in the window says nothing about a key that is still live
+                result.deleted.add(row);
+            }
+        });
+
+        Set<String> deletedKeys = new HashSet<>();
+        for (E row : expired) {
+            String key = keyFn.apply(row);
+            if (!latestByKey.containsKey(key) && !currentKeys.contains(key) && deletedKeys.add(key)) {
+                result.deleted.add(row);
+            }
+        }
+        return result;
+    }
+
+    static final class Classified<E> {
+        final List<E> created = new ArrayList<>();
+        final List<E> updated = new ArrayList<>();
+        final List<E> deleted = new ArrayList<>();
+    }
+
+    private static final class DeltaSpec<E extends Bitemporal> {
+        private final ReferenceDataset dataset;
+        private final String entityName;
+        private final String table;
+        private final String codeExpression;
+        private final Function<E, String> system;
+        private final Function<E, String> code;
+        private final Predicate<E> active;
+
+        private DeltaSpec(ReferenceDataset dataset, String entityName, String table, String codeExpression,
+                          Function<E, String> system, Function<E, String> code, Predicate<E> active) {
+            this.dataset = dataset;
+            this.entityName = entityName;
+            this.table = table;
+            this.codeExpression = codeExpression;
+            this.system = system;
+            this.code = code;
+            this.active = active;
+        }
+
+        @SuppressWarnings("unchecked")
+        private Class<E> entityType() {
+            return (Class<E>) dataset.getEntityClass();
+        }
+
+        private String key(E entity) {
+            return system.apply(entity) + KEY_SEPARATOR + code.apply(entity);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package gov.dhs.cbp.reference.api.service;
+
+import gov.dhs.cbp.reference.api.dto.MultiGetResponse;
+import gov.dhs.cbp.reference.api.exception.BusinessException;
+import org.springframework.http.HttpStatus;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Helpers shared by the multi-key lookups. Rows fetched with one {@code IN}
+ * query are matched back to the requested codes using the same precedence as
+ * the single-key lookups (e.g. IATA before ICAO) and, per code, the highest
+ * version wins, as with {@code ORDER BY version DESC} on the single-key path.
+ */
+final class MultiKeyLookup {
+
+    /** Upper bound on distinct codes per request, keeping the IN-list and response bounded. */
+    static final int MAX_CODES = 500;
+
+    private MultiKeyLookup() {
+    }
+
+    /**
+     * Trims, drops blanks and duplicates, and enforces {@link #MAX_CODES}.
+     */
+    static Set<String> normalize(Collection<String> codes) {
+        Set<String> distinct = new LinkedHashSet<>();
+        if (codes != null) {
+            for (String code : codes) {
+                if (code != null && !code.isBlank()) {
+                    distinct.add(code.trim());
+                }
+            }
+        }
+        if (distinct.isEmpty()) {
+            throw new BusinessException("At least one code is required", HttpStatus.BAD_REQUEST);
+        }
+        if (distinct.size() > MAX_CODES) {
+            throw new BusinessException("At most " + MAX_CODES + " codes may be requested at once, got "
+                    + distinct.size(), HttpStatus.BAD_REQUEST);
+        }
+        return distinct;
+    }
+
+    /**
+     * Matches {@code rows} to {@code codes}. {@code keys} are tried in order for
+     * each code; the first key under which a row exists decides the match.
+     */
+    static <E> Map<String, E> match(Collection<String> codes, List<E> rows,
+                                    List<Function<E, String>> keys, ToLongFunction<E> version) {
+        List<Map<String, E>> indexes = new ArrayList<>(keys.size());
+        for (Function<E, String> key : keys) {
+            Map<String, E> index = new HashMap<>();
+            for (E row : rows) {
+                String value = key.apply(row);
+                if (value != null) {
+                    index.merge(value, row, (a, b) -> version.applyAsLong(b) > version.applyAsLong(a) ? b : a);
+                }
+            }
+            indexes.add(index);
+        }
+
+        Map<String, E> matched = new LinkedHashMap<>();
+        for (String code : codes) {
+            for (Map<String, E> index : indexes) {
+                E row = index.get(code);
+                if (row != null) {
+                    matched.put(code, row);
+                    break;
+                }
+            }
+        }
+        return matched;
+    }
+
+    static <E, T> Map<String, T> mapValues(Map<String, E> rows, Function<E, T> mapper) {
+        Map<String, T> mapped = new LinkedHashMap<>();
+        rows.forEach((code, row) -> mapped.put(code, mapper.apply(row)));
+        return mapped;
+    }
+
+    /**
+     * Probes {@code lookup} once per code; used when the in-memory snapshot
+     * can answer without a query.
+     */
+    static <T> Map<String, T> probe(Collection<String> codes, Function<String, Optional<T>> lookup) {
+        Map<String, T> found = new LinkedHashMap<>();
+        for (String code : codes) {
+            lookup.apply(code).ifPresent(dto -> found.put(code, dto));
+        }
+        return found;
+    }
+
+    static <T> MultiGetResponse<T> response(String codeSystem, LocalDate asOf, Collection<String> codes,
+                                            Map<String, T> found) {
+        List<String> notFound = codes.stream().filter(code -> !found.containsKey(code)).toList();
+        return new MultiGetResponse<>(codeSystem, asOf, found, notFound);
+    }
+}
@@ -1,10 +1,20 @@
 package gov.dhs.cbp.reference.api.service;
 
 import gov.dhs.cbp.reference.api.dto.PortDto;
+import gov.dhs.cbp.reference.api.dto.MultiGetResponse;
+import gov.dhs.cbp.reference.api.dto.NearbyResult;
 import gov.dhs.cbp.reference.api.dto.PagedResponse;
 import gov.dhs.cbp.reference.api.mapper.PortMapper;
+import gov.dhs.cbp.reference.api.snapshot.ReferenceSnapshot;
+import gov.dhs.cbp.reference.api.snapshot.ReferenceSnapshotStore;
+import gov.dhs.cbp.reference.core.cache.SingleFlight;
+import gov.dhs.cbp.reference.core.cache.VersionedValue;
+import gov.dhs.cbp.reference.core.change.ReferenceDataset;
 import gov.dhs.cbp.reference.core.entity.Port;
+import gov.dhs.cbp.reference.core.geo.GeoIndex;
 import gov.dhs.cbp.reference.core.repository.PortRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
@@ -12,10 +22,15 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Transactional(readOnly = true)
@@ -23,30 +38,64 @@ public class PortService {
     
     private final PortRepository portRepository;
     private final PortMapper portMapper;
+    private final ReferenceSnapshotStore snapshotStore;
+    private final DatasetVersionService datasetVersionService;
     
-    public PortService(PortRepository portRepository, PortMapper portMapper) {
+    private final SingleFlight<String, Optional<PortDto>> lookups = new SingleFlight<>("port");
+    
+    private final VersionedValue<String, GeoIndex<PortDto>> nearbyIndex = new VersionedValue<>("port-nearby");
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    public PortService(PortRepository portRepository, PortMapper portMapper,
+                       ReferenceSnapshotStore snapshotStore, DatasetVersionService datasetVersionService) {
         this.portRepository = portRepository;
         this.portMapper = portMapper;
+        this.snapshotStore = snapshotStore;
+        this.datasetVersionService = datasetVersionService;
     }
     
     public Optional<PortDto> findById(UUID id) {
+        Optional<ReferenceSnapshot> snapshot = snapshotStore.current();
+        if (snapshot.isPresent()) {
+            Optional<PortDto> cached = snapshot.get().findPortById(id);
+            if (cached.isPresent()) {
+                return cached;
+            }
+        }
         return portRepository.findById(id)
                 .map(portMapper::toDto);
     }
     
     public Optional<PortDto> findByPortCodeAndSystem(String portCode, String systemCode) {
-        return portRepository.findCurrentByPortCodeAndSystemCode(portCode, systemCode)
-                .map(portMapper::toDto);
+        Optional<ReferenceSnapshot> snapshot = snapshotStore.current();
+        if (snapshot.isPresent()) {
+            return snapshot.get().findPortByPortCode(portCode, systemCode);
+        }
+        return lookups.execute("port-code:" + portCode + "|" + systemCode,
+                () -> portRepository.findCurrentByPortCodeAndSystemCode(portCode, systemCode)
+                        .map(portMapper::toDto));
     }
     
     public Optional<PortDto> findByUnLocodeAndSystem(String unLocode, String systemCode) {
-        return portRepository.findCurrentByUnLocodeAndSystemCode(unLocode, systemCode)
-                .map(portMapper::toDto);
+        Optional<ReferenceSnapshot> snapshot = snapshotStore.current();
+        if (snapshot.isPresent()) {
+            return snapshot.get().findPortByUnLocode(unLocode, systemCode);
+        }
+        return lookups.execute("un-locode:" + unLocode + "|" + systemCode,
+                () -> portRepository.findCurrentByUnLocodeAndSystemCode(unLocode, systemCode)
+                        .map(portMapper::toDto));
     }
     
     public Optional<PortDto> findByCbpPortCodeAndSystem(String cbpPortCode, String systemCode) {
-        return portRepository.findCurrentByCbpPortCodeAndSystemCode(cbpPortCode, systemCode)
-                .map(portMapper::toDto);
+        Optional<ReferenceSnapshot> snapshot = snapshotStore.current();
+        if (snapshot.isPresent()) {
+            return snapshot.get().findPortByCbpPortCode(cbpPortCode, systemCode);
+        }
+        return lookups.execute("cbp-port-code:" + cbpPortCode + "|" + systemCode,
+                () -> portRepository.findCurrentByCbpPortCodeAndSystemCode(cbpPortCode, systemCode)
+                        .map(portMapper::toDto));
     }
     
     public Optional<PortDto> findByCodeAndSystem(String code, String systemCode) {
@@ -65,11 +114,27 @@ public class PortService {
     }
     
     public Optional<PortDto> findByPortCodeAndSystemAsOf(String portCode, String systemCode, LocalDate asOf) {
+        Optional<ReferenceSnapshot> snapshot = snapshotStore.current();
+        if (snapshot.isPresent() && snapshot.get().coversAsOf(asOf)) {
+            Optional<PortDto> cached = snapshot.get().findPortByPortCode(portCode, systemCode)
+                    .filter(dto -> ReferenceSnapshot.validOn(dto.getValidFrom(), asOf));
+            if (cached.isPresent()) {
+                return cached;
+            }
+        }
         return portRepository.findByPortCodeAndSystemAsOf(portCode, systemCode, asOf)
                 .map(portMapper::toDto);
     }
     
     public Optional<PortDto> findByUnLocodeAndSystemAsOf(String unLocode, String systemCode, LocalDate asOf) {
+        Optional<ReferenceSnapshot> snapshot = snapshotStore.current();
+        if (snapshot.isPresent() && snapshot.get().coversAsOf(asOf)) {
+            Optional<PortDto> cached = snapshot.get().findPortByUnLocode(unLocode, systemCode)
+                    .filter(dto -> ReferenceSnapshot.validOn(dto.getValidFrom(), asOf));
+            if (cached.isPresent()) {
+                return cached;
+            }
+        }
         return portRepository.findByUnLocodeAndSystemAsOf(unLocode, systemCode, asOf)
                 .map(portMapper::toDto);
     }
@@ -84,7 +149,41 @@ public class PortService {
         return findByUnLocodeAndSystemAsOf(code, systemCode, asOf);
     }
     
+    /**
+     * Resolves several codes in one code system with a single {@code IN} query,
+     * or with in-memory probes while the snapshot is loaded. Codes match
+     * port code, then UN/LOCODE, then CBP port code (the last only for current
+     * lookups), as on {@link #findByCodeAndSystem}.
+     * {@code asOf} has the same meaning as on the single-key lookups.
+     */
+    public MultiGetResponse<PortDto> findByCodesAndSystem(Collection<String> codes, String systemCode, LocalDate asOf) {
+        Set<String> requested = MultiKeyLookup.normalize(codes);
+        Map<String, PortDto> found;
+        if (snapshotStore.current().isPresent()) {
+            found = MultiKeyLookup.probe(requested, code -> asOf != null
+                    ? findByCodeAndSystemAsOf(code, systemCode, asOf)
+                    : findByCodeAndSystem(code, systemCode));
+        } else if (asOf != null) {
+            List<Port> rows = portRepository.findByCodesAndSystemAsOf(requested, systemCode, asOf);
+            found = MultiKeyLookup.mapValues(
+                    MultiKeyLookup.match(requested, rows,
+                            List.of(Port::getPortCode, Port::getUnLocode), Port::getVersion),
+                    portMapper::toDto);
+        } else {
+            List<Port> rows = portRepository.findCurrentByCodesAndSystemCode(requested, systemCode);
+            found = MultiKeyLookup.mapValues(
+                    MultiKeyLookup.match(requested, rows,
+                            List.of(Port::getPortCode, Port::getUnLocode, Port::getCbpPortCode), Port::getVersion),
+                    portMapper::toDto);
+        }
+        return MultiKeyLookup.response(systemCode, asOf, requested, found);
+    }
+    
     public PagedResponse<PortDto> findBySystemCode(String systemCode, PageRequest pageRequest) {
+        Optional<ReferenceSnapshot> snapshot = snapshotStore.current();
+        if (snapshot.isPresent()) {
+            return snapshot.get().findPortsBySystem(systemCode, pageRequest);
+        }
         Page<Port> page = portRepository.findCurrentBySystemCode(systemCode, pageRequest);
         List<PortDto> dtos = page.getContent().stream()
                 .map(portMapper::toDto)
@@ -109,29 +208,92 @@ public class PortService {
     }
     
     public List<PortDto> findByCountryCode(String countryCode) {
+        Optional<ReferenceSnapshot> snapshot = snapshotStore.current();
+        if (snapshot.isPresent()) {
+            return snapshot.get().findPortsByCountry(countryCode);
+        }
         return portRepository.findCurrentByCountryCode(countryCode).stream()
                 .map(portMapper::toDto)
                 .collect(Collectors.toList());
     }
     
     public List<PortDto> findByCity(String city) {
+        Optional<ReferenceSnapshot> snapshot = snapshotStore.current();
+        if (snapshot.isPresent()) {
+            return snapshot.get().findPortsByCity(city);
+        }
         return portRepository.findCurrentByCity(city).stream()
                 .map(portMapper::toDto)
                 .collect(Collectors.toList());
     }
     
     public List<PortDto> findByPortType(String portType) {
+        Optional<ReferenceSnapshot> snapshot = snapshotStore.current();
+        if (snapshot.isPresent()) {
+            return snapshot.get().findPortsByType(portType);
+        }
         return portRepository.findCurrentByPortType(portType).stream()
                 .map(portMapper::toDto)
                 .collect(Collectors.toList());
     }
     
-    public List<PortDto> findAllCurrent() {
-        return portRepository.findAllActive().stream()
-                .map(portMapper::toDto)
+    /**
+     * Active ports nearest to the coordinate, nearest first. With no
+     * {@code radiusKm} this is a plain k-nearest query. The snapshot answers
+     * from its spatial index; without one an index over the active rows is
+     * built once per dataset version and business date and reused.
+     */
+    public List<NearbyResult<PortDto>> findNearby(double latitude, double longitude, Double radiusKm,
+                                                  int limit, String systemCode) {
+        double maxDistanceKm = radiusKm != null ? radiusKm : Double.POSITIVE_INFINITY;
+        List<GeoIndex.Neighbor<PortDto>> neighbors;
+        Optional<ReferenceSnapshot> snapshot = snapshotStore.current();
+        if (snapshot.isPresent()) {
+            neighbors = snapshot.get().findPortsNear(latitude, longitude, limit, maxDistanceKm, systemCode);
+        } else {
+            String key = datasetVersionService.getVersion(ReferenceDataset.PORTS) + "|" + LocalDate.now();
+            GeoIndex<PortDto> index = nearbyIndex.get(key, () -> GeoIndex.build(
+                    portRepository.findAllActive().stream().map(portMapper::toDto).collect(Collectors.toList()),
+                    PortDto::getLatitude, PortDto::getLongitude));
+            // The index is shared between requests; hand out copies
+            neighbors = index.nearest(latitude, longitude, limit, maxDistanceKm,
+                    dto -> systemCode == null || systemCode.equals(dto.getCodeSystem())).stream()
+                    .map(neighbor -> new GeoIndex.Neighbor<>(new PortDto(neighbor.item()), neighbor.distanceKm()))
+                    .collect(Collectors.toList());
+        }
+        return neighbors.stream()
+                .map(neighbor -> new NearbyResult<>(neighbor.item(), neighbor.distanceKm()))
                 .collect(Collectors.toList());
     }
     
+    /**
+     * Streams active ports to {@code sink} without materialising the result set.
+     * Rows come from a forward-only cursor and each entity is detached once
+     * mapped, so the persistence context does not grow with the dataset.
+     */
+    public void streamAllCurrent(Consumer<PortDto> sink) {
+        Optional<ReferenceSnapshot> snapshot = snapshotStore.current();
+        if (snapshot.isPresent()) {
+            snapshot.get().getPorts().stream()
+                    .filter(dto -> Boolean.TRUE.equals(dto.getIsActive()))
+                    .forEach(sink);
+            return;
+        }
+        try (Stream<Port> ports = portRepository.streamAllActive()) {
+            ports.forEach(entity -> {
+                sink.accept(portMapper.toDto(entity));
+                entityManager.detach(entity);
+            });
+        }
+    }
+    
+    /**
+     * Coalesces concurrent identical code lookups that miss the snapshot.
+     */
+    public SingleFlight<String, Optional<PortDto>> getLookupFlight() {
+        return lookups;
+    }
+    
     public long getTotalCount() {
         return portRepository.count();
     }
@@ -147,7 +309,7 @@ public class PortService {
     }
     
     public String getCurrentVersion() {
-        return "1.0.0"; // TODO: Implement versioning system
+        return String.valueOf(datasetVersionService.getVersion(ReferenceDataset.PORTS));
     }
     
     // Write operations for future implementation (protected endpoints)
@@ -157,6 +319,7 @@ public class PortService {
         Port port = portMapper.toEntity(portDto);
         // TODO: Add bitemporal logic, validation, and code system resolution
         Port saved = portRepository.save(port);
+        datasetVersionService.recordWrite(ReferenceDataset.PORTS);
         return portMapper.toDto(saved);
     }
     
@@ -0,0 +1,89 @@
+package gov.dhs.cbp.reference.api.service;
+
+import gov.dhs.cbp.reference.core.change.ReferenceDataChangedEvent;
+import gov.dhs.cbp.reference.core.change.ReferenceDataset;
+import gov.dhs.cbp.reference.core.entity.OutboxEvent;
+import gov.dhs.cbp.reference.core.repository.OutboxEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Tails the transactional outbox and republishes committed changes as
+ * {@link ReferenceDataChangedEvent}s, so writes made by loaders and the
+ * workflow engine in other processes reach this instance's caches.
+ */
+@Component
+@ConditionalOnProperty(name = "reference.change-watcher.enabled", havingValue = "true", matchIfMissing = true)
+public class ReferenceDataChangeWatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReferenceDataChangeWatcher.class);
+    private static final int MAX_TRACKED_EVENTS = 10_000;
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final long overlapSeconds;
+
+    // Outbox rows become visible at commit time but carry their insert timestamp,
+    // so each poll re-reads a short overlap window and skips ids already handled.
+    private final Set<UUID> recentlySeen = Collections.newSetFromMap(new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<UUID, Boolean> eldest) {
+            return size() > MAX_TRACKED_EVENTS;
+        }
+    });
+
+    private LocalDateTime watermark = LocalDateTime.now();
+
+    public ReferenceDataChangeWatcher(OutboxEventRepository outboxEventRepository,
+                                      ApplicationEventPublisher eventPublisher,
+                                      @Value("${reference.change-watcher.overlap-seconds:30}") long overlapSeconds) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.eventPublisher = eventPublisher;
+        this.overlapSeconds = overlapSeconds;
+    }
+
+    @Scheduled(fixedDelayString = "${reference.change-watcher.poll-interval-ms:5000}")
+    public void pollOutbox() {
+        List<OutboxEvent> events;
+        try {
+            events = outboxEventRepository.findByCreatedAtAfterOrderByCreatedAtAsc(
+                    watermark.minusSeconds(overlapSeconds));
+        } catch (Exception e) {
+            logger.warn("Failed to poll outbox for reference data changes: {}", e.getMessage());
+            return;
+        }
+
+        Set<ReferenceDataset> changed = EnumSet.noneOf(ReferenceDataset.class);
+        LocalDateTime newest = watermark;
+
+        for (OutboxEvent event : events) {
+            if (event.getCreatedAt() != null && event.getCreatedAt().isAfter(newest)) {
+                newest = event.getCreatedAt();
+            }
+            if (!recentlySeen.add(event.getId())) {
+                continue;
+            }
+            ReferenceDataset.fromAggregateType(event.getAggregateType()).ifPresent(changed::add);
+        }
+        watermark = newest;
+
+        if (!changed.isEmpty()) {
+            logger.debug("Outbox reported changes to {}", changed);
+            eventPublisher.publishEvent(new ReferenceDataChangedEvent(changed, ReferenceDataChangedEvent.Source.OUTBOX));
+        }
+    }
+}
@@ -2,6 +2,8 @@ package gov.dhs.cbp.reference.api.service;
 
 import gov.dhs.cbp.reference.api.dto.search.SearchResult;
 import gov.dhs.cbp.reference.api.dto.search.AutocompleteResult;
+import gov.dhs.cbp.reference.api.dto.search.SearchCursor;
+import gov.dhs.cbp.reference.api.dto.search.SearchScrollResponse;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
@@ -30,9 +32,27 @@ public interface SearchService {
     /**
      * Search for airports with fuzzy matching
      */
-    Page<SearchResult> searchAirports(String query, Float similarityThreshold, 
+    Page<SearchResult> searchAirports(String query, Float similarityThreshold,
                                      Pageable pageable);
-    
+
+    /**
+     * Country search resumed after {@code cursor} (null for the first slice)
+     */
+    SearchScrollResponse scrollCountries(String query, Float similarityThreshold,
+                                         SearchCursor cursor, int limit);
+
+    /**
+     * Port search resumed after {@code cursor} (null for the first slice)
+     */
+    SearchScrollResponse scrollPorts(String query, String countryCode, Float similarityThreshold,
+                                     SearchCursor cursor, int limit);
+
+    /**
+     * Airport search resumed after {@code cursor} (null for the first slice)
+     */
+    SearchScrollResponse scrollAirports(String query, Float similarityThreshold,
+                                        SearchCursor cursor, int limit);
+
     /**
      * Autocomplete suggestions for quick lookup
      */
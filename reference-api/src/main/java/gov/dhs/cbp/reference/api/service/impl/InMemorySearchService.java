@@ -0,0 +1,390 @@
+package gov.dhs.cbp.reference.api.service.impl;
+
+import gov.dhs.cbp.reference.api.dto.search.AutocompleteResult;
+import gov.dhs.cbp.reference.api.dto.search.PartialSearchPage;
+import gov.dhs.cbp.reference.api.dto.search.SearchCursor;
+import gov.dhs.cbp.reference.api.dto.search.SearchResult;
+import gov.dhs.cbp.reference.api.dto.search.SearchScrollResponse;
+import gov.dhs.cbp.reference.api.search.AutocompleteIndex;
+import gov.dhs.cbp.reference.api.search.NameSynonyms;
+import gov.dhs.cbp.reference.api.search.NameSynonymsLoader;
+import gov.dhs.cbp.reference.api.search.ScatterGatherSearch;
+import gov.dhs.cbp.reference.api.search.SearchDocument;
+import gov.dhs.cbp.reference.api.search.SearchIndex;
+import gov.dhs.cbp.reference.api.search.SearchPopularity;
+import gov.dhs.cbp.reference.api.search.SearchQueryMetrics;
+import gov.dhs.cbp.reference.api.search.SearchTrace;
+import gov.dhs.cbp.reference.api.search.Trigrams;
+import gov.dhs.cbp.reference.api.service.SearchService;
+import gov.dhs.cbp.reference.api.snapshot.ReferenceSnapshot;
+import gov.dhs.cbp.reference.api.snapshot.ReferenceSnapshotPublishedEvent;
+import gov.dhs.cbp.reference.api.snapshot.ReferenceSnapshotStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Answers searches from {@link SearchIndex}es built over the current
+ * {@link ReferenceSnapshot}, so a page and its exact total come from one pass
+ * in memory instead of two {@code universal_search} calls.
+ *
+ * <p>Indexes are built when a snapshot is published, on the thread that
+ * published it. For a data change that is the dataset-version poll, before
+ * the new versions (and so the new ETag) are served, and no request waits for
+ * a build. Each build reads the {@link NameSynonyms} again; if they cannot be
+ * read, the previous ones are kept. Indexes are only used with the snapshot they were built from;
+ * without a snapshot (read model disabled, not loaded yet, or stale) or with
+ * indexes for another one, the call goes to {@link PostgresSearchService}, as
+ * does keyset scrolling. Universal search
+ * queries the per-type indexes in parallel through {@link ScatterGatherSearch}.</p>
+ *
+ * <p>Autocomplete answers from an {@link AutocompleteIndex} over the same
+ * snapshot, ordered by {@link SearchPopularity}. An autocomplete prefix typed
+ * out to a whole code or name counts once for that entry. Search pages do not
+ * count: they are answered from the HTTP caches by ETag, so only misses would
+ * reach this service, whereas autocomplete is never cached. A new snapshot only rebuilds the tries of
+ * datasets whose entries changed; new popularity weights only rescore, on the
+ * request that notices them while others keep the previous weights.</p>
+ *
+ * <p>Calls are recorded by {@link SearchQueryMetrics} with source
+ * {@code in-memory}; a fallback to the database is recorded once, as a
+ * {@code postgres} search with the fallback as a stage.</p>
+ */
+@Service
+@Primary
+@ConditionalOnProperty(name = "reference.search.in-memory.enabled", havingValue = "true")
+public class InMemorySearchService implements SearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(InMemorySearchService.class);
+
+    private static final String SOURCE = "in-memory";
+    private static final float DEFAULT_THRESHOLD = 0.3f;
+    private static final List<String> ALL_DATA_TYPES = List.of("countries", "ports", "airports");
+
+    private final ReferenceSnapshotStore snapshotStore;
+    private final PostgresSearchService databaseSearch;
+    private final SearchPopularity popularity;
+    private final ScatterGatherSearch scatterGather;
+    private final SearchQueryMetrics metrics;
+    private final NameSynonymsLoader synonymsLoader;
+    private final AtomicReference<Indexes> indexes = new AtomicReference<>();
+    private final AtomicReference<Completions> completions = new AtomicReference<>();
+    private final ReentrantLock completionLock = new ReentrantLock();
+    private final Timer buildTimer;
+    private final Timer completionBuildTimer;
+
+    public InMemorySearchService(ReferenceSnapshotStore snapshotStore,
+                                 PostgresSearchService databaseSearch,
+                                 SearchPopularity popularity,
+                                 ScatterGatherSearch scatterGather,
+                                 SearchQueryMetrics metrics,
+                                 NameSynonymsLoader synonymsLoader,
+                                 MeterRegistry meterRegistry) {
+        this.snapshotStore = snapshotStore;
+        this.databaseSearch = databaseSearch;
+        this.popularity = popularity;
+        this.scatterGather = scatterGather;
+        this.metrics = metrics;
+        this.synonymsLoader = synonymsLoader;
+        this.buildTimer = Timer.builder("reference.search.index.build")
+                .description("Time taken to build the in-memory search indexes from a snapshot")
+                .register(meterRegistry);
+        this.completionBuildTimer = Timer.builder("reference.search.autocomplete.build")
+                .description("Time taken to rebuild or rescore the autocomplete tries")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Page<SearchResult> universalSearch(String query, List<String> dataTypes,
+                                              Float similarityThreshold, Pageable pageable) {
+        return metrics.record(SOURCE, "universal", "search", query, similarityThreshold,
+                trace -> searchUniversal(trace, query, dataTypes, similarityThreshold, pageable),
+                Page::getTotalElements);
+    }
+
+    @Override
+    public Page<SearchResult> searchCountries(String query, Float similarityThreshold, Pageable pageable) {
+        return metrics.record(SOURCE, "countries", "search", query, similarityThreshold,
+                trace -> searchCountries(trace, query, similarityThreshold, pageable), Page::getTotalElements);
+    }
+
+    @Override
+    public Page<SearchResult> searchPorts(String query, String countryCode,
+                                          Float similarityThreshold, Pageable pageable) {
+        return metrics.record(SOURCE, "ports", "search", query, similarityThreshold,
+                trace -> searchPorts(trace, query, countryCode, similarityThreshold, pageable),
+                Page::getTotalElements);
+    }
+
+    @Override
+    public Page<SearchResult> searchAirports(String query, Float similarityThreshold, Pageable pageable) {
+        return metrics.record(SOURCE, "airports", "search", query, similarityThreshold,
+                trace -> searchAirports(trace, query, similarityThreshold, pageable), Page::getTotalElements);
+    }
+
+    private Page<SearchResult> searchUniversal(SearchTrace trace, String query, List<String> dataTypes,
+                                               Float similarityThreshold, Pageable pageable) {
+        Optional<Indexes> current = currentIndexes();
+        if (current.isEmpty()) {
+            return databaseSearch.universalSearch(query, dataTypes, similarityThreshold, pageable);
+        }
+        List<String> types = dataTypes == null || dataTypes.isEmpty() ? ALL_DATA_TYPES : dataTypes;
+        Map<String, SearchIndex> byDataType = current.get().byDataType();
+        int topK = topK(pageable);
+        ScatterGatherSearch.Gathered<SearchIndex.Hits> gathered = scatterGather.gather(
+                types.stream().distinct().filter(byDataType::containsKey).toList(),
+                type -> trace.time(type,
+                        () -> byDataType.get(type).search(query, threshold(similarityThreshold), null, topK)));
+        Page<SearchResult> page = toPage(SearchIndex.Hits.merge(gathered.results().values(), topK), pageable);
+        if (gathered.isPartial()) {
+            page = new PartialSearchPage(page.getContent(), pageable, page.getTotalElements(), gathered.timedOut());
+        }
+        return page;
+    }
+
+    private Page<SearchResult> searchCountries(SearchTrace trace, String query, Float similarityThreshold,
+                                               Pageable pageable) {
+        Optional<Indexes> current = currentIndexes();
+        if (current.isEmpty()) {
+            return databaseSearch.searchCountries(query, similarityThreshold, pageable);
+        }
+        SearchIndex index = current.get().byDataType().get("countries");
+        return toPage(trace.time("countries",
+                () -> index.search(query, threshold(similarityThreshold), null, topK(pageable))), pageable);
+    }
+
+    private Page<SearchResult> searchPorts(SearchTrace trace, String query, String countryCode,
+                                           Float similarityThreshold, Pageable pageable) {
+        Optional<Indexes> current = currentIndexes();
+        if (current.isEmpty()) {
+            return databaseSearch.searchPorts(query, countryCode, similarityThreshold, pageable);
+        }
+        SearchIndex index = current.get().byDataType().get("ports");
+        return toPage(trace.time("ports", () -> index.search(query, threshold(similarityThreshold),
+                countryCode == null ? null : document -> countryCode.equalsIgnoreCase(document.getCountryCode()),
+                topK(pageable))), pageable);
+    }
+
+    private Page<SearchResult> searchAirports(SearchTrace trace, String query, Float similarityThreshold,
+                                              Pageable pageable) {
+        Optional<Indexes> current = currentIndexes();
+        if (current.isEmpty()) {
+            return databaseSearch.searchAirports(query, similarityThreshold, pageable);
+        }
+        SearchIndex index = current.get().byDataType().get("airports");
+        return toPage(trace.time("airports",
+                () -> index.search(query, threshold(similarityThreshold), null, topK(pageable))), pageable);
+    }
+
+    @Override
+    public SearchScrollResponse scrollCountries(String query, Float similarityThreshold,
+                                                SearchCursor cursor, int limit) {
+        return databaseSearch.scrollCountries(query, similarityThreshold, cursor, limit);
+    }
+
+    @Override
+    public SearchScrollResponse scrollPorts(String query, String countryCode, Float similarityThreshold,
+                                            SearchCursor cursor, int limit) {
+        return databaseSearch.scrollPorts(query, countryCode, similarityThreshold, cursor, limit);
+    }
+
+    @Override
+    public SearchScrollResponse scrollAirports(String query, Float similarityThreshold,
+                                               SearchCursor cursor, int limit) {
+        return databaseSearch.scrollAirports(query, similarityThreshold, cursor, limit);
+    }
+
+    @Override
+    public List<AutocompleteResult> autocomplete(String prefix, String dataType, int limit) {
+        String type = SearchQueryMetrics.typeTag(dataType != null ? dataType : "countries");
+        return metrics.record(SOURCE, type, "autocomplete", prefix, null,
+                trace -> complete(trace, prefix, dataType, limit), List::size);
+    }
+
+    private List<AutocompleteResult> complete(SearchTrace trace, String prefix, String dataType, int limit) {
+        Optional<AutocompleteIndex> current = currentCompletions();
+        if (current.isEmpty()) {
+            return databaseSearch.autocomplete(prefix, dataType, limit);
+        }
+        String type = dataType != null ? dataType : "countries";
+        List<AutocompleteResult> results = trace.time("autocomplete",
+                () -> current.get().complete(prefix, type, limit <= 0 ? 10 : limit));
+        if (!results.isEmpty()) {
+            AutocompleteResult top = results.get(0);
+            String typed = Trigrams.normalize(prefix.trim());
+            if (typed.equals(Trigrams.normalize(top.getCode())) || typed.equals(Trigrams.normalize(top.getName()))) {
+                popularity.record(type, top.getCode());
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Builds the indexes and tries for a newly published snapshot before it
+     * is used to answer anything. A failure leaves the previous ones in place,
+     * which no longer match the snapshot, so searches go to the database.
+     */
+    @EventListener
+    public void onSnapshotPublished(ReferenceSnapshotPublishedEvent event) {
+        ReferenceSnapshot snapshot = event.snapshot();
+        NameSynonyms synonyms = loadSynonyms();
+        Indexes built = buildTimer.record(() -> build(snapshot, synonyms));
+        indexes.set(built);
+        logger.info("Built search indexes for snapshot {}: {} countries, {} ports, {} airports, {} synonym phrases",
+                built.snapshotVersion(), built.byDataType().get("countries").size(),
+                built.byDataType().get("ports").size(), built.byDataType().get("airports").size(),
+                synonyms.size());
+
+        completionLock.lock();
+        try {
+            Completions previous = completions.get();
+            long generation = popularity.getGeneration();
+            completions.set(completionBuildTimer.record(() -> refresh(previous, snapshot, generation)));
+        } finally {
+            completionLock.unlock();
+        }
+    }
+
+    private NameSynonyms loadSynonyms() {
+        try {
+            return synonymsLoader.load();
+        } catch (RuntimeException e) {
+            Indexes previous = indexes.get();
+            logger.warn("Cannot read name synonyms, keeping the previous ones: {}", e.getMessage());
+            return previous != null ? previous.synonyms() : NameSynonyms.NONE;
+        }
+    }
+
+    /**
+     * Indexes built from the current snapshot, if there are any.
+     */
+    private Optional<Indexes> currentIndexes() {
+        Optional<ReferenceSnapshot> snapshot = snapshotStore.current();
+        if (snapshot.isEmpty()) {
+            return Optional.empty();
+        }
+        Indexes built = indexes.get();
+        return built != null && built.snapshotVersion() == snapshot.get().getVersion()
+                ? Optional.of(built) : Optional.empty();
+    }
+
+    /**
+     * Autocomplete tries built from the current snapshot, rescored first if
+     * the popularity weights moved on. A request that finds another thread
+     * rescoring uses the previous weights rather than waiting.
+     */
+    private Optional<AutocompleteIndex> currentCompletions() {
+        Optional<ReferenceSnapshot> snapshot = snapshotStore.current();
+        if (snapshot.isEmpty()) {
+            return Optional.empty();
+        }
+        long snapshotVersion = snapshot.get().getVersion();
+        long generation = popularity.getGeneration();
+        Completions built = completions.get();
+        if (built == null || built.snapshotVersion() != snapshotVersion) {
+            return Optional.empty();
+        }
+        if (built.popularityGeneration() == generation || !completionLock.tryLock()) {
+            return Optional.of(built.index());
+        }
+        try {
+            Completions latest = completions.get();
+            if (latest.snapshotVersion() == snapshotVersion && !latest.isFor(snapshotVersion, generation)) {
+                Completions previous = latest;
+                latest = completionBuildTimer.record(() -> refresh(previous, snapshot.get(), generation));
+                completions.set(latest);
+            }
+            return Optional.of(latest.index());
+        } finally {
+            completionLock.unlock();
+        }
+    }
+
+    /**
+     * Rescores {@code previous} if only popularity moved, otherwise rebuilds
+     * from the snapshot, reusing the tries of unchanged datasets.
+     */
+    private Completions refresh(Completions previous, ReferenceSnapshot snapshot, long generation) {
+        if (previous != null && previous.snapshotVersion() == snapshot.getVersion()) {
+            return new Completions(snapshot.getVersion(), generation, previous.index().reweigh(popularity::weight));
+        }
+        AutocompleteIndex index = AutocompleteIndex.build(entries(snapshot), popularity::weight,
+                previous == null ? null : previous.index());
+        return new Completions(snapshot.getVersion(), generation, index);
+    }
+
+    private static Map<String, List<AutocompleteIndex.Entry>> entries(ReferenceSnapshot snapshot) {
+        Map<String, List<AutocompleteIndex.Entry>> entries = new LinkedHashMap<>();
+        entries.put("countries", snapshot.getCountries().stream().map(AutocompleteIndex.Entry::of).toList());
+        entries.put("ports", snapshot.getPorts().stream().map(AutocompleteIndex.Entry::of).toList());
+        entries.put("airports", snapshot.getAirports().stream().map(AutocompleteIndex.Entry::of).toList());
+        return entries;
+    }
+
+    private static Indexes build(ReferenceSnapshot snapshot, NameSynonyms synonyms) {
+        Map<String, SearchIndex> byDataType = new LinkedHashMap<>();
+        byDataType.put("countries", index(snapshot.getCountries(), country -> SearchDocument.of(country, synonyms)));
+        byDataType.put("ports", index(snapshot.getPorts(), port -> SearchDocument.of(port, synonyms)));
+        byDataType.put("airports", index(snapshot.getAirports(), airport -> SearchDocument.of(airport, synonyms)));
+        return new Indexes(snapshot.getVersion(), synonyms, Map.copyOf(byDataType));
+    }
+
+    private static <T> SearchIndex index(List<T> rows, Function<T, SearchDocument> toDocument) {
+        List<SearchDocument> documents = new ArrayList<>(rows.size());
+        for (T row : rows) {
+            documents.add(toDocument.apply(row));
+        }
+        return SearchIndex.build(documents);
+    }
+
+    private static Page<SearchResult> toPage(SearchIndex.Hits hits, Pageable pageable) {
+        List<SearchIndex.Hit> top = hits.top();
+        int from = (int) Math.min(pageable.getOffset(), top.size());
+        List<SearchResult> content = new ArrayList<>(top.size() - from);
+        for (SearchIndex.Hit hit : top.subList(from, top.size())) {
+            content.add(toResult(hit));
+        }
+        return new PageImpl<>(content, pageable, hits.total());
+    }
+
+    private static SearchResult toResult(SearchIndex.Hit hit) {
+        SearchDocument document = hit.document();
+        return new SearchResult(document.getEntityType(), document.getEntityId(), document.getCode(),
+                document.getName(), document.getAdditionalInfo(), hit.similarity(), hit.rank());
+    }
+
+    private static int topK(Pageable pageable) {
+        return (int) Math.min(Integer.MAX_VALUE, pageable.getOffset() + pageable.getPageSize());
+    }
+
+    private static float threshold(Float similarityThreshold) {
+        return similarityThreshold != null ? similarityThreshold : DEFAULT_THRESHOLD;
+    }
+
+    private record Indexes(long snapshotVersion, NameSynonyms synonyms, Map<String, SearchIndex> byDataType) {
+    }
+
+    private record Completions(long snapshotVersion, long popularityGeneration, AutocompleteIndex index) {
+
+        boolean isFor(long snapshotVersion, long popularityGeneration) {
+            return this.snapshotVersion == snapshotVersion && this.popularityGeneration == popularityGeneration;
+        }
+    }
+}
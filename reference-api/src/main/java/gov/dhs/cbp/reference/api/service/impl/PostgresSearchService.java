@@ -1,164 +1,282 @@
 package gov.dhs.cbp.reference.api.service.impl;
 
 import gov.dhs.cbp.reference.api.dto.search.AutocompleteResult;
+import gov.dhs.cbp.reference.api.dto.search.PartialSearchPage;
+import gov.dhs.cbp.reference.api.dto.search.SearchCursor;
+import gov.dhs.cbp.reference.api.dto.search.SearchScrollResponse;
+import gov.dhs.cbp.reference.api.dto.search.SearchDetails;
 import gov.dhs.cbp.reference.api.dto.search.SearchResult;
+import gov.dhs.cbp.reference.api.search.ScatterGatherSearch;
+import gov.dhs.cbp.reference.api.search.SearchQueryMetrics;
+import gov.dhs.cbp.reference.api.search.SearchResultCache;
+import gov.dhs.cbp.reference.api.search.SearchTrace;
 import gov.dhs.cbp.reference.api.service.SearchService;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import jakarta.persistence.Query;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.*;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
+/**
+ * Search through the {@code reference_data} search functions. Pages are
+ * served from {@link SearchResultCache} when the same search was answered at
+ * the current dataset versions; only misses open a read-only transaction, so
+ * hits never take a pooled connection.
+ *
+ * <p>Universal search runs the per-type functions in parallel through
+ * {@link ScatterGatherSearch}, each in its own transaction on its own
+ * connection, and merges their first {@code offset + size} rows. The
+ * transaction timeout is the scatter deadline rounded up to whole seconds,
+ * so the database also cancels a query that was left behind. Single-type
+ * searches time out after {@code reference.search.query-timeout-ms}, which
+ * bounds a search a batch gave up on.</p>
+ *
+ * <p>Every call is recorded by {@link SearchQueryMetrics}. Each function
+ * call is traced twice: the call itself, and the transaction around it,
+ * which also covers waiting for a pooled connection.</p>
+ */
 @Service
-@Transactional(readOnly = true)
 public class PostgresSearchService implements SearchService {
     
     @PersistenceContext
     private EntityManager entityManager;
     
+    private static final String SOURCE = "postgres";
+    private static final List<String> ALL_DATA_TYPES = List.of("countries", "ports", "airports");
+    private static final Comparator<SearchResult> ORDER = Comparator
+            .comparing(SearchResult::getSimilarityScore, Comparator.reverseOrder())
+            .thenComparing(SearchResult::getRank, Comparator.reverseOrder())
+            .thenComparing(SearchResult::getCode, Comparator.nullsLast(Comparator.naturalOrder()));
+    
+    private final SearchResultCache resultCache;
+    private final ScatterGatherSearch scatterGather;
+    private final SearchQueryMetrics metrics;
+    private final TransactionTemplate readOnly;
+    private final TransactionTemplate perType;
+    
+    public PostgresSearchService(SearchResultCache resultCache, ScatterGatherSearch scatterGather,
+                                 SearchQueryMetrics metrics, PlatformTransactionManager transactionManager,
+                                 @Value("${reference.search.query-timeout-ms:30000}") long queryTimeoutMs) {
+        this.resultCache = resultCache;
+        this.scatterGather = scatterGather;
+        this.metrics = metrics;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+        this.readOnly.setTimeout((int) Math.max(1, (queryTimeoutMs + 999) / 1000));
+        this.perType = new TransactionTemplate(transactionManager);
+        this.perType.setReadOnly(true);
+        this.perType.setTimeout((int) Math.max(1, (scatterGather.getDeadline().toMillis() + 999) / 1000));
+    }
+    
     @Override
     public Page<SearchResult> universalSearch(String query, List<String> dataTypes, 
                                              Float similarityThreshold, Pageable pageable) {
-        if (dataTypes == null || dataTypes.isEmpty()) {
-            dataTypes = Arrays.asList("countries", "ports", "airports");
-        }
+        List<String> types = dataTypes == null || dataTypes.isEmpty() ? ALL_DATA_TYPES : dataTypes;
+        return metrics.record(SOURCE, "universal", "search", query, similarityThreshold, trace ->
+                resultCache.get("universal", query, types, similarityThreshold, null, pageable,
+                        () -> queryUniversal(trace, query, types, similarityThreshold, pageable)),
+                Page::getTotalElements);
+    }
+    
+    @Override
+    public Page<SearchResult> searchCountries(String query, Float similarityThreshold, 
+                                             Pageable pageable) {
+        return metrics.record(SOURCE, "countries", "search", query, similarityThreshold, trace ->
+                resultCache.get("countries", query, List.of("countries"), similarityThreshold, null, pageable,
+                        () -> traced(trace, "search_countries", readOnly,
+                                () -> queryCountries(query, similarityThreshold, pageable))),
+                Page::getTotalElements);
+    }
+    
+    @Override
+    public Page<SearchResult> searchPorts(String query, String countryCode, 
+                                         Float similarityThreshold, Pageable pageable) {
+        return metrics.record(SOURCE, "ports", "search", query, similarityThreshold, trace ->
+                resultCache.get("ports", query, List.of("ports"), similarityThreshold, countryCode, pageable,
+                        () -> traced(trace, "search_ports", readOnly,
+                                () -> queryPorts(query, countryCode, similarityThreshold, pageable))),
+                Page::getTotalElements);
+    }
+    
+    @Override
+    public Page<SearchResult> searchAirports(String query, Float similarityThreshold, 
+                                            Pageable pageable) {
+        return metrics.record(SOURCE, "airports", "search", query, similarityThreshold, trace ->
+                resultCache.get("airports", query, List.of("airports"), similarityThreshold, null, pageable,
+                        () -> traced(trace, "search_airports", readOnly,
+                                () -> queryAirports(query, similarityThreshold, pageable))),
+                Page::getTotalElements);
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public SearchScrollResponse scrollCountries(String query, Float similarityThreshold,
+                                                SearchCursor cursor, int limit) {
+        return metrics.record(SOURCE, "countries", "scroll", query, similarityThreshold, trace ->
+                trace.time("search_countries",
+                        () -> scroll(countriesQuery(query, similarityThreshold, cursor), limit, 6,
+                                this::mapToCountryResult)),
+                SearchScrollResponse::getTotalElements);
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public SearchScrollResponse scrollPorts(String query, String countryCode, Float similarityThreshold,
+                                            SearchCursor cursor, int limit) {
+        return metrics.record(SOURCE, "ports", "scroll", query, similarityThreshold, trace ->
+                trace.time("search_ports",
+                        () -> scroll(portsQuery(query, countryCode, similarityThreshold, cursor), limit, 6,
+                                this::mapToPortResult)),
+                SearchScrollResponse::getTotalElements);
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public SearchScrollResponse scrollAirports(String query, Float similarityThreshold,
+                                               SearchCursor cursor, int limit) {
+        return metrics.record(SOURCE, "airports", "scroll", query, similarityThreshold, trace ->
+                trace.time("search_airports",
+                        () -> scroll(airportsQuery(query, similarityThreshold, cursor), limit, 7,
+                                this::mapToAirportResult)),
+                SearchScrollResponse::getTotalElements);
+    }
+    
+    private Page<SearchResult> queryUniversal(SearchTrace trace, String query, List<String> dataTypes,
+                                              Float similarityThreshold, Pageable pageable) {
+        int topK = (int) Math.min(Integer.MAX_VALUE, pageable.getOffset() + pageable.getPageSize());
+        Pageable head = PageRequest.of(0, topK);
+        List<String> types = ALL_DATA_TYPES.stream().filter(dataTypes::contains).toList();
         
-        String sql = "SELECT * FROM reference_data.universal_search(:query, :dataTypes, :threshold, :limit)";
+        ScatterGatherSearch.Gathered<Page<SearchResult>> gathered = scatterGather.gather(types,
+            type -> switch (type) {
+                case "countries" -> traced(trace, "search_countries", perType,
+                    () -> queryCountries(query, similarityThreshold, head));
+                case "ports" -> traced(trace, "search_ports", perType,
+                    () -> queryPorts(query, null, similarityThreshold, head));
+                default -> traced(trace, "search_airports", perType,
+                    () -> queryAirports(query, similarityThreshold, head));
+            });
         
-        Query nativeQuery = entityManager.createNativeQuery(sql);
-        nativeQuery.setParameter("query", query);
-        nativeQuery.setParameter("dataTypes", dataTypes.toArray(new String[0]));
-        nativeQuery.setParameter("threshold", similarityThreshold != null ? similarityThreshold : 0.3f);
+        List<List<SearchResult>> parts = new ArrayList<>(gathered.results().size());
+        long totalCount = 0;
+        for (Page<SearchResult> part : gathered.results().values()) {
+            parts.add(part.getContent());
+            totalCount += part.getTotalElements();
+        }
+        List<SearchResult> top = ScatterGatherSearch.top(parts, topK, ORDER);
+        List<SearchResult> content = top.subList((int) Math.min(pageable.getOffset(), top.size()), top.size());
+        
+        return gathered.isPartial()
+            ? new PartialSearchPage(content, pageable, totalCount, gathered.timedOut())
+            : new PageImpl<>(content, pageable, totalCount);
+    }
+    
+    /**
+     * Runs {@code query} in a transaction from {@code template}, timing the
+     * call as {@code function} and the whole transaction, including the wait
+     * for a connection, as {@code function.transaction}. A scattered search
+     * whose deadline passed while it waited for the connection stops there.
+     */
+    private static <T> T traced(SearchTrace trace, String function, TransactionTemplate template,
+                                Supplier<T> query) {
+        return trace.time(function + ".transaction", () -> template.execute(status -> {
+            ScatterGatherSearch.checkDeadline();
+            return trace.time(function, query);
+        }));
+    }
+    
+    private Page<SearchResult> queryCountries(String query, Float similarityThreshold, Pageable pageable) {
+        Query nativeQuery = countriesQuery(query, similarityThreshold, null);
+        nativeQuery.setParameter("offset", (int) pageable.getOffset());
         nativeQuery.setParameter("limit", pageable.getPageSize());
         
         @SuppressWarnings("unchecked")
         List<Object[]> results = nativeQuery.getResultList();
         
         List<SearchResult> searchResults = results.stream()
-            .map(this::mapToSearchResult)
+            .map(this::mapToCountryResult)
             .collect(Collectors.toList());
         
-        // Get total count
-        String countSql = "SELECT COUNT(*) FROM reference_data.universal_search(:query, :dataTypes, :threshold, 1000)";
-        Query countQuery = entityManager.createNativeQuery(countSql);
-        countQuery.setParameter("query", query);
-        countQuery.setParameter("dataTypes", dataTypes.toArray(new String[0]));
-        countQuery.setParameter("threshold", similarityThreshold != null ? similarityThreshold : 0.3f);
-        
-        Long totalCount = ((Number) countQuery.getSingleResult()).longValue();
+        long totalCount = totalCount(results, 8, pageable, () -> {
+            Query countQuery = entityManager.createNativeQuery(
+                "SELECT COUNT(*) FROM reference_data.search_countries(:query, :threshold, 0, NULL)");
+            countQuery.setParameter("query", query);
+            countQuery.setParameter("threshold", threshold(similarityThreshold));
+            return countQuery;
+        });
         
         return new PageImpl<>(searchResults, pageable, totalCount);
     }
     
-    @Override
-    public Page<SearchResult> searchCountries(String query, Float similarityThreshold, 
-                                             Pageable pageable) {
-        String sql = "SELECT * FROM reference_data.search_countries(:query, :threshold, :limit) " +
-                    "OFFSET :offset";
-        
-        Query nativeQuery = entityManager.createNativeQuery(sql);
-        nativeQuery.setParameter("query", query);
-        nativeQuery.setParameter("threshold", similarityThreshold != null ? similarityThreshold : 0.3f);
+    private Page<SearchResult> queryPorts(String query, String countryCode,
+                                          Float similarityThreshold, Pageable pageable) {
+        Query nativeQuery = portsQuery(query, countryCode, similarityThreshold, null);
+        nativeQuery.setParameter("offset", (int) pageable.getOffset());
         nativeQuery.setParameter("limit", pageable.getPageSize());
-        nativeQuery.setParameter("offset", pageable.getOffset());
         
         @SuppressWarnings("unchecked")
         List<Object[]> results = nativeQuery.getResultList();
         
         List<SearchResult> searchResults = results.stream()
-            .map(row -> {
-                SearchResult result = new SearchResult();
-                result.setEntityType("country");
-                result.setEntityId((UUID) row[0]);
-                result.setCode((String) row[1]);
-                result.setName((String) row[2]);
-                
-                Map<String, Object> additionalInfo = new HashMap<>();
-                additionalInfo.put("iso2_code", row[3]);
-                additionalInfo.put("iso3_code", row[4]);
-                result.setAdditionalInfo(additionalInfo);
-                
-                result.setSimilarityScore(((Number) row[5]).floatValue());
-                result.setRank(((Number) row[6]).floatValue());
-                
-                return result;
-            })
+            .map(this::mapToPortResult)
             .collect(Collectors.toList());
         
-        // Get total count
-        String countSql = "SELECT COUNT(*) FROM reference_data.search_countries(:query, :threshold, 1000)";
-        Query countQuery = entityManager.createNativeQuery(countSql);
-        countQuery.setParameter("query", query);
-        countQuery.setParameter("threshold", similarityThreshold != null ? similarityThreshold : 0.3f);
-        
-        Long totalCount = ((Number) countQuery.getSingleResult()).longValue();
+        long totalCount = totalCount(results, 8, pageable, () -> {
+            Query countQuery = entityManager.createNativeQuery(
+                "SELECT COUNT(*) FROM reference_data.search_ports(:query, CAST(:countryCode AS TEXT), :threshold, 0, NULL)");
+            countQuery.setParameter("query", query);
+            countQuery.setParameter("countryCode", countryCode);
+            countQuery.setParameter("threshold", threshold(similarityThreshold));
+            return countQuery;
+        });
         
         return new PageImpl<>(searchResults, pageable, totalCount);
     }
     
-    @Override
-    public Page<SearchResult> searchPorts(String query, String countryCode, 
-                                         Float similarityThreshold, Pageable pageable) {
-        String sql = "SELECT * FROM reference_data.search_ports(:query, :countryCode, :threshold, :limit) " +
-                    "OFFSET :offset";
-        
-        Query nativeQuery = entityManager.createNativeQuery(sql);
-        nativeQuery.setParameter("query", query);
-        nativeQuery.setParameter("countryCode", countryCode);
-        nativeQuery.setParameter("threshold", similarityThreshold != null ? similarityThreshold : 0.3f);
+    private Page<SearchResult> queryAirports(String query, Float similarityThreshold, Pageable pageable) {
+        Query nativeQuery = airportsQuery(query, similarityThreshold, null);
+        nativeQuery.setParameter("offset", (int) pageable.getOffset());
         nativeQuery.setParameter("limit", pageable.getPageSize());
-        nativeQuery.setParameter("offset", pageable.getOffset());
         
         @SuppressWarnings("unchecked")
         List<Object[]> results = nativeQuery.getResultList();
         
         List<SearchResult> searchResults = results.stream()
-            .map(row -> {
-                SearchResult result = new SearchResult();
-                result.setEntityType("port");
-                result.setEntityId((UUID) row[0]);
-                result.setCode((String) row[1]);
-                result.setName((String) row[2]);
-                
-                Map<String, Object> additionalInfo = new HashMap<>();
-                additionalInfo.put("city", row[3]);
-                additionalInfo.put("country_code", row[4]);
-                result.setAdditionalInfo(additionalInfo);
-                
-                result.setSimilarityScore(((Number) row[5]).floatValue());
-                result.setRank(((Number) row[6]).floatValue());
-                
-                return result;
-            })
+            .map(this::mapToAirportResult)
             .collect(Collectors.toList());
         
-        // Get total count
-        String countSql = "SELECT COUNT(*) FROM reference_data.search_ports(:query, :countryCode, :threshold, 1000)";
-        Query countQuery = entityManager.createNativeQuery(countSql);
-        countQuery.setParameter("query", query);
-        countQuery.setParameter("countryCode", countryCode);
-        countQuery.setParameter("threshold", similarityThreshold != null ? similarityThreshold : 0.3f);
-        
-        Long totalCount = ((Number) countQuery.getSingleResult()).longValue();
+        long totalCount = totalCount(results, 9, pageable, () -> {
+            Query countQuery = entityManager.createNativeQuery(
+                "SELECT COUNT(*) FROM reference_data.search_airports(:query, :threshold, 0, NULL)");
+            countQuery.setParameter("query", query);
+            countQuery.setParameter("threshold", threshold(similarityThreshold));
+            return countQuery;
+        });
         
         return new PageImpl<>(searchResults, pageable, totalCount);
     }
     
     @Override
-    public Page<SearchResult> searchAirports(String query, Float similarityThreshold, 
-                                            Pageable pageable) {
-        // Since we don't have a specific airports search function yet, use universal search
-        return universalSearch(query, Arrays.asList("airports"), similarityThreshold, pageable);
+    @Transactional(readOnly = true)
+    public List<AutocompleteResult> autocomplete(String prefix, String dataType, int limit) {
+        String type = SearchQueryMetrics.typeTag(dataType != null ? dataType : "countries");
+        return metrics.record(SOURCE, type, "autocomplete", prefix, null,
+            trace -> trace.time("autocomplete", () -> queryAutocomplete(prefix, dataType, limit)), List::size);
     }
     
-    @Override
-    public List<AutocompleteResult> autocomplete(String prefix, String dataType, int limit) {
+    private List<AutocompleteResult> queryAutocomplete(String prefix, String dataType, int limit) {
         if (limit <= 0) {
             limit = 10;
         }
@@ -185,23 +303,114 @@ public class PostgresSearchService implements SearchService {
             .collect(Collectors.toList());
     }
     
-    private SearchResult mapToSearchResult(Object[] row) {
-        SearchResult result = new SearchResult();
-        result.setEntityType((String) row[0]);
-        result.setEntityId((UUID) row[1]);
-        result.setCode((String) row[2]);
-        result.setName((String) row[3]);
+    private Query countriesQuery(String query, Float similarityThreshold, SearchCursor cursor) {
+        String sql = "SELECT * FROM reference_data.search_countries(:query, :threshold, :offset, :limit, " +
+                    "CAST(:afterScore AS FLOAT), CAST(:afterRank AS FLOAT), CAST(:afterCode AS TEXT))";
+        
+        Query nativeQuery = entityManager.createNativeQuery(sql);
+        nativeQuery.setParameter("query", query);
+        nativeQuery.setParameter("threshold", threshold(similarityThreshold));
+        bindCursor(nativeQuery, cursor);
+        return nativeQuery;
+    }
+    
+    private Query portsQuery(String query, String countryCode, Float similarityThreshold, SearchCursor cursor) {
+        String sql = "SELECT * FROM reference_data.search_ports(:query, CAST(:countryCode AS TEXT), :threshold, " +
+                    ":offset, :limit, CAST(:afterScore AS FLOAT), CAST(:afterRank AS FLOAT), CAST(:afterCode AS TEXT))";
+        
+        Query nativeQuery = entityManager.createNativeQuery(sql);
+        nativeQuery.setParameter("query", query);
+        nativeQuery.setParameter("countryCode", countryCode);
+        nativeQuery.setParameter("threshold", threshold(similarityThreshold));
+        bindCursor(nativeQuery, cursor);
+        return nativeQuery;
+    }
+    
+    private Query airportsQuery(String query, Float similarityThreshold, SearchCursor cursor) {
+        String sql = "SELECT * FROM reference_data.search_airports(:query, :threshold, :offset, :limit, " +
+                    "CAST(:afterScore AS FLOAT), CAST(:afterRank AS FLOAT), CAST(:afterCode AS TEXT))";
         
-        // Parse JSONB additional_info
-        if (row[4] != null) {
-            // The additional_info comes as a string representation of JSON
-            // In a real implementation, you might want to use a JSON parser
-            result.setAdditionalInfo(new HashMap<>());
+        Query nativeQuery = entityManager.createNativeQuery(sql);
+        nativeQuery.setParameter("query", query);
+        nativeQuery.setParameter("threshold", threshold(similarityThreshold));
+        bindCursor(nativeQuery, cursor);
+        return nativeQuery;
+    }
+    
+    private static void bindCursor(Query nativeQuery, SearchCursor cursor) {
+        nativeQuery.setParameter("afterScore", cursor != null ? cursor.similarityScore() : null);
+        nativeQuery.setParameter("afterRank", cursor != null ? cursor.rank() : null);
+        nativeQuery.setParameter("afterCode", cursor != null ? cursor.code() : null);
+    }
+    
+    /**
+     * Runs a keyset query for one more row than asked, so the cursor is only
+     * handed out when another slice exists. Scores go into the cursor as the
+     * database returned them, not as the rounded floats on {@link SearchResult}.
+     * Every search function returns the code second and ends with score,
+     * rank and total, the score at {@code scoreColumn}.
+     */
+    private SearchScrollResponse scroll(Query nativeQuery, int limit, int scoreColumn,
+                                        Function<Object[], SearchResult> mapper) {
+        if (limit <= 0) {
+            limit = 20;
         }
+        nativeQuery.setParameter("offset", 0);
+        nativeQuery.setParameter("limit", limit + 1);
         
-        result.setSimilarityScore(((Number) row[5]).floatValue());
-        result.setRank(((Number) row[6]).floatValue());
+        @SuppressWarnings("unchecked")
+        List<Object[]> results = nativeQuery.getResultList();
+        
+        List<Object[]> slice = results.size() > limit ? results.subList(0, limit) : results;
+        List<SearchResult> searchResults = slice.stream()
+            .map(mapper)
+            .collect(Collectors.toList());
+        
+        String nextCursor = null;
+        if (results.size() > limit) {
+            Object[] last = slice.get(slice.size() - 1);
+            nextCursor = new SearchCursor(((Number) last[scoreColumn]).doubleValue(),
+                    ((Number) last[scoreColumn + 1]).doubleValue(), (String) last[1]).encode();
+        }
+        long totalCount = results.isEmpty() ? 0 : ((Number) results.get(0)[scoreColumn + 2]).longValue();
         
-        return result;
+        return new SearchScrollResponse(searchResults, totalCount, nextCursor);
+    }
+    
+    /**
+     * Total from the {@code total_count} window column. Only a page past the
+     * end has no row to read it from; then a separate count is run.
+     */
+    private static long totalCount(List<Object[]> results, int totalColumn, Pageable pageable,
+                                   Supplier<Query> countQuery) {
+        if (!results.isEmpty()) {
+            return ((Number) results.get(0)[totalColumn]).longValue();
+        }
+        if (pageable.getOffset() == 0) {
+            return 0;
+        }
+        return ((Number) countQuery.get().getSingleResult()).longValue();
+    }
+    
+    private static float threshold(Float similarityThreshold) {
+        return similarityThreshold != null ? similarityThreshold : 0.3f;
+    }
+    
+    private SearchResult mapToCountryResult(Object[] row) {
+        return new SearchResult("country", (UUID) row[0], (String) row[1], (String) row[2],
+            new SearchDetails.Country((String) row[3], (String) row[4], (String) row[5]),
+            ((Number) row[6]).floatValue(), ((Number) row[7]).floatValue());
+    }
+    
+    private SearchResult mapToPortResult(Object[] row) {
+        return new SearchResult("port", (UUID) row[0], (String) row[1], (String) row[2],
+            new SearchDetails.Port((String) row[3], (String) row[4], (String) row[5]),
+            ((Number) row[6]).floatValue(), ((Number) row[7]).floatValue());
+    }
+    
+    private SearchResult mapToAirportResult(Object[] row) {
+        return new SearchResult("airport", (UUID) row[0], (String) row[1], (String) row[2],
+            new SearchDetails.Airport((String) row[3], (String) row[4], (String) row[5], (String) row[6]),
+            ((Number) row[7]).floatValue(), ((Number) row[8]).floatValue());
     }
 }
\ No newline at end of file
@@ -0,0 +1,351 @@
+package gov.dhs.cbp.reference.api.snapshot;
+
+import gov.dhs.cbp.reference.api.dto.AirportCodeMatch;
+import gov.dhs.cbp.reference.api.dto.AirportCodeType;
+import gov.dhs.cbp.reference.api.dto.AirportDto;
+import gov.dhs.cbp.reference.api.dto.CountryDto;
+import gov.dhs.cbp.reference.api.dto.PagedResponse;
+import gov.dhs.cbp.reference.api.dto.PortDto;
+import gov.dhs.cbp.reference.core.geo.GeoIndex;
+import org.springframework.data.domain.Pageable;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable, fully indexed copy of all current countries, ports and airports.
+ * Instances are never modified after construction; a refresh builds a new
+ * snapshot and swaps it in, so readers never observe a partial update. The
+ * DTOs are mutable, so every accessor hands out copies and a caller changing
+ * one cannot alter what later requests are served.
+ *
+ * <p>Lookups mirror the semantics of the corresponding repository queries:
+ * rows are "current" as of {@link #getBusinessDate()}, code lookups prefer the
+ * highest version, and per-system lists keep the repository sort order.</p>
+ */
+public final class ReferenceSnapshot {
+
+    private static final char KEY_SEPARATOR = '\u0000';
+
+    private final long version;
+    private final Instant builtAt;
+    private final LocalDate businessDate;
+
+    private final List<CountryDto> countries;
+    private final Map<UUID, CountryDto> countriesById;
+    private final Map<String, CountryDto> countriesByCode;
+    private final Map<String, List<CountryDto>> countriesBySystem;
+
+    private final List<PortDto> ports;
+    private final Map<UUID, PortDto> portsById;
+    private final Map<String, PortDto> portsByPortCode;
+    private final Map<String, PortDto> portsByUnLocode;
+    private final Map<String, PortDto> portsByCbpCode;
+    private final Map<String, List<PortDto>> portsBySystem;
+    private final Map<String, List<PortDto>> portsByCountry;
+    private final Map<String, List<PortDto>> portsByCity;
+    private final Map<String, List<PortDto>> portsByType;
+    private final GeoIndex<PortDto> portsByLocation;
+
+    private final List<AirportDto> airports;
+    private final Map<UUID, AirportDto> airportsById;
+    private final Map<String, AirportDto> airportsByIata;
+    private final Map<String, AirportDto> airportsByIcao;
+    private final Map<String, AirportCodeMatch> airportsByCode;
+    private final Map<String, List<AirportDto>> airportsBySystem;
+    private final Map<String, List<AirportDto>> airportsByCountry;
+    private final Map<String, List<AirportDto>> airportsByCity;
+    private final Map<String, List<AirportDto>> airportsByType;
+    private final GeoIndex<AirportDto> airportsByLocation;
+
+    public ReferenceSnapshot(long version, LocalDate businessDate,
+                             List<CountryDto> countries, List<PortDto> ports, List<AirportDto> airports) {
+        this.version = version;
+        this.builtAt = Instant.now();
+        this.businessDate = businessDate;
+
+        this.countries = List.copyOf(countries);
+        this.countriesById = byId(this.countries, CountryDto::getId);
+        this.countriesByCode = uniqueIndex(this.countries, c -> key(c.getCodeSystem(), c.getCountryCode()),
+                CountryDto::getVersion);
+        this.countriesBySystem = groupIndex(this.countries, CountryDto::getCodeSystem,
+                Comparator.comparing(CountryDto::getCountryCode, Comparator.nullsLast(Comparator.naturalOrder())));
+
+        this.ports = List.copyOf(ports);
+        this.portsById = byId(this.ports, PortDto::getId);
+        this.portsByPortCode = uniqueIndex(this.ports, p -> key(p.getCodeSystem(), p.getPortCode()), PortDto::getVersion);
+        this.portsByUnLocode = uniqueIndex(this.ports, p -> key(p.getCodeSystem(), p.getUnLocode()), PortDto::getVersion);
+        this.portsByCbpCode = uniqueIndex(this.ports, p -> key(p.getCodeSystem(), p.getCbpPortCode()), PortDto::getVersion);
+        this.portsBySystem = groupIndex(this.ports, PortDto::getCodeSystem,
+                Comparator.comparing(PortDto::getPortName, Comparator.nullsLast(Comparator.naturalOrder())));
+        this.portsByCountry = groupIndex(this.ports, PortDto::getCountryCode, null);
+        this.portsByCity = groupIndex(this.ports, PortDto::getCity, null);
+        this.portsByType = groupIndex(this.ports, PortDto::getPortType, null);
+        this.portsByLocation = GeoIndex.build(
+                this.ports.stream().filter(p -> Boolean.TRUE.equals(p.getIsActive())).toList(),
+                PortDto::getLatitude, PortDto::getLongitude);
+
+        this.airports = List.copyOf(airports);
+        this.airportsById = byId(this.airports, AirportDto::getId);
+        Map<AirportCodeType, Map<String, AirportDto>> airportsByCodeType = new EnumMap<>(AirportCodeType.class);
+        for (AirportCodeType type : AirportCodeType.values()) {
+            airportsByCodeType.put(type, uniqueIndex(this.airports,
+                    a -> key(a.getCodeSystem(), type.codeOf(a)), AirportDto::getVersion));
+        }
+        this.airportsByIata = airportsByCodeType.get(AirportCodeType.IATA);
+        this.airportsByIcao = airportsByCodeType.get(AirportCodeType.ICAO);
+        this.airportsByCode = airportCodeIndex(airportsByCodeType);
+        this.airportsBySystem = groupIndex(this.airports, AirportDto::getCodeSystem,
+                Comparator.comparing(AirportDto::getAirportName, Comparator.nullsLast(Comparator.naturalOrder())));
+        this.airportsByCountry = groupIndex(this.airports, AirportDto::getCountryCode, null);
+        this.airportsByCity = groupIndex(this.airports, AirportDto::getCity, null);
+        this.airportsByType = groupIndex(this.airports, AirportDto::getAirportType, null);
+        this.airportsByLocation = GeoIndex.build(
+                this.airports.stream().filter(a -> Boolean.TRUE.equals(a.getIsActive())).toList(),
+                AirportDto::getLatitude, AirportDto::getLongitude);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public Instant getBuiltAt() {
+        return builtAt;
+    }
+
+    public LocalDate getBusinessDate() {
+        return businessDate;
+    }
+
+    public int size() {
+        return countries.size() + ports.size() + airports.size();
+    }
+
+    // Countries
+
+    public List<CountryDto> getCountries() {
+        return copies(countries, CountryDto::new);
+    }
+
+    public Optional<CountryDto> findCountryById(UUID id) {
+        return Optional.ofNullable(countriesById.get(id)).map(CountryDto::new);
+    }
+
+    public Optional<CountryDto> findCountry(String code, String systemCode) {
+        return Optional.ofNullable(countriesByCode.get(key(systemCode, code))).map(CountryDto::new);
+    }
+
+    public PagedResponse<CountryDto> findCountriesBySystem(String systemCode, Pageable pageable) {
+        return page(countriesBySystem.getOrDefault(systemCode, List.of()), pageable, CountryDto::new);
+    }
+
+    // Ports
+
+    public List<PortDto> getPorts() {
+        return copies(ports, PortDto::new);
+    }
+
+    public Optional<PortDto> findPortById(UUID id) {
+        return Optional.ofNullable(portsById.get(id)).map(PortDto::new);
+    }
+
+    public Optional<PortDto> findPortByPortCode(String portCode, String systemCode) {
+        return Optional.ofNullable(portsByPortCode.get(key(systemCode, portCode))).map(PortDto::new);
+    }
+
+    public Optional<PortDto> findPortByUnLocode(String unLocode, String systemCode) {
+        return Optional.ofNullable(portsByUnLocode.get(key(systemCode, unLocode))).map(PortDto::new);
+    }
+
+    public Optional<PortDto> findPortByCbpPortCode(String cbpPortCode, String systemCode) {
+        return Optional.ofNullable(portsByCbpCode.get(key(systemCode, cbpPortCode))).map(PortDto::new);
+    }
+
+    public PagedResponse<PortDto> findPortsBySystem(String systemCode, Pageable pageable) {
+        return page(portsBySystem.getOrDefault(systemCode, List.of()), pageable, PortDto::new);
+    }
+
+    public List<PortDto> findPortsByCountry(String countryCode) {
+        return copies(portsByCountry.getOrDefault(countryCode, List.of()), PortDto::new);
+    }
+
+    public List<PortDto> findPortsByCity(String city) {
+        return copies(portsByCity.getOrDefault(city, List.of()), PortDto::new);
+    }
+
+    public List<PortDto> findPortsByType(String portType) {
+        return copies(portsByType.getOrDefault(portType, List.of()), PortDto::new);
+    }
+
+    /**
+     * Active ports nearest to the coordinate, optionally limited to one code
+     * system; see {@link GeoIndex#nearest}.
+     */
+    public List<GeoIndex.Neighbor<PortDto>> findPortsNear(double latitude, double longitude, int limit,
+                                                          double maxDistanceKm, String systemCode) {
+        return neighbors(portsByLocation.nearest(latitude, longitude, limit, maxDistanceKm,
+                p -> systemCode == null || systemCode.equals(p.getCodeSystem())), PortDto::new);
+    }
+
+    // Airports
+
+    public List<AirportDto> getAirports() {
+        return copies(airports, AirportDto::new);
+    }
+
+    public Optional<AirportDto> findAirportById(UUID id) {
+        return Optional.ofNullable(airportsById.get(id)).map(AirportDto::new);
+    }
+
+    public Optional<AirportDto> findAirportByIata(String iataCode, String systemCode) {
+        return Optional.ofNullable(airportsByIata.get(key(systemCode, iataCode))).map(AirportDto::new);
+    }
+
+    public Optional<AirportDto> findAirportByIcao(String icaoCode, String systemCode) {
+        return Optional.ofNullable(airportsByIcao.get(key(systemCode, icaoCode))).map(AirportDto::new);
+    }
+
+    /**
+     * Resolves {@code code} against every airport code column with one probe,
+     * honouring {@link AirportCodeType} precedence.
+     */
+    public Optional<AirportCodeMatch> findAirportByCode(String code, String systemCode) {
+        return Optional.ofNullable(airportsByCode.get(key(systemCode, code)))
+                .map(match -> new AirportCodeMatch(new AirportDto(match.getAirport()), match.getCodeType()));
+    }
+
+    public PagedResponse<AirportDto> findAirportsBySystem(String systemCode, Pageable pageable) {
+        return page(airportsBySystem.getOrDefault(systemCode, List.of()), pageable, AirportDto::new);
+    }
+
+    public List<AirportDto> findAirportsByCountry(String countryCode) {
+        return copies(airportsByCountry.getOrDefault(countryCode, List.of()), AirportDto::new);
+    }
+
+    public List<AirportDto> findAirportsByCity(String city) {
+        return copies(airportsByCity.getOrDefault(city, List.of()), AirportDto::new);
+    }
+
+    public List<AirportDto> findAirportsByType(String airportType) {
+        return copies(airportsByType.getOrDefault(airportType, List.of()), AirportDto::new);
+    }
+
+    public List<GeoIndex.Neighbor<AirportDto>> findAirportsNear(double latitude, double longitude, int limit,
+                                                                double maxDistanceKm, String systemCode) {
+        return neighbors(airportsByLocation.nearest(latitude, longitude, limit, maxDistanceKm,
+                a -> systemCode == null || systemCode.equals(a.getCodeSystem())), AirportDto::new);
+    }
+
+    /**
+     * Returns whether an entry that is current in this snapshot is also valid on
+     * {@code asOf}, i.e. the as-of query can be answered without the database.
+     */
+    public boolean coversAsOf(LocalDate asOf) {
+        return businessDate.equals(asOf);
+    }
+
+    public static boolean validOn(LocalDate validFrom, LocalDate asOf) {
+        return validFrom == null || !validFrom.isAfter(asOf);
+    }
+
+    private static String key(String systemCode, String code) {
+        if (systemCode == null || code == null) {
+            return null;
+        }
+        return systemCode + KEY_SEPARATOR + code;
+    }
+
+    private static <T> Map<UUID, T> byId(List<T> rows, Function<T, UUID> idFn) {
+        Map<UUID, T> index = new HashMap<>(rows.size() * 2);
+        for (T row : rows) {
+            UUID id = idFn.apply(row);
+            if (id != null) {
+                index.put(id, row);
+            }
+        }
+        return Collections.unmodifiableMap(index);
+    }
+
+    private static <T> Map<String, T> uniqueIndex(List<T> rows, Function<T, String> keyFn,
+                                                  Function<T, Long> versionFn) {
+        ToLongFunction<T> version = row -> {
+            Long v = versionFn.apply(row);
+            return v == null ? Long.MIN_VALUE : v;
+        };
+        Map<String, T> index = new HashMap<>(rows.size() * 2);
+        for (T row : rows) {
+            String key = keyFn.apply(row);
+            if (key == null) {
+                continue;
+            }
+            index.merge(key, row, (existing, candidate) ->
+                    version.applyAsLong(candidate) > version.applyAsLong(existing) ? candidate : existing);
+        }
+        return Collections.unmodifiableMap(index);
+    }
+
+    private static Map<String, AirportCodeMatch> airportCodeIndex(
+            Map<AirportCodeType, Map<String, AirportDto>> byType) {
+        Map<String, AirportCodeMatch> index = new HashMap<>();
+        // EnumMap iterates in declaration order, so higher-precedence types claim a key first
+        byType.forEach((type, airportsByKey) -> airportsByKey.forEach((key, airport) ->
+                index.putIfAbsent(key, new AirportCodeMatch(airport, type))));
+        return Collections.unmodifiableMap(index);
+    }
+
+    private static <T> Map<String, List<T>> groupIndex(List<T> rows, Function<T, String> keyFn,
+                                                       Comparator<T> order) {
+        Map<String, List<T>> grouped = rows.stream()
+                .filter(row -> keyFn.apply(row) != null)
+                .collect(Collectors.groupingBy(keyFn, HashMap::new, Collectors.toCollection(ArrayList::new)));
+        Map<String, List<T>> index = new HashMap<>(grouped.size() * 2);
+        grouped.forEach((key, values) -> {
+            if (order != null) {
+                values.sort(order);
+            }
+            index.put(key, List.copyOf(values));
+        });
+        return Collections.unmodifiableMap(index);
+    }
+
+    private static <T> PagedResponse<T> page(List<T> rows, Pageable pageable, UnaryOperator<T> copy) {
+        int size = pageable.getPageSize();
+        long offset = pageable.getOffset();
+        List<T> content;
+        if (offset >= rows.size()) {
+            content = List.of();
+        } else {
+            content = copies(rows.subList((int) offset, (int) Math.min(rows.size(), offset + size)), copy);
+        }
+        return new PagedResponse<>(content, pageable.getPageNumber(), size, rows.size());
+    }
+
+    private static <T> List<T> copies(List<T> rows, UnaryOperator<T> copy) {
+        List<T> result = new ArrayList<>(rows.size());
+        for (T row : rows) {
+            result.add(copy.apply(row));
+        }
+        return result;
+    }
+
+    private static <T> List<GeoIndex.Neighbor<T>> neighbors(List<GeoIndex.Neighbor<T>> found, UnaryOperator<T> copy) {
+        List<GeoIndex.Neighbor<T>> result = new ArrayList<>(found.size());
+        for (GeoIndex.Neighbor<T> neighbor : found) {
+            result.add(new GeoIndex.Neighbor<>(copy.apply(neighbor.item()), neighbor.distanceKm()));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,54 @@
+package gov.dhs.cbp.reference.api.snapshot;
+
+import gov.dhs.cbp.reference.api.mapper.AirportMapper;
+import gov.dhs.cbp.reference.api.mapper.CountryMapper;
+import gov.dhs.cbp.reference.api.mapper.PortMapper;
+import gov.dhs.cbp.reference.core.repository.AirportRepository;
+import gov.dhs.cbp.reference.core.repository.CountryRepository;
+import gov.dhs.cbp.reference.core.repository.PortRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+
+/**
+ * Reads every current row in a single read-only transaction so a snapshot is
+ * built from one consistent view of the database.
+ */
+@Component
+public class ReferenceSnapshotLoader {
+
+    private final CountryRepository countryRepository;
+    private final PortRepository portRepository;
+    private final AirportRepository airportRepository;
+    private final CountryMapper countryMapper;
+    private final PortMapper portMapper;
+    private final AirportMapper airportMapper;
+
+    public ReferenceSnapshotLoader(CountryRepository countryRepository,
+                                   PortRepository portRepository,
+                                   AirportRepository airportRepository,
+                                   CountryMapper countryMapper,
+                                   PortMapper portMapper,
+                                   AirportMapper airportMapper) {
+        this.countryRepository = countryRepository;
+        this.portRepository = portRepository;
+        this.airportRepository = airportRepository;
+        this.countryMapper = countryMapper;
+        this.portMapper = portMapper;
+        this.airportMapper = airportMapper;
+    }
+
+    // REQUIRES_NEW because refreshes can run from after-commit callbacks of a write transaction
+    @Transactional(readOnly = true, propagation = Propagation.REQUIRES_NEW)
+    public ReferenceSnapshot load(long version) {
+        LocalDate businessDate = LocalDate.now();
+        return new ReferenceSnapshot(
+                version,
+                businessDate,
+                countryMapper.toDtoList(countryRepository.findAllCurrent()),
+                portMapper.toDtoList(portRepository.findAllCurrent()),
+                airportMapper.toDtoList(airportRepository.findAllCurrent()));
+    }
+}
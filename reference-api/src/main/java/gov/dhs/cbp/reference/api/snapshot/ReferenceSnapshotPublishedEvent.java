@@ -0,0 +1,9 @@
+package gov.dhs.cbp.reference.api.snapshot;
+
+/**
+ * Published by {@link ReferenceSnapshotStore} on the refreshing thread right
+ * after a new snapshot becomes current, so read models derived from it can be
+ * rebuilt before a data change's new dataset versions are served.
+ */
+public record ReferenceSnapshotPublishedEvent(ReferenceSnapshot snapshot) {
+}
@@ -0,0 +1,183 @@
+package gov.dhs.cbp.reference.api.snapshot;
+
+import gov.dhs.cbp.reference.core.change.ReferenceDataChangedEvent;
+import gov.dhs.cbp.reference.core.change.ReferenceDataset;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.EnumSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Holds the current {@link ReferenceSnapshot} when the read model is enabled
+ * ({@code reference.snapshot.enabled=true}). Refreshes build a complete new
+ * snapshot off to the side and publish it with a single reference swap.
+ *
+ * <p>{@link #current()} is empty while the read model is disabled, before the
+ * first load completes, once the snapshot's business date has rolled over, or
+ * after a rebuild for a data change failed; callers then fall back to the
+ * repositories.</p>
+ *
+ * <p>Data changes rebuild the snapshot once per dataset version: only the
+ * {@link ReferenceDataChangedEvent.Source#DATASET_VERSION} event is acted on,
+ * and {@link gov.dhs.cbp.reference.api.service.DatasetVersionService}
+ * publishes it from its polling thread, never from a request or the thread
+ * committing the write. The write-path and outbox events for the same change
+ * are ignored here.</p>
+ *
+ * <p>Each new snapshot is announced with a {@link ReferenceSnapshotPublishedEvent}
+ * on the refreshing thread. For a data change that is still inside the
+ * dataset-version listener, so anything built from the snapshot is ready
+ * before the new versions are served.</p>
+ */
+@Component
+public class ReferenceSnapshotStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReferenceSnapshotStore.class);
+
+    private static final Set<ReferenceDataset> SNAPSHOT_DATASETS =
+            EnumSet.of(ReferenceDataset.COUNTRIES, ReferenceDataset.PORTS, ReferenceDataset.AIRPORTS);
+
+    private final ReferenceSnapshotLoader loader;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean enabled;
+    private final Duration maxAge;
+    private final AtomicReference<ReferenceSnapshot> snapshot = new AtomicReference<>();
+    private final AtomicLong versionSequence = new AtomicLong();
+    private final ReentrantLock refreshLock = new ReentrantLock();
+    private final Timer buildTimer;
+
+    public ReferenceSnapshotStore(ReferenceSnapshotLoader loader,
+                                  ApplicationEventPublisher eventPublisher,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${reference.snapshot.enabled:false}") boolean enabled,
+                                  @Value("${reference.snapshot.max-age-seconds:3600}") long maxAgeSeconds) {
+        this.loader = loader;
+        this.eventPublisher = eventPublisher;
+        this.enabled = enabled;
+        this.maxAge = Duration.ofSeconds(maxAgeSeconds);
+
+        Gauge.builder("reference.snapshot.version", snapshot, ref -> {
+                    ReferenceSnapshot current = ref.get();
+                    return current == null ? 0 : current.getVersion();
+                })
+                .description("Version of the in-memory reference snapshot")
+                .register(meterRegistry);
+        Gauge.builder("reference.snapshot.age.seconds", snapshot, ref -> {
+                    ReferenceSnapshot current = ref.get();
+                    return current == null ? Double.NaN
+                            : Duration.between(current.getBuiltAt(), Instant.now()).toMillis() / 1000.0;
+                })
+                .description("Seconds since the in-memory reference snapshot was built")
+                .register(meterRegistry);
+        Gauge.builder("reference.snapshot.entries", snapshot, ref -> {
+                    ReferenceSnapshot current = ref.get();
+                    return current == null ? 0 : current.size();
+                })
+                .description("Number of entities held in the in-memory reference snapshot")
+                .register(meterRegistry);
+        this.buildTimer = Timer.builder("reference.snapshot.build")
+                .description("Time taken to load and index a reference snapshot")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Optional<ReferenceSnapshot> current() {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        ReferenceSnapshot current = snapshot.get();
+        if (current == null || !current.coversAsOf(LocalDate.now())) {
+            return Optional.empty();
+        }
+        return Optional.of(current);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (enabled) {
+            refresh();
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onReferenceDataChanged(ReferenceDataChangedEvent event) {
+        if (!enabled || event.getSource() != ReferenceDataChangedEvent.Source.DATASET_VERSION
+                || event.getDatasets().stream().noneMatch(SNAPSHOT_DATASETS::contains)) {
+            return;
+        }
+        if (!refresh()) {
+            // The previous snapshot is now known to be out of date; serve from the database until a rebuild works
+            snapshot.set(null);
+            logger.warn("Dropped the reference snapshot after a failed rebuild for {}", event.getDatasets());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${reference.snapshot.check-interval-ms:60000}")
+    public void refreshIfStale() {
+        if (!enabled) {
+            return;
+        }
+        ReferenceSnapshot current = snapshot.get();
+        if (current == null
+                || !current.coversAsOf(LocalDate.now())
+                || Duration.between(current.getBuiltAt(), Instant.now()).compareTo(maxAge) > 0) {
+            refresh();
+        }
+    }
+
+    /**
+     * Builds and publishes a new snapshot. Concurrent triggers are serialized so
+     * versions, and their {@link ReferenceSnapshotPublishedEvent}s, are
+     * published in order; readers are never blocked. A lock rather
+     * than {@code synchronized} guards the load so a virtual thread blocked on
+     * JDBC does not pin its carrier.
+     *
+     * @return whether a new snapshot was published
+     */
+    public boolean refresh() {
+        refreshLock.lock();
+        try {
+            long version = versionSequence.incrementAndGet();
+            ReferenceSnapshot next;
+            try {
+                next = buildTimer.record(() -> loader.load(version));
+                snapshot.set(next);
+                logger.info("Published reference snapshot v{} with {} entities", version, next.size());
+            } catch (Exception e) {
+                logger.error("Failed to build reference snapshot v{}, keeping previous snapshot", version, e);
+                return false;
+            }
+            try {
+                eventPublisher.publishEvent(new ReferenceSnapshotPublishedEvent(next));
+            } catch (RuntimeException e) {
+                // The snapshot itself is fine; whatever failed to build from it falls back on its own
+                logger.error("A listener failed for reference snapshot v{}", version, e);
+            }
+            return true;
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package gov.dhs.cbp.reference.api.statistics;
+
+/**
+ * Published when a change request moves between workflow states.
+ * {@code previousStatus} is {@code null} for a newly created request.
+ */
+public record ChangeRequestStatusChangedEvent(String previousStatus, String newStatus) {
+}
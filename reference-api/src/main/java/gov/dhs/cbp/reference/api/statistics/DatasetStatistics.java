@@ -0,0 +1,92 @@
+package gov.dhs.cbp.reference.api.statistics;
+
+import gov.dhs.cbp.reference.core.change.ReferenceDataset;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Immutable row counts for one dataset, as of {@link #getComputedAt()}.
+ * {@code active} counts current rows the dataset considers live: active
+ * entities, or non-deprecated mappings.
+ */
+public final class DatasetStatistics {
+
+    private final ReferenceDataset dataset;
+    private final long total;
+    private final long active;
+    private final Map<String, Long> totalBySystem;
+    private final LocalDateTime lastUpdated;
+    private final Instant computedAt;
+
+    DatasetStatistics(ReferenceDataset dataset, long total, long active, Map<String, Long> totalBySystem,
+                      LocalDateTime lastUpdated, Instant computedAt) {
+        this.dataset = dataset;
+        this.total = total;
+        this.active = active;
+        this.totalBySystem = Collections.unmodifiableMap(new TreeMap<>(totalBySystem));
+        this.lastUpdated = lastUpdated;
+        this.computedAt = computedAt;
+    }
+
+    /**
+     * Folds the per-system rows of a {@code summarizeByCodeSystem} repository
+     * query: {@code [systemCode, total, active, maxRecordedAt]}.
+     */
+    static DatasetStatistics fromSummary(ReferenceDataset dataset, List<Object[]> rows) {
+        long total = 0;
+        long active = 0;
+        Map<String, Long> bySystem = new TreeMap<>();
+        LocalDateTime lastUpdated = null;
+        for (Object[] row : rows) {
+            long systemTotal = toLong(row[1]);
+            total += systemTotal;
+            active += toLong(row[2]);
+            bySystem.put((String) row[0], systemTotal);
+            LocalDateTime recordedAt = (LocalDateTime) row[3];
+            if (recordedAt != null && (lastUpdated == null || recordedAt.isAfter(lastUpdated))) {
+                lastUpdated = recordedAt;
+            }
+        }
+        return new DatasetStatistics(dataset, total, active, bySystem, lastUpdated, Instant.now());
+    }
+
+    static DatasetStatistics empty(ReferenceDataset dataset) {
+        return new DatasetStatistics(dataset, 0, 0, Map.of(), null, null);
+    }
+
+    private static long toLong(Object value) {
+        return value == null ? 0 : ((Number) value).longValue();
+    }
+
+    public ReferenceDataset getDataset() {
+        return dataset;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public long getActive() {
+        return active;
+    }
+
+    public Map<String, Long> getTotalBySystem() {
+        return totalBySystem;
+    }
+
+    public LocalDateTime getLastUpdated() {
+        return lastUpdated;
+    }
+
+    /**
+     * When the counters were last recomputed, or {@code null} if they never were.
+     */
+    public Instant getComputedAt() {
+        return computedAt;
+    }
+}
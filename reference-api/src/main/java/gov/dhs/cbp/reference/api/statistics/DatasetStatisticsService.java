@@ -0,0 +1,230 @@
+package gov.dhs.cbp.reference.api.statistics;
+
+import gov.dhs.cbp.reference.core.change.ReferenceDataChangedEvent;
+import gov.dhs.cbp.reference.core.change.ReferenceDataset;
+import gov.dhs.cbp.reference.core.repository.AirportRepository;
+import gov.dhs.cbp.reference.core.repository.ChangeRequestRepository;
+import gov.dhs.cbp.reference.core.repository.CodeMappingRepository;
+import gov.dhs.cbp.reference.core.repository.CountryRepository;
+import gov.dhs.cbp.reference.core.repository.PortRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Keeps dataset and change-request counters in memory so dashboard endpoints
+ * read them without touching the database.
+ *
+ * <p>Dataset counters are recomputed with one grouped query, once per dataset
+ * version bump and only for the datasets it names. Version polling sees writes
+ * from every process, and coalesces the write-path and outbox notifications
+ * of one write into a single event.</p>
+ *
+ * <p>Change request counters are recounted from the database on read once
+ * they are older than a short maximum age, or after a local
+ * {@link ChangeRequestStatusChangedEvent}; there are no in-memory deltas to
+ * drift. Changes made by other processes, such as the workflow engine, show
+ * within that maximum age. A periodic reconcile recounts everything.</p>
+ */
+@Service
+public class DatasetStatisticsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DatasetStatisticsService.class);
+
+    static final Set<ReferenceDataset> TRACKED_DATASETS = EnumSet.of(
+            ReferenceDataset.COUNTRIES, ReferenceDataset.PORTS, ReferenceDataset.AIRPORTS, ReferenceDataset.MAPPINGS);
+
+    private final CountryRepository countryRepository;
+    private final PortRepository portRepository;
+    private final AirportRepository airportRepository;
+    private final CodeMappingRepository codeMappingRepository;
+    private final ChangeRequestRepository changeRequestRepository;
+
+    private final AtomicReference<Map<ReferenceDataset, DatasetStatistics>> datasets =
+            new AtomicReference<>(Collections.emptyMap());
+    private final AtomicReference<ChangeRequestCounts> changeRequests = new AtomicReference<>();
+    private final AtomicLong changeRequestGeneration = new AtomicLong();
+    private final ReentrantLock recomputeLock = new ReentrantLock();
+    private final ReentrantLock recountLock = new ReentrantLock();
+    private final long changeRequestMaxAgeNanos;
+    private final LongSupplier nanoClock;
+
+    @Autowired
+    public DatasetStatisticsService(CountryRepository countryRepository,
+                                    PortRepository portRepository,
+                                    AirportRepository airportRepository,
+                                    CodeMappingRepository codeMappingRepository,
+                                    ChangeRequestRepository changeRequestRepository,
+                                    @Value("${reference.statistics.change-request-max-age-ms:5000}") long changeRequestMaxAgeMs) {
+        this(countryRepository, portRepository, airportRepository, codeMappingRepository, changeRequestRepository,
+                changeRequestMaxAgeMs, System::nanoTime);
+    }
+
+    DatasetStatisticsService(CountryRepository countryRepository,
+                             PortRepository portRepository,
+                             AirportRepository airportRepository,
+                             CodeMappingRepository codeMappingRepository,
+                             ChangeRequestRepository changeRequestRepository,
+                             long changeRequestMaxAgeMs,
+                             LongSupplier nanoClock) {
+        this.countryRepository = countryRepository;
+        this.portRepository = portRepository;
+        this.airportRepository = airportRepository;
+        this.codeMappingRepository = codeMappingRepository;
+        this.changeRequestRepository = changeRequestRepository;
+        this.changeRequestMaxAgeNanos = TimeUnit.MILLISECONDS.toNanos(changeRequestMaxAgeMs);
+        this.nanoClock = nanoClock;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        reconcile();
+    }
+
+    @Scheduled(fixedDelayString = "${reference.statistics.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        recompute(TRACKED_DATASETS);
+        recountChangeRequests();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onReferenceDataChanged(ReferenceDataChangedEvent event) {
+        if (event.getSource() != ReferenceDataChangedEvent.Source.DATASET_VERSION) {
+            return;
+        }
+        Set<ReferenceDataset> changed = EnumSet.noneOf(ReferenceDataset.class);
+        for (ReferenceDataset dataset : event.getDatasets()) {
+            if (TRACKED_DATASETS.contains(dataset)) {
+                changed.add(dataset);
+            }
+        }
+        if (!changed.isEmpty()) {
+            recompute(changed);
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onChangeRequestStatusChanged(ChangeRequestStatusChangedEvent event) {
+        // The next read recounts, including a recount already running
+        changeRequestGeneration.incrementAndGet();
+    }
+
+    /**
+     * Current counters for {@code dataset}. Computed on first use if no
+     * event or reconcile has produced them yet.
+     */
+    public DatasetStatistics get(ReferenceDataset dataset) {
+        DatasetStatistics statistics = datasets.get().get(dataset);
+        if (statistics == null && TRACKED_DATASETS.contains(dataset)) {
+            recompute(EnumSet.of(dataset));
+            statistics = datasets.get().get(dataset);
+        }
+        return statistics != null ? statistics : DatasetStatistics.empty(dataset);
+    }
+
+    /**
+     * Change requests per workflow status, e.g. {@code PENDING -> 3}.
+     */
+    public Map<String, Long> getChangeRequestCounts() {
+        ChangeRequestCounts counts = changeRequests.get();
+        if (isFresh(counts)) {
+            return counts.counts();
+        }
+        return recountChangeRequests();
+    }
+
+    public long getChangeRequestCount(String status) {
+        return getChangeRequestCounts().getOrDefault(status, 0L);
+    }
+
+    /**
+     * Recounts {@code targets} and publishes the result with one reference
+     * swap. Recomputes are serialized so an older count never replaces a
+     * newer one.
+     */
+    private void recompute(Set<ReferenceDataset> targets) {
+        recomputeLock.lock();
+        try {
+            Map<ReferenceDataset, DatasetStatistics> next = new EnumMap<>(ReferenceDataset.class);
+            next.putAll(datasets.get());
+            for (ReferenceDataset dataset : targets) {
+                try {
+                    next.put(dataset, DatasetStatistics.fromSummary(dataset, summarize(dataset)));
+                } catch (Exception e) {
+                    logger.warn("Failed to recompute statistics for {}: {}", dataset.getId(), e.getMessage());
+                }
+            }
+            datasets.set(Collections.unmodifiableMap(next));
+        } finally {
+            recomputeLock.unlock();
+        }
+    }
+
+    /**
+     * Counts change requests per status. Concurrent readers of stale counts
+     * wait for one recount rather than each running the query.
+     */
+    private Map<String, Long> recountChangeRequests() {
+        recountLock.lock();
+        try {
+            ChangeRequestCounts current = changeRequests.get();
+            if (isFresh(current)) {
+                return current.counts();
+            }
+            long generation = changeRequestGeneration.get();
+            long countedAt = nanoClock.getAsLong();
+            Map<String, Long> counts = new HashMap<>();
+            for (Object[] row : changeRequestRepository.countByStatus()) {
+                counts.put((String) row[0], ((Number) row[1]).longValue());
+            }
+            ChangeRequestCounts next = new ChangeRequestCounts(generation, countedAt, Collections.unmodifiableMap(counts));
+            changeRequests.set(next);
+            return next.counts();
+        } catch (Exception e) {
+            logger.warn("Failed to count change requests: {}", e.getMessage());
+            ChangeRequestCounts current = changeRequests.get();
+            return current != null ? current.counts() : Map.of();
+        } finally {
+            recountLock.unlock();
+        }
+    }
+
+    private boolean isFresh(ChangeRequestCounts counts) {
+        return counts != null
+                && counts.generation() == changeRequestGeneration.get()
+                && nanoClock.getAsLong() - counts.countedAtNanos() < changeRequestMaxAgeNanos;
+    }
+
+    private List<Object[]> summarize(ReferenceDataset dataset) {
+        return switch (dataset) {
+            case COUNTRIES -> countryRepository.summarizeByCodeSystem();
+            case PORTS -> portRepository.summarizeByCodeSystem();
+            case AIRPORTS -> airportRepository.summarizeByCodeSystem();
+            case MAPPINGS -> codeMappingRepository.summarizeByCodeSystem();
+            default -> throw new IllegalArgumentException("No statistics for dataset " + dataset.getId());
+        };
+    }
+
+    private record ChangeRequestCounts(long generation, long countedAtNanos, Map<String, Long> counts) {
+    }
+}
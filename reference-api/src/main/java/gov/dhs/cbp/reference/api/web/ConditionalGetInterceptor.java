@@ -0,0 +1,99 @@
+package gov.dhs.cbp.reference.api.web;
+
+import gov.dhs.cbp.reference.api.service.DatasetVersionService;
+import gov.dhs.cbp.reference.core.change.ReferenceDataset;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Adds a strong {@code ETag} and {@code Last-Modified} derived from dataset
+ * versions to reference-data GETs and answers {@code If-None-Match} /
+ * {@code If-Modified-Since} with 304 before the handler (and therefore any
+ * repository) runs. Versions come from {@link DatasetVersionService}'s
+ * in-memory view, so the check itself does no I/O.
+ */
+public class ConditionalGetInterceptor implements HandlerInterceptor {
+
+    private static final Set<ReferenceDataset> ALL_SERVED = EnumSet.of(
+            ReferenceDataset.COUNTRIES, ReferenceDataset.PORTS, ReferenceDataset.AIRPORTS,
+            ReferenceDataset.CODE_SYSTEMS);
+
+    private static final Map<String, Set<ReferenceDataset>> DATASETS_BY_PREFIX = new LinkedHashMap<>();
+
+    /**
+     * Paths under a mapped prefix whose responses depend on more than the
+     * dataset versions: autocomplete is ordered by search popularity, which
+     * moves without a version bump, and must reach the service to learn it.
+     */
+    private static final Set<String> UNVERSIONED_PATHS = Set.of("/v1/search/autocomplete");
+
+    static {
+        DATASETS_BY_PREFIX.put("/v1/countries", EnumSet.of(ReferenceDataset.COUNTRIES, ReferenceDataset.CODE_SYSTEMS));
+        DATASETS_BY_PREFIX.put("/v1/ports", EnumSet.of(ReferenceDataset.PORTS, ReferenceDataset.CODE_SYSTEMS));
+        DATASETS_BY_PREFIX.put("/v1/airports", EnumSet.of(ReferenceDataset.AIRPORTS, ReferenceDataset.CODE_SYSTEMS));
+        DATASETS_BY_PREFIX.put("/v1/exports/countries", EnumSet.of(ReferenceDataset.COUNTRIES, ReferenceDataset.CODE_SYSTEMS));
+        DATASETS_BY_PREFIX.put("/v1/exports/ports", EnumSet.of(ReferenceDataset.PORTS, ReferenceDataset.CODE_SYSTEMS));
+        DATASETS_BY_PREFIX.put("/v1/exports/airports", EnumSet.of(ReferenceDataset.AIRPORTS, ReferenceDataset.CODE_SYSTEMS));
+        DATASETS_BY_PREFIX.put("/v1/search", ALL_SERVED);
+        DATASETS_BY_PREFIX.put("/v1/datasets", ALL_SERVED);
+        // Not /v1/reference-data: /types carries its own catalog ETag, and
+        // /stats includes change-request counts no dataset version covers
+    }
+
+    private final DatasetVersionService datasetVersionService;
+
+    public ConditionalGetInterceptor(DatasetVersionService datasetVersionService) {
+        this.datasetVersionService = datasetVersionService;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!HttpMethod.GET.matches(request.getMethod()) && !HttpMethod.HEAD.matches(request.getMethod())) {
+            return true;
+        }
+
+        Set<ReferenceDataset> datasets = resolveDatasets(request.getRequestURI().substring(request.getContextPath().length()));
+        if (datasets == null) {
+            return true;
+        }
+
+        Optional<String> etag = datasetVersionService.getEntityTag(datasets);
+        if (etag.isEmpty()) {
+            return true;
+        }
+        long lastModified = datasetVersionService.getLastModified(datasets)
+                .map(ConditionalGetInterceptor::toEpochMillis)
+                .orElse(-1L);
+
+        boolean notModified = new ServletWebRequest(request, response).checkNotModified(etag.get(), lastModified);
+        return !notModified;
+    }
+
+    static Set<ReferenceDataset> resolveDatasets(String path) {
+        if (UNVERSIONED_PATHS.contains(path)) {
+            return null;
+        }
+        for (Map.Entry<String, Set<ReferenceDataset>> entry : DATASETS_BY_PREFIX.entrySet()) {
+            String prefix = entry.getKey();
+            if (path.equals(prefix) || path.startsWith(prefix + "/")) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+
+    static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,51 @@
+package gov.dhs.cbp.reference.api.web;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Writes a JSON array to the response one element at a time, so large result
+ * sets are never held as a list or a Jackson tree and the first bytes leave
+ * before the producer has finished. Elements are serialised with the
+ * application {@link ObjectMapper}, giving the same representation as a
+ * {@code ResponseEntity<List<T>>}.
+ *
+ * <p>{@link #finish()} must be called once the producer completes. It is not
+ * called on failure, so an interrupted stream is never closed into a valid but
+ * truncated array.</p>
+ */
+public final class JsonArrayStreamer {
+
+    private final JsonGenerator generator;
+
+    private JsonArrayStreamer(JsonGenerator generator) {
+        this.generator = generator;
+    }
+
+    public static JsonArrayStreamer start(HttpServletResponse response, ObjectMapper objectMapper) throws IOException {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        JsonGenerator generator = objectMapper.getFactory()
+                .createGenerator(response.getOutputStream(), JsonEncoding.UTF8);
+        generator.writeStartArray();
+        return new JsonArrayStreamer(generator);
+    }
+
+    public void write(Object element) {
+        try {
+            generator.writeObject(element);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void finish() throws IOException {
+        generator.writeEndArray();
+        generator.close();
+    }
+}
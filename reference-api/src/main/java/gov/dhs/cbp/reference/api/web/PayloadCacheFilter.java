@@ -0,0 +1,507 @@
+package gov.dhs.cbp.reference.api.web;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import gov.dhs.cbp.reference.api.dto.search.PartialSearchPage;
+import gov.dhs.cbp.reference.api.service.DatasetVersionService;
+import gov.dhs.cbp.reference.core.change.ReferenceDataset;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.URLEncoder;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serves repeated reference-data GETs from serialized, pre-compressed bytes.
+ *
+ * <p>Entries are keyed by path, canonical query string and the dataset
+ * {@code ETag} from {@link DatasetVersionService}, so a version bump simply
+ * stops matching the old entries and they age out. The first request for a
+ * key runs the handler as usual; a 200 JSON body whose {@code ETag} is that
+ * dataset validator is stored as identity and gzip bytes together with the
+ * headers the handler added. Later requests are answered from the entry
+ * without entering the dispatcher: 304 if the client's validators match,
+ * otherwise the encoding the client accepts is written as-is.</p>
+ *
+ * <p>The body is only buffered up to the per-entry limit; a larger body, or
+ * one written asynchronously (a {@code StreamingResponseBody}), is passed
+ * through as it is written and not stored. An entry is stored only if the
+ * dataset validator is unchanged after the handler ran, so a body built
+ * across a version change or midnight is never filed under the new tag.
+ * The gzip representation carries a weak form of the validator, since the
+ * strong one names the identity bytes.</p>
+ *
+ * <p>The cache is bounded by the total size of the stored bodies. Exports
+ * are left alone; they already stream from files of their own.</p>
+ */
+public class PayloadCacheFilter extends OncePerRequestFilter {
+
+    private static final String EXPORTS_PREFIX = "/v1/exports";
+    private static final int ENTRY_OVERHEAD_BYTES = 256;
+
+    private final DatasetVersionService datasetVersionService;
+    private final Cache<String, CachedPayload> cache;
+    private final int maxEntryBytes;
+    private final int minCompressBytes;
+    private final Counter hits;
+    private final Counter misses;
+
+    public PayloadCacheFilter(DatasetVersionService datasetVersionService, MeterRegistry meterRegistry,
+                              long maxBytes, int maxEntryBytes, int minCompressBytes) {
+        this.datasetVersionService = datasetVersionService;
+        this.maxEntryBytes = maxEntryBytes;
+        this.minCompressBytes = minCompressBytes;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((String key, CachedPayload payload) -> payload.weight() + key.length())
+                .build();
+
+        this.hits = Counter.builder("reference.payload-cache.requests")
+                .description("GETs answered from the pre-serialized payload cache")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("reference.payload-cache.requests")
+                .description("GETs answered from the pre-serialized payload cache")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("reference.payload-cache.bytes", cache,
+                        c -> c.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0L)).orElse(0L))
+                .description("Bytes held by the pre-serialized payload cache")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !HttpMethod.GET.matches(request.getMethod()) || pathOf(request).startsWith(EXPORTS_PREFIX);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Set<ReferenceDataset> datasets = ConditionalGetInterceptor.resolveDatasets(pathOf(request));
+        Optional<String> etag = datasets != null ? datasetVersionService.getEntityTag(datasets) : Optional.empty();
+        if (etag.isEmpty()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String key = cacheKey(request, etag.get());
+        CachedPayload cached = cache.getIfPresent(key);
+        if (cached != null) {
+            hits.increment();
+            write(cached, request, response);
+            return;
+        }
+        misses.increment();
+
+        Set<String> headersBefore = new HashSet<>(response.getHeaderNames());
+        CapturingResponse wrapper = new CapturingResponse(response, maxEntryBytes);
+        try {
+            filterChain.doFilter(request, wrapper);
+        } catch (ServletException | IOException | RuntimeException e) {
+            wrapper.passThrough();
+            throw e;
+        }
+
+        if (request.isAsyncStarted()) {
+            // The body is still being written on another thread
+            wrapper.passThrough();
+            return;
+        }
+        if (isCacheable(wrapper, etag.get())
+                && etag.equals(datasetVersionService.getEntityTag(datasets))) {
+            long lastModified = datasetVersionService.getLastModified(datasets)
+                    .map(ConditionalGetInterceptor::toEpochMillis)
+                    .orElse(-1L);
+            CachedPayload payload = CachedPayload.of(wrapper.getContentType(), capturedHeaders(response, headersBefore),
+                    etag.get(), lastModified, wrapper.getContent(), minCompressBytes);
+            cache.put(key, payload);
+            writeBody(payload, request, response);
+        } else {
+            wrapper.finish();
+        }
+    }
+
+    private boolean isCacheable(CapturingResponse response, String etag) {
+        if (response.getStatus() != HttpStatus.OK.value() || !response.isBuffered() || response.getContent().length == 0) {
+            return false;
+        }
+        String contentType = response.getContentType();
+        if (contentType == null || !MediaType.APPLICATION_JSON.isCompatibleWith(MediaType.parseMediaType(contentType))) {
+            return false;
+        }
+        // Handlers that set their own validator (or none) are not versioned by dataset
+        if (!etag.equals(response.getHeader(HttpHeaders.ETAG)) || response.containsHeader(HttpHeaders.SET_COOKIE)) {
+            return false;
+        }
+        // Missing some types, so not the body the ETag stands for
+        if (response.containsHeader(PartialSearchPage.HEADER)) {
+            return false;
+        }
+        String cacheControl = response.getHeader(HttpHeaders.CACHE_CONTROL);
+        return cacheControl == null || !(cacheControl.contains("no-store") || cacheControl.contains("private"));
+    }
+
+    private void write(CachedPayload payload, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        if (new ServletWebRequest(request, response).checkNotModified(payload.etag(), payload.lastModified())) {
+            return;
+        }
+        response.setStatus(HttpStatus.OK.value());
+        for (Map.Entry<String, List<String>> header : payload.headers().entrySet()) {
+            List<String> values = header.getValue();
+            response.setHeader(header.getKey(), values.get(0));
+            for (int i = 1; i < values.size(); i++) {
+                response.addHeader(header.getKey(), values.get(i));
+            }
+        }
+        writeBody(payload, request, response);
+    }
+
+    private static void writeBody(CachedPayload payload, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        response.setContentType(payload.contentType());
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+        byte[] body = payload.identity();
+        if (payload.gzip() != null && acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING))) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            response.setHeader(HttpHeaders.ETAG, weak(payload.etag()));
+            body = payload.gzip();
+        }
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    /**
+     * Weak form of a strong validator. If-None-Match compares weakly, so
+     * clients holding either representation still revalidate with a 304.
+     */
+    static String weak(String etag) {
+        return etag.startsWith("W/") ? etag : "W/" + etag;
+    }
+
+    /**
+     * True if {@code acceptEncoding} allows gzip, explicitly or through
+     * {@code *}, with a non-zero quality.
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String element : acceptEncoding.split(",")) {
+            String[] parts = element.trim().split(";");
+            String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+            if (!coding.equals("gzip") && !coding.equals("x-gzip") && !coding.equals("*")) {
+                continue;
+            }
+            boolean acceptable = true;
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim();
+                if (parameter.startsWith("q=")) {
+                    try {
+                        acceptable = Double.parseDouble(parameter.substring(2)) > 0;
+                    } catch (NumberFormatException e) {
+                        acceptable = false;
+                    }
+                }
+            }
+            if (acceptable) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Path, parameters sorted by name (values kept in request order) and the
+     * dataset validator. Parameter order in the URL does not split entries.
+     */
+    static String cacheKey(HttpServletRequest request, String etag) {
+        StringBuilder key = new StringBuilder(etag).append(' ').append(pathOf(request));
+        String[] names = request.getParameterMap().keySet().toArray(new String[0]);
+        Arrays.sort(names);
+        char separator = '?';
+        for (String name : names) {
+            for (String value : request.getParameterValues(name)) {
+                key.append(separator).append(URLEncoder.encode(name, StandardCharsets.UTF_8))
+                        .append('=').append(URLEncoder.encode(value, StandardCharsets.UTF_8));
+                separator = '&';
+            }
+        }
+        return key.toString();
+    }
+
+    private static String pathOf(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    /**
+     * Headers set while the request went through the handler, so replays
+     * carry what the handler added and not what per-request filters in front
+     * of this one (CORS, security) wrote.
+     */
+    private static Map<String, List<String>> capturedHeaders(HttpServletResponse response, Set<String> before) {
+        Map<String, List<String>> headers = new LinkedHashMap<>();
+        for (String name : response.getHeaderNames()) {
+            if (before.contains(name) || name.equalsIgnoreCase(HttpHeaders.CONTENT_TYPE)
+                    || name.equalsIgnoreCase(HttpHeaders.CONTENT_LENGTH)
+                    || name.equalsIgnoreCase(HttpHeaders.CONTENT_ENCODING)
+                    || name.equalsIgnoreCase(HttpHeaders.VARY)) {
+                continue;
+            }
+            headers.put(name, List.copyOf(response.getHeaders(name)));
+        }
+        return headers;
+    }
+
+    /**
+     * Holds the body in memory while it stays within {@code limit} bytes and
+     * the handler writes it synchronously. {@link #passThrough()} writes what
+     * was held to the real response and sends everything after it straight
+     * through; exceeding the limit does the same. Flushes are swallowed while
+     * holding so the response is not committed before the filter decides.
+     */
+    static final class CapturingResponse extends HttpServletResponseWrapper {
+
+        private final int limit;
+        // Writes may come from an async thread while the filter thread switches modes
+        private final ReentrantLock lock = new ReentrantLock();
+        private ByteArrayOutputStream buffer = new ByteArrayOutputStream(1024);
+        private volatile boolean passingThrough;
+        private ServletOutputStream outputStream;
+        private PrintWriter writer;
+
+        CapturingResponse(HttpServletResponse response, int limit) {
+            super(response);
+            this.limit = limit;
+        }
+
+        boolean isBuffered() {
+            return !passingThrough;
+        }
+
+        byte[] getContent() {
+            lock.lock();
+            try {
+                if (writer != null) {
+                    writer.flush();
+                }
+                return buffer != null ? buffer.toByteArray() : new byte[0];
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Writes a body that was held in full, with its length.
+         */
+        void finish() throws IOException {
+            lock.lock();
+            try {
+                if (!passingThrough && !getResponse().isCommitted()) {
+                    if (writer != null) {
+                        writer.flush();
+                    }
+                    getResponse().setContentLength(buffer.size());
+                }
+                passThrough();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void passThrough() throws IOException {
+            lock.lock();
+            try {
+                if (passingThrough) {
+                    return;
+                }
+                if (writer != null) {
+                    writer.flush();
+                }
+                passingThrough = true;
+                if (buffer.size() > 0) {
+                    getResponse().getOutputStream().write(buffer.toByteArray());
+                }
+                buffer = null;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void write(byte[] bytes, int offset, int length) throws IOException {
+            lock.lock();
+            try {
+                if (!passingThrough && buffer.size() + length > limit) {
+                    passThrough();
+                }
+                if (passingThrough) {
+                    getResponse().getOutputStream().write(bytes, offset, length);
+                } else {
+                    buffer.write(bytes, offset, length);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() {
+            if (outputStream == null) {
+                outputStream = new ServletOutputStream() {
+                    @Override
+                    public void write(int b) throws IOException {
+                        CapturingResponse.this.write(new byte[] {(byte) b}, 0, 1);
+                    }
+
+                    @Override
+                    public void write(byte[] b, int off, int len) throws IOException {
+                        CapturingResponse.this.write(b, off, len);
+                    }
+
+                    @Override
+                    public void flush() throws IOException {
+                        if (passingThrough) {
+                            getResponse().getOutputStream().flush();
+                        }
+                    }
+
+                    @Override
+                    public boolean isReady() {
+                        return true;
+                    }
+
+                    @Override
+                    public void setWriteListener(WriteListener listener) {
+                        throw new UnsupportedOperationException("Non-blocking writes are not captured");
+                    }
+                };
+            }
+            return outputStream;
+        }
+
+        @Override
+        public PrintWriter getWriter() {
+            if (writer == null) {
+                writer = new PrintWriter(new OutputStreamWriter(getOutputStream(),
+                        Charset.forName(getCharacterEncoding())), false);
+            }
+            return writer;
+        }
+
+        @Override
+        public void setContentLength(int len) {
+            if (passingThrough) {
+                super.setContentLength(len);
+            }
+        }
+
+        @Override
+        public void setContentLengthLong(long len) {
+            if (passingThrough) {
+                super.setContentLengthLong(len);
+            }
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (passingThrough) {
+                super.flushBuffer();
+            }
+        }
+
+        @Override
+        public void resetBuffer() {
+            lock.lock();
+            try {
+                if (!passingThrough) {
+                    buffer.reset();
+                }
+                super.resetBuffer();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void reset() {
+            lock.lock();
+            try {
+                if (!passingThrough) {
+                    buffer.reset();
+                }
+                super.reset();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * A stored response. Byte arrays are shared between requests and must
+     * not be modified; {@code gzip} is null when compression would not pay.
+     */
+    record CachedPayload(String contentType, Map<String, List<String>> headers, String etag, long lastModified,
+                         byte[] identity, byte[] gzip) {
+
+        static CachedPayload of(String contentType, Map<String, List<String>> headers, String etag,
+                                long lastModified, byte[] identity, int minCompressBytes) {
+            byte[] gzip = identity.length >= minCompressBytes ? gzip(identity) : null;
+            if (gzip != null && gzip.length >= identity.length) {
+                gzip = null;
+            }
+            return new CachedPayload(contentType, headers, etag, lastModified, identity, gzip);
+        }
+
+        int weight() {
+            return identity.length + (gzip != null ? gzip.length : 0) + ENTRY_OVERHEAD_BYTES;
+        }
+
+        private static byte[] gzip(byte[] data) {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(Math.max(64, data.length / 4));
+            // Compressed once per dataset version, so spend the CPU on the best ratio
+            try (GZIPOutputStream out = new GZIPOutputStream(buffer, 8192) {
+                {
+                    def.setLevel(Deflater.BEST_COMPRESSION);
+                }
+            }) {
+                out.write(data);
+            } catch (IOException e) {
+                return null;
+            }
+            return buffer.toByteArray();
+        }
+    }
+}
@@ -1,8 +1,10 @@
 package gov.dhs.cbp.reference.api.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 // import gov.dhs.cbp.reference.api.mapper.AirportMapper;  // TODO: Uncomment when AirportMapper is implemented
 // import gov.dhs.cbp.reference.api.mapper.CarrierMapper;  // TODO: Uncomment when CarrierMapper is implemented
 import gov.dhs.cbp.reference.api.mapper.CountryMapper;
+import gov.dhs.cbp.reference.api.mapper.CountryMapperImpl;
 // import gov.dhs.cbp.reference.api.mapper.PortMapper;     // TODO: Uncomment when PortMapper is implemented
 import org.mapstruct.factory.Mappers;
 import org.springframework.boot.test.context.TestConfiguration;
@@ -16,7 +18,7 @@ public class WebMvcTestConfiguration {
     
     @Bean
     public CountryMapper countryMapper() {
-        return Mappers.getMapper(CountryMapper.class);
+        return new CountryMapperImpl(new ObjectMapper());
     }
     
     // TODO: Uncomment when AirportMapper is implemented
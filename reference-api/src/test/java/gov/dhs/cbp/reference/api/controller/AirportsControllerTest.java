@@ -3,6 +3,7 @@ package gov.dhs.cbp.reference.api.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import gov.dhs.cbp.reference.api.config.WebMvcTestConfig;
 import gov.dhs.cbp.reference.api.dto.AirportDto;
+import gov.dhs.cbp.reference.api.dto.NearbyResult;
 import gov.dhs.cbp.reference.api.dto.PagedResponse;
 import gov.dhs.cbp.reference.api.service.AirportService;
 import org.junit.jupiter.api.BeforeEach;
@@ -22,8 +23,10 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.doThrow;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -319,7 +322,7 @@ class AirportsControllerTest {
     @Test
     void testGetAllCurrentAirports_Success() throws Exception {
         List<AirportDto> airports = Arrays.asList(sampleAirport);
-        when(airportService.findAllCurrent()).thenReturn(airports);
+        givenCurrent(airports);
 
         mockMvc.perform(get("/v1/airports/current"))
                 .andExpect(status().isOk())
@@ -328,7 +331,7 @@ class AirportsControllerTest {
 
     @Test
     void testGetAllCurrentAirports_EmptyResult() throws Exception {
-        when(airportService.findAllCurrent()).thenReturn(Collections.emptyList());
+        givenCurrent(Collections.emptyList());
 
         mockMvc.perform(get("/v1/airports/current"))
                 .andExpect(status().isOk())
@@ -532,4 +535,34 @@ class AirportsControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].city").value("北京"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testGetAirportsNearby_Success() throws Exception {
+        when(airportService.findNearby(33.9, -118.4, 50.0, 5, null))
+                .thenReturn(List.of(new NearbyResult<>(sampleAirport, 4.8)));
+
+        mockMvc.perform(get("/v1/airports/nearby")
+                .param("lat", "33.9")
+                .param("lon", "-118.4")
+                .param("radiusKm", "50")
+                .param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].item.iataCode").value("LAX"))
+                .andExpect(jsonPath("$[0].distanceKm").value(4.8));
+    }
+
+    @Test
+    void testGetAirportsNearby_LatitudeOutOfRange() throws Exception {
+        mockMvc.perform(get("/v1/airports/nearby")
+                .param("lat", "91")
+                .param("lon", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private void givenCurrent(List<AirportDto> rows) {
+        doAnswer(invocation -> {
+            rows.forEach(invocation.<Consumer<AirportDto>>getArgument(0));
+            return null;
+        }).when(airportService).streamAllCurrent(any());
+    }
+}
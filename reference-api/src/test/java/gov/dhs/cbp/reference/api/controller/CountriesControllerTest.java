@@ -23,8 +23,10 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -136,7 +138,7 @@ class CountriesControllerTest {
     @Test
     void testGetAllCurrentCountries() throws Exception {
         List<CountryDto> countries = Arrays.asList(sampleCountry);
-        when(countryService.findAllCurrent()).thenReturn(countries);
+        givenCurrent(countries);
 
         mockMvc.perform(get("/v1/countries/current"))
                 .andExpect(status().isOk())
@@ -252,7 +254,7 @@ class CountriesControllerTest {
 
     @Test
     void testGetAllCurrentCountries_EmptyResult() throws Exception {
-        when(countryService.findAllCurrent()).thenReturn(Collections.emptyList());
+        givenCurrent(Collections.emptyList());
 
         mockMvc.perform(get("/v1/countries/current"))
                 .andExpect(status().isOk())
@@ -321,4 +323,11 @@ class CountriesControllerTest {
         mockMvc.perform(get("/v1/countries/{id}", "invalid-uuid"))
                 .andExpect(status().isBadRequest());
     }
-}
\ No newline at end of file
+
+    private void givenCurrent(List<CountryDto> rows) {
+        doAnswer(invocation -> {
+            rows.forEach(invocation.<Consumer<CountryDto>>getArgument(0));
+            return null;
+        }).when(countryService).streamAllCurrent(any());
+    }
+}
@@ -0,0 +1,101 @@
+package gov.dhs.cbp.reference.api.controller;
+
+import gov.dhs.cbp.reference.api.export.ExportFormat;
+import gov.dhs.cbp.reference.api.export.SnapshotExportService;
+import gov.dhs.cbp.reference.api.export.SnapshotExportService.ExportFile;
+import gov.dhs.cbp.reference.api.service.DatasetVersionService;
+import gov.dhs.cbp.reference.core.change.ReferenceDataset;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+class ExportControllerTest {
+
+    private static final String ETAG = "\"countries:7;code-systems:2;2025-06-01\"";
+
+    @TempDir
+    Path directory;
+
+    private final SnapshotExportService exportService = mock(SnapshotExportService.class);
+    private final DatasetVersionService datasetVersionService = mock(DatasetVersionService.class);
+    private final ExportController controller = new ExportController(exportService, datasetVersionService);
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    @BeforeEach
+    void setUp() {
+        // Set by the conditional-GET interceptor before the handler runs
+        response.setHeader(HttpHeaders.ETAG, ETAG);
+        given(datasetVersionService.getVersion(ReferenceDataset.COUNTRIES)).willReturn(7L);
+    }
+
+    @Test
+    void rangeIsServedWhileIfRangeMatchesTheVersionTag() throws IOException {
+        given(exportService.export(any(), any(), any())).willReturn(cached(7));
+
+        ResponseEntity<Resource> result = controller.export("countries", "ndjson", null, "bytes=0-9", ETAG, response);
+
+        assertThat(result.getBody()).isInstanceOf(FileSystemResource.class);
+    }
+
+    @Test
+    void staleIfRangeGetsTheWholeFile() throws IOException {
+        given(exportService.export(any(), any(), any())).willReturn(cached(7));
+
+        ResponseEntity<Resource> result = controller.export("countries", "ndjson", null, "bytes=0-9",
+                "\"countries:6;code-systems:2;2025-06-01\"", response);
+
+        assertThat(result.getBody()).isInstanceOf(InputStreamResource.class);
+        assertThat(result.getHeaders().getContentLength()).isEqualTo(20);
+        result.getBody().getInputStream().close();
+    }
+
+    @Test
+    void fileOfAnotherVersionThanTheTagGetsTheWholeFile() throws IOException {
+        given(exportService.export(any(), any(), any())).willReturn(cached(8));
+
+        ResponseEntity<Resource> result = controller.export("countries", "ndjson", null, "bytes=0-9", ETAG, response);
+
+        assertThat(result.getBody()).isInstanceOf(InputStreamResource.class);
+        result.getBody().getInputStream().close();
+    }
+
+    @Test
+    void temporaryExportIsDeletedOnceSent() throws IOException {
+        Path temp = Files.write(directory.resolve("countries-1.tmp"), new byte[20]);
+        given(exportService.export(any(), any(), any())).willReturn(
+                new ExportFile(temp, "countries-v7-asof-2020-01-01.ndjson.gz", 7, ExportFormat.NDJSON, true));
+
+        ResponseEntity<Resource> result = controller.export("countries", "ndjson", LocalDate.of(2020, 1, 1),
+                null, null, response);
+
+        assertThat(result.getHeaders().getContentDisposition().getFilename())
+                .isEqualTo("countries-v7-asof-2020-01-01.ndjson.gz");
+        try (InputStream in = result.getBody().getInputStream()) {
+            assertThat(in.readAllBytes()).hasSize(20);
+        }
+        assertThat(temp).doesNotExist();
+    }
+
+    private ExportFile cached(long version) throws IOException {
+        String name = "countries-v" + version + "-asof-2025-06-01.ndjson.gz";
+        Path file = Files.write(directory.resolve(name), new byte[20]);
+        return new ExportFile(file, name, version, ExportFormat.NDJSON, false);
+    }
+}
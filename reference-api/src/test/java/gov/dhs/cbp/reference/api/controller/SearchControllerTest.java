@@ -2,7 +2,9 @@ package gov.dhs.cbp.reference.api.controller;
 
 import gov.dhs.cbp.reference.api.config.WebMvcTestConfig;
 import gov.dhs.cbp.reference.api.dto.search.AutocompleteResult;
+import gov.dhs.cbp.reference.api.dto.search.SearchDetails;
 import gov.dhs.cbp.reference.api.dto.search.SearchResult;
+import gov.dhs.cbp.reference.api.service.BatchSearchService;
 import gov.dhs.cbp.reference.api.service.SearchService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -36,6 +38,9 @@ class SearchControllerTest {
     @MockBean
     private SearchService searchService;
 
+    @MockBean
+    private BatchSearchService batchSearchService;
+
     private SearchResult sampleSearchResult;
     private List<SearchResult> searchResults;
 
@@ -49,10 +54,7 @@ class SearchControllerTest {
         sampleSearchResult.setSimilarityScore(0.95f);
         sampleSearchResult.setRank(1.0f);
         
-        Map<String, Object> additionalInfo = new HashMap<>();
-        additionalInfo.put("iso2_code", "US");
-        additionalInfo.put("iso3_code", "USA");
-        sampleSearchResult.setAdditionalInfo(additionalInfo);
+        sampleSearchResult.setAdditionalInfo(new SearchDetails.Country("US", "USA", null));
         
         searchResults = Arrays.asList(sampleSearchResult);
     }
@@ -102,10 +104,7 @@ class SearchControllerTest {
         portResult.setName("Los Angeles");
         portResult.setSimilarityScore(0.9f);
         
-        Map<String, Object> portInfo = new HashMap<>();
-        portInfo.put("city", "Los Angeles");
-        portInfo.put("country_code", "US");
-        portResult.setAdditionalInfo(portInfo);
+        portResult.setAdditionalInfo(new SearchDetails.Port("Los Angeles", "US", null));
         
         List<SearchResult> portResults = Arrays.asList(portResult);
         PageRequest pageable = PageRequest.of(0, 20);
@@ -162,6 +161,7 @@ class SearchControllerTest {
                 .param("type", "countries")
                 .accept(MediaType.APPLICATION_JSON))
             .andExpect(status().isOk())
+            .andExpect(header().string("Cache-Control", "no-store"))
             .andExpect(jsonPath("$[0].code").value("US"))
             .andExpect(jsonPath("$[0].name").value("United States"))
             .andExpect(jsonPath("$[0].matchType").value("code"))
@@ -220,6 +220,15 @@ class SearchControllerTest {
             .andExpect(status().isOk());
     }
 
+    @Test
+    void testSearchUnknownTypeIsBadRequest() throws Exception {
+        mockMvc.perform(get("/v1/search")
+                .param("q", "test")
+                .param("types", "mappings")
+                .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isBadRequest());
+    }
+
     @Test
     void testSearchMissingQuery() throws Exception {
         mockMvc.perform(get("/v1/search")
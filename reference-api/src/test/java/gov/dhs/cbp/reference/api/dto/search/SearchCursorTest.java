@@ -0,0 +1,35 @@
+package gov.dhs.cbp.reference.api.dto.search;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SearchCursorTest {
+
+    @Test
+    void roundTripKeepsFullPrecisionAndColonsInCode() {
+        SearchCursor cursor = new SearchCursor(0.36842105263157893, 0.0607927124202251, "GB:LON");
+
+        SearchCursor decoded = SearchCursor.decode(cursor.encode());
+
+        assertThat(decoded).isEqualTo(cursor);
+    }
+
+    @Test
+    void encodedFormIsUrlSafe() {
+        String encoded = new SearchCursor(1.0, 0.5, "ÅLAND").encode();
+
+        assertThat(encoded).matches("[A-Za-z0-9_-]+");
+    }
+
+    @Test
+    void rejectsTamperedCursors() {
+        assertThatThrownBy(() -> SearchCursor.decode("not base64!"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> SearchCursor.decode("YWJj"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> SearchCursor.decode("eDp5Olo"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,40 @@
+package gov.dhs.cbp.reference.api.dto.search;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SearchResultTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void typedDetailsSerializeAsAdditionalInfo() throws Exception {
+        SearchResult result = new SearchResult("country", UUID.randomUUID(), "US", "United States",
+                new SearchDetails.Country("US", "USA", "840"), 0.9f, 0.5f);
+
+        JsonNode json = objectMapper.valueToTree(result);
+
+        assertThat(json.get("additionalInfo").get("iso2_code").asText()).isEqualTo("US");
+        assertThat(json.get("additionalInfo").get("iso3_code").asText()).isEqualTo("USA");
+        assertThat(json.get("additionalInfo").get("numeric_code").asText()).isEqualTo("840");
+        assertThat(json.get("similarityScore").floatValue()).isEqualTo(0.9f);
+    }
+
+    @Test
+    void missingDetailFieldsStayInTheObject() {
+        SearchResult result = new SearchResult("airport", UUID.randomUUID(), "EGLL", "London Heathrow",
+                new SearchDetails.Airport(null, "EGLL", "London", "GB"), 0.7f, 0.1f);
+
+        JsonNode info = objectMapper.valueToTree(result).get("additionalInfo");
+
+        assertThat(info.has("iata_code")).isTrue();
+        assertThat(info.get("iata_code").isNull()).isTrue();
+        assertThat(info.get("icao_code").asText()).isEqualTo("EGLL");
+        assertThat(info.get("country_code").asText()).isEqualTo("GB");
+    }
+}
@@ -0,0 +1,140 @@
+package gov.dhs.cbp.reference.api.export;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BitVector;
+import org.apache.arrow.vector.DateDayVector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.ArrowStreamReader;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExportWriterTest {
+
+    private static final List<ExportColumn> COLUMNS = List.of(
+            ExportColumn.string("portCode"), ExportColumn.string("portName"),
+            ExportColumn.decimal("latitude"), ExportColumn.bool("isActive"), ExportColumn.date("validFrom"));
+
+    @Test
+    void ndjson_WritesOneObjectPerLine() throws IOException {
+        String body = gunzip(write(ExportFormat.NDJSON,
+                new Object[]{"USNYC", "New York", new BigDecimal("40.7128"), true, LocalDate.of(2024, 1, 1)},
+                new Object[]{"USLAX", null, null, false, LocalDate.of(2024, 1, 1)}));
+
+        String[] lines = body.split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(body).endsWith("\n");
+
+        JsonNode first = new ObjectMapper().readTree(lines[0]);
+        assertThat(first.get("portCode").asText()).isEqualTo("USNYC");
+        assertThat(first.get("latitude").decimalValue()).isEqualByComparingTo("40.7128");
+        assertThat(first.get("isActive").asBoolean()).isTrue();
+        assertThat(first.get("validFrom").asText()).isEqualTo("2024-01-01");
+
+        JsonNode second = new ObjectMapper().readTree(lines[1]);
+        assertThat(second.get("portName").isNull()).isTrue();
+    }
+
+    @Test
+    void csv_WritesHeaderAndQuotesSpecialCharacters() throws IOException {
+        String body = gunzip(write(ExportFormat.CSV,
+                new Object[]{"USNYC", "New York, \"Port\"", new BigDecimal("40.7128"), true, null}));
+
+        assertThat(body).isEqualTo(
+                "portCode,portName,latitude,isActive,validFrom\r\n" +
+                "USNYC,\"New York, \"\"Port\"\"\",40.7128,true,\r\n");
+    }
+
+    @Test
+    void arrow_RoundTripsValuesAndNulls() throws IOException {
+        byte[] bytes = write(ExportFormat.ARROW,
+                new Object[]{"USNYC", "New York", new BigDecimal("40.7128"), true, LocalDate.of(2024, 1, 1)},
+                new Object[]{"USLAX", null, null, false, LocalDate.of(2024, 1, 1)});
+
+        try (BufferAllocator allocator = new RootAllocator();
+             ArrowStreamReader reader = new ArrowStreamReader(new ByteArrayInputStream(bytes), allocator)) {
+            VectorSchemaRoot root = reader.getVectorSchemaRoot();
+            assertThat(root.getSchema().getFields()).extracting(Field::getName)
+                    .containsExactly("portCode", "portName", "latitude", "isActive", "validFrom");
+
+            assertThat(reader.loadNextBatch()).isTrue();
+            assertThat(root.getRowCount()).isEqualTo(2);
+            assertThat(root.getVector("portCode").getObject(0).toString()).isEqualTo("USNYC");
+            assertThat(((Float8Vector) root.getVector("latitude")).get(0)).isEqualTo(40.7128);
+            assertThat(((BitVector) root.getVector("isActive")).get(0)).isEqualTo(1);
+            assertThat(((DateDayVector) root.getVector("validFrom")).get(0))
+                    .isEqualTo((int) LocalDate.of(2024, 1, 1).toEpochDay());
+            assertThat(root.getVector("portName").isNull(1)).isTrue();
+            assertThat(root.getVector("latitude").isNull(1)).isTrue();
+            assertThat(((BitVector) root.getVector("isActive")).get(1)).isZero();
+            assertThat(reader.loadNextBatch()).isFalse();
+        }
+    }
+
+    @Test
+    void arrow_SplitsRowsIntoBatches() throws IOException {
+        Object[][] rows = new Object[ArrowExportWriter.BATCH_SIZE + 1][];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = new Object[]{"P" + i, null, null, true, null};
+        }
+        byte[] bytes = write(ExportFormat.ARROW, rows);
+
+        try (BufferAllocator allocator = new RootAllocator();
+             ArrowStreamReader reader = new ArrowStreamReader(new ByteArrayInputStream(bytes), allocator)) {
+            VectorSchemaRoot root = reader.getVectorSchemaRoot();
+            assertThat(reader.loadNextBatch()).isTrue();
+            assertThat(root.getRowCount()).isEqualTo(ArrowExportWriter.BATCH_SIZE);
+            assertThat(reader.loadNextBatch()).isTrue();
+            assertThat(root.getRowCount()).isEqualTo(1);
+            assertThat(root.getVector("portCode").getObject(0).toString()).isEqualTo("P" + ArrowExportWriter.BATCH_SIZE);
+            assertThat(reader.loadNextBatch()).isFalse();
+        }
+    }
+
+    @Test
+    void escape_LeavesPlainValuesUnquoted() {
+        assertThat(CsvExportWriter.escape("Heathrow")).isEqualTo("Heathrow");
+        assertThat(CsvExportWriter.escape("line\nbreak")).isEqualTo("\"line\nbreak\"");
+    }
+
+    @Test
+    void fileName_IncludesVersionAndAsOf() {
+        assertThat(SnapshotExportService.fileName(ExportDataset.PORTS, ExportFormat.CSV, 12, LocalDate.of(2025, 6, 1)))
+                .isEqualTo("ports-v12-asof-2025-06-01.csv.gz");
+        assertThat(SnapshotExportService.fileName(ExportDataset.AIRPORTS, ExportFormat.ARROW, 3, LocalDate.of(2023, 6, 30)))
+                .isEqualTo("airports-v3-asof-2023-06-30.arrows");
+        assertThat(SnapshotExportService.parseVersion("ports-v12-asof-2025-06-01.csv.gz", "ports-v")).isEqualTo(12L);
+        assertThat(SnapshotExportService.parseAsOf("ports-v12-asof-2025-06-01.csv.gz")).isEqualTo(LocalDate.of(2025, 6, 1));
+        assertThat(SnapshotExportService.parseAsOf("ports-123456.tmp")).isNull();
+    }
+
+    private static byte[] write(ExportFormat format, Object[]... rows) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ExportWriter writer = ExportWriter.open(format, COLUMNS, out)) {
+            for (Object[] row : rows) {
+                writer.writeRow(row);
+            }
+        }
+        return out.toByteArray();
+    }
+
+    private static String gunzip(byte[] bytes) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
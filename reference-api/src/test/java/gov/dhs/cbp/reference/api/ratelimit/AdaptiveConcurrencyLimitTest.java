@@ -0,0 +1,70 @@
+package gov.dhs.cbp.reference.api.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveConcurrencyLimitTest {
+
+    private static final long TARGET = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(400);
+
+    @Test
+    void rejectsBeyondTheLimit() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 1, 4, TARGET);
+
+        assertThat(limit.tryAcquire()).isTrue();
+        assertThat(limit.tryAcquire()).isTrue();
+        assertThat(limit.tryAcquire()).isFalse();
+
+        limit.release(FAST, false, 0);
+        assertThat(limit.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void slowCallsShrinkTheLimitOncePerTargetWindow() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 2, 20, TARGET);
+        for (int i = 0; i < 5; i++) {
+            limit.tryAcquire();
+        }
+
+        limit.release(SLOW, false, 0);
+        limit.release(SLOW, false, FAST);
+        assertThat(limit.getLimit()).isEqualTo(9);
+
+        limit.release(SLOW, false, TARGET);
+        assertThat(limit.getLimit()).isEqualTo(8);
+    }
+
+    @Test
+    void poolQueueingShrinksTheLimitToTheFloor() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 1, 4, TARGET);
+
+        for (int i = 0; i < 20; i++) {
+            limit.tryAcquire();
+            limit.release(FAST, true, i * TARGET);
+        }
+
+        assertThat(limit.getLimit()).isEqualTo(1);
+    }
+
+    @Test
+    void saturatedFastCallsGrowTheLimitUpToTheCeiling() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 1, 4, TARGET);
+
+        for (int round = 0; round < 50; round++) {
+            int admitted = 0;
+            while (limit.tryAcquire()) {
+                admitted++;
+            }
+            for (int i = 0; i < admitted; i++) {
+                limit.release(FAST, false, round * TARGET);
+            }
+        }
+
+        assertThat(limit.getLimit()).isEqualTo(4);
+    }
+}
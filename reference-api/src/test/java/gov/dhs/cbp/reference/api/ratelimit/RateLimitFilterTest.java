@@ -0,0 +1,178 @@
+package gov.dhs.cbp.reference.api.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimitFilterTest {
+
+    private final AtomicLong clock = new AtomicLong(TimeUnit.SECONDS.toNanos(100));
+    private final AtomicInteger handlerCalls = new AtomicInteger();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private RateLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        Map<EndpointClass, Duration> targets = new EnumMap<>(EndpointClass.class);
+        for (EndpointClass endpoint : EndpointClass.values()) {
+            targets.put(endpoint, Duration.ofMillis(500));
+        }
+        filter = new RateLimitFilter(2, 1, targets, 2, () -> 0,
+                new ObjectMapper().findAndRegisterModules(), meterRegistry, clock::get);
+    }
+
+    @Test
+    void exhaustedBucketIsRejectedWith429AndRetryAfter() throws Exception {
+        assertThat(get("/v1/countries/by-code", "10.0.0.1").getStatus()).isEqualTo(200);
+        assertThat(get("/v1/countries/by-code", "10.0.0.1").getStatus()).isEqualTo(200);
+
+        MockHttpServletResponse rejected = get("/v1/countries/by-code", "10.0.0.1");
+
+        assertThat(rejected.getStatus()).isEqualTo(429);
+        assertThat(rejected.getHeader("Retry-After")).isEqualTo("1");
+        assertThat(rejected.getContentType()).startsWith("application/problem+json");
+        assertThat(rejected.getContentAsString()).contains("Too Many Requests");
+        assertThat(handlerCalls).hasValue(2);
+    }
+
+    @Test
+    void bucketRefillsOverTime() throws Exception {
+        get("/v1/ports/by-code", "10.0.0.1");
+        get("/v1/ports/by-code", "10.0.0.1");
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+
+        assertThat(get("/v1/ports/by-code", "10.0.0.1").getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void clientsHaveSeparateBuckets() throws Exception {
+        get("/v1/airports/by-code", "10.0.0.1");
+        get("/v1/airports/by-code", "10.0.0.1");
+
+        assertThat(get("/v1/airports/by-code", "10.0.0.1").getStatus()).isEqualTo(429);
+        assertThat(get("/v1/airports/by-code", "10.0.0.2").getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void searchCostsMoreThanALookup() throws Exception {
+        MockHttpServletResponse response = get("/v1/search", "10.0.0.1");
+
+        // A search costs 5 tokens; the cost is capped at the bucket's capacity of 2
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(get("/v1/countries/by-code", "10.0.0.1").getStatus()).isEqualTo(429);
+    }
+
+    @Test
+    void batchSearchIsASearchChargedByItsSize() throws Exception {
+        MockHttpServletRequest request = request("/v1/search/batch", "10.0.0.1");
+        request.setMethod("POST");
+        request.setContent(new byte[1500]);
+        filter.doFilter(request, new MockHttpServletResponse(), handler());
+
+        assertThat(meterRegistry.get("reference.ratelimit.requests")
+                .tags("endpoint", "search", "outcome", "admitted").counter().count()).isEqualTo(1);
+        assertThat(EndpointClass.SEARCH.costOf("/v1/search/batch", 1500)).isEqualTo(10);
+        assertThat(EndpointClass.SEARCH.costOf("/v1/search/batch", 0)).isEqualTo(5);
+        assertThat(EndpointClass.SEARCH.costOf("/v1/search/batch", -1)).isEqualTo(Long.MAX_VALUE);
+        assertThat(EndpointClass.SEARCH.costOf("/v1/search", -1)).isEqualTo(5);
+        assertThat(EndpointClass.of("POST", "/v1/countries")).isEqualTo(EndpointClass.WRITE);
+    }
+
+    @Test
+    void outcomesAreCountedByKindOfClient() throws Exception {
+        get("/v1/countries/by-code", "10.0.0.1");
+        get("/v1/countries/by-code", "10.0.0.1");
+        get("/v1/countries/by-code", "10.0.0.1");
+
+        assertThat(meterRegistry.get("reference.ratelimit.requests")
+                .tags("client", RateLimitFilter.ANONYMOUS, "endpoint", "read", "outcome", "admitted")
+                .counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("reference.ratelimit.requests")
+                .tags("client", RateLimitFilter.ANONYMOUS, "endpoint", "read", "outcome", "throttled")
+                .counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void unvalidatedApiKeyDoesNotSelectTheBucket() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            MockHttpServletRequest request = request("/v1/countries/by-code", "10.0.0.1");
+            request.addHeader("X-API-Key", "key-" + i);
+            filter.doFilter(request, new MockHttpServletResponse(), handler());
+        }
+
+        MockHttpServletRequest request = request("/v1/countries/by-code", "10.0.0.1");
+        request.addHeader("X-API-Key", "key-2");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, handler());
+
+        assertThat(response.getStatus()).isEqualTo(429);
+    }
+
+    @Test
+    void topConsumersAreNamedByBucketKeyHeaviestFirst() throws Exception {
+        get("/v1/countries/by-code", "10.0.0.1");
+        get("/v1/countries/by-code", "10.0.0.2");
+        get("/v1/countries/by-code", "10.0.0.2");
+        get("/v1/countries/by-code", "10.0.0.2");
+
+        List<RateLimitFilter.ClientUsage> top = filter.topConsumers(1);
+
+        assertThat(top).containsExactly(new RateLimitFilter.ClientUsage("ip:10.0.0.2", 2, 1));
+        assertThat(filter.topConsumers(10)).extracting(RateLimitFilter.ClientUsage::key)
+                .containsExactly("ip:10.0.0.2", "ip:10.0.0.1");
+    }
+
+    @Test
+    void unauthenticatedClientsAreKeyedByAddressAndTaggedAnonymous() {
+        RateLimitFilter.Client client = RateLimitFilter.identify(request("/v1/countries", "10.0.0.7"));
+
+        assertThat(client.key()).isEqualTo("ip:10.0.0.7");
+        assertThat(client.tag()).isEqualTo(RateLimitFilter.ANONYMOUS);
+    }
+
+    @Test
+    void streamingTheBodyIsNotCountedAsHandlerTime() throws Exception {
+        FilterChain slowClient = (request, response) -> {
+            clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(10));
+            response.getOutputStream().write('x');
+            clock.addAndGet(TimeUnit.SECONDS.toNanos(5));
+        };
+
+        filter.doFilter(request("/v1/countries/by-code", "10.0.0.1"), new MockHttpServletResponse(), slowClient);
+
+        assertThat(meterRegistry.get("reference.ratelimit.client.time").tag("endpoint", "read").timer()
+                .totalTime(TimeUnit.MILLISECONDS)).isEqualTo(10.0);
+        assertThat(meterRegistry.get("reference.ratelimit.concurrency.limit").tag("endpoint", "read").gauge()
+                .value()).isEqualTo(EndpointClass.READ.getInitialLimit());
+    }
+
+    private MockHttpServletResponse get(String path, String remoteAddr) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request(path, remoteAddr), response, handler());
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String path, String remoteAddr) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setRemoteAddr(remoteAddr);
+        return request;
+    }
+
+    private FilterChain handler() {
+        return (request, response) -> handlerCalls.incrementAndGet();
+    }
+}
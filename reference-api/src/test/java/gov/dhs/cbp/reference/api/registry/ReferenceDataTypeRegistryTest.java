@@ -0,0 +1,77 @@
+package gov.dhs.cbp.reference.api.registry;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import gov.dhs.cbp.reference.core.entity.SystemConfiguration;
+import gov.dhs.cbp.reference.core.repository.SystemConfigurationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+
+@ExtendWith(MockitoExtension.class)
+class ReferenceDataTypeRegistryTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Mock
+    private SystemConfigurationRepository configurationRepository;
+
+    private ReferenceDataTypeRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new ReferenceDataTypeRegistry(configurationRepository, objectMapper);
+    }
+
+    @Test
+    void defaults_CompileToImmutableCatalogWithJson() throws Exception {
+        ReferenceDataTypeRegistry.Catalog catalog = registry.current();
+
+        assertThat(catalog.types()).extracting(ReferenceDataType::id)
+                .containsExactly("countries", "airports", "ports", "organizations", "locations", "products");
+        assertThat(registry.find("airports")).get()
+                .satisfies(type -> assertThat(type.systemCodes()).containsExactly("IATA", "ICAO"));
+        assertThat(catalog.etag()).startsWith("\"types-").endsWith("\"");
+
+        var json = objectMapper.readTree(catalog.json());
+        assertThat(json.get(0).get("isEnabled").asBoolean()).isTrue();
+        assertThat(json.get(0).get("permissions").get("read").asBoolean()).isTrue();
+        assertThat(json.get(0).get("fields").get(0).get("maxLength").asInt()).isEqualTo(5);
+    }
+
+    @Test
+    void refresh_KeepsCatalogWhenContentIsUnchanged() {
+        given(configurationRepository.findByConfigKey(ReferenceDataTypeRegistry.CONFIG_KEY))
+                .willReturn(Optional.empty());
+        ReferenceDataTypeRegistry.Catalog before = registry.current();
+
+        registry.refresh();
+
+        assertThat(registry.current()).isSameAs(before);
+    }
+
+    @Test
+    void refresh_ConfigurationEntryReplacesDefaults() throws Exception {
+        SystemConfiguration config = new SystemConfiguration(ReferenceDataTypeRegistry.CONFIG_KEY,
+                objectMapper.readTree("""
+                        [{"id": "vessels", "name": "vessels", "displayName": "Vessels",
+                          "isEnabled": true, "systemCodes": ["IMO"]}]
+                        """),
+                SystemConfiguration.ConfigurationType.DATA_MANAGEMENT);
+        given(configurationRepository.findByConfigKey(ReferenceDataTypeRegistry.CONFIG_KEY))
+                .willReturn(Optional.of(config));
+        String defaultsEtag = registry.current().etag();
+
+        registry.refresh();
+
+        assertThat(registry.getTypes()).extracting(ReferenceDataType::id).containsExactly("vessels");
+        assertThat(registry.getTypes().get(0).permissions()).isEqualTo(ReferenceDataType.Permissions.READ_ONLY);
+        assertThat(registry.current().etag()).isNotEqualTo(defaultsEtag);
+    }
+}
@@ -0,0 +1,143 @@
+package gov.dhs.cbp.reference.api.search;
+
+import gov.dhs.cbp.reference.api.dto.AirportDto;
+import gov.dhs.cbp.reference.api.dto.CountryDto;
+import gov.dhs.cbp.reference.api.dto.search.AutocompleteResult;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AutocompleteIndexTest {
+
+    private static final List<AutocompleteIndex.Entry> COUNTRIES = List.of(
+            AutocompleteIndex.Entry.of(country("CA", "Canada", "CAN")),
+            AutocompleteIndex.Entry.of(country("CM", "Cameroon", "CMR")),
+            AutocompleteIndex.Entry.of(country("KH", "Cambodia", "KHM")),
+            AutocompleteIndex.Entry.of(country("CF", "Central African Republic", "CAF")),
+            AutocompleteIndex.Entry.of(country("ZA", "South Africa", "ZAF")));
+
+    @Test
+    void codesComeBeforeNamesWithoutPopularity() {
+        AutocompleteIndex index = AutocompleteIndex.build(Map.of("countries", COUNTRIES), (type, code) -> 0, null);
+
+        assertThat(index.complete("ca", "countries", 10))
+                .extracting(AutocompleteResult::getCode)
+                .containsExactly("CA", "CF", "KH", "CM");
+        assertThat(index.complete("ca", "countries", 10).get(0).getMatchType()).isEqualTo("code");
+        assertThat(index.complete("camb", "countries", 10).get(0).getMatchType()).isEqualTo("name");
+    }
+
+    @Test
+    void laterWordsOfNamesComplete() {
+        AutocompleteIndex index = AutocompleteIndex.build(Map.of("countries", COUNTRIES), (type, code) -> 0, null);
+
+        assertThat(index.complete("afr", "countries", 10))
+                .extracting(AutocompleteResult::getCode)
+                .containsExactlyInAnyOrder("CF", "ZA");
+    }
+
+    @Test
+    void popularityReordersWithoutRebuilding() {
+        AutocompleteIndex index = AutocompleteIndex.build(Map.of("countries", COUNTRIES), (type, code) -> 0, null);
+
+        AutocompleteIndex reweighed = index.reweigh((type, code) -> "CM".equals(code) ? 50 : 0);
+
+        assertThat(reweighed.complete("ca", "countries", 2))
+                .extracting(AutocompleteResult::getCode)
+                .containsExactly("CM", "CA");
+        assertThat(reweighed.sharesTrie(index, "countries")).isTrue();
+    }
+
+    @Test
+    void rebuildReusesTriesOfUnchangedDatasets() {
+        List<AutocompleteIndex.Entry> airports = List.of(AutocompleteIndex.Entry.of(airport("JFK", "KJFK",
+                "John F Kennedy International", "New York")));
+        AutocompleteIndex first = AutocompleteIndex.build(
+                Map.of("countries", COUNTRIES, "airports", airports), (type, code) -> 0, null);
+
+        List<AutocompleteIndex.Entry> changed = new ArrayList<>(airports);
+        changed.add(AutocompleteIndex.Entry.of(airport("LGA", "KLGA", "LaGuardia", "New York")));
+        AutocompleteIndex second = AutocompleteIndex.build(
+                Map.of("countries", List.copyOf(COUNTRIES), "airports", changed), (type, code) -> 0, first);
+
+        assertThat(second.sharesTrie(first, "countries")).isTrue();
+        assertThat(second.sharesTrie(first, "airports")).isFalse();
+        assertThat(second.complete("york", "airports", 10))
+                .extracting(AutocompleteResult::getCode)
+                .containsExactly("JFK", "LGA");
+    }
+
+    @Test
+    void eachEntityAppearsOnceAndUnknownTypesAreEmpty() {
+        AutocompleteIndex index = AutocompleteIndex.build(Map.of("countries", List.of(
+                AutocompleteIndex.Entry.of(country("CA", "Canada", "CAN")),
+                AutocompleteIndex.Entry.of(country("CA", "Canada (ISO)", "CAN")))), (type, code) -> 0, null);
+
+        assertThat(index.complete("ca", "countries", 10)).hasSize(1);
+        assertThat(index.complete("ca", "seaports", 10)).isEmpty();
+        assertThat(index.complete("  ", "countries", 10)).isEmpty();
+    }
+
+    @Test
+    void trieTopKMatchesSortingEveryKey() {
+        Random random = new Random(42);
+        String alphabet = "abcde ";
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            StringBuilder key = new StringBuilder();
+            int length = 1 + random.nextInt(8);
+            for (int j = 0; j < length; j++) {
+                key.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            keys.add(key.toString());
+        }
+        int[] payloads = IntStream.range(0, keys.size()).toArray();
+        float[] scores = new float[keys.size()];
+        for (int i = 0; i < scores.length; i++) {
+            scores[i] = random.nextInt(20);
+        }
+        PrefixTrie trie = PrefixTrie.build(keys, payloads).withScores(payload -> scores[payload]);
+
+        for (String prefix : List.of("a", "ab", "dd", "e c", "abcde", "zz", "")) {
+            int[] expected = IntStream.range(0, keys.size())
+                    .filter(i -> keys.get(i).startsWith(prefix))
+                    .boxed()
+                    .sorted(Comparator.<Integer>comparingDouble(i -> -scores[i])
+                            .thenComparing(keys::get)
+                            .thenComparingInt(i -> i))
+                    .limit(7)
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+
+            assertThat(trie.complete(prefix, 7, payload -> payload)).as(prefix).containsExactly(expected);
+        }
+    }
+
+    private static CountryDto country(String code, String name, String iso3) {
+        CountryDto country = new CountryDto();
+        country.setId(UUID.randomUUID());
+        country.setCountryCode(code);
+        country.setCountryName(name);
+        country.setIso2Code(code);
+        country.setIso3Code(iso3);
+        return country;
+    }
+
+    private static AirportDto airport(String iata, String icao, String name, String city) {
+        AirportDto airport = new AirportDto();
+        airport.setId(UUID.randomUUID());
+        airport.setIataCode(iata);
+        airport.setIcaoCode(icao);
+        airport.setAirportName(name);
+        airport.setCity(city);
+        return airport;
+    }
+}
@@ -0,0 +1,190 @@
+package gov.dhs.cbp.reference.api.search;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ScatterGatherSearchTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ScatterGatherSearch scatterGather = new ScatterGatherSearch(meterRegistry, 500, 4);
+
+    @AfterEach
+    void tearDown() {
+        scatterGather.stop();
+    }
+
+    @Test
+    void typesRunConcurrently() {
+        long started = System.nanoTime();
+
+        ScatterGatherSearch.Gathered<String> gathered = scatterGather.gather(
+                List.of("countries", "ports", "airports"), type -> {
+                    sleep(200);
+                    return type.toUpperCase();
+                });
+
+        assertThat((System.nanoTime() - started) / 1_000_000).isLessThan(450);
+        assertThat(gathered.isPartial()).isFalse();
+        assertThat(gathered.results()).containsExactly(
+                Map.entry("countries", "COUNTRIES"), Map.entry("ports", "PORTS"), Map.entry("airports", "AIRPORTS"));
+    }
+
+    @Test
+    void lateTypeIsLeftOutAndCounted() {
+        ScatterGatherSearch.Gathered<String> gathered = scatterGather.gather(List.of("countries", "ports"), type -> {
+            if (type.equals("ports")) {
+                sleep(5_000);
+            }
+            return type;
+        });
+
+        assertThat(gathered.isPartial()).isTrue();
+        assertThat(gathered.results()).containsOnlyKeys("countries");
+        assertThat(gathered.timedOut()).isEqualTo(Set.of("ports"));
+        assertThat(meterRegistry.get("reference.search.scatter.timeouts").tag("type", "ports").counter().count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    void lateTypeIsAbandonedWithoutAnInterrupt() throws Exception {
+        AtomicBoolean interrupted = new AtomicBoolean();
+        CountDownLatch finished = new CountDownLatch(1);
+
+        ScatterGatherSearch.Gathered<String> gathered = scatterGather.gather(List.of("ports"), type -> {
+            try {
+                Thread.sleep(800);
+            } catch (InterruptedException e) {
+                interrupted.set(true);
+            }
+            finished.countDown();
+            return type;
+        });
+
+        assertThat(gathered.timedOut()).containsExactly("ports");
+        assertThat(finished.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(interrupted).isFalse();
+    }
+
+    @Test
+    void searchesOfAllCallersShareTheCap() {
+        ScatterGatherSearch single = new ScatterGatherSearch(meterRegistry, 300, 1);
+        Set<String> started = ConcurrentHashMap.newKeySet();
+        try {
+            ScatterGatherSearch.Gathered<String> gathered = single.gather(List.of("countries", "ports"), type -> {
+                started.add(type);
+                sleep(400);
+                return type;
+            });
+
+            assertThat(gathered.results()).isEmpty();
+            sleep(300);
+            // The second type waited for the only permit until the deadline and never started
+            assertThat(started).hasSize(1);
+        } finally {
+            single.stop();
+        }
+    }
+
+    @Test
+    void searchThatWaitedOutItsDeadlineDoesNotQuery() throws Exception {
+        AtomicBoolean queried = new AtomicBoolean();
+        CountDownLatch finished = new CountDownLatch(1);
+
+        ScatterGatherSearch.Gathered<String> gathered = scatterGather.gather(List.of("ports"), type -> {
+            try {
+                // Waiting for a pooled connection
+                sleep(700);
+                ScatterGatherSearch.checkDeadline();
+                queried.set(true);
+            } finally {
+                finished.countDown();
+            }
+            return type;
+        });
+
+        assertThat(gathered.timedOut()).containsExactly("ports");
+        assertThat(finished.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(queried).isFalse();
+        // Outside a scattered search there is no deadline to check
+        ScatterGatherSearch.checkDeadline();
+    }
+
+    @Test
+    void failingTypeFailsTheSearch() {
+        assertThatThrownBy(() -> scatterGather.gather(List.of("countries", "ports"), type -> {
+            if (type.equals("ports")) {
+                throw new IllegalArgumentException("bad query");
+            }
+            return type;
+        })).isInstanceOf(IllegalArgumentException.class).hasMessage("bad query");
+    }
+
+    @Test
+    void boundedGatherCapsConcurrencyAndKeepsOrder() {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        List<String> keys = List.of("a", "b", "c", "d", "e", "f");
+
+        ScatterGatherSearch.Gathered<String> gathered = scatterGather.gatherBounded(keys, 2, Duration.ofSeconds(5),
+                key -> {
+                    peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    sleep(50);
+                    running.decrementAndGet();
+                    return key.toUpperCase();
+                });
+
+        assertThat(gathered.isPartial()).isFalse();
+        assertThat(gathered.results().keySet()).containsExactlyElementsOf(keys);
+        assertThat(peak.get()).isEqualTo(2);
+    }
+
+    @Test
+    void boundedGatherLeavesOutKeysStillQueuedAtTheDeadline() {
+        Set<String> started = ConcurrentHashMap.newKeySet();
+        ScatterGatherSearch.Gathered<String> gathered = scatterGather.gatherBounded(List.of("a", "b", "c"), 1,
+                Duration.ofMillis(300), key -> {
+                    started.add(key);
+                    sleep(200);
+                    return key;
+                });
+
+        assertThat(gathered.results()).containsOnlyKeys("a");
+        assertThat(gathered.timedOut()).isEqualTo(Set.of("b", "c"));
+        sleep(300);
+        // One of b and c held the permit at the deadline; the other never starts
+        assertThat(started).hasSize(2);
+    }
+
+    @Test
+    void topMergesPartsWithBoundedHeap() {
+        List<List<Integer>> parts = List.of(List.of(9, 4, 1), List.of(8, 7), List.of(), List.of(5));
+
+        List<Integer> top = ScatterGatherSearch.top(parts, 3, Comparator.<Integer>reverseOrder());
+
+        assertThat(top).containsExactly(9, 8, 7);
+        assertThat(ScatterGatherSearch.top(List.of(List.of(1, 2)), 0, Comparator.<Integer>naturalOrder())).isEmpty();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
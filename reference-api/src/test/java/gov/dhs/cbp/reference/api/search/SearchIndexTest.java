@@ -0,0 +1,210 @@
+package gov.dhs.cbp.reference.api.search;
+
+import gov.dhs.cbp.reference.api.dto.CountryDto;
+import gov.dhs.cbp.reference.api.dto.PortDto;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class SearchIndexTest {
+
+    // As reference_data.name_synonyms stores them: one row per direction
+    private static final NameSynonyms SYNONYMS = NameSynonyms.of(List.of(
+            Map.entry("cote divoire", "ivory coast"),
+            Map.entry("ivory coast", "cote divoire"),
+            Map.entry("myanmar", "burma"),
+            Map.entry("burma", "myanmar")));
+
+    private final SearchIndex countries = SearchIndex.build(List.of(
+            SearchDocument.of(country("US", "United States", "USA"), SYNONYMS),
+            SearchDocument.of(country("GB", "United Kingdom", "GBR"), SYNONYMS),
+            SearchDocument.of(country("AE", "United Arab Emirates", "ARE"), SYNONYMS),
+            SearchDocument.of(country("DE", "Germany", "DEU"), SYNONYMS),
+            SearchDocument.of(country("CI", "Côte d'Ivoire", "CIV"), SYNONYMS)));
+
+    @Test
+    void similarityMatchesPgTrgm() {
+        assertThat(Trigrams.similarity("word", "two words")).isCloseTo(0.363636f, within(1e-5f));
+    }
+
+    @Test
+    void misspellingsMatchOnTrigramSimilarity() {
+        SearchIndex.Hits hits = countries.search("germny", 0.3f, null, 10);
+
+        assertThat(hits.total()).isEqualTo(1);
+        assertThat(hits.top().get(0).document().getCode()).isEqualTo("DE");
+        assertThat(hits.top().get(0).similarity()).isCloseTo(0.5f, within(1e-6f));
+    }
+
+    @Test
+    void allQueryWordsMatchRegardlessOfOrder() {
+        SearchIndex.Hits hits = countries.search("kingdom united", 0.9f, null, 10);
+
+        assertThat(hits.top()).extracting(hit -> hit.document().getCode()).containsExactly("GB");
+        assertThat(hits.top().get(0).rank()).isPositive();
+    }
+
+    @Test
+    void exactCodeScoresOneAndPrefixesMatchCodes() {
+        SearchIndex.Hits exact = countries.search("usa", 0.3f, null, 10);
+        SearchIndex.Hits prefix = countries.search("de", 0.9f, null, 10);
+
+        assertThat(exact.top().get(0).document().getCode()).isEqualTo("US");
+        assertThat(exact.top().get(0).similarity()).isEqualTo(1f);
+        assertThat(prefix.top()).extracting(hit -> hit.document().getCode()).containsExactly("DE");
+    }
+
+    @Test
+    void accentsAreIgnored() {
+        assertThat(countries.search("cote d'ivoire", 0.3f, null, 10).top())
+                .extracting(hit -> hit.document().getCode()).containsExactly("CI");
+    }
+
+    @Test
+    void returnsTopKInOrderWithExactTotal() {
+        SearchIndex.Hits hits = countries.search("united", 0.3f, null, 2);
+
+        assertThat(hits.total()).isEqualTo(3);
+        assertThat(hits.top()).extracting(hit -> hit.document().getCode()).containsExactly("US", "GB");
+    }
+
+    @Test
+    void oneResultPerCodeAcrossCodeSystems() {
+        SearchIndex index = SearchIndex.build(List.of(
+                SearchDocument.of(country("US", "United States", "USA"), SYNONYMS),
+                SearchDocument.of(country("US", "United States of America", "USA"), SYNONYMS)));
+
+        SearchIndex.Hits hits = index.search("united states of america", 0.3f, null, 10);
+
+        assertThat(hits.total()).isEqualTo(1);
+        assertThat(hits.top().get(0).document().getName()).isEqualTo("United States of America");
+    }
+
+    @Test
+    void filterAppliesBeforeCounting() {
+        SearchIndex ports = SearchIndex.build(List.of(
+                SearchDocument.of(port("NYC", "New York", "US"), SYNONYMS),
+                SearchDocument.of(port("YRK", "York", "GB"), SYNONYMS)));
+
+        SearchIndex.Hits hits = ports.search("york", 0.3f, document -> "GB".equals(document.getCountryCode()), 10);
+
+        assertThat(hits.total()).isEqualTo(1);
+        assertThat(hits.top()).extracting(hit -> hit.document().getCode()).containsExactly("YRK");
+    }
+
+    @Test
+    void matchesExhaustiveScanOnGeneratedNames() {
+        String[] syllables = {"ka", "lo", "mi", "ne", "port", "san", "ta", "vi", "ber", "gen", "ton", "ville"};
+        List<PortDto> rows = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            String name = syllables[i % 12] + syllables[(i / 12) % 12] + " " + syllables[(i * 7) % 12];
+            rows.add(port("P" + i, name, "US"));
+        }
+        SearchIndex index = SearchIndex.build(rows.stream().map(row -> SearchDocument.of(row, SYNONYMS)).toList());
+
+        for (String query : List.of("santon", "kalo", "villeber gen", "portmi")) {
+            long expected = rows.stream()
+                    .filter(row -> Trigrams.similarity(row.getPortName(), query) > 0.3f
+                            || Trigrams.similarity(row.getPortCode(), query) > 0.3f
+                            || Trigrams.similarity(row.getCity(), query) > 0.3f
+                            || containsAllWords(row.getPortName() + " " + row.getCity(), query)
+                            || soundsAlike(row.getPortName() + " " + row.getCity(), query))
+                    .count();
+
+            assertThat(index.search(query, 0.3f, null, 10).total()).as(query).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void transliteratesAndIgnoresApostrophes() {
+        assertThat(Trigrams.normalize("Straße Ærø Łódź")).isEqualTo("strasse aero lodz");
+        assertThat(countries.search("Cote dIvoire", 0.3f, null, 10).top())
+                .extracting(hit -> hit.document().getCode()).containsExactly("CI");
+        assertThat(countries.search("C\u00f4te d\u2019Ivoire", 0.3f, null, 10).top().get(0).similarity())
+                .isEqualTo(1f);
+    }
+
+    @Test
+    void curatedSynonymsAndAlternateNamesMatch() {
+        CountryDto germany = country("DE", "Germany", "DEU");
+        germany.setAlternateNames(List.of("Deutschland"));
+        SearchIndex index = SearchIndex.build(List.of(
+                SearchDocument.of(germany, SYNONYMS),
+                SearchDocument.of(country("CI", "Côte d'Ivoire", "CIV"), SYNONYMS),
+                SearchDocument.of(country("MM", "Myanmar", "MMR"), SYNONYMS)));
+
+        assertThat(index.search("ivory coast", 0.3f, null, 10).top())
+                .extracting(hit -> hit.document().getCode()).containsExactly("CI");
+        assertThat(index.search("burma", 0.3f, null, 10).top())
+                .extracting(hit -> hit.document().getCode()).containsExactly("MM");
+        assertThat(index.search("deutschland", 0.3f, null, 10).top())
+                .extracting(hit -> hit.document().getName()).containsExactly("Germany");
+    }
+
+    @Test
+    void wordsThatSoundAlikeMatchAtFixedSimilarity() {
+        SearchIndex ports = SearchIndex.build(List.of(
+                SearchDocument.of(port("PHL", "Philadelphia", "US"), SYNONYMS),
+                SearchDocument.of(port("HAM", "Hamburg", "DE"), SYNONYMS)));
+
+        SearchIndex.Hits hits = ports.search("filadelfia", 0.3f, null, 10);
+
+        assertThat(hits.total()).isEqualTo(1);
+        assertThat(hits.top().get(0).document().getCode()).isEqualTo("PHL");
+        assertThat(hits.top().get(0).similarity()).isEqualTo(SearchIndex.PHONETIC_SIMILARITY);
+    }
+
+    @Test
+    void wordsThatAlsoMatchOnTrigramsKeepTheirOwnSimilarity() {
+        SearchIndex.Hits hits = countries.search("united", 0.3f, null, 10);
+
+        // "united" sounds like itself; only rows found by sound alone are raised to the floor
+        assertThat(hits.top().get(0).document().getCode()).isEqualTo("US");
+        assertThat(hits.top().get(1).similarity())
+                .isCloseTo(Trigrams.similarity("united kingdom", "united"), within(1e-6f))
+                .isLessThan(SearchIndex.PHONETIC_SIMILARITY);
+    }
+
+    private static boolean soundsAlike(String text, String query) {
+        Set<String> keys = new HashSet<>();
+        Trigrams.words(Trigrams.normalize(text)).forEach(word -> keys.addAll(Phonetic.keys(word)));
+        List<String> queryKeys = Trigrams.words(Trigrams.normalize(query)).stream()
+                .filter(word -> word.length() >= SearchIndex.MIN_PHONETIC_WORD)
+                .map(Phonetic::primary)
+                .toList();
+        return !queryKeys.isEmpty() && keys.containsAll(queryKeys);
+    }
+
+    private static boolean containsAllWords(String text, String query) {
+        List<String> words = Trigrams.words(Trigrams.normalize(text));
+        return words.containsAll(Trigrams.words(Trigrams.normalize(query)));
+    }
+
+    private static CountryDto country(String code, String name, String iso3) {
+        CountryDto country = new CountryDto();
+        country.setId(UUID.randomUUID());
+        country.setCountryCode(code);
+        country.setCountryName(name);
+        country.setIso2Code(code);
+        country.setIso3Code(iso3);
+        return country;
+    }
+
+    private static PortDto port(String code, String name, String countryCode) {
+        PortDto port = new PortDto();
+        port.setId(UUID.randomUUID());
+        port.setPortCode(code);
+        port.setPortName(name);
+        port.setCity(name);
+        port.setCountryCode(countryCode);
+        return port;
+    }
+}
@@ -0,0 +1,98 @@
+package gov.dhs.cbp.reference.api.search;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SearchQueryMetricsTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void recordsLatencyResultsAndZeroResultsPerType() {
+        SearchQueryMetrics metrics = new SearchQueryMetrics(meterRegistry, 60_000, 10);
+
+        metrics.record("postgres", "ports", "search", "hamburg", null, trace -> List.of("HAM"), List::size);
+        metrics.record("postgres", "ports", "search", "xyzzy", null, trace -> List.of(), List::size);
+
+        assertThat(meterRegistry.get("reference.search.latency").tag("type", "ports").tag("outcome", "success")
+                .timer().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("reference.search.results").tag("type", "ports").summary().totalAmount())
+                .isEqualTo(1.0);
+        assertThat(meterRegistry.get("reference.search.results.zero").tag("type", "ports").counter().count())
+                .isEqualTo(1.0);
+        assertThat(metrics.slowSearches()).isEmpty();
+    }
+
+    @Test
+    void requestedTypesOutsideTheDataTypesShareOneTag() {
+        assertThat(SearchQueryMetrics.typeTag("airports")).isEqualTo("airports");
+        assertThat(SearchQueryMetrics.typeTag("carriers")).isEqualTo("other");
+        assertThat(SearchQueryMetrics.typeTag("Ports")).isEqualTo("other");
+    }
+
+    @Test
+    void slowSearchesKeepStagesAndFailures() {
+        SearchQueryMetrics metrics = new SearchQueryMetrics(meterRegistry, 0, 10);
+
+        metrics.record("postgres", "countries", "search", "germny", 0.3f,
+                trace -> trace.time("search_countries", () -> List.of("DE")), List::size);
+        assertThatThrownBy(() -> metrics.<List<String>>record("postgres", "airports", "search", "lhr", null,
+                trace -> {
+                    throw new IllegalStateException("statement timeout");
+                }, List::size)).isInstanceOf(IllegalStateException.class);
+
+        assertThat(metrics.slowSearches()).hasSize(2);
+        SearchQueryMetrics.SlowSearch found = metrics.slowSearches().stream()
+                .filter(search -> search.type().equals("countries")).findFirst().orElseThrow();
+        assertThat(found.query()).isEqualTo("germny");
+        assertThat(found.results()).isEqualTo(1L);
+        assertThat(found.stages()).extracting(SearchTrace.Stage::name).containsExactly("search_countries");
+        SearchQueryMetrics.SlowSearch failed = metrics.slowSearches().stream()
+                .filter(search -> search.type().equals("airports")).findFirst().orElseThrow();
+        assertThat(failed.results()).isNull();
+        assertThat(failed.error()).isEqualTo("IllegalStateException");
+        assertThat(meterRegistry.get("reference.search.latency").tag("outcome", "error").timer().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void ringKeepsTheLatestAndServesSlowestFirst() {
+        SearchQueryMetrics metrics = new SearchQueryMetrics(meterRegistry, 250, 3);
+
+        for (double millis : new double[]{900, 300, 500, 400}) {
+            metrics.keep(slow(millis));
+        }
+
+        assertThat(metrics.slowSearches()).extracting(SearchQueryMetrics.SlowSearch::millis)
+                .containsExactly(500.0, 400.0, 300.0);
+        metrics.clearSlowSearches();
+        assertThat(metrics.slowSearches()).isEmpty();
+    }
+
+    @Test
+    void nestedSearchIsOneSampleWithTheInnerSource() {
+        SearchQueryMetrics metrics = new SearchQueryMetrics(meterRegistry, 0, 10);
+
+        metrics.record("in-memory", "countries", "search", "united", null,
+                outer -> metrics.record("postgres", "countries", "search", "united", null,
+                        inner -> List.of("US", "GB"), List::size),
+                List::size);
+
+        assertThat(meterRegistry.get("reference.search.latency").timers()).hasSize(1);
+        assertThat(meterRegistry.get("reference.search.latency").tag("source", "postgres").timer().count())
+                .isEqualTo(1);
+        assertThat(metrics.slowSearches().get(0).stages()).extracting(SearchTrace.Stage::name)
+                .containsExactly("postgres");
+    }
+
+    private static SearchQueryMetrics.SlowSearch slow(double millis) {
+        return new SearchQueryMetrics.SlowSearch(Instant.now(), "ports", "search", "postgres", "q", null,
+                millis, 0L, null, List.of());
+    }
+}
@@ -0,0 +1,140 @@
+package gov.dhs.cbp.reference.api.search;
+
+import gov.dhs.cbp.reference.api.dto.search.SearchResult;
+import gov.dhs.cbp.reference.api.service.DatasetVersionService;
+import gov.dhs.cbp.reference.core.change.ReferenceDataChangedEvent;
+import gov.dhs.cbp.reference.core.change.ReferenceDataset;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.BDDMockito.given;
+
+@ExtendWith(MockitoExtension.class)
+class SearchResultCacheTest {
+
+    @Mock
+    private DatasetVersionService datasetVersionService;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger loads = new AtomicInteger();
+    private SearchResultCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new SearchResultCache(datasetVersionService, meterRegistry, true, 100);
+    }
+
+    @Test
+    void repeatedQueryIsServedFromCacheIgnoringCaseAndSpacing() {
+        given(datasetVersionService.getEntityTag(anyCollection())).willReturn(Optional.of("\"countries:3\""));
+
+        Page<SearchResult> first = search("United  States");
+        Page<SearchResult> second = search(" united states ");
+
+        assertThat(loads).hasValue(1);
+        assertThat(second.getContent()).extracting(SearchResult::getCode).containsExactly("CA");
+        assertThat(second.getTotalElements()).isEqualTo(first.getTotalElements());
+        assertThat(meterRegistry.get("reference.search.cache.requests")
+                .tag("type", "countries").tag("result", "hit").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("reference.search.cache.hit.ratio")
+                .tag("type", "countries").gauge().value()).isEqualTo(0.5);
+    }
+
+    @Test
+    void versionBumpMissesTheOldPage() {
+        given(datasetVersionService.getEntityTag(anyCollection())).willReturn(Optional.of("\"countries:3\""));
+        search("canada");
+
+        given(datasetVersionService.getEntityTag(anyCollection())).willReturn(Optional.of("\"countries:4\""));
+        search("canada");
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void changeEventEvictsOnlyAffectedDatasets() {
+        given(datasetVersionService.getEntityTag(anyCollection())).willReturn(Optional.of("\"v\""));
+        search("canada");
+        cache.get("ports", "dover", List.of("ports"), 0.3f, null, PageRequest.of(0, 20), loader());
+
+        cache.onReferenceDataChanged(new ReferenceDataChangedEvent(EnumSet.of(ReferenceDataset.COUNTRIES),
+                ReferenceDataChangedEvent.Source.DATASET_VERSION));
+        search("canada");
+        cache.get("ports", "dover", List.of("ports"), 0.3f, null, PageRequest.of(0, 20), loader());
+
+        assertThat(loads).hasValue(3);
+    }
+
+    @Test
+    void nothingIsCachedBeforeVersionsAreLoaded() {
+        given(datasetVersionService.getEntityTag(anyCollection())).willReturn(Optional.empty());
+
+        search("canada");
+        search("canada");
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void pagesAndFiltersAreSeparateEntries() {
+        given(datasetVersionService.getEntityTag(anyCollection())).willReturn(Optional.of("\"v\""));
+
+        cache.get("ports", "york", List.of("ports"), 0.3f, "US", PageRequest.of(0, 20), loader());
+        cache.get("ports", "york", List.of("ports"), 0.3f, "GB", PageRequest.of(0, 20), loader());
+        cache.get("ports", "york", List.of("ports"), 0.3f, "US", PageRequest.of(1, 20), loader());
+        cache.get("universal", "york", List.of("ports", "airports"), 0.3f, null, PageRequest.of(0, 20), loader());
+
+        assertThat(loads).hasValue(4);
+        assertThat(meterRegistry.get("reference.search.cache.requests")
+                .tag("type", "mixed").tag("result", "miss").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void callersCannotChangeCachedResults() {
+        given(datasetVersionService.getEntityTag(anyCollection())).willReturn(Optional.of("\"v\""));
+
+        search("canada").getContent().get(0).setCode("XX");
+        Page<SearchResult> hit = search("canada");
+        hit.getContent().get(0).setName("changed");
+
+        assertThat(search("canada").getContent().get(0))
+                .extracting(SearchResult::getCode, SearchResult::getName).containsExactly("CA", "Canada");
+    }
+
+    @Test
+    void datasetsThatAreNotSearchTypesAreTaggedOther() {
+        given(datasetVersionService.getEntityTag(anyCollection())).willReturn(Optional.of("\"v\""));
+
+        cache.get("universal", "x", List.of("mappings"), 0.3f, null, PageRequest.of(0, 20), loader());
+
+        assertThat(meterRegistry.get("reference.search.cache.requests")
+                .tag("type", SearchResultCache.OTHER).tag("result", "miss").counter().count()).isEqualTo(1.0);
+    }
+
+    private Page<SearchResult> search(String query) {
+        return cache.get("countries", query, List.of("countries"), 0.3f, null, PageRequest.of(0, 20), loader());
+    }
+
+    private Supplier<Page<SearchResult>> loader() {
+        return () -> {
+            loads.incrementAndGet();
+            return new PageImpl<>(List.of(new SearchResult("country", null, "CA", "Canada")),
+                    PageRequest.of(0, 20), 1);
+        };
+    }
+}
@@ -0,0 +1,120 @@
+package gov.dhs.cbp.reference.api.service;
+
+import gov.dhs.cbp.reference.api.dto.search.BatchSearchRequest;
+import gov.dhs.cbp.reference.api.dto.search.BatchSearchResponse;
+import gov.dhs.cbp.reference.api.dto.search.SearchResult;
+import gov.dhs.cbp.reference.api.search.ScatterGatherSearch;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BatchSearchServiceTest {
+
+    @Mock
+    private SearchService searchService;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ScatterGatherSearch scatterGather;
+    private BatchSearchService batchSearchService;
+
+    @BeforeEach
+    void setUp() {
+        scatterGather = new ScatterGatherSearch(meterRegistry, 500, 4);
+        batchSearchService = new BatchSearchService(searchService, scatterGather, meterRegistry, 4, 5_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        scatterGather.stop();
+    }
+
+    @Test
+    void search_RunsIdenticalQueriesOnceAndAnswersEachInOrder() {
+        when(searchService.searchCountries(eq("germany"), eq(0.3f), any()))
+                .thenReturn(page(result("DE", "Germany")));
+        when(searchService.searchPorts(eq("Hamburg"), eq("DE"), eq(0.3f), any()))
+                .thenReturn(page(result("DEHAM", "Hamburg")));
+
+        BatchSearchResponse response = batchSearchService.search(new BatchSearchRequest(List.of(
+                query("1", "germany", "countries", null),
+                query("2", "Hamburg", "ports", "de"),
+                query("3", "  GERMANY ", "countries", null)), null));
+
+        assertThat(response.distinctQueries()).isEqualTo(2);
+        assertThat(response.results()).extracting(BatchSearchResponse.Result::id).containsExactly("1", "2", "3");
+        assertThat(response.results()).extracting(BatchSearchResponse.Result::status)
+                .containsExactly("ok", "ok", "ok");
+        assertThat(response.results().get(2).q()).isEqualTo("  GERMANY ");
+        assertThat(response.results().get(2).candidates()).extracting(SearchResult::getCode).containsExactly("DE");
+        verify(searchService, times(1)).searchCountries(any(), anyFloat(), any());
+        verify(searchService).searchPorts(eq("Hamburg"), eq("DE"), eq(0.3f),
+                eq(PageRequest.of(0, BatchSearchService.DEFAULT_LIMIT)));
+        assertThat(meterRegistry.get("reference.search.batch.queries").tag("kind", "duplicate").counter().count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    void search_FailedQueryDoesNotFailTheBatch() {
+        when(searchService.searchAirports(eq("lhr"), anyFloat(), any()))
+                .thenThrow(new IllegalStateException("statement timeout"));
+        when(searchService.universalSearch(eq("paris"), anyList(), anyFloat(), any()))
+                .thenReturn(page(result("FR", "France")));
+
+        BatchSearchResponse response = batchSearchService.search(new BatchSearchRequest(List.of(
+                query("1", "lhr", "airports", null),
+                query("2", "paris", null, null)), 3));
+
+        assertThat(response.results().get(0).status()).isEqualTo("failed");
+        assertThat(response.results().get(0).error()).isEqualTo(BatchSearchService.FAILED);
+        assertThat(response.results().get(0).traceId()).isNotBlank();
+        assertThat(response.results().get(1).traceId()).isNull();
+        assertThat(response.results().get(0).candidates()).isNull();
+        assertThat(response.results().get(1).status()).isEqualTo("ok");
+        verify(searchService).universalSearch(eq("paris"), eq(List.of("countries", "ports", "airports")),
+                eq(0.3f), eq(PageRequest.of(0, 3)));
+    }
+
+    @Test
+    void key_IgnoresCaseAndSpacingButNotTypeCountryOrThreshold() {
+        String key = BatchSearchService.key(query(null, "Port of  Spain", "ports", "tt"));
+
+        assertThat(BatchSearchService.key(query("x", " port of spain", "ports", "TT"))).isEqualTo(key);
+        assertThat(BatchSearchService.key(query(null, "Port of Spain", "ports", null))).isNotEqualTo(key);
+        assertThat(BatchSearchService.key(query(null, "Port of Spain", "airports", "TT"))).isNotEqualTo(key);
+        assertThat(BatchSearchService.key(new BatchSearchRequest.Query(null, "Port of Spain", "ports", 0.5f, "TT")))
+                .isNotEqualTo(key);
+        // The country only narrows port searches
+        assertThat(BatchSearchService.key(query(null, "spain", "countries", "ES")))
+                .isEqualTo(BatchSearchService.key(query(null, "spain", "countries", null)));
+    }
+
+    private static BatchSearchRequest.Query query(String id, String q, String type, String countryCode) {
+        return new BatchSearchRequest.Query(id, q, type, null, countryCode);
+    }
+
+    private static PageImpl<SearchResult> page(SearchResult... results) {
+        return new PageImpl<>(List.of(results), PageRequest.of(0, BatchSearchService.DEFAULT_LIMIT), results.length);
+    }
+
+    private static SearchResult result(String code, String name) {
+        SearchResult result = new SearchResult();
+        result.setCode(code);
+        result.setName(name);
+        return result;
+    }
+}
@@ -1,8 +1,11 @@
 package gov.dhs.cbp.reference.api.service;
 
 import gov.dhs.cbp.reference.api.dto.CountryDto;
+import gov.dhs.cbp.reference.api.dto.MultiGetResponse;
 import gov.dhs.cbp.reference.api.dto.PagedResponse;
+import gov.dhs.cbp.reference.api.exception.BusinessException;
 import gov.dhs.cbp.reference.api.mapper.CountryMapper;
+import gov.dhs.cbp.reference.api.snapshot.ReferenceSnapshotStore;
 import gov.dhs.cbp.reference.core.entity.CodeSystem;
 import gov.dhs.cbp.reference.core.entity.Country;
 import gov.dhs.cbp.reference.core.repository.CountryRepository;
@@ -23,9 +26,12 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.IntStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.verify;
@@ -40,6 +46,12 @@ class CountryServiceTest {
     @Mock
     private CountryMapper countryMapper;
 
+    @Mock
+    private ReferenceSnapshotStore snapshotStore;
+
+    @Mock
+    private DatasetVersionService datasetVersionService;
+
     @InjectMocks
     private CountryService countryService;
 
@@ -323,35 +335,6 @@ class CountryServiceTest {
         verify(countryRepository).searchByName(emptyName, pageRequest);
     }
 
-    @Test
-    void findAllCurrent_WithCountries_ReturnsCountryList() {
-        // Given
-        List<Country> countries = Arrays.asList(sampleCountry);
-        given(countryRepository.findAllCurrent()).willReturn(countries);
-        given(countryMapper.toDto(sampleCountry)).willReturn(sampleCountryDto);
-
-        // When
-        List<CountryDto> result = countryService.findAllCurrent();
-
-        // Then
-        assertThat(result).hasSize(1);
-        assertThat(result.get(0)).isEqualTo(sampleCountryDto);
-        verify(countryRepository).findAllCurrent();
-    }
-
-    @Test
-    void findAllCurrent_WithNoCountries_ReturnsEmptyList() {
-        // Given
-        given(countryRepository.findAllCurrent()).willReturn(Collections.emptyList());
-
-        // When
-        List<CountryDto> result = countryService.findAllCurrent();
-
-        // Then
-        assertThat(result).isEmpty();
-        verify(countryRepository).findAllCurrent();
-    }
-
     @Test
     void findBySystemCode_WithLargePageSize_HandlesCorrectly() {
         // Given
@@ -392,10 +375,60 @@ class CountryServiceTest {
         verify(countryRepository).findCurrentBySystemCode(systemCode, pageRequest);
     }
 
+    @Test
+    void findByCodesAndSystem_ResolvesAllCodesWithOneQuery() {
+        // Given
+        Country olderUs = new Country();
+        olderUs.setCountryCode("US");
+        olderUs.setVersion(0L);
+        given(snapshotStore.current()).willReturn(Optional.empty());
+        given(countryRepository.findCurrentByCodesAndSystemCode(anyCollection(), eq("ISO3166-1")))
+                .willReturn(List.of(olderUs, sampleCountry));
+        given(countryMapper.toDto(sampleCountry)).willReturn(sampleCountryDto);
+
+        // When
+        MultiGetResponse<CountryDto> result = countryService.findByCodesAndSystem(
+                List.of("US", " XX ", "US", ""), "ISO3166-1", null);
+
+        // Then
+        assertThat(result.getResults()).containsOnlyKeys("US");
+        assertThat(result.getResults().get("US")).isSameAs(sampleCountryDto);
+        assertThat(result.getNotFound()).containsExactly("XX");
+        verify(countryRepository).findCurrentByCodesAndSystemCode(Set.of("US", "XX"), "ISO3166-1");
+    }
+
+    @Test
+    void findByCodesAndSystem_WithAsOf_UsesAsOfQuery() {
+        // Given
+        LocalDate asOf = LocalDate.of(2024, 6, 1);
+        given(snapshotStore.current()).willReturn(Optional.empty());
+        given(countryRepository.findByCodesAndSystemAsOf(anyCollection(), eq("ISO3166-1"), eq(asOf)))
+                .willReturn(List.of(sampleCountry));
+        given(countryMapper.toDto(sampleCountry)).willReturn(sampleCountryDto);
+
+        // When
+        MultiGetResponse<CountryDto> result = countryService.findByCodesAndSystem(List.of("US"), "ISO3166-1", asOf);
+
+        // Then
+        assertThat(result.getAsOf()).isEqualTo(asOf);
+        assertThat(result.getResults()).containsKey("US");
+        assertThat(result.getNotFound()).isEmpty();
+    }
+
+    @Test
+    void findByCodesAndSystem_WithTooManyCodes_IsRejected() {
+        List<String> codes = IntStream.range(0, MultiKeyLookup.MAX_CODES + 1)
+                .mapToObj(i -> "C" + i)
+                .toList();
+
+        assertThatThrownBy(() -> countryService.findByCodesAndSystem(codes, "ISO3166-1", null))
+                .isInstanceOf(BusinessException.class);
+    }
+
     @Test
     void constructor_InitializesFieldsCorrectly() {
         // When
-        CountryService service = new CountryService(countryRepository, countryMapper);
+        CountryService service = new CountryService(countryRepository, countryMapper, snapshotStore, datasetVersionService);
 
         // Then - constructor should set fields (verification through behavior)
         assertThat(service).isNotNull();
@@ -0,0 +1,134 @@
+package gov.dhs.cbp.reference.api.service;
+
+import gov.dhs.cbp.reference.core.change.ReferenceDataChangedEvent;
+import gov.dhs.cbp.reference.core.change.ReferenceDataset;
+import gov.dhs.cbp.reference.core.entity.DatasetVersion;
+import gov.dhs.cbp.reference.core.repository.DatasetVersionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class DatasetVersionServiceTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 1, 1, 12, 0);
+
+    @Mock
+    private DatasetVersionRepository datasetVersionRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private DatasetVersionService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new DatasetVersionService(datasetVersionRepository, eventPublisher, false);
+    }
+
+    @Test
+    void poll_FirstLoadPublishesNothing() {
+        given(datasetVersionRepository.findAll()).willReturn(List.of(
+                new DatasetVersion("countries", 3L, T0)));
+
+        service.poll();
+
+        assertThat(service.getVersion(ReferenceDataset.COUNTRIES)).isEqualTo(3L);
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    void poll_PublishesDatasetsWhoseVersionMoved() {
+        given(datasetVersionRepository.findAll())
+                .willReturn(List.of(
+                        new DatasetVersion("countries", 3L, T0),
+                        new DatasetVersion("ports", 7L, T0)))
+                .willReturn(List.of(
+                        new DatasetVersion("countries", 3L, T0),
+                        new DatasetVersion("ports", 8L, T0.plusMinutes(1))));
+
+        service.poll();
+        service.poll();
+
+        ArgumentCaptor<ReferenceDataChangedEvent> captor = ArgumentCaptor.forClass(ReferenceDataChangedEvent.class);
+        verify(eventPublisher).publishEvent(captor.capture());
+        assertThat(captor.getValue().getDatasets()).containsExactly(ReferenceDataset.PORTS);
+        assertThat(captor.getValue().getSource()).isEqualTo(ReferenceDataChangedEvent.Source.DATASET_VERSION);
+    }
+
+    @Test
+    void getEntityTag_CombinesVersionsAndRequiresAllDatasets() {
+        service = new DatasetVersionService(datasetVersionRepository, eventPublisher, false,
+                Clock.fixed(T0.toInstant(ZoneOffset.UTC), ZoneOffset.UTC));
+        given(datasetVersionRepository.findAll()).willReturn(List.of(
+                new DatasetVersion("countries", 3L, T0),
+                new DatasetVersion("code-systems", 1L, T0.plusHours(1))));
+        service.refresh();
+
+        assertThat(service.getEntityTag(EnumSet.of(ReferenceDataset.COUNTRIES, ReferenceDataset.CODE_SYSTEMS)))
+                .contains("\"countries:3;code-systems:1;2025-01-01\"");
+        assertThat(service.getLastModified(EnumSet.of(ReferenceDataset.COUNTRIES, ReferenceDataset.CODE_SYSTEMS)))
+                .contains(T0.plusHours(1));
+        assertThat(service.getEntityTag(EnumSet.of(ReferenceDataset.PORTS))).isEmpty();
+    }
+
+    @Test
+    void getEntityTag_ChangesAtMidnightWithoutAVersionBump() {
+        given(datasetVersionRepository.findAll()).willReturn(List.of(new DatasetVersion("countries", 3L, T0)));
+        DatasetVersionService today = new DatasetVersionService(datasetVersionRepository, eventPublisher, false,
+                Clock.fixed(T0.toInstant(ZoneOffset.UTC), ZoneOffset.UTC));
+        DatasetVersionService tomorrow = new DatasetVersionService(datasetVersionRepository, eventPublisher, false,
+                Clock.fixed(T0.plusDays(1).withHour(0).toInstant(ZoneOffset.UTC), ZoneOffset.UTC));
+        today.refresh();
+        tomorrow.refresh();
+
+        assertThat(tomorrow.getEntityTag(EnumSet.of(ReferenceDataset.COUNTRIES)))
+                .isNotEqualTo(today.getEntityTag(EnumSet.of(ReferenceDataset.COUNTRIES)));
+        assertThat(tomorrow.getLastModified(EnumSet.of(ReferenceDataset.COUNTRIES)))
+                .contains(T0.plusDays(1).withHour(0));
+    }
+
+    @Test
+    void poll_ServesNewVersionsOnlyAfterListenersRan() {
+        given(datasetVersionRepository.findAll())
+                .willReturn(List.of(new DatasetVersion("ports", 7L, T0)))
+                .willReturn(List.of(new DatasetVersion("ports", 8L, T0.plusMinutes(1))));
+        List<Long> seenByListener = new ArrayList<>();
+        willAnswer(invocation -> seenByListener.add(service.getVersion(ReferenceDataset.PORTS)))
+                .given(eventPublisher).publishEvent(any(Object.class));
+
+        service.poll();
+        service.poll();
+
+        assertThat(seenByListener).containsExactly(7L);
+        assertThat(service.getVersion(ReferenceDataset.PORTS)).isEqualTo(8L);
+    }
+
+    @Test
+    void recordWrite_BumpsOnlyWhenConfigured() {
+        service.recordWrite(ReferenceDataset.PORTS);
+        verify(datasetVersionRepository, never()).bump(any());
+
+        DatasetVersionService bumping = new DatasetVersionService(datasetVersionRepository, eventPublisher, true);
+        bumping.recordWrite(ReferenceDataset.PORTS);
+        verify(datasetVersionRepository).bump("ports");
+    }
+}
@@ -0,0 +1,105 @@
+package gov.dhs.cbp.reference.api.service;
+
+import gov.dhs.cbp.reference.core.entity.Country;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DeltaServiceTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2025, 6, 1);
+    private static final Function<Country, String> KEY = Country::getCountryCode;
+    private static final Predicate<Country> ACTIVE = c -> !Boolean.FALSE.equals(c.getIsActive());
+
+    @Test
+    void classify_NewKeyIsCreatedAndKnownKeyIsUpdated() {
+        Country added = country("FR", 1L, null);
+        Country changed = country("US", 2L, null);
+
+        DeltaService.Classified<Country> result = DeltaService.classify(
+                List.of(added, changed), List.of(), Set.of("US"), Set.of(), KEY, ACTIVE, TODAY);
+
+        assertThat(result.created).containsExactly(added);
+        assertThat(result.updated).containsExactly(changed);
+        assertThat(result.deleted).isEmpty();
+    }
+
+    @Test
+    void classify_SupersededVersionDoesNotMaskCurrentRow() {
+        Country ended = country("US", 3L, TODAY);
+        Country current = country("US", 2L, null);
+
+        DeltaService.Classified<Country> result = DeltaService.classify(
+                List.of(ended, current), List.of(ended), Set.of("US"), Set.of("US"), KEY, ACTIVE, TODAY);
+
+        assertThat(result.updated).containsExactly(current);
+        assertThat(result.deleted).isEmpty();
+    }
+
+    @Test
+    void classify_EndDatedOrDeactivatedKeysAreDeleted() {
+        Country deactivated = country("CA", 2L, null);
+        deactivated.setIsActive(false);
+        Country expired = country("MX", 1L, TODAY.minusDays(1));
+
+        DeltaService.Classified<Country> result = DeltaService.classify(
+                List.of(deactivated), List.of(expired), Set.of("CA", "MX"), Set.of(), KEY, ACTIVE, TODAY);
+
+        assertThat(result.deleted).containsExactly(deactivated, expired);
+    }
+
+    @Test
+    void classify_RewrittenHistoricalRowOfLiveKeyIsNotDeleted() {
+        // A correction to a superseded row restamps it; the key's current row is untouched
+        Country superseded = country("MM", 4L, TODAY.minusYears(10));
+
+        DeltaService.Classified<Country> result = DeltaService.classify(
+                List.of(superseded), List.of(), Set.of("MM"), Set.of("MM"), KEY, ACTIVE, TODAY);
+
+        assertThat(result.created).isEmpty();
+        assertThat(result.updated).isEmpty();
+        assertThat(result.deleted).isEmpty();
+    }
+
+    @Test
+    void classify_SameDayInPlaceDeleteIsReported() {
+        // The loader end-dates the row today and keeps its original recorded_at;
+        // the trigger's change_version stamp is what brings it into the window
+        Country deleted = country("YU", 1L, TODAY);
+        deleted.setIsActive(false);
+
+        DeltaService.Classified<Country> result = DeltaService.classify(
+                List.of(deleted), List.of(deleted), Set.of("YU"), Set.of(), KEY, ACTIVE, TODAY);
+
+        assertThat(result.deleted).containsExactly(deleted);
+    }
+
+    @Test
+    void classify_CreatedAndDeletedInsideWindowIsOmitted() {
+        Country shortLived = country("ZZ", 1L, TODAY);
+
+        DeltaService.Classified<Country> result = DeltaService.classify(
+                List.of(shortLived), List.of(), Set.of(), Set.of(), KEY, ACTIVE, TODAY);
+
+        assertThat(result.created).isEmpty();
+        assertThat(result.deleted).isEmpty();
+    }
+
+    private Country country(String code, Long version, LocalDate validTo) {
+        Country country = new Country();
+        country.setCountryCode(code);
+        country.setVersion(version);
+        country.setValidFrom(TODAY.minusYears(1));
+        country.setValidTo(validTo);
+        country.setRecordedAt(LocalDateTime.of(2025, 5, 31, 12, 0));
+        country.setIsActive(true);
+        return country;
+    }
+}
@@ -0,0 +1,38 @@
+package gov.dhs.cbp.reference.api.service;
+
+import gov.dhs.cbp.reference.core.entity.Airport;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MultiKeyLookupTest {
+
+    @Test
+    void match_PrefersEarlierKeyThenHigherVersion() {
+        Airport byIcao = airport("XXX", "KLAX", 5L);
+        Airport byIataV1 = airport("LAX", "KLAX", 1L);
+        Airport byIataV2 = airport("LAX", "KLAX", 2L);
+
+        Map<String, Airport> matched = MultiKeyLookup.match(
+                List.of("KLAX", "LAX", "JFK"),
+                List.of(byIcao, byIataV1, byIataV2),
+                List.of(Airport::getIataCode, Airport::getIcaoCode),
+                Airport::getVersion);
+
+        assertThat(matched).containsOnlyKeys("KLAX", "LAX");
+        assertThat(matched.get("LAX")).isSameAs(byIataV2);
+        assertThat(matched.get("KLAX")).isSameAs(byIcao);
+        assertThat(matched.keySet()).containsExactly("KLAX", "LAX");
+    }
+
+    private static Airport airport(String iata, String icao, long version) {
+        Airport airport = new Airport();
+        airport.setIataCode(iata);
+        airport.setIcaoCode(icao);
+        airport.setVersion(version);
+        return airport;
+    }
+}
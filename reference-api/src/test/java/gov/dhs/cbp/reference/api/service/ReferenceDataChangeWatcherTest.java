@@ -0,0 +1,88 @@
+package gov.dhs.cbp.reference.api.service;
+
+import gov.dhs.cbp.reference.core.change.ReferenceDataChangedEvent;
+import gov.dhs.cbp.reference.core.change.ReferenceDataset;
+import gov.dhs.cbp.reference.core.entity.OutboxEvent;
+import gov.dhs.cbp.reference.core.repository.OutboxEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class ReferenceDataChangeWatcherTest {
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private ReferenceDataChangeWatcher watcher;
+
+    @BeforeEach
+    void setUp() {
+        watcher = new ReferenceDataChangeWatcher(outboxEventRepository, eventPublisher, 30);
+    }
+
+    @Test
+    void pollOutbox_PublishesAffectedDatasets() {
+        given(outboxEventRepository.findByCreatedAtAfterOrderByCreatedAtAsc(any()))
+                .willReturn(List.of(event("Country"), event("Airport"), event("Unknown")));
+
+        watcher.pollOutbox();
+
+        ArgumentCaptor<ReferenceDataChangedEvent> captor = ArgumentCaptor.forClass(ReferenceDataChangedEvent.class);
+        verify(eventPublisher).publishEvent(captor.capture());
+        assertThat(captor.getValue().getDatasets())
+                .containsExactlyInAnyOrder(ReferenceDataset.COUNTRIES, ReferenceDataset.AIRPORTS);
+        assertThat(captor.getValue().getSource()).isEqualTo(ReferenceDataChangedEvent.Source.OUTBOX);
+    }
+
+    @Test
+    void pollOutbox_SkipsEventsSeenInOverlapWindow() {
+        OutboxEvent country = event("Country");
+        given(outboxEventRepository.findByCreatedAtAfterOrderByCreatedAtAsc(any()))
+                .willReturn(List.of(country))
+                .willReturn(List.of(country));
+
+        watcher.pollOutbox();
+        watcher.pollOutbox();
+
+        verify(eventPublisher, times(1)).publishEvent(any(ReferenceDataChangedEvent.class));
+    }
+
+    @Test
+    void pollOutbox_NoEvents_PublishesNothing() {
+        given(outboxEventRepository.findByCreatedAtAfterOrderByCreatedAtAsc(any()))
+                .willReturn(Collections.emptyList());
+
+        watcher.pollOutbox();
+
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
+    private OutboxEvent event(String aggregateType) {
+        OutboxEvent event = new OutboxEvent();
+        event.setId(UUID.randomUUID());
+        event.setAggregateType(aggregateType);
+        event.setEventType("UPDATED");
+        event.setCreatedAt(LocalDateTime.now());
+        return event;
+    }
+}
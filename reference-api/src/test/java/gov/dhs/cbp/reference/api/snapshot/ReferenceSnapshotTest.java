@@ -0,0 +1,152 @@
+package gov.dhs.cbp.reference.api.snapshot;
+
+import gov.dhs.cbp.reference.api.dto.AirportCodeMatch;
+import gov.dhs.cbp.reference.api.dto.AirportCodeType;
+import gov.dhs.cbp.reference.api.dto.AirportDto;
+import gov.dhs.cbp.reference.api.dto.CountryDto;
+import gov.dhs.cbp.reference.api.dto.PagedResponse;
+import gov.dhs.cbp.reference.api.dto.PortDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReferenceSnapshotTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2025, 6, 1);
+
+    @Test
+    void findCountry_PrefersHighestVersion() {
+        CountryDto v1 = country("US", "United States", 1L);
+        CountryDto v2 = country("US", "United States of America", 2L);
+
+        ReferenceSnapshot snapshot = new ReferenceSnapshot(1, TODAY, List.of(v2, v1), List.of(), List.of());
+
+        assertThat(snapshot.findCountry("US", "ISO3166-1")).map(CountryDto::getId).contains(v2.getId());
+        assertThat(snapshot.findCountry("US", "GENC")).isEmpty();
+        assertThat(snapshot.findCountryById(v1.getId())).map(CountryDto::getId).contains(v1.getId());
+    }
+
+    @Test
+    void findCountriesBySystem_PagesInCodeOrder() {
+        List<CountryDto> countries = List.of(
+                country("FR", "France", 1L),
+                country("CA", "Canada", 1L),
+                country("US", "United States", 1L));
+
+        ReferenceSnapshot snapshot = new ReferenceSnapshot(1, TODAY, countries, List.of(), List.of());
+
+        PagedResponse<CountryDto> first = snapshot.findCountriesBySystem("ISO3166-1", PageRequest.of(0, 2));
+        PagedResponse<CountryDto> second = snapshot.findCountriesBySystem("ISO3166-1", PageRequest.of(1, 2));
+        PagedResponse<CountryDto> beyond = snapshot.findCountriesBySystem("ISO3166-1", PageRequest.of(5, 2));
+
+        assertThat(first.getContent()).extracting(CountryDto::getCountryCode).containsExactly("CA", "FR");
+        assertThat(first.getTotalElements()).isEqualTo(3);
+        assertThat(second.getContent()).extracting(CountryDto::getCountryCode).containsExactly("US");
+        assertThat(beyond.getContent()).isEmpty();
+    }
+
+    @Test
+    void portAndAirportIndexes_ResolveAlternateCodes() {
+        PortDto port = new PortDto();
+        port.setId(UUID.randomUUID());
+        port.setPortCode("2704");
+        port.setUnLocode("USLAX");
+        port.setCodeSystem("CBP-PORTS");
+        port.setCountryCode("US");
+        port.setVersion(1L);
+
+        AirportDto airport = new AirportDto();
+        airport.setId(UUID.randomUUID());
+        airport.setIataCode("LAX");
+        airport.setIcaoCode("KLAX");
+        airport.setCodeSystem("IATA");
+        airport.setCountryCode("US");
+        airport.setVersion(1L);
+
+        ReferenceSnapshot snapshot = new ReferenceSnapshot(1, TODAY, List.of(), List.of(port), List.of(airport));
+
+        assertThat(snapshot.findPortByUnLocode("USLAX", "CBP-PORTS")).map(PortDto::getId).contains(port.getId());
+        assertThat(snapshot.findPortsByCountry("US")).extracting(PortDto::getId).containsExactly(port.getId());
+        assertThat(snapshot.findAirportByIcao("KLAX", "IATA")).map(AirportDto::getId).contains(airport.getId());
+        assertThat(snapshot.findAirportsByCountry("CA")).isEmpty();
+        assertThat(snapshot.size()).isEqualTo(2);
+    }
+
+    @Test
+    void findAirportByCode_ReportsMatchedTypeAndPrefersIata() {
+        AirportDto lax = airport("LAX", "KLAX");
+        // An ICAO code that collides with another airport's IATA code
+        AirportDto collision = airport("ABCD", "LAXX");
+        AirportDto other = airport("XYZ", "ABCD");
+
+        ReferenceSnapshot snapshot = new ReferenceSnapshot(1, TODAY, List.of(), List.of(),
+                List.of(lax, collision, other));
+
+        AirportCodeMatch byIcao = snapshot.findAirportByCode("KLAX", "IATA").orElseThrow();
+        assertThat(byIcao.getAirport().getId()).isEqualTo(lax.getId());
+        assertThat(byIcao.getCodeType()).isEqualTo(AirportCodeType.ICAO);
+
+        AirportCodeMatch byIata = snapshot.findAirportByCode("LAX", "IATA").orElseThrow();
+        assertThat(byIata.getCodeType()).isEqualTo(AirportCodeType.IATA);
+
+        AirportCodeMatch ambiguous = snapshot.findAirportByCode("ABCD", "IATA").orElseThrow();
+        assertThat(ambiguous.getAirport().getId()).isEqualTo(collision.getId());
+        assertThat(ambiguous.getCodeType()).isEqualTo(AirportCodeType.IATA);
+
+        assertThat(snapshot.findAirportByCode("KLAX", "ICAO")).isEmpty();
+    }
+
+    @Test
+    void accessors_HandOutCopiesSoCallersCannotChangeTheSnapshot() {
+        CountryDto us = country("US", "United States", 1L);
+        us.setAlternateNames(List.of("USA"));
+        ReferenceSnapshot snapshot = new ReferenceSnapshot(1, TODAY, List.of(us), List.of(), List.of());
+
+        CountryDto served = snapshot.findCountry("US", "ISO3166-1").orElseThrow();
+        served.setCountryName("changed");
+        snapshot.getCountries().get(0).setCountryCode("XX");
+        snapshot.findCountriesBySystem("ISO3166-1", PageRequest.of(0, 10)).getContent().get(0).setVersion(9L);
+
+        CountryDto again = snapshot.findCountry("US", "ISO3166-1").orElseThrow();
+        assertThat(again).isNotSameAs(served);
+        assertThat(again.getCountryName()).isEqualTo("United States");
+        assertThat(again.getCountryCode()).isEqualTo("US");
+        assertThat(again.getVersion()).isEqualTo(1L);
+        assertThat(again.getAlternateNames()).containsExactly("USA");
+    }
+
+    @Test
+    void coversAsOf_OnlyForBusinessDate() {
+        ReferenceSnapshot snapshot = new ReferenceSnapshot(1, TODAY, List.of(), List.of(), List.of());
+
+        assertThat(snapshot.coversAsOf(TODAY)).isTrue();
+        assertThat(snapshot.coversAsOf(TODAY.minusDays(1))).isFalse();
+        assertThat(ReferenceSnapshot.validOn(TODAY.plusDays(1), TODAY)).isFalse();
+        assertThat(ReferenceSnapshot.validOn(null, TODAY)).isTrue();
+    }
+
+    private CountryDto country(String code, String name, Long version) {
+        CountryDto dto = new CountryDto();
+        dto.setId(UUID.randomUUID());
+        dto.setCountryCode(code);
+        dto.setCountryName(name);
+        dto.setCodeSystem("ISO3166-1");
+        dto.setVersion(version);
+        return dto;
+    }
+
+    private AirportDto airport(String iataCode, String icaoCode) {
+        AirportDto dto = new AirportDto();
+        dto.setId(UUID.randomUUID());
+        dto.setIataCode(iataCode);
+        dto.setIcaoCode(icaoCode);
+        dto.setCodeSystem("IATA");
+        dto.setVersion(1L);
+        return dto;
+    }
+}
@@ -0,0 +1,133 @@
+package gov.dhs.cbp.reference.api.statistics;
+
+import gov.dhs.cbp.reference.core.change.ReferenceDataChangedEvent;
+import gov.dhs.cbp.reference.core.change.ReferenceDataset;
+import gov.dhs.cbp.reference.core.repository.AirportRepository;
+import gov.dhs.cbp.reference.core.repository.ChangeRequestRepository;
+import gov.dhs.cbp.reference.core.repository.CodeMappingRepository;
+import gov.dhs.cbp.reference.core.repository.CountryRepository;
+import gov.dhs.cbp.reference.core.repository.PortRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class DatasetStatisticsServiceTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 1, 1, 12, 0);
+
+    @Mock
+    private CountryRepository countryRepository;
+
+    @Mock
+    private PortRepository portRepository;
+
+    @Mock
+    private AirportRepository airportRepository;
+
+    @Mock
+    private CodeMappingRepository codeMappingRepository;
+
+    @Mock
+    private ChangeRequestRepository changeRequestRepository;
+
+    private final AtomicLong clock = new AtomicLong();
+    private DatasetStatisticsService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new DatasetStatisticsService(countryRepository, portRepository, airportRepository,
+                codeMappingRepository, changeRequestRepository, 5_000, clock::get);
+    }
+
+    @Test
+    void get_FoldsPerSystemSummaryAndServesItFromMemory() {
+        given(countryRepository.summarizeByCodeSystem()).willReturn(List.of(
+                new Object[] {"ISO3166-1", 250L, 249L, T0},
+                new Object[] {"GENC", 10L, 8L, T0.plusDays(1)}));
+
+        DatasetStatistics first = service.get(ReferenceDataset.COUNTRIES);
+        DatasetStatistics second = service.get(ReferenceDataset.COUNTRIES);
+
+        assertThat(first.getTotal()).isEqualTo(260L);
+        assertThat(first.getActive()).isEqualTo(257L);
+        assertThat(first.getTotalBySystem()).containsEntry("GENC", 10L).containsEntry("ISO3166-1", 250L);
+        assertThat(first.getLastUpdated()).isEqualTo(T0.plusDays(1));
+        assertThat(second).isSameAs(first);
+        verify(countryRepository, times(1)).summarizeByCodeSystem();
+    }
+
+    @Test
+    void onReferenceDataChanged_RecomputesOnlyNamedDatasets() {
+        given(portRepository.summarizeByCodeSystem()).willReturn(List.<Object[]>of(
+                new Object[] {"UN-LOCODE", 5L, 5L, T0}));
+
+        service.onReferenceDataChanged(new ReferenceDataChangedEvent(
+                EnumSet.of(ReferenceDataset.PORTS, ReferenceDataset.CODE_SYSTEMS),
+                ReferenceDataChangedEvent.Source.DATASET_VERSION));
+
+        assertThat(service.get(ReferenceDataset.PORTS).getTotal()).isEqualTo(5L);
+        verify(portRepository, times(1)).summarizeByCodeSystem();
+        verify(countryRepository, never()).summarizeByCodeSystem();
+        verify(airportRepository, never()).summarizeByCodeSystem();
+    }
+
+    @Test
+    void onReferenceDataChanged_WaitsForTheVersionBump() {
+        service.onReferenceDataChanged(new ReferenceDataChangedEvent(
+                EnumSet.of(ReferenceDataset.PORTS), ReferenceDataChangedEvent.Source.WRITE_PATH));
+        service.onReferenceDataChanged(new ReferenceDataChangedEvent(
+                EnumSet.of(ReferenceDataset.PORTS), ReferenceDataChangedEvent.Source.OUTBOX));
+
+        verify(portRepository, never()).summarizeByCodeSystem();
+    }
+
+    @Test
+    void onChangeRequestStatusChanged_RecountsOnNextRead() {
+        given(changeRequestRepository.countByStatus())
+                .willReturn(List.<Object[]>of(new Object[] {"PENDING", 2L}, new Object[] {"APPROVED", 1L}))
+                .willReturn(List.<Object[]>of(new Object[] {"PENDING", 2L}, new Object[] {"APPROVED", 1L},
+                        new Object[] {"REJECTED", 1L}));
+        assertThat(service.getChangeRequestCount("PENDING")).isEqualTo(2L);
+        assertThat(service.getChangeRequestCount("APPROVED")).isEqualTo(1L);
+        verify(changeRequestRepository, times(1)).countByStatus();
+
+        service.onChangeRequestStatusChanged(new ChangeRequestStatusChangedEvent(null, "PENDING"));
+        service.onChangeRequestStatusChanged(new ChangeRequestStatusChangedEvent("PENDING", "REJECTED"));
+
+        assertThat(service.getChangeRequestCounts())
+                .containsEntry("PENDING", 2L)
+                .containsEntry("APPROVED", 1L)
+                .containsEntry("REJECTED", 1L);
+        verify(changeRequestRepository, times(2)).countByStatus();
+    }
+
+    @Test
+    void getChangeRequestCounts_RecountsOnceOlderThanMaxAge() {
+        // Writes from other processes (the workflow engine) raise no local event
+        given(changeRequestRepository.countByStatus())
+                .willReturn(List.<Object[]>of(new Object[] {"PENDING", 1L}))
+                .willReturn(List.<Object[]>of(new Object[] {"PENDING", 4L}));
+        assertThat(service.getChangeRequestCount("PENDING")).isEqualTo(1L);
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(4_000));
+        assertThat(service.getChangeRequestCount("PENDING")).isEqualTo(1L);
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(1_000));
+        assertThat(service.getChangeRequestCount("PENDING")).isEqualTo(4L);
+        verify(changeRequestRepository, times(2)).countByStatus();
+    }
+}
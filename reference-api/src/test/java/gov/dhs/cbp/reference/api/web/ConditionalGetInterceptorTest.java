@@ -0,0 +1,101 @@
+package gov.dhs.cbp.reference.api.web;
+
+import gov.dhs.cbp.reference.api.service.DatasetVersionService;
+import gov.dhs.cbp.reference.core.change.ReferenceDataset;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class ConditionalGetInterceptorTest {
+
+    private static final String ETAG = "\"countries:4;code-systems:1\"";
+
+    @Mock
+    private DatasetVersionService datasetVersionService;
+
+    private ConditionalGetInterceptor interceptor;
+
+    @BeforeEach
+    void setUp() {
+        interceptor = new ConditionalGetInterceptor(datasetVersionService);
+    }
+
+    @Test
+    void preHandle_AddsValidatorsOnFirstRequest() {
+        givenVersions();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/v1/countries/by-code");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        boolean proceed = interceptor.preHandle(request, response, new Object());
+
+        assertThat(proceed).isTrue();
+        assertThat(response.getHeader("ETag")).isEqualTo(ETAG);
+        assertThat(response.getHeader("Last-Modified")).isNotNull();
+    }
+
+    @Test
+    void preHandle_MatchingIfNoneMatchReturns304() {
+        givenVersions();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/v1/countries/current");
+        request.addHeader("If-None-Match", ETAG);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        boolean proceed = interceptor.preHandle(request, response, new Object());
+
+        assertThat(proceed).isFalse();
+        assertThat(response.getStatus()).isEqualTo(304);
+    }
+
+    @Test
+    void preHandle_StaleIfNoneMatchProceeds() {
+        givenVersions();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/v1/countries/current");
+        request.addHeader("If-None-Match", "\"countries:3;code-systems:1\"");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertThat(interceptor.preHandle(request, response, new Object())).isTrue();
+        assertThat(response.getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void preHandle_IgnoresWritesAndUnversionedPaths() {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertThat(interceptor.preHandle(new MockHttpServletRequest("POST", "/v1/ports"), response, new Object())).isTrue();
+        assertThat(interceptor.preHandle(new MockHttpServletRequest("GET", "/v1/change-requests"), response, new Object())).isTrue();
+        assertThat(interceptor.preHandle(new MockHttpServletRequest("GET", "/v1/countriesx"), response, new Object())).isTrue();
+        verifyNoInteractions(datasetVersionService);
+    }
+
+    @Test
+    void resolveDatasets_MapsPathPrefixes() {
+        assertThat(ConditionalGetInterceptor.resolveDatasets("/v1/airports/by-code"))
+                .contains(ReferenceDataset.AIRPORTS);
+        assertThat(ConditionalGetInterceptor.resolveDatasets("/v1/search"))
+                .contains(ReferenceDataset.COUNTRIES, ReferenceDataset.PORTS, ReferenceDataset.AIRPORTS);
+        assertThat(ConditionalGetInterceptor.resolveDatasets("/v1/search/autocomplete")).isNull();
+        assertThat(ConditionalGetInterceptor.resolveDatasets("/v1/feature-flags")).isNull();
+        assertThat(ConditionalGetInterceptor.resolveDatasets("/v1/reference-data/types")).isNull();
+        assertThat(ConditionalGetInterceptor.resolveDatasets("/v1/reference-data/stats")).isNull();
+    }
+
+    private void givenVersions() {
+        given(datasetVersionService.getEntityTag(anyCollection())).willReturn(Optional.of(ETAG));
+        lenient().when(datasetVersionService.getLastModified(anyCollection()))
+                .thenReturn(Optional.of(LocalDateTime.of(2025, 1, 1, 12, 0)));
+    }
+}
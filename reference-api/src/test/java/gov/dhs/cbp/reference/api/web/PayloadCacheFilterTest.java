@@ -0,0 +1,214 @@
+package gov.dhs.cbp.reference.api.web;
+
+import gov.dhs.cbp.reference.api.dto.search.PartialSearchPage;
+import gov.dhs.cbp.reference.api.service.DatasetVersionService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.lenient;
+
+@ExtendWith(MockitoExtension.class)
+class PayloadCacheFilterTest {
+
+    private static final String ETAG = "\"countries:4;code-systems:1\"";
+    private static final String BODY = "[" + "{\"countryCode\":\"US\",\"countryName\":\"United States\"},".repeat(100)
+            + "{\"countryCode\":\"CA\",\"countryName\":\"Canada\"}]";
+
+    @Mock
+    private DatasetVersionService datasetVersionService;
+
+    private PayloadCacheFilter filter;
+    private final AtomicInteger handlerCalls = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        filter = new PayloadCacheFilter(datasetVersionService, new SimpleMeterRegistry(), 1 << 20, 1 << 16, 256);
+        lenient().when(datasetVersionService.getEntityTag(anyCollection())).thenReturn(Optional.of(ETAG));
+    }
+
+    @Test
+    void secondRequestIsServedGzippedWithoutTheHandler() throws Exception {
+        MockHttpServletResponse first = get("/v1/countries/current", "gzip, deflate", handler(ETAG));
+        MockHttpServletResponse second = get("/v1/countries/current", "gzip, deflate", handler(ETAG));
+
+        assertThat(handlerCalls).hasValue(1);
+        assertThat(first.getHeader("Content-Encoding")).isEqualTo("gzip");
+        assertThat(second.getStatus()).isEqualTo(200);
+        assertThat(second.getHeader("Content-Encoding")).isEqualTo("gzip");
+        // The strong validator names the identity bytes
+        assertThat(second.getHeader("ETag")).isEqualTo("W/" + ETAG);
+        assertThat(second.getHeader("Vary")).isEqualTo("Accept-Encoding");
+        assertThat(second.getContentAsByteArray().length).isLessThan(BODY.length());
+        assertThat(gunzip(second.getContentAsByteArray())).isEqualTo(BODY);
+    }
+
+    @Test
+    void clientsWithoutGzipGetIdentityBytes() throws Exception {
+        get("/v1/countries/current", "gzip", handler(ETAG));
+        MockHttpServletResponse response = get("/v1/countries/current", "gzip;q=0, identity", handler(ETAG));
+
+        assertThat(handlerCalls).hasValue(1);
+        assertThat(response.getHeader("Content-Encoding")).isNull();
+        assertThat(response.getHeader("ETag")).isEqualTo(ETAG);
+        assertThat(response.getContentAsString()).isEqualTo(BODY);
+    }
+
+    @Test
+    void cachedEntryAnswersConditionalRequestWith304() throws Exception {
+        get("/v1/countries/current", "gzip", handler(ETAG));
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/v1/countries/current");
+        request.addHeader("If-None-Match", ETAG);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, handler(ETAG));
+
+        assertThat(handlerCalls).hasValue(1);
+        assertThat(response.getStatus()).isEqualTo(304);
+        assertThat(response.getContentAsByteArray()).isEmpty();
+    }
+
+    @Test
+    void versionBumpMissesTheOldEntry() throws Exception {
+        get("/v1/countries/current", "gzip", handler(ETAG));
+        given(datasetVersionService.getEntityTag(anyCollection())).willReturn(Optional.of("\"countries:5;code-systems:1\""));
+
+        get("/v1/countries/current", "gzip", handler("\"countries:5;code-systems:1\""));
+
+        assertThat(handlerCalls).hasValue(2);
+    }
+
+    @Test
+    void responsesWithTheirOwnValidatorAreNotCached() throws Exception {
+        get("/v1/reference-data/types", "gzip", handler("\"types-abc\""));
+        MockHttpServletResponse second = get("/v1/reference-data/types", "gzip", handler("\"types-abc\""));
+
+        assertThat(handlerCalls).hasValue(2);
+        assertThat(second.getHeader("Content-Encoding")).isNull();
+        assertThat(second.getContentAsString()).isEqualTo(BODY);
+    }
+
+    @Test
+    void bodyBuiltAcrossAVersionChangeIsNotStored() throws Exception {
+        String next = "\"countries:5;code-systems:1\"";
+        FilterChain bumpingHandler = (request, response) -> {
+            handler(ETAG).doFilter(request, response);
+            given(datasetVersionService.getEntityTag(anyCollection())).willReturn(Optional.of(next));
+        };
+        get("/v1/countries/current", "gzip", bumpingHandler);
+        given(datasetVersionService.getEntityTag(anyCollection())).willReturn(Optional.of(ETAG));
+
+        MockHttpServletResponse second = get("/v1/countries/current", "gzip", handler(ETAG));
+
+        // Rendered again at the current version, and stored this time
+        assertThat(handlerCalls).hasValue(2);
+        assertThat(second.getHeader("Content-Encoding")).isEqualTo("gzip");
+        assertThat(gunzip(second.getContentAsByteArray())).isEqualTo(BODY);
+    }
+
+    @Test
+    void bodiesOverTheEntryLimitPassThroughUncached() throws Exception {
+        filter = new PayloadCacheFilter(datasetVersionService, new SimpleMeterRegistry(), 1 << 20, 1024, 256);
+
+        get("/v1/countries/current", "gzip", handler(ETAG));
+        MockHttpServletResponse second = get("/v1/countries/current", "gzip", handler(ETAG));
+
+        assertThat(handlerCalls).hasValue(2);
+        assertThat(second.getHeader("Content-Encoding")).isNull();
+        assertThat(second.getContentAsString()).isEqualTo(BODY);
+    }
+
+    @Test
+    void partialSearchPagesAreNotStored() throws Exception {
+        FilterChain partial = (request, response) -> {
+            ((HttpServletResponse) response).setHeader(PartialSearchPage.HEADER, "airports");
+            handler(ETAG).doFilter(request, response);
+        };
+
+        get("/v1/search", "gzip", partial);
+        MockHttpServletResponse second = get("/v1/search", "gzip", handler(ETAG));
+
+        // The complete page was rendered again, and stored this time
+        assertThat(handlerCalls).hasValue(2);
+        assertThat(second.getHeader("Content-Encoding")).isEqualTo("gzip");
+        assertThat(gunzip(second.getContentAsByteArray())).isEqualTo(BODY);
+    }
+
+    @Test
+    void asyncResponsesPassThroughUncached() throws Exception {
+        FilterChain streaming = (request, response) -> {
+            request.startAsync();
+            handler(ETAG).doFilter(request, response);
+        };
+
+        for (int i = 0; i < 2; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/v1/countries/current");
+            request.setAsyncSupported(true);
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            filter.doFilter(request, response, streaming);
+            assertThat(response.getContentAsString()).isEqualTo(BODY);
+        }
+        assertThat(handlerCalls).hasValue(2);
+    }
+
+    @Test
+    void cacheKeyIgnoresParameterOrder() {
+        MockHttpServletRequest first = new MockHttpServletRequest("GET", "/v1/ports/nearby");
+        first.addParameter("lat", "40.7");
+        first.addParameter("lon", "-74.0");
+        MockHttpServletRequest second = new MockHttpServletRequest("GET", "/v1/ports/nearby");
+        second.addParameter("lon", "-74.0");
+        second.addParameter("lat", "40.7");
+
+        assertThat(PayloadCacheFilter.cacheKey(first, ETAG)).isEqualTo(PayloadCacheFilter.cacheKey(second, ETAG));
+    }
+
+    @Test
+    void acceptsGzip_HonoursQualityAndWildcard() {
+        assertThat(PayloadCacheFilter.acceptsGzip("gzip, deflate, br")).isTrue();
+        assertThat(PayloadCacheFilter.acceptsGzip("*;q=0.5")).isTrue();
+        assertThat(PayloadCacheFilter.acceptsGzip("gzip;q=0")).isFalse();
+        assertThat(PayloadCacheFilter.acceptsGzip("br")).isFalse();
+        assertThat(PayloadCacheFilter.acceptsGzip(null)).isFalse();
+    }
+
+    private MockHttpServletResponse get(String path, String acceptEncoding, FilterChain chain) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.addHeader("Accept-Encoding", acceptEncoding);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    private FilterChain handler(String etag) {
+        return (request, response) -> {
+            handlerCalls.incrementAndGet();
+            ((HttpServletResponse) response).setHeader("ETag", etag);
+            response.setContentType("application/json");
+            response.getOutputStream().write(BODY.getBytes(StandardCharsets.UTF_8));
+        };
+    }
+
+    private static String gunzip(byte[] bytes) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
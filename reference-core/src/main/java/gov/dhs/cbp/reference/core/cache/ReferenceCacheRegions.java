@@ -0,0 +1,24 @@
+package gov.dhs.cbp.reference.core.cache;
+
+/**
+ * Hibernate second-level cache region names for reference entities and their lookup queries.
+ *
+ * <p>Cached lookup queries take the current date as a bound parameter rather
+ * than using {@code CURRENT_DATE}: the query cache keys on parameters, so a
+ * result cached before midnight is not served for the next day.</p>
+ */
+public final class ReferenceCacheRegions {
+
+    public static final String COUNTRIES = "reference.countries";
+    public static final String PORTS = "reference.ports";
+    public static final String AIRPORTS = "reference.airports";
+    public static final String CODE_SYSTEMS = "reference.code-systems";
+
+    public static final String COUNTRY_QUERIES = "reference.query.countries";
+    public static final String PORT_QUERIES = "reference.query.ports";
+    public static final String AIRPORT_QUERIES = "reference.query.airports";
+    public static final String CODE_SYSTEM_QUERIES = "reference.query.code-systems";
+
+    private ReferenceCacheRegions() {
+    }
+}
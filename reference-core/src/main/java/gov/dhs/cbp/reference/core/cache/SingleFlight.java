@@ -0,0 +1,98 @@
+package gov.dhs.cbp.reference.core.cache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent identical lookups: the first caller for a key runs the
+ * loader on its own thread (and inside its own transaction), later callers for
+ * the same key wait for that result instead of issuing the same query. Nothing
+ * is retained once the load finishes; this is not a cache, only a guard
+ * against miss storms.
+ *
+ * <p>A failed load is rethrown to every waiting caller. Results are shared
+ * between callers, so loaders must return values that are not mutated
+ * afterwards.</p>
+ *
+ * @param <K> lookup key, compared with {@code equals}
+ * @param <V> lookup result
+ */
+public class SingleFlight<K, V> {
+
+    private final String name;
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder coalescedWaitNanos = new LongAdder();
+
+    public SingleFlight(String name) {
+        this.name = name;
+    }
+
+    public V execute(K key, Supplier<V> loader) {
+        CompletableFuture<V> call = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, call);
+        if (existing != null) {
+            return await(existing);
+        }
+
+        loads.increment();
+        try {
+            V value = loader.get();
+            call.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, call);
+        }
+    }
+
+    private V await(CompletableFuture<V> call) {
+        coalesced.increment();
+        long started = System.nanoTime();
+        try {
+            return call.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        } finally {
+            coalescedWaitNanos.add(System.nanoTime() - started);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /** Loads actually executed. */
+    public long getLoadCount() {
+        return loads.sum();
+    }
+
+    /** Callers that joined another caller's load instead of running their own. */
+    public long getCoalescedCount() {
+        return coalesced.sum();
+    }
+
+    /** Total time coalesced callers spent waiting, in nanoseconds. */
+    public long getCoalescedWaitNanos() {
+        return coalescedWaitNanos.sum();
+    }
+
+    /** Keys with a load currently running. */
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+}
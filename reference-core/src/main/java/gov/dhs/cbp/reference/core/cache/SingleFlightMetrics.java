@@ -0,0 +1,49 @@
+package gov.dhs.cbp.reference.core.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes the counters of a set of {@link SingleFlight}s, tagged by flight
+ * name. {@code reference.lookup.coalesced} against
+ * {@code reference.lookup.loads} shows how many queries a miss storm saved;
+ * the wait timer shows what the coalesced callers paid for it. Keys are not
+ * used as tags to keep meter cardinality bounded.
+ */
+public class SingleFlightMetrics implements MeterBinder {
+
+    private final List<SingleFlight<?, ?>> flights;
+
+    public SingleFlightMetrics(List<? extends SingleFlight<?, ?>> flights) {
+        this.flights = List.copyOf(flights);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (SingleFlight<?, ?> flight : flights) {
+            FunctionCounter.builder("reference.lookup.loads", flight, SingleFlight::getLoadCount)
+                    .description("Lookups that ran a database load")
+                    .tag("lookup", flight.getName())
+                    .register(registry);
+            FunctionCounter.builder("reference.lookup.coalesced", flight, SingleFlight::getCoalescedCount)
+                    .description("Lookups that joined an identical in-flight load")
+                    .tag("lookup", flight.getName())
+                    .register(registry);
+            FunctionTimer.builder("reference.lookup.coalesced.wait", flight,
+                            SingleFlight::getCoalescedCount, SingleFlight::getCoalescedWaitNanos, TimeUnit.NANOSECONDS)
+                    .description("Time coalesced lookups waited for the shared load")
+                    .tag("lookup", flight.getName())
+                    .register(registry);
+            Gauge.builder("reference.lookup.in.flight", flight, SingleFlight::getInFlightCount)
+                    .description("Distinct lookup keys currently loading")
+                    .tag("lookup", flight.getName())
+                    .register(registry);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package gov.dhs.cbp.reference.core.cache;
+
+import java.util.function.Supplier;
+
+/**
+ * Holds one value derived from a dataset, such as an index built from all of
+ * its rows, and rebuilds it when the caller's key changes. Keys should name
+ * everything the value depends on, typically the dataset version and the
+ * business date. Concurrent rebuilds for the same key share one load through
+ * a {@link SingleFlight}.
+ *
+ * <p>Only the latest value is retained. The value is handed to every caller,
+ * so it must not be mutated once built.</p>
+ *
+ * @param <K> key the value was built for, compared with {@code equals}
+ * @param <V> derived value
+ */
+public class VersionedValue<K, V> {
+
+    private final SingleFlight<K, V> builds;
+    private volatile Entry<K, V> current;
+
+    public VersionedValue(String name) {
+        this.builds = new SingleFlight<>(name);
+    }
+
+    public V get(K key, Supplier<V> loader) {
+        Entry<K, V> entry = current;
+        if (entry != null && entry.key().equals(key)) {
+            return entry.value();
+        }
+        V value = builds.execute(key, loader);
+        current = new Entry<>(key, value);
+        return value;
+    }
+
+    /**
+     * Coalescing counters of the rebuilds, for {@link SingleFlightMetrics}.
+     */
+    public SingleFlight<K, V> getBuildFlight() {
+        return builds;
+    }
+
+    private record Entry<K, V>(K key, V value) {
+    }
+}
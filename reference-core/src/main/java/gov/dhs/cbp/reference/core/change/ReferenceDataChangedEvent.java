@@ -0,0 +1,55 @@
+package gov.dhs.cbp.reference.core.change;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Application event signalling that one or more reference datasets changed.
+ * Listeners use it to drop caches and rebuild derived read models.
+ */
+public class ReferenceDataChangedEvent {
+
+    public enum Source {
+        /** A write made through this process's own persistence context. */
+        WRITE_PATH,
+        /** A committed outbox event, possibly written by another process. */
+        OUTBOX,
+        /** A bump of the dataset's row in {@code dataset_version}. */
+        DATASET_VERSION
+    }
+
+    private final Set<ReferenceDataset> datasets;
+    private final Source source;
+    private final LocalDateTime occurredAt;
+
+    public ReferenceDataChangedEvent(Set<ReferenceDataset> datasets, Source source) {
+        this.datasets = datasets.isEmpty()
+                ? Collections.emptySet()
+                : Collections.unmodifiableSet(EnumSet.copyOf(datasets));
+        this.source = source;
+        this.occurredAt = LocalDateTime.now();
+    }
+
+    public Set<ReferenceDataset> getDatasets() {
+        return datasets;
+    }
+
+    public Source getSource() {
+        return source;
+    }
+
+    public LocalDateTime getOccurredAt() {
+        return occurredAt;
+    }
+
+    public boolean affects(ReferenceDataset dataset) {
+        return datasets.contains(dataset);
+    }
+
+    @Override
+    public String toString() {
+        return "ReferenceDataChangedEvent{datasets=" + datasets + ", source=" + source + "}";
+    }
+}
@@ -0,0 +1,70 @@
+package gov.dhs.cbp.reference.core.change;
+
+import gov.dhs.cbp.reference.core.entity.Airport;
+import gov.dhs.cbp.reference.core.entity.CodeMapping;
+import gov.dhs.cbp.reference.core.entity.CodeSystem;
+import gov.dhs.cbp.reference.core.entity.Country;
+import gov.dhs.cbp.reference.core.entity.Port;
+
+import java.util.Optional;
+
+/**
+ * Reference datasets that are versioned, cached and published independently.
+ */
+public enum ReferenceDataset {
+
+    COUNTRIES("countries", "Country", Country.class),
+    PORTS("ports", "Port", Port.class),
+    AIRPORTS("airports", "Airport", Airport.class),
+    MAPPINGS("mappings", "CodeMapping", CodeMapping.class),
+    CODE_SYSTEMS("code-systems", "CodeSystem", CodeSystem.class);
+
+    private final String id;
+    private final String aggregateType;
+    private final Class<?> entityClass;
+
+    ReferenceDataset(String id, String aggregateType, Class<?> entityClass) {
+        this.id = id;
+        this.aggregateType = aggregateType;
+        this.entityClass = entityClass;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getAggregateType() {
+        return aggregateType;
+    }
+
+    public Class<?> getEntityClass() {
+        return entityClass;
+    }
+
+    public static Optional<ReferenceDataset> fromId(String id) {
+        for (ReferenceDataset dataset : values()) {
+            if (dataset.id.equalsIgnoreCase(id)) {
+                return Optional.of(dataset);
+            }
+        }
+        return Optional.empty();
+    }
+
+    public static Optional<ReferenceDataset> fromAggregateType(String aggregateType) {
+        for (ReferenceDataset dataset : values()) {
+            if (dataset.aggregateType.equalsIgnoreCase(aggregateType)) {
+                return Optional.of(dataset);
+            }
+        }
+        return Optional.empty();
+    }
+
+    public static Optional<ReferenceDataset> fromEntityClass(Class<?> entityClass) {
+        for (ReferenceDataset dataset : values()) {
+            if (dataset.entityClass.isAssignableFrom(entityClass)) {
+                return Optional.of(dataset);
+            }
+        }
+        return Optional.empty();
+    }
+}
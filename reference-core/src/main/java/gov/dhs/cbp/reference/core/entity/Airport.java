@@ -1,11 +1,16 @@
 package gov.dhs.cbp.reference.core.entity;
 
+import gov.dhs.cbp.reference.core.cache.ReferenceCacheRegions;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.math.BigDecimal;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = ReferenceCacheRegions.AIRPORTS)
 @Table(name = "airports_v", schema = "reference_data",
        indexes = {
            @Index(name = "idx_airport_iata_code_system", columnList = "iata_code,code_system_id,valid_from"),
@@ -1,8 +1,11 @@
 package gov.dhs.cbp.reference.core.entity;
 
+import gov.dhs.cbp.reference.core.cache.ReferenceCacheRegions;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -10,6 +13,8 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = ReferenceCacheRegions.CODE_SYSTEMS)
 @Table(name = "code_system", schema = "reference_data",
        uniqueConstraints = @UniqueConstraint(columnNames = "code"))
 public class CodeSystem {
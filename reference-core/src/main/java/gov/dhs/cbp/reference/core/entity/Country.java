@@ -1,10 +1,15 @@
 package gov.dhs.cbp.reference.core.entity;
 
+import gov.dhs.cbp.reference.core.cache.ReferenceCacheRegions;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = ReferenceCacheRegions.COUNTRIES)
 @Table(name = "countries_v", schema = "reference_data",
        indexes = {
            @Index(name = "idx_country_code_system", columnList = "country_code,code_system_id,valid_from"),
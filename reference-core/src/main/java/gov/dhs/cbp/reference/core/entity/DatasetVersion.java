@@ -0,0 +1,59 @@
+package gov.dhs.cbp.reference.core.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Monotonically increasing change counter for one reference dataset. Rows are
+ * bumped by database triggers on the bitemporal tables, so every writer
+ * (API, loaders, workflow, manual SQL) advances the version in the same
+ * transaction as the data change.
+ */
+@Entity
+@Table(name = "dataset_version", schema = "reference_data")
+public class DatasetVersion {
+    
+    @Id
+    @Column(name = "dataset", nullable = false, length = 50)
+    private String dataset;
+    
+    @Column(name = "version", nullable = false)
+    private Long version;
+    
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+    
+    public DatasetVersion() {
+    }
+    
+    public DatasetVersion(String dataset, Long version, LocalDateTime updatedAt) {
+        this.dataset = dataset;
+        this.version = version;
+        this.updatedAt = updatedAt;
+    }
+    
+    public String getDataset() {
+        return dataset;
+    }
+    
+    public void setDataset(String dataset) {
+        this.dataset = dataset;
+    }
+    
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+    
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+    
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,79 @@
+package gov.dhs.cbp.reference.core.entity;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * One row per {@link DatasetVersion} bump, recording when each version was
+ * reached. Delta sync uses it to translate a client's last seen version into
+ * a {@code recorded_at} watermark.
+ */
+@Entity
+@IdClass(DatasetVersionHistory.Key.class)
+@Table(name = "dataset_version_history", schema = "reference_data")
+public class DatasetVersionHistory {
+    
+    @Id
+    @Column(name = "dataset", nullable = false, length = 50)
+    private String dataset;
+    
+    @Id
+    @Column(name = "version", nullable = false)
+    private Long version;
+    
+    @Column(name = "changed_at", nullable = false)
+    private LocalDateTime changedAt;
+    
+    public String getDataset() {
+        return dataset;
+    }
+    
+    public void setDataset(String dataset) {
+        this.dataset = dataset;
+    }
+    
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+    
+    public LocalDateTime getChangedAt() {
+        return changedAt;
+    }
+    
+    public void setChangedAt(LocalDateTime changedAt) {
+        this.changedAt = changedAt;
+    }
+    
+    public static class Key implements Serializable {
+        
+        private String dataset;
+        private Long version;
+        
+        public Key() {
+        }
+        
+        public Key(String dataset, Long version) {
+            this.dataset = dataset;
+            this.version = version;
+        }
+        
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key key)) return false;
+            return Objects.equals(dataset, key.dataset) && Objects.equals(version, key.version);
+        }
+        
+        @Override
+        public int hashCode() {
+            return Objects.hash(dataset, version);
+        }
+    }
+}
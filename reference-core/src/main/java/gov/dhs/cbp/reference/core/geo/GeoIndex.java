@@ -0,0 +1,219 @@
+package gov.dhs.cbp.reference.core.geo;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Immutable KD-tree over points on the earth's surface, answering k-nearest
+ * and radius queries in great-circle distance.
+ *
+ * <p>Points are stored as unit vectors in three dimensions rather than as
+ * latitude/longitude, so the tree has no seam at the antimeridian and no
+ * distortion near the poles. Straight-line (chord) distance between unit
+ * vectors increases monotonically with great-circle distance, so the tree
+ * prunes on chords and only converts the results back to kilometres.</p>
+ *
+ * <p>The tree is laid out implicitly in arrays: the median of each range is
+ * its root, the left half precedes it and the right half follows it. Items
+ * without coordinates are left out.</p>
+ *
+ * @param <T> indexed item
+ */
+public final class GeoIndex<T> {
+
+    /** Mean earth radius (IUGG), in kilometres. */
+    public static final double EARTH_RADIUS_KM = 6371.0088;
+
+    private final List<T> items;
+    private final double[] x;
+    private final double[] y;
+    private final double[] z;
+
+    private GeoIndex(List<T> items, double[] x, double[] y, double[] z) {
+        this.items = items;
+        this.x = x;
+        this.y = y;
+        this.z = z;
+    }
+
+    public static <T> GeoIndex<T> build(Collection<T> source, Function<T, BigDecimal> latitude,
+                                        Function<T, BigDecimal> longitude) {
+        List<T> located = new ArrayList<>(source.size());
+        List<double[]> points = new ArrayList<>(source.size());
+        for (T item : source) {
+            BigDecimal lat = latitude.apply(item);
+            BigDecimal lon = longitude.apply(item);
+            if (lat == null || lon == null) {
+                continue;
+            }
+            located.add(item);
+            points.add(toVector(lat.doubleValue(), lon.doubleValue()));
+        }
+
+        Integer[] order = new Integer[located.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        arrange(order, points, 0, order.length, 0);
+
+        List<T> items = new ArrayList<>(order.length);
+        double[] x = new double[order.length];
+        double[] y = new double[order.length];
+        double[] z = new double[order.length];
+        for (int i = 0; i < order.length; i++) {
+            double[] point = points.get(order[i]);
+            items.add(located.get(order[i]));
+            x[i] = point[0];
+            y[i] = point[1];
+            z[i] = point[2];
+        }
+        return new GeoIndex<>(List.copyOf(items), x, y, z);
+    }
+
+    public int size() {
+        return items.size();
+    }
+
+    /**
+     * Returns up to {@code k} items accepted by {@code filter}, nearest first,
+     * no further than {@code maxDistanceKm} from the given coordinate. Pass
+     * {@link Double#POSITIVE_INFINITY} for a pure k-nearest query.
+     */
+    public List<Neighbor<T>> nearest(double latitude, double longitude, int k, double maxDistanceKm,
+                                     Predicate<? super T> filter) {
+        if (k <= 0 || items.isEmpty()) {
+            return List.of();
+        }
+        double[] target = toVector(latitude, longitude);
+        Search search = new Search(target, k, chordSquared(maxDistanceKm), filter);
+        search.visit(0, items.size(), 0);
+
+        Candidate[] found = search.best.toArray(new Candidate[0]);
+        Arrays.sort(found, Comparator.comparingDouble(Candidate::chordSquared));
+        List<Neighbor<T>> result = new ArrayList<>(found.length);
+        for (Candidate candidate : found) {
+            result.add(new Neighbor<>(items.get(candidate.index()), toKilometres(candidate.chordSquared())));
+        }
+        return result;
+    }
+
+    /**
+     * Great-circle (haversine) distance between two coordinates, in kilometres.
+     */
+    public static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    private final class Search {
+
+        private final double[] target;
+        private final int k;
+        private final double limitSquared;
+        private final Predicate<? super T> filter;
+        // Max-heap on distance, so the current worst candidate is at the head
+        private final PriorityQueue<Candidate> best;
+
+        Search(double[] target, int k, double limitSquared, Predicate<? super T> filter) {
+            this.target = target;
+            this.k = k;
+            this.limitSquared = limitSquared;
+            this.filter = filter;
+            this.best = new PriorityQueue<>(Math.min(k, items.size()) + 1,
+                    Comparator.comparingDouble(Candidate::chordSquared).reversed());
+        }
+
+        void visit(int lo, int hi, int depth) {
+            if (lo >= hi) {
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            double dx = x[mid] - target[0];
+            double dy = y[mid] - target[1];
+            double dz = z[mid] - target[2];
+            double squared = dx * dx + dy * dy + dz * dz;
+            if (squared <= bound() && (filter == null || filter.test(items.get(mid)))) {
+                best.add(new Candidate(mid, squared));
+                if (best.size() > k) {
+                    best.poll();
+                }
+            }
+
+            double split = switch (depth % 3) {
+                case 0 -> dx;
+                case 1 -> dy;
+                default -> dz;
+            };
+            // split > 0 means the target lies on the low side of this node
+            boolean lowFirst = split > 0;
+            if (lowFirst) {
+                visit(lo, mid, depth + 1);
+            } else {
+                visit(mid + 1, hi, depth + 1);
+            }
+            if (split * split <= bound()) {
+                if (lowFirst) {
+                    visit(mid + 1, hi, depth + 1);
+                } else {
+                    visit(lo, mid, depth + 1);
+                }
+            }
+        }
+
+        private double bound() {
+            return best.size() < k ? limitSquared : Math.min(limitSquared, best.peek().chordSquared());
+        }
+    }
+
+    private record Candidate(int index, double chordSquared) {
+    }
+
+    /**
+     * An item found by a spatial query and its great-circle distance from the
+     * query coordinate.
+     */
+    public record Neighbor<T>(T item, double distanceKm) {
+    }
+
+    private static void arrange(Integer[] order, List<double[]> points, int lo, int hi, int depth) {
+        if (hi - lo <= 1) {
+            return;
+        }
+        int axis = depth % 3;
+        Arrays.sort(order, lo, hi, Comparator.comparingDouble(i -> points.get(i)[axis]));
+        int mid = (lo + hi) >>> 1;
+        arrange(order, points, lo, mid, depth + 1);
+        arrange(order, points, mid + 1, hi, depth + 1);
+    }
+
+    private static double[] toVector(double latitude, double longitude) {
+        double lat = Math.toRadians(latitude);
+        double lon = Math.toRadians(longitude);
+        double cosLat = Math.cos(lat);
+        return new double[] {cosLat * Math.cos(lon), cosLat * Math.sin(lon), Math.sin(lat)};
+    }
+
+    private static double chordSquared(double distanceKm) {
+        if (Double.isInfinite(distanceKm) || distanceKm >= Math.PI * EARTH_RADIUS_KM) {
+            return 4.0;
+        }
+        double chord = 2 * Math.sin(distanceKm / (2 * EARTH_RADIUS_KM));
+        return chord * chord;
+    }
+
+    private static double toKilometres(double chordSquared) {
+        double halfChord = Math.min(1.0, Math.sqrt(chordSquared) / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(halfChord);
+    }
+}
@@ -1,17 +1,23 @@
 package gov.dhs.cbp.reference.core.repository;
 
+import gov.dhs.cbp.reference.core.cache.ReferenceCacheRegions;
 import gov.dhs.cbp.reference.core.entity.Airport;
 import gov.dhs.cbp.reference.core.entity.CodeSystem;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface AirportRepository extends BitemporalRepository<Airport> {
@@ -22,17 +28,79 @@ public interface AirportRepository extends BitemporalRepository<Airport> {
     Optional<Airport> findCurrentByIataCodeAndSystem(@Param("iataCode") String iataCode, 
                                                      @Param("systemId") UUID systemId);
     
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = ReferenceCacheRegions.AIRPORT_QUERIES)
+    })
     @Query("SELECT a FROM Airport a WHERE a.iataCode = :iataCode AND a.codeSystem.code = :systemCode " +
-           "AND (a.validTo IS NULL OR a.validTo > CURRENT_DATE) " +
+           "AND (a.validTo IS NULL OR a.validTo > :today) " +
            "ORDER BY a.version DESC")
-    Optional<Airport> findCurrentByIataCodeAndSystemCode(@Param("iataCode") String iataCode, 
-                                                         @Param("systemCode") String systemCode);
-    
+    Optional<Airport> findCurrentByIataCodeAndSystemCodeOn(@Param("iataCode") String iataCode,
+                                                           @Param("systemCode") String systemCode,
+                                                           @Param("today") LocalDate today);
+    
+    default Optional<Airport> findCurrentByIataCodeAndSystemCode(String iataCode, String systemCode) {
+        return findCurrentByIataCodeAndSystemCodeOn(iataCode, systemCode, LocalDate.now());
+    }
+    
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = ReferenceCacheRegions.AIRPORT_QUERIES)
+    })
     @Query("SELECT a FROM Airport a WHERE a.icaoCode = :icaoCode AND a.codeSystem.code = :systemCode " +
-           "AND (a.validTo IS NULL OR a.validTo > CURRENT_DATE) " +
+           "AND (a.validTo IS NULL OR a.validTo > :today) " +
            "ORDER BY a.version DESC")
-    Optional<Airport> findCurrentByIcaoCodeAndSystemCode(@Param("icaoCode") String icaoCode, 
-                                                         @Param("systemCode") String systemCode);
+    Optional<Airport> findCurrentByIcaoCodeAndSystemCodeOn(@Param("icaoCode") String icaoCode,
+                                                           @Param("systemCode") String systemCode,
+                                                           @Param("today") LocalDate today);
+    
+    default Optional<Airport> findCurrentByIcaoCodeAndSystemCode(String icaoCode, String systemCode) {
+        return findCurrentByIcaoCodeAndSystemCodeOn(icaoCode, systemCode, LocalDate.now());
+    }
+    
+    /**
+     * Matches {@code code} against both the IATA and ICAO columns in one probe.
+     * IATA matches sort first, then the highest version, so the head of the
+     * list is the row the code resolves to.
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = ReferenceCacheRegions.AIRPORT_QUERIES)
+    })
+    @Query("SELECT a FROM Airport a JOIN FETCH a.codeSystem cs WHERE cs.code = :systemCode " +
+           "AND (a.iataCode = :code OR a.icaoCode = :code) " +
+           "AND (a.validTo IS NULL OR a.validTo > :today) " +
+           "ORDER BY CASE WHEN a.iataCode = :code THEN 0 ELSE 1 END, a.version DESC")
+    List<Airport> findCurrentByAnyCodeAndSystemCodeOn(@Param("code") String code,
+                                                      @Param("systemCode") String systemCode,
+                                                      @Param("today") LocalDate today);
+    
+    default List<Airport> findCurrentByAnyCodeAndSystemCode(String code, String systemCode) {
+        return findCurrentByAnyCodeAndSystemCodeOn(code, systemCode, LocalDate.now());
+    }
+    
+    @Query("SELECT a FROM Airport a JOIN FETCH a.codeSystem cs WHERE cs.code = :systemCode " +
+           "AND (a.iataCode = :code OR a.icaoCode = :code) " +
+           "AND a.validFrom <= :asOfDate " +
+           "AND (a.validTo IS NULL OR a.validTo > :asOfDate) " +
+           "ORDER BY CASE WHEN a.iataCode = :code THEN 0 ELSE 1 END, a.version DESC")
+    List<Airport> findByAnyCodeAndSystemAsOf(@Param("code") String code,
+                                             @Param("systemCode") String systemCode,
+                                             @Param("asOfDate") LocalDate asOfDate);
+    
+    @Query("SELECT a FROM Airport a JOIN FETCH a.codeSystem cs WHERE cs.code = :systemCode " +
+           "AND (a.iataCode IN :codes OR a.icaoCode IN :codes) " +
+           "AND (a.validTo IS NULL OR a.validTo > CURRENT_DATE)")
+    List<Airport> findCurrentByCodesAndSystemCode(@Param("codes") Collection<String> codes,
+                                                  @Param("systemCode") String systemCode);
+    
+    @Query("SELECT a FROM Airport a JOIN FETCH a.codeSystem cs WHERE cs.code = :systemCode " +
+           "AND (a.iataCode IN :codes OR a.icaoCode IN :codes) " +
+           "AND a.validFrom <= :asOfDate " +
+           "AND (a.validTo IS NULL OR a.validTo > :asOfDate)")
+    List<Airport> findByCodesAndSystemAsOf(@Param("codes") Collection<String> codes,
+                                           @Param("systemCode") String systemCode,
+                                           @Param("asOfDate") LocalDate asOfDate);
     
     @Query("SELECT a FROM Airport a WHERE a.codeSystem.code = :systemCode " +
            "AND (a.validTo IS NULL OR a.validTo > CURRENT_DATE) " +
@@ -88,6 +156,16 @@ public interface AirportRepository extends BitemporalRepository<Airport> {
            "AND (a.validTo IS NULL OR a.validTo > CURRENT_DATE)")
     long countByIsActiveTrue();
     
+    /**
+     * One row per code system: code, total rows, active rows (as counted by
+     * {@link #countByIsActiveTrue}) and the latest {@code recordedAt}.
+     */
+    @Query("SELECT cs.code, COUNT(a), " +
+           "SUM(CASE WHEN a.isActive = true AND (a.validTo IS NULL OR a.validTo > CURRENT_DATE) THEN 1 ELSE 0 END), " +
+           "MAX(a.recordedAt) " +
+           "FROM Airport a JOIN a.codeSystem cs GROUP BY cs.code")
+    List<Object[]> summarizeByCodeSystem();
+    
     @Query("SELECT a FROM Airport a ORDER BY a.recordedAt DESC LIMIT 1")
     Optional<Airport> findTopByOrderByRecordedAtDesc();
     
@@ -103,6 +181,15 @@ public interface AirportRepository extends BitemporalRepository<Airport> {
            "AND (a.validTo IS NULL OR a.validTo > CURRENT_DATE)")
     List<Airport> findAllActive();
     
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT a FROM Airport a JOIN FETCH a.codeSystem WHERE a.isActive = true " +
+           "AND (a.validTo IS NULL OR a.validTo > CURRENT_DATE) " +
+           "ORDER BY a.iataCode")
+    Stream<Airport> streamAllActive();
+    
     @Query("SELECT a FROM Airport a WHERE a.codeSystem = :codeSystem " +
            "AND (a.validTo IS NULL OR a.validTo > CURRENT_DATE)")
     Page<Airport> findByCodeSystem(@Param("codeSystem") CodeSystem codeSystem, Pageable pageable);
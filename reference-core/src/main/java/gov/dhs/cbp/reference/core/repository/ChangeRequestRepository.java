@@ -60,6 +60,9 @@ public interface ChangeRequestRepository extends JpaRepository<ChangeRequest, UU
            "AND cr.status = 'PENDING'")
     long countPendingByRequestor(@Param("requestor") String requestor);
     
+    @Query("SELECT cr.status, COUNT(cr) FROM ChangeRequest cr GROUP BY cr.status")
+    List<Object[]> countByStatus();
+    
     @Query("SELECT cr FROM ChangeRequest cr WHERE cr.status IN ('PENDING', 'APPROVED') " +
            "AND cr.dataType = :entityType")
     List<ChangeRequest> findActiveChangeRequestsForEntity(@Param("entityType") String entityType);
@@ -54,4 +54,14 @@ public interface CodeMappingRepository extends BitemporalRepository<CodeMapping>
     @Query("SELECT DISTINCT m.fromSystem.code FROM CodeMapping m " +
            "WHERE m.toSystem.code = :toSystem")
     List<String> findSourceSystemsForTarget(@Param("toSystem") String toSystem);
-}
\ No newline at end of file
+    
+    /**
+     * One row per source code system: code, total rows, current non-deprecated
+     * rows and the latest {@code recordedAt}.
+     */
+    @Query("SELECT fs.code, COUNT(m), " +
+           "SUM(CASE WHEN m.isDeprecated = false AND (m.validTo IS NULL OR m.validTo > CURRENT_DATE) THEN 1 ELSE 0 END), " +
+           "MAX(m.recordedAt) " +
+           "FROM CodeMapping m JOIN m.fromSystem fs GROUP BY fs.code")
+    List<Object[]> summarizeByCodeSystem();
+}
@@ -1,7 +1,11 @@
 package gov.dhs.cbp.reference.core.repository;
 
+import gov.dhs.cbp.reference.core.cache.ReferenceCacheRegions;
 import gov.dhs.cbp.reference.core.entity.CodeSystem;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -10,7 +14,11 @@ import java.util.UUID;
 @Repository
 public interface CodeSystemRepository extends JpaRepository<CodeSystem, UUID> {
     
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = ReferenceCacheRegions.CODE_SYSTEM_QUERIES)
+    })
     Optional<CodeSystem> findByCode(String code);
     
     boolean existsByCode(String code);
-}
\ No newline at end of file
+}
@@ -1,32 +1,56 @@
 package gov.dhs.cbp.reference.core.repository;
 
+import gov.dhs.cbp.reference.core.cache.ReferenceCacheRegions;
 import gov.dhs.cbp.reference.core.entity.CodeSystem;
 import gov.dhs.cbp.reference.core.entity.Country;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface CountryRepository extends BitemporalRepository<Country> {
     
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = ReferenceCacheRegions.COUNTRY_QUERIES)
+    })
     @Query("SELECT c FROM Country c WHERE c.countryCode = :code AND c.codeSystem.id = :systemId " +
-           "AND (c.validTo IS NULL OR c.validTo > CURRENT_DATE) " +
+           "AND (c.validTo IS NULL OR c.validTo > :today) " +
            "ORDER BY c.version DESC")
-    Optional<Country> findCurrentByCodeAndSystem(@Param("code") String code, 
-                                                 @Param("systemId") UUID systemId);
+    Optional<Country> findCurrentByCodeAndSystemOn(@Param("code") String code,
+                                                   @Param("systemId") UUID systemId,
+                                                   @Param("today") LocalDate today);
+    
+    default Optional<Country> findCurrentByCodeAndSystem(String code, UUID systemId) {
+        return findCurrentByCodeAndSystemOn(code, systemId, LocalDate.now());
+    }
     
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = ReferenceCacheRegions.COUNTRY_QUERIES)
+    })
     @Query("SELECT c FROM Country c WHERE c.countryCode = :code AND c.codeSystem.code = :systemCode " +
-           "AND (c.validTo IS NULL OR c.validTo > CURRENT_DATE) " +
+           "AND (c.validTo IS NULL OR c.validTo > :today) " +
            "ORDER BY c.version DESC")
-    Optional<Country> findCurrentByCodeAndSystemCode(@Param("code") String code, 
-                                                     @Param("systemCode") String systemCode);
+    Optional<Country> findCurrentByCodeAndSystemCodeOn(@Param("code") String code,
+                                                       @Param("systemCode") String systemCode,
+                                                       @Param("today") LocalDate today);
+    
+    default Optional<Country> findCurrentByCodeAndSystemCode(String code, String systemCode) {
+        return findCurrentByCodeAndSystemCodeOn(code, systemCode, LocalDate.now());
+    }
     
     @Query("SELECT c FROM Country c WHERE c.codeSystem.code = :systemCode " +
            "AND (c.validTo IS NULL OR c.validTo > CURRENT_DATE) " +
@@ -50,6 +74,20 @@ public interface CountryRepository extends BitemporalRepository<Country> {
                                               @Param("systemCode") String systemCode,
                                               @Param("asOfDate") LocalDate asOfDate);
     
+    @Query("SELECT c FROM Country c JOIN FETCH c.codeSystem cs WHERE c.countryCode IN :codes " +
+           "AND cs.code = :systemCode " +
+           "AND (c.validTo IS NULL OR c.validTo > CURRENT_DATE)")
+    List<Country> findCurrentByCodesAndSystemCode(@Param("codes") Collection<String> codes,
+                                                  @Param("systemCode") String systemCode);
+    
+    @Query("SELECT c FROM Country c JOIN FETCH c.codeSystem cs WHERE c.countryCode IN :codes " +
+           "AND cs.code = :systemCode " +
+           "AND c.validFrom <= :asOfDate " +
+           "AND (c.validTo IS NULL OR c.validTo > :asOfDate)")
+    List<Country> findByCodesAndSystemAsOf(@Param("codes") Collection<String> codes,
+                                           @Param("systemCode") String systemCode,
+                                           @Param("asOfDate") LocalDate asOfDate);
+    
     @Query("SELECT c FROM Country c WHERE " +
            "LOWER(c.countryName) LIKE LOWER(CONCAT('%', :searchTerm, '%')) " +
            "AND (c.validTo IS NULL OR c.validTo > CURRENT_DATE)")
@@ -63,6 +101,16 @@ public interface CountryRepository extends BitemporalRepository<Country> {
            "AND (c.validTo IS NULL OR c.validTo > CURRENT_DATE)")
     long countByIsActiveTrue();
     
+    /**
+     * One row per code system: code, total rows, active rows (as counted by
+     * {@link #countByIsActiveTrue}) and the latest {@code recordedAt}.
+     */
+    @Query("SELECT cs.code, COUNT(c), " +
+           "SUM(CASE WHEN c.isActive = true AND (c.validTo IS NULL OR c.validTo > CURRENT_DATE) THEN 1 ELSE 0 END), " +
+           "MAX(c.recordedAt) " +
+           "FROM Country c JOIN c.codeSystem cs GROUP BY cs.code")
+    List<Object[]> summarizeByCodeSystem();
+    
     @Query("SELECT c FROM Country c ORDER BY c.recordedAt DESC LIMIT 1")
     Optional<Country> findTopByOrderByRecordedAtDesc();
     
@@ -106,4 +154,13 @@ public interface CountryRepository extends BitemporalRepository<Country> {
            "(c.validTo IS NULL OR c.validTo > CURRENT_DATE) " +
            "ORDER BY c.countryCode")
     List<Country> findAllCurrent();
+    
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT c FROM Country c JOIN FETCH c.codeSystem WHERE " +
+           "(c.validTo IS NULL OR c.validTo > CURRENT_DATE) " +
+           "ORDER BY c.countryCode")
+    Stream<Country> streamAllCurrent();
 }
\ No newline at end of file
@@ -0,0 +1,41 @@
+package gov.dhs.cbp.reference.core.repository;
+
+import gov.dhs.cbp.reference.core.entity.DatasetVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface DatasetVersionRepository extends JpaRepository<DatasetVersion, String> {
+    
+    // Used where the database triggers are not installed (e.g. the H2 profile)
+    @Modifying
+    @Query("UPDATE DatasetVersion d SET d.version = d.version + 1, d.updatedAt = CURRENT_TIMESTAMP " +
+           "WHERE d.dataset = :dataset")
+    int bump(@Param("dataset") String dataset);
+    
+    @Modifying
+    @Query("INSERT INTO DatasetVersionHistory (dataset, version, changedAt) " +
+           "SELECT d.dataset, d.version, d.updatedAt FROM DatasetVersion d WHERE d.dataset = :dataset")
+    int recordHistory(@Param("dataset") String dataset);
+    
+    @Query("SELECT d.version FROM DatasetVersion d WHERE d.dataset = :dataset")
+    Optional<Long> findCurrentVersion(@Param("dataset") String dataset);
+    
+    @Query("SELECT h.changedAt FROM DatasetVersionHistory h WHERE h.dataset = :dataset AND h.version = :version")
+    Optional<LocalDateTime> findChangedAt(@Param("dataset") String dataset, @Param("version") Long version);
+    
+    @Query("SELECT MAX(h.version) FROM DatasetVersionHistory h WHERE h.dataset = :dataset AND h.changedAt <= :at")
+    Optional<Long> findLatestVersionAt(@Param("dataset") String dataset, @Param("at") LocalDateTime at);
+    
+    // Keeps each dataset's current version whatever its age
+    @Modifying
+    @Query("DELETE FROM DatasetVersionHistory h WHERE h.changedAt < :before " +
+           "AND h.version < (SELECT d.version FROM DatasetVersion d WHERE d.dataset = h.dataset)")
+    int deleteHistoryBefore(@Param("before") LocalDateTime before);
+}
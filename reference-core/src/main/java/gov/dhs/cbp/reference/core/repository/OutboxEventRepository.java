@@ -4,6 +4,7 @@ import gov.dhs.cbp.reference.core.entity.OutboxEvent;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
@@ -16,4 +17,6 @@ public interface OutboxEventRepository extends JpaRepository<OutboxEvent, UUID>
             OutboxEvent.EventStatus status, int maxRetries);
     
     long countByStatus(OutboxEvent.EventStatus status);
+    
+    List<OutboxEvent> findByCreatedAtAfterOrderByCreatedAtAsc(LocalDateTime createdAfter);
 }
\ No newline at end of file
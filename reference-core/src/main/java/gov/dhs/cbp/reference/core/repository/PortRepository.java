@@ -1,17 +1,23 @@
 package gov.dhs.cbp.reference.core.repository;
 
+import gov.dhs.cbp.reference.core.cache.ReferenceCacheRegions;
 import gov.dhs.cbp.reference.core.entity.Port;
 import gov.dhs.cbp.reference.core.entity.CodeSystem;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface PortRepository extends BitemporalRepository<Port> {
@@ -22,23 +28,64 @@ public interface PortRepository extends BitemporalRepository<Port> {
     Optional<Port> findCurrentByPortCodeAndSystem(@Param("portCode") String portCode, 
                                                   @Param("systemId") UUID systemId);
     
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = ReferenceCacheRegions.PORT_QUERIES)
+    })
     @Query("SELECT p FROM Port p WHERE p.portCode = :portCode AND p.codeSystem.code = :systemCode " +
-           "AND (p.validTo IS NULL OR p.validTo > CURRENT_DATE) " +
+           "AND (p.validTo IS NULL OR p.validTo > :today) " +
            "ORDER BY p.version DESC")
-    Optional<Port> findCurrentByPortCodeAndSystemCode(@Param("portCode") String portCode, 
-                                                      @Param("systemCode") String systemCode);
-    
+    Optional<Port> findCurrentByPortCodeAndSystemCodeOn(@Param("portCode") String portCode,
+                                                        @Param("systemCode") String systemCode,
+                                                        @Param("today") LocalDate today);
+    
+    default Optional<Port> findCurrentByPortCodeAndSystemCode(String portCode, String systemCode) {
+        return findCurrentByPortCodeAndSystemCodeOn(portCode, systemCode, LocalDate.now());
+    }
+    
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = ReferenceCacheRegions.PORT_QUERIES)
+    })
     @Query("SELECT p FROM Port p WHERE p.unLocode = :unLocode AND p.codeSystem.code = :systemCode " +
-           "AND (p.validTo IS NULL OR p.validTo > CURRENT_DATE) " +
+           "AND (p.validTo IS NULL OR p.validTo > :today) " +
            "ORDER BY p.version DESC")
-    Optional<Port> findCurrentByUnLocodeAndSystemCode(@Param("unLocode") String unLocode, 
-                                                      @Param("systemCode") String systemCode);
-    
+    Optional<Port> findCurrentByUnLocodeAndSystemCodeOn(@Param("unLocode") String unLocode,
+                                                        @Param("systemCode") String systemCode,
+                                                        @Param("today") LocalDate today);
+    
+    default Optional<Port> findCurrentByUnLocodeAndSystemCode(String unLocode, String systemCode) {
+        return findCurrentByUnLocodeAndSystemCodeOn(unLocode, systemCode, LocalDate.now());
+    }
+    
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = ReferenceCacheRegions.PORT_QUERIES)
+    })
     @Query("SELECT p FROM Port p WHERE p.cbpPortCode = :cbpPortCode AND p.codeSystem.code = :systemCode " +
-           "AND (p.validTo IS NULL OR p.validTo > CURRENT_DATE) " +
+           "AND (p.validTo IS NULL OR p.validTo > :today) " +
            "ORDER BY p.version DESC")
-    Optional<Port> findCurrentByCbpPortCodeAndSystemCode(@Param("cbpPortCode") String cbpPortCode, 
-                                                         @Param("systemCode") String systemCode);
+    Optional<Port> findCurrentByCbpPortCodeAndSystemCodeOn(@Param("cbpPortCode") String cbpPortCode,
+                                                           @Param("systemCode") String systemCode,
+                                                           @Param("today") LocalDate today);
+    
+    default Optional<Port> findCurrentByCbpPortCodeAndSystemCode(String cbpPortCode, String systemCode) {
+        return findCurrentByCbpPortCodeAndSystemCodeOn(cbpPortCode, systemCode, LocalDate.now());
+    }
+    
+    @Query("SELECT p FROM Port p JOIN FETCH p.codeSystem cs WHERE cs.code = :systemCode " +
+           "AND (p.portCode IN :codes OR p.unLocode IN :codes OR p.cbpPortCode IN :codes) " +
+           "AND (p.validTo IS NULL OR p.validTo > CURRENT_DATE)")
+    List<Port> findCurrentByCodesAndSystemCode(@Param("codes") Collection<String> codes,
+                                               @Param("systemCode") String systemCode);
+    
+    @Query("SELECT p FROM Port p JOIN FETCH p.codeSystem cs WHERE cs.code = :systemCode " +
+           "AND (p.portCode IN :codes OR p.unLocode IN :codes) " +
+           "AND p.validFrom <= :asOfDate " +
+           "AND (p.validTo IS NULL OR p.validTo > :asOfDate)")
+    List<Port> findByCodesAndSystemAsOf(@Param("codes") Collection<String> codes,
+                                        @Param("systemCode") String systemCode,
+                                        @Param("asOfDate") LocalDate asOfDate);
     
     @Query("SELECT p FROM Port p WHERE p.codeSystem.code = :systemCode " +
            "AND (p.validTo IS NULL OR p.validTo > CURRENT_DATE) " +
@@ -98,6 +145,16 @@ public interface PortRepository extends BitemporalRepository<Port> {
            "AND (p.validTo IS NULL OR p.validTo > CURRENT_DATE)")
     long countByIsActiveTrue();
     
+    /**
+     * One row per code system: code, total rows, active rows (as counted by
+     * {@link #countByIsActiveTrue}) and the latest {@code recordedAt}.
+     */
+    @Query("SELECT cs.code, COUNT(p), " +
+           "SUM(CASE WHEN p.isActive = true AND (p.validTo IS NULL OR p.validTo > CURRENT_DATE) THEN 1 ELSE 0 END), " +
+           "MAX(p.recordedAt) " +
+           "FROM Port p JOIN p.codeSystem cs GROUP BY cs.code")
+    List<Object[]> summarizeByCodeSystem();
+    
     @Query("SELECT p FROM Port p ORDER BY p.recordedAt DESC LIMIT 1")
     Optional<Port> findTopByOrderByRecordedAtDesc();
     
@@ -113,6 +170,15 @@ public interface PortRepository extends BitemporalRepository<Port> {
            "AND (p.validTo IS NULL OR p.validTo > CURRENT_DATE)")
     List<Port> findAllActive();
     
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p FROM Port p JOIN FETCH p.codeSystem WHERE p.isActive = true " +
+           "AND (p.validTo IS NULL OR p.validTo > CURRENT_DATE) " +
+           "ORDER BY p.portCode")
+    Stream<Port> streamAllActive();
+    
     @Query("SELECT p FROM Port p WHERE p.codeSystem = :codeSystem " +
            "AND (p.validTo IS NULL OR p.validTo > CURRENT_DATE)")
     Page<Port> findByCodeSystem(@Param("codeSystem") CodeSystem codeSystem, Pageable pageable);
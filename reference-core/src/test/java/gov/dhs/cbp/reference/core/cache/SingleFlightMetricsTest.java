@@ -0,0 +1,29 @@
+package gov.dhs.cbp.reference.core.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SingleFlightMetricsTest {
+
+    @Test
+    void bindTo_RegistersEveryMeterPerFlight() {
+        SingleFlight<String, String> countries = new SingleFlight<>("countries");
+        SingleFlight<String, String> translations = new SingleFlight<>("translations");
+        countries.execute("US", () -> "United States");
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+        new SingleFlightMetrics(List.of(countries, translations)).bindTo(registry);
+
+        assertThat(registry.get("reference.lookup.loads").tag("lookup", "countries").functionCounter().count())
+                .isEqualTo(1.0);
+        for (String lookup : List.of("countries", "translations")) {
+            assertThat(registry.get("reference.lookup.coalesced").tag("lookup", lookup).functionCounter()).isNotNull();
+            assertThat(registry.get("reference.lookup.coalesced.wait").tag("lookup", lookup).functionTimer()).isNotNull();
+            assertThat(registry.get("reference.lookup.in.flight").tag("lookup", lookup).gauge().value()).isZero();
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package gov.dhs.cbp.reference.core.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VersionedValueTest {
+
+    @Test
+    void get_BuildsOncePerKeyAndRebuildsWhenTheKeyChanges() {
+        VersionedValue<String, String> value = new VersionedValue<>("test");
+        AtomicInteger builds = new AtomicInteger();
+
+        assertThat(value.get("v1", () -> "first-" + builds.incrementAndGet())).isEqualTo("first-1");
+        assertThat(value.get("v1", () -> "first-" + builds.incrementAndGet())).isEqualTo("first-1");
+        assertThat(value.get("v2", () -> "second-" + builds.incrementAndGet())).isEqualTo("second-2");
+        assertThat(builds).hasValue(2);
+    }
+}
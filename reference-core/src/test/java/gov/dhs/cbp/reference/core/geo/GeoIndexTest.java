@@ -0,0 +1,98 @@
+package gov.dhs.cbp.reference.core.geo;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class GeoIndexTest {
+
+    private record Point(String name, BigDecimal lat, BigDecimal lon) {
+        Point(String name, double lat, double lon) {
+            this(name, BigDecimal.valueOf(lat), BigDecimal.valueOf(lon));
+        }
+    }
+
+    @Test
+    void nearestOrdersByGreatCircleDistance() {
+        Point newYork = new Point("NYC", 40.6892, -74.0445);
+        Point newark = new Point("EWR", 40.6895, -74.1745);
+        Point losAngeles = new Point("LAX", 33.9425, -118.4081);
+        GeoIndex<Point> index = GeoIndex.build(List.of(losAngeles, newYork, newark), Point::lat, Point::lon);
+
+        List<GeoIndex.Neighbor<Point>> nearest = index.nearest(40.7, -74.0, 2, Double.POSITIVE_INFINITY, null);
+
+        assertThat(nearest).extracting(GeoIndex.Neighbor::item).containsExactly(newYork, newark);
+        assertThat(nearest.get(0).distanceKm()).isCloseTo(3.9, within(0.2));
+    }
+
+    @Test
+    void radiusAndFilterLimitResults() {
+        Point newYork = new Point("NYC", 40.6892, -74.0445);
+        Point newark = new Point("EWR", 40.6895, -74.1745);
+        Point losAngeles = new Point("LAX", 33.9425, -118.4081);
+        GeoIndex<Point> index = GeoIndex.build(List.of(losAngeles, newYork, newark), Point::lat, Point::lon);
+
+        assertThat(index.nearest(40.7, -74.0, 10, 50, null))
+                .extracting(GeoIndex.Neighbor::item).containsExactly(newYork, newark);
+        assertThat(index.nearest(40.7, -74.0, 10, 50, p -> !p.name().equals("NYC")))
+                .extracting(GeoIndex.Neighbor::item).containsExactly(newark);
+    }
+
+    @Test
+    void neighboursAcrossTheAntimeridianAreFound() {
+        Point fiji = new Point("SUV", -18.04, 178.56);
+        Point samoa = new Point("APW", -13.83, -171.99);
+        GeoIndex<Point> index = GeoIndex.build(List.of(fiji, samoa), Point::lat, Point::lon);
+
+        assertThat(index.nearest(-17.0, -179.5, 1, 500, null))
+                .extracting(GeoIndex.Neighbor::item).containsExactly(fiji);
+    }
+
+    @Test
+    void itemsWithoutCoordinatesAreSkipped() {
+        Point unknown = new Point("UNK", null, null);
+        Point newYork = new Point("NYC", 40.6892, -74.0445);
+
+        GeoIndex<Point> index = GeoIndex.build(List.of(unknown, newYork), Point::lat, Point::lon);
+
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    void matchesBruteForceOnRandomPoints() {
+        Random random = new Random(42);
+        List<Point> points = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            points.add(new Point("P" + i, random.nextDouble() * 180 - 90, random.nextDouble() * 360 - 180));
+        }
+        GeoIndex<Point> index = GeoIndex.build(points, Point::lat, Point::lon);
+
+        for (int q = 0; q < 200; q++) {
+            double lat = random.nextDouble() * 180 - 90;
+            double lon = random.nextDouble() * 360 - 180;
+            double radius = q % 2 == 0 ? Double.POSITIVE_INFINITY : 1000;
+
+            List<Double> expected = points.stream()
+                    .map(p -> GeoIndex.distanceKm(lat, lon, p.lat().doubleValue(), p.lon().doubleValue()))
+                    .filter(d -> d <= radius)
+                    .sorted(Comparator.naturalOrder())
+                    .limit(5)
+                    .toList();
+            List<Double> actual = index.nearest(lat, lon, 5, radius, null).stream()
+                    .map(GeoIndex.Neighbor::distanceKm)
+                    .toList();
+
+            assertThat(actual).hasSameSizeAs(expected);
+            for (int i = 0; i < expected.size(); i++) {
+                assertThat(actual.get(i)).isCloseTo(expected.get(i), within(1e-6));
+            }
+        }
+    }
+}
@@ -267,6 +267,7 @@ public class GencLoader extends AbstractLoader<GencData, Country, GencEntityStag
         metadata.put("parentCode", stagingEntity.getParentCode());
         metadata.put("localShortName", stagingEntity.getLocalShortName());
         metadata.put("localLongName", stagingEntity.getLocalLongName());
+        metadata.put("fullName", stagingEntity.getFullName());
         
         return metadata;
     }
@@ -0,0 +1,22 @@
+package gov.dhs.cbp.reference.translation.config;
+
+import gov.dhs.cbp.reference.core.cache.SingleFlightMetrics;
+import gov.dhs.cbp.reference.translation.service.TranslationService;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+/**
+ * Exposes translation single-flight counters to whichever meter registry the
+ * hosting application provides. The binder is inert when there is none.
+ */
+@Configuration
+public class TranslationMetricsConfig {
+
+    @Bean
+    public MeterBinder translationCoalescingMetrics(TranslationService translationService) {
+        return new SingleFlightMetrics(List.of(translationService.getTranslationFlight()));
+    }
+}
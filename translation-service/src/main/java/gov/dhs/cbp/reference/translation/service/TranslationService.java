@@ -1,5 +1,6 @@
 package gov.dhs.cbp.reference.translation.service;
 
+import gov.dhs.cbp.reference.core.cache.SingleFlight;
 import gov.dhs.cbp.reference.core.entity.CodeMapping;
 import gov.dhs.cbp.reference.core.entity.CodeSystem;
 import gov.dhs.cbp.reference.core.repository.CodeMappingRepository;
@@ -24,6 +25,7 @@ public class TranslationService {
     
     private final CodeMappingRepository codeMappingRepository;
     private final CodeSystemRepository codeSystemRepository;
+    private final SingleFlight<String, TranslationResponse> translations = new SingleFlight<>("translation");
     
     public TranslationService(CodeMappingRepository codeMappingRepository,
                               CodeSystemRepository codeSystemRepository) {
@@ -35,6 +37,20 @@ public class TranslationService {
                                         String toSystem, LocalDate asOf) {
         logger.debug("Translating {} {} to {} as of {}", fromSystem, fromCode, toSystem, asOf);
         
+        String key = fromSystem + "|" + fromCode + "|" + toSystem + "|" + (asOf != null ? asOf : "");
+        return translations.execute(key, () -> loadTranslation(fromSystem, fromCode, toSystem, asOf));
+    }
+    
+    /**
+     * Coalesces concurrent identical translations so a miss storm on a popular
+     * key costs one mapping query.
+     */
+    public SingleFlight<String, TranslationResponse> getTranslationFlight() {
+        return translations;
+    }
+    
+    private TranslationResponse loadTranslation(String fromSystem, String fromCode, 
+                                                String toSystem, LocalDate asOf) {
         List<CodeMapping> mappings;
         if (asOf != null) {
             mappings = codeMappingRepository.findMappingAsOf(fromSystem, fromCode, toSystem, asOf);